@@ -4,19 +4,32 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 
+import java.util.List;
 import java.util.Map;
 
 @FeignClient(name = "patient-service", path = "/patients")
 public interface PatientServiceClient {
 
+    // Límite de ids por llamada a /patients/batch
+    int MAX_BATCH_IDS = 1000;
+
     @GetMapping("/{id}")
     ResponseEntity<Map<String, Object>> getPatientById(
             @PathVariable("id") Long id,
             @RequestHeader("Authorization") String authorization
     );
 
+    // id, nombre, especie y cliente de varios pacientes en una sola consulta
+    @PostMapping("/batch")
+    ResponseEntity<Map<String, Object>> getPatientsByIds(
+            @RequestBody List<Long> ids,
+            @RequestHeader("Authorization") String authorization
+    );
+
     @GetMapping("/health")
     ResponseEntity<String> getPatientServiceHealth();
 }
\ No newline at end of file
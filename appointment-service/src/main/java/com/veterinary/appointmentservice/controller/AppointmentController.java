@@ -2,6 +2,7 @@ package com.veterinary.appointmentservice.controller;
 
 import com.veterinary.appointmentservice.dto.*;
 import com.veterinary.appointmentservice.entity.Appointment;
+import com.veterinary.appointmentservice.service.AppointmentChangeFeed;
 import com.veterinary.appointmentservice.service.AppointmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,6 +16,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/appointments")
@@ -25,6 +27,9 @@ public class AppointmentController {
     @Autowired
     private AppointmentService appointmentService;
 
+    @Autowired
+    private AppointmentChangeFeed appointmentChangeFeed;
+
     @PostMapping
     @Operation(summary = "Create a new appointment")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -86,6 +91,25 @@ public class AppointmentController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Get appointments with cursor (keyset) pagination")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<AppointmentResponse> getAppointmentsByCursor(
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Sort field")
+            @RequestParam(defaultValue = "appointmentDate") String sortBy,
+            @Parameter(description = "Sort direction")
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "Skip the total element count")
+            @RequestParam(defaultValue = "false") boolean skipCount,
+            @RequestHeader("Authorization") String authHeader) {
+        AppointmentResponse response = appointmentService.getAppointmentsByCursor(cursor, size, sortBy, sortDir, skipCount, authHeader);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/patient/{patientId}")
     @Operation(summary = "Get appointments by patient ID")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -158,6 +182,78 @@ public class AppointmentController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/aggregate")
+    @Operation(summary = "Count appointments grouped by status, type, veterinarian or day")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<AppointmentResponse> getAppointmentAggregates(
+            @Parameter(description = "Grouping: status, type, veterinarian or day")
+            @RequestParam String groupBy,
+            @Parameter(description = "First appointment date included")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last appointment date included")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        AppointmentResponse response = appointmentService.getAppointmentAggregates(groupBy, startDate, endDate);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/types")
+    @Operation(summary = "List appointment types with their tariff")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<AppointmentResponse> getAppointmentTypes() {
+        AppointmentResponse response = appointmentService.getAppointmentTypes();
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/charges")
+    @Operation(summary = "Count appointments grouped by day, appointment type and veterinarian")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AppointmentResponse> getAppointmentCharges(
+            @Parameter(description = "First appointment date included")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last appointment date included")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        AppointmentResponse response = appointmentService.getAppointmentCharges(startDate, endDate);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/summary/patients")
+    @Operation(summary = "Appointment count and last appointment date for several patients")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<AppointmentResponse> summarizeByPatients(@RequestBody List<Long> patientIds) {
+        AppointmentResponse response = appointmentService.summarizeByPatients(patientIds);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Appointments created or modified after a change version")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('REPORT_SYNC')")
+    public ResponseEntity<AppointmentResponse> getChanges(
+            @Parameter(description = "Last change version already processed")
+            @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes")
+            @RequestParam(defaultValue = "500") int limit) {
+        AppointmentResponse response = appointmentChangeFeed.getChanges(since, limit);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/available-slots")
+    @Operation(summary = "Find free appointment slots")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<AppointmentResponse> getAvailableSlots(
+            @Parameter(description = "Slot duration in minutes")
+            @RequestParam(defaultValue = "30") int duration,
+            @Parameter(description = "First date to search (defaults to today)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last date to search (defaults to six days after the first)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Restrict to one veterinarian")
+            @RequestParam(required = false) Long veterinarianId,
+            @Parameter(description = "Maximum number of slots")
+            @RequestParam(defaultValue = "20") int limit) {
+        AppointmentResponse response = appointmentService.getAvailableSlots(duration, from, to, veterinarianId, limit);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/search")
     @Operation(summary = "Search appointments")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -0,0 +1,37 @@
+package com.veterinary.appointmentservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "One bucket of an appointment aggregate")
+public class AggregateBucketDTO {
+
+    @Schema(description = "Bucket key: status name, veterinarian ID or ISO date", example = "SCHEDULED")
+    private String key;
+
+    @Schema(description = "Number of appointments in the bucket", example = "42")
+    private Long count;
+
+    public AggregateBucketDTO() {}
+
+    public AggregateBucketDTO(String key, Long count) {
+        this.key = key;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,63 @@
+package com.veterinary.appointmentservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+@Schema(description = "Number of appointments of one day, appointment type and veterinarian")
+public class AppointmentChargeDTO {
+
+    @Schema(description = "Appointment date", example = "2024-03-05")
+    private LocalDate appointmentDate;
+
+    @Schema(description = "Appointment type ID; null for appointments without a type", example = "1")
+    private Long appointmentTypeId;
+
+    @Schema(description = "Veterinarian ID", example = "2")
+    private Long veterinarianId;
+
+    @Schema(description = "Number of appointments", example = "4")
+    private Long count;
+
+    public AppointmentChargeDTO() {}
+
+    public AppointmentChargeDTO(LocalDate appointmentDate, Long appointmentTypeId, Long veterinarianId, Long count) {
+        this.appointmentDate = appointmentDate;
+        this.appointmentTypeId = appointmentTypeId;
+        this.veterinarianId = veterinarianId;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public LocalDate getAppointmentDate() {
+        return appointmentDate;
+    }
+
+    public void setAppointmentDate(LocalDate appointmentDate) {
+        this.appointmentDate = appointmentDate;
+    }
+
+    public Long getAppointmentTypeId() {
+        return appointmentTypeId;
+    }
+
+    public void setAppointmentTypeId(Long appointmentTypeId) {
+        this.appointmentTypeId = appointmentTypeId;
+    }
+
+    public Long getVeterinarianId() {
+        return veterinarianId;
+    }
+
+    public void setVeterinarianId(Long veterinarianId) {
+        this.veterinarianId = veterinarianId;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+}
@@ -26,6 +26,9 @@ public class AppointmentDTO {
     @Schema(description = "Veterinarian name", example = "Dr. Smith")
     private String veterinarianName; // Filled from user service
 
+    @Schema(description = "Appointment type ID", example = "1")
+    private Long appointmentTypeId;
+
     @Schema(description = "Appointment date", example = "2024-06-15")
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate appointmentDate;
@@ -80,6 +83,7 @@ public class AppointmentDTO {
         this.id = appointment.getId();
         this.patientId = appointment.getPatientId();
         this.veterinarianId = appointment.getVeterinarianId();
+        this.appointmentTypeId = appointment.getAppointmentTypeId();
         this.appointmentDate = appointment.getAppointmentDate();
         this.appointmentTime = appointment.getAppointmentTime();
         this.reason = appointment.getReason();
@@ -137,6 +141,14 @@ public class AppointmentDTO {
         this.veterinarianName = veterinarianName;
     }
 
+    public Long getAppointmentTypeId() {
+        return appointmentTypeId;
+    }
+
+    public void setAppointmentTypeId(Long appointmentTypeId) {
+        this.appointmentTypeId = appointmentTypeId;
+    }
+
     public LocalDate getAppointmentDate() {
         return appointmentDate;
     }
@@ -0,0 +1,76 @@
+package com.veterinary.appointmentservice.dto;
+
+import com.veterinary.appointmentservice.entity.AppointmentType;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+@Schema(description = "Appointment type with its tariff")
+public class AppointmentTypeDTO {
+
+    @Schema(description = "Appointment type ID", example = "1")
+    private Long id;
+
+    @Schema(description = "Appointment type name", example = "Consulta General")
+    private String name;
+
+    @Schema(description = "Default duration in minutes", example = "30")
+    private Integer durationMinutes;
+
+    @Schema(description = "Base price charged for the appointment", example = "45.00")
+    private BigDecimal basePrice;
+
+    @Schema(description = "Whether new appointments may use this type", example = "true")
+    private Boolean isActive;
+
+    public AppointmentTypeDTO() {}
+
+    public AppointmentTypeDTO(AppointmentType type) {
+        this.id = type.getId();
+        this.name = type.getName();
+        this.durationMinutes = type.getDurationMinutes();
+        this.basePrice = type.getBasePrice();
+        this.isActive = type.getIsActive();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public BigDecimal getBasePrice() {
+        return basePrice;
+    }
+
+    public void setBasePrice(BigDecimal basePrice) {
+        this.basePrice = basePrice;
+    }
+
+    public Boolean getIsActive() {
+        return isActive;
+    }
+
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+}
@@ -0,0 +1,68 @@
+package com.veterinary.appointmentservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Schema(description = "Free slot in a veterinarian's schedule")
+public class AvailableSlotDTO {
+
+    @Schema(description = "Veterinarian ID", example = "1")
+    private Long veterinarianId;
+
+    @Schema(description = "Slot date", example = "2024-06-15")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+
+    @Schema(description = "Slot start time", example = "10:30")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime startTime;
+
+    @Schema(description = "Slot end time", example = "11:00")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime endTime;
+
+    public AvailableSlotDTO() {}
+
+    public AvailableSlotDTO(Long veterinarianId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        this.veterinarianId = veterinarianId;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    // Getters and Setters
+    public Long getVeterinarianId() {
+        return veterinarianId;
+    }
+
+    public void setVeterinarianId(Long veterinarianId) {
+        this.veterinarianId = veterinarianId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+}
@@ -20,6 +20,10 @@ public class CreateAppointmentRequest {
     @Schema(description = "Veterinarian ID", example = "1", required = true)
     private Long veterinarianId;
 
+    @Positive(message = "Appointment type ID must be a positive number")
+    @Schema(description = "Appointment type ID; sets the tariff of the appointment", example = "1")
+    private Long appointmentTypeId;
+
     @NotNull(message = "Appointment date is required")
     // @Future(message = "Appointment date must be in the future") // TEMPORALMENTE COMENTADO PARA PRUEBAS
     @Schema(description = "Appointment date", example = "2024-06-15", required = true)
@@ -73,6 +77,14 @@ public class CreateAppointmentRequest {
         this.veterinarianId = veterinarianId;
     }
 
+    public Long getAppointmentTypeId() {
+        return appointmentTypeId;
+    }
+
+    public void setAppointmentTypeId(Long appointmentTypeId) {
+        this.appointmentTypeId = appointmentTypeId;
+    }
+
     public LocalDate getAppointmentDate() {
         return appointmentDate;
     }
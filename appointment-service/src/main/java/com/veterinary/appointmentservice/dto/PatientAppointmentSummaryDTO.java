@@ -0,0 +1,51 @@
+package com.veterinary.appointmentservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+@Schema(description = "Appointment count and last appointment date of one patient")
+public class PatientAppointmentSummaryDTO {
+
+    @Schema(description = "Patient ID", example = "1")
+    private Long patientId;
+
+    @Schema(description = "Number of appointments of the patient", example = "7")
+    private Long totalAppointments;
+
+    @Schema(description = "Date of the patient's latest appointment", example = "2024-03-05")
+    private LocalDate lastVisitDate;
+
+    public PatientAppointmentSummaryDTO() {}
+
+    public PatientAppointmentSummaryDTO(Long patientId, Long totalAppointments, LocalDate lastVisitDate) {
+        this.patientId = patientId;
+        this.totalAppointments = totalAppointments;
+        this.lastVisitDate = lastVisitDate;
+    }
+
+    // Getters and Setters
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public Long getTotalAppointments() {
+        return totalAppointments;
+    }
+
+    public void setTotalAppointments(Long totalAppointments) {
+        this.totalAppointments = totalAppointments;
+    }
+
+    public LocalDate getLastVisitDate() {
+        return lastVisitDate;
+    }
+
+    public void setLastVisitDate(LocalDate lastVisitDate) {
+        this.lastVisitDate = lastVisitDate;
+    }
+}
@@ -15,6 +15,10 @@ public class UpdateAppointmentRequest {
     @Schema(description = "Veterinarian ID", example = "1")
     private Long veterinarianId;
 
+    @Positive(message = "Appointment type ID must be a positive number")
+    @Schema(description = "Appointment type ID; sets the tariff of the appointment", example = "1")
+    private Long appointmentTypeId;
+
     @Schema(description = "Appointment date", example = "2024-06-15")
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate appointmentDate;
@@ -50,6 +54,14 @@ public class UpdateAppointmentRequest {
         this.veterinarianId = veterinarianId;
     }
 
+    public Long getAppointmentTypeId() {
+        return appointmentTypeId;
+    }
+
+    public void setAppointmentTypeId(Long appointmentTypeId) {
+        this.appointmentTypeId = appointmentTypeId;
+    }
+
     public LocalDate getAppointmentDate() {
         return appointmentDate;
     }
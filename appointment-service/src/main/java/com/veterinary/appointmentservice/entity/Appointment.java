@@ -1,5 +1,6 @@
 package com.veterinary.appointmentservice.entity;
 
+import com.veterinary.clinic.common.changes.ChangeVersion;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -26,6 +27,10 @@ public class Appointment {
     @Column(name = "veterinarian_id", nullable = false)
     private Long veterinarianId;
 
+    // Tarifa de appointment_types; nulo en citas creadas antes de existir la columna
+    @Column(name = "appointment_type_id")
+    private Long appointmentTypeId;
+
     @NotNull(message = "Appointment date is required")
     @Column(name = "appointment_date", nullable = false)
     private LocalDate appointmentDate;
@@ -61,6 +66,10 @@ public class Appointment {
     @Column(name = "updated_by")
     private String updatedBy;
 
+    // Versión para el feed de cambios que consume report-service
+    @Column(name = "row_version")
+    private Long rowVersion;
+
     public enum Status {
         SCHEDULED, CONFIRMED, IN_PROGRESS, COMPLETED, CANCELLED, NO_SHOW
     }
@@ -69,11 +78,13 @@ public class Appointment {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        rowVersion = ChangeVersion.next();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        rowVersion = ChangeVersion.next();
     }
 
     // Constructors
@@ -112,6 +123,14 @@ public class Appointment {
         this.veterinarianId = veterinarianId;
     }
 
+    public Long getAppointmentTypeId() {
+        return appointmentTypeId;
+    }
+
+    public void setAppointmentTypeId(Long appointmentTypeId) {
+        this.appointmentTypeId = appointmentTypeId;
+    }
+
     public LocalDate getAppointmentDate() {
         return appointmentDate;
     }
@@ -192,6 +211,14 @@ public class Appointment {
         this.updatedBy = updatedBy;
     }
 
+    public Long getRowVersion() {
+        return rowVersion;
+    }
+
+    public void setRowVersion(Long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
+
     // Helper methods
     public LocalDateTime getAppointmentDateTime() {
         return LocalDateTime.of(appointmentDate, appointmentTime);
@@ -0,0 +1,63 @@
+package com.veterinary.appointmentservice.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contador de citas mantenido en la misma transacción que cada cambio de estado.
+ * Claves: "status:ESTADO" por estado y "date:yyyy-MM-dd" por día de cita.
+ */
+@Entity
+@Table(name = "appointment_counters")
+public class AppointmentCounter {
+
+    @Id
+    @Column(name = "counter_key", length = 40)
+    private String counterKey;
+
+    @Column(name = "counter_value", nullable = false)
+    private Long counterValue = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public AppointmentCounter() {}
+
+    public AppointmentCounter(String counterKey, Long counterValue) {
+        this.counterKey = counterKey;
+        this.counterValue = counterValue;
+    }
+
+    // Getters and Setters
+    public String getCounterKey() {
+        return counterKey;
+    }
+
+    public void setCounterKey(String counterKey) {
+        this.counterKey = counterKey;
+    }
+
+    public Long getCounterValue() {
+        return counterValue;
+    }
+
+    public void setCounterValue(Long counterValue) {
+        this.counterValue = counterValue;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,155 @@
+package com.veterinary.appointmentservice.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "schedule_blocks")
+public class ScheduleBlock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Nulo cuando el bloqueo afecta a toda la clínica
+    @Column(name = "veterinarian_id")
+    private Long veterinarianId;
+
+    @Column(name = "start_datetime", nullable = false)
+    private LocalDateTime startDatetime;
+
+    @Column(name = "end_datetime", nullable = false)
+    private LocalDateTime endDatetime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "block_type", nullable = false)
+    private BlockType blockType;
+
+    @Column(name = "title")
+    private String title;
+
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "is_recurring")
+    private Boolean isRecurring = false;
+
+    // DAILY, WEEKDAYS o WEEKLY; repite la franja horaria del bloqueo desde su fecha de inicio
+    @Column(name = "recurrence_pattern", length = 100)
+    private String recurrencePattern;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public enum BlockType {
+        VACATION, SICK_LEAVE, TRAINING, MEETING, PERSONAL, EMERGENCY
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public ScheduleBlock() {}
+
+    public ScheduleBlock(Long veterinarianId, LocalDateTime startDatetime, LocalDateTime endDatetime, BlockType blockType) {
+        this.veterinarianId = veterinarianId;
+        this.startDatetime = startDatetime;
+        this.endDatetime = endDatetime;
+        this.blockType = blockType;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVeterinarianId() {
+        return veterinarianId;
+    }
+
+    public void setVeterinarianId(Long veterinarianId) {
+        this.veterinarianId = veterinarianId;
+    }
+
+    public LocalDateTime getStartDatetime() {
+        return startDatetime;
+    }
+
+    public void setStartDatetime(LocalDateTime startDatetime) {
+        this.startDatetime = startDatetime;
+    }
+
+    public LocalDateTime getEndDatetime() {
+        return endDatetime;
+    }
+
+    public void setEndDatetime(LocalDateTime endDatetime) {
+        this.endDatetime = endDatetime;
+    }
+
+    public BlockType getBlockType() {
+        return blockType;
+    }
+
+    public void setBlockType(BlockType blockType) {
+        this.blockType = blockType;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Boolean getIsRecurring() {
+        return isRecurring;
+    }
+
+    public void setIsRecurring(Boolean isRecurring) {
+        this.isRecurring = isRecurring;
+    }
+
+    public String getRecurrencePattern() {
+        return recurrencePattern;
+    }
+
+    public void setRecurrencePattern(String recurrencePattern) {
+        this.recurrencePattern = recurrencePattern;
+    }
+
+    public Long getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(Long createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,150 @@
+package com.veterinary.appointmentservice.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Entity
+@Table(name = "veterinarian_availability")
+public class VeterinarianAvailability {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "veterinarian_id", nullable = false)
+    private Long veterinarianId;
+
+    @Column(name = "date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalTime endTime;
+
+    @Column(name = "is_available")
+    private Boolean isAvailable = true;
+
+    @Column(name = "break_start_time")
+    private LocalTime breakStartTime;
+
+    @Column(name = "break_end_time")
+    private LocalTime breakEndTime;
+
+    @Column(name = "max_appointments")
+    private Integer maxAppointments = 16;
+
+    @Column(name = "notes", columnDefinition = "TEXT")
+    private String notes;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public VeterinarianAvailability() {}
+
+    public VeterinarianAvailability(Long veterinarianId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        this.veterinarianId = veterinarianId;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVeterinarianId() {
+        return veterinarianId;
+    }
+
+    public void setVeterinarianId(Long veterinarianId) {
+        this.veterinarianId = veterinarianId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public Boolean getIsAvailable() {
+        return isAvailable;
+    }
+
+    public void setIsAvailable(Boolean isAvailable) {
+        this.isAvailable = isAvailable;
+    }
+
+    public LocalTime getBreakStartTime() {
+        return breakStartTime;
+    }
+
+    public void setBreakStartTime(LocalTime breakStartTime) {
+        this.breakStartTime = breakStartTime;
+    }
+
+    public LocalTime getBreakEndTime() {
+        return breakEndTime;
+    }
+
+    public void setBreakEndTime(LocalTime breakEndTime) {
+        this.breakEndTime = breakEndTime;
+    }
+
+    public Integer getMaxAppointments() {
+        return maxAppointments;
+    }
+
+    public void setMaxAppointments(Integer maxAppointments) {
+        this.maxAppointments = maxAppointments;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,28 @@
+package com.veterinary.appointmentservice.repository;
+
+import com.veterinary.appointmentservice.entity.AppointmentCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AppointmentCounterRepository extends JpaRepository<AppointmentCounter, String> {
+
+    // Suma atómica: crea la fila si no existe, sin leerla antes
+    @Modifying
+    @Query(value = "INSERT INTO appointment_counters (counter_key, counter_value, updated_at) " +
+            "VALUES (:counterKey, :delta, NOW()) " +
+            "ON DUPLICATE KEY UPDATE counter_value = counter_value + :delta, updated_at = NOW()",
+            nativeQuery = true)
+    int increment(@Param("counterKey") String counterKey, @Param("delta") long delta);
+
+    List<AppointmentCounter> findByCounterKeyStartingWith(String prefix);
+
+    @Modifying
+    @Query("DELETE FROM AppointmentCounter c WHERE c.counterKey LIKE 'date:%' AND c.counterKey < :oldestKey")
+    int deleteDateCountersBefore(@Param("oldestKey") String oldestKey);
+}
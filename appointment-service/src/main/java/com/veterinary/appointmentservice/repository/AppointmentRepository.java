@@ -1,7 +1,9 @@
 package com.veterinary.appointmentservice.repository;
 
 import com.veterinary.appointmentservice.entity.Appointment;
-import org.springframework.data.jpa.repository.JpaRepository;
+import com.veterinary.clinic.common.changes.VersionedRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -9,10 +11,11 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends VersionedRepository<Appointment, Long>, JpaSpecificationExecutor<Appointment> {
 
     // Búsqueda por paciente
     List<Appointment> findByPatientIdOrderByAppointmentDateDescAppointmentTimeDesc(Long patientId);
@@ -44,6 +47,15 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
             @Param("endTime") LocalTime endTime
     );
 
+    // Resumen por veterinario y día para detectar divergencias del índice de agenda
+    @Query("SELECT a.veterinarianId, a.appointmentDate, COUNT(a), MAX(a.updatedAt) FROM Appointment a " +
+            "WHERE a.appointmentDate >= :fromDate AND a.status NOT IN :excludedStatuses " +
+            "GROUP BY a.veterinarianId, a.appointmentDate")
+    List<Object[]> getScheduleFingerprints(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("excludedStatuses") Collection<Appointment.Status> excludedStatuses
+    );
+
     // Citas por rango de fechas
     @Query("SELECT a FROM Appointment a WHERE a.appointmentDate BETWEEN :startDate AND :endDate " +
             "ORDER BY a.appointmentDate, a.appointmentTime")
@@ -92,6 +104,49 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     );
 
     // Estadísticas
+    // Agregados de una sola pasada para reconciliar appointment_counters
+    @Query("SELECT a.status, COUNT(a) FROM Appointment a GROUP BY a.status")
+    List<Object[]> countGroupByStatus();
+
+    @Query("SELECT a.appointmentDate, COUNT(a) FROM Appointment a " +
+            "WHERE a.appointmentDate >= :fromDate GROUP BY a.appointmentDate")
+    List<Object[]> countGroupByAppointmentDateFrom(@Param("fromDate") LocalDate fromDate);
+
+    // Agregados para report-service, calculados en SQL en vez de descargar la tabla
+    @Query("SELECT a.status, COUNT(a) FROM Appointment a " +
+            "WHERE (:startDate IS NULL OR a.appointmentDate >= :startDate) " +
+            "AND (:endDate IS NULL OR a.appointmentDate <= :endDate) GROUP BY a.status")
+    List<Object[]> aggregateByStatus(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT a.veterinarianId, COUNT(a) FROM Appointment a " +
+            "WHERE (:startDate IS NULL OR a.appointmentDate >= :startDate) " +
+            "AND (:endDate IS NULL OR a.appointmentDate <= :endDate) GROUP BY a.veterinarianId")
+    List<Object[]> aggregateByVeterinarian(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Las citas anteriores a la tarifa no tienen tipo y forman su propio grupo
+    @Query("SELECT a.appointmentTypeId, COUNT(a) FROM Appointment a " +
+            "WHERE (:startDate IS NULL OR a.appointmentDate >= :startDate) " +
+            "AND (:endDate IS NULL OR a.appointmentDate <= :endDate) GROUP BY a.appointmentTypeId")
+    List<Object[]> aggregateByType(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT a.appointmentDate, COUNT(a) FROM Appointment a " +
+            "WHERE (:startDate IS NULL OR a.appointmentDate >= :startDate) " +
+            "AND (:endDate IS NULL OR a.appointmentDate <= :endDate) GROUP BY a.appointmentDate")
+    List<Object[]> aggregateByDay(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Citas por día, tipo y veterinario: report-service les aplica la tarifa de cada tipo.
+    // Las canceladas y las no presentadas no se cobran
+    @Query("SELECT a.appointmentDate, a.appointmentTypeId, a.veterinarianId, COUNT(a) FROM Appointment a " +
+            "WHERE a.appointmentDate BETWEEN :startDate AND :endDate " +
+            "AND a.status NOT IN ('CANCELLED', 'NO_SHOW') " +
+            "GROUP BY a.appointmentDate, a.appointmentTypeId, a.veterinarianId")
+    List<Object[]> aggregateCharges(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Citas y última fecha de cada paciente, para el reporte de pacientes de report-service
+    @Query("SELECT a.patientId, COUNT(a), MAX(a.appointmentDate) FROM Appointment a " +
+            "WHERE a.patientId IN :patientIds GROUP BY a.patientId")
+    List<Object[]> summarizeByPatients(@Param("patientIds") Collection<Long> patientIds);
+
     @Query("SELECT COUNT(a) FROM Appointment a WHERE a.status = :status")
     Long countByStatus(@Param("status") Appointment.Status status);
 
@@ -106,5 +161,5 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Query("SELECT a FROM Appointment a WHERE LOWER(a.reason) LIKE LOWER(CONCAT('%', :query, '%')) " +
             "OR LOWER(a.notes) LIKE LOWER(CONCAT('%', :query, '%')) " +
             "ORDER BY a.appointmentDate DESC, a.appointmentTime DESC")
-    List<Appointment> searchAppointments(@Param("query") String query);
-}
\ No newline at end of file
+    List<Appointment> searchAppointments(@Param("query") String query, Pageable pageable);
+}
@@ -0,0 +1,13 @@
+package com.veterinary.appointmentservice.repository;
+
+import com.veterinary.appointmentservice.entity.AppointmentType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AppointmentTypeRepository extends JpaRepository<AppointmentType, Long> {
+
+    List<AppointmentType> findAllByOrderByNameAsc();
+}
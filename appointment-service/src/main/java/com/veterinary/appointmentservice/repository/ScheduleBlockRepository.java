@@ -0,0 +1,23 @@
+package com.veterinary.appointmentservice.repository;
+
+import com.veterinary.appointmentservice.entity.ScheduleBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ScheduleBlockRepository extends JpaRepository<ScheduleBlock, Long> {
+
+    // Bloqueos que se solapan con el rango más los recurrentes ya iniciados
+    @Query("SELECT b FROM ScheduleBlock b WHERE " +
+            "(b.startDatetime < :end AND b.endDatetime > :start) " +
+            "OR (b.isRecurring = true AND b.startDatetime < :end)")
+    List<ScheduleBlock> findApplicableBlocks(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+}
@@ -0,0 +1,14 @@
+package com.veterinary.appointmentservice.repository;
+
+import com.veterinary.appointmentservice.entity.VeterinarianAvailability;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface VeterinarianAvailabilityRepository extends JpaRepository<VeterinarianAvailability, Long> {
+
+    List<VeterinarianAvailability> findByDateBetween(LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,66 @@
+package com.veterinary.appointmentservice.service;
+
+import com.veterinary.appointmentservice.dto.AppointmentDTO;
+import com.veterinary.appointmentservice.dto.AppointmentResponse;
+import com.veterinary.appointmentservice.entity.Appointment;
+import com.veterinary.appointmentservice.exception.AppointmentException;
+import com.veterinary.appointmentservice.repository.AppointmentRepository;
+import com.veterinary.clinic.common.changes.ChangeFeed;
+import com.veterinary.clinic.common.changes.ChangeVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feed de cambios de citas por versión de fila. report-service lo consulta
+ * periódicamente con la última versión que procesó y recibe las citas
+ * creadas o modificadas después, en orden de versión.
+ */
+@Service
+public class AppointmentChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentChangeFeed.class);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    // Margen para no servir versiones de transacciones que aún no han hecho commit
+    @Value("${changes.lag-ms:5000}")
+    private long lagMillis = 5000;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillRowVersions() {
+        int updated = appointmentRepository.backfillRowVersions();
+        if (updated > 0) {
+            logger.info("Assigned change versions to {} existing appointments", updated);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public AppointmentResponse getChanges(long since, int limit) {
+        ChangeFeed.checkRequest(since, limit, AppointmentException::new);
+        List<Appointment> rows = appointmentRepository.findChanges(since,
+                ChangeVersion.safeUpperBound(lagMillis), PageRequest.of(0, limit + 1));
+        return new AppointmentResponse("Changes retrieved successfully", ChangeFeed.page(toChanges(rows), since, limit,
+                version -> toChanges(appointmentRepository.findAtVersion(version))));
+    }
+
+    private static List<Map<String, Object>> toChanges(List<Appointment> rows) {
+        List<Map<String, Object>> changes = new ArrayList<>(rows.size());
+        for (Appointment row : rows) {
+            changes.add(ChangeFeed.change(row.getRowVersion(), row.getId(), false, new AppointmentDTO(row)));
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,182 @@
+package com.veterinary.appointmentservice.service;
+
+import com.veterinary.appointmentservice.entity.Appointment;
+import com.veterinary.appointmentservice.entity.AppointmentCounter;
+import com.veterinary.appointmentservice.repository.AppointmentCounterRepository;
+import com.veterinary.appointmentservice.repository.AppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Contadores de citas por estado y por día. Cada alta o cambio de estado
+ * acumula sus incrementos y los aplica al confirmar la reserva, en una
+ * transacción corta y en orden de clave, para que las filas compartidas
+ * (status:SCHEDULED, el día) no se queden bloqueadas durante la reserva ni
+ * se bloqueen en orden distinto. Las estadísticas se leen por clave primaria
+ * en vez de contar la tabla de citas; un job periódico compara los contadores
+ * con un GROUP BY y corrige las diferencias, incluidos los incrementos que se
+ * pierdan si el servicio cae justo después del commit.
+ */
+@Component
+public class AppointmentCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentCounters.class);
+
+    static final String STATUS_PREFIX = "status:";
+    static final String DATE_PREFIX = "date:";
+
+    @Autowired
+    private AppointmentCounterRepository counterRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public void recordCreated(Appointment appointment) {
+        Map<String, Long> deltas = new TreeMap<>();
+        addDelta(deltas, statusKey(appointment.getStatus()), 1);
+        addDelta(deltas, dateKey(appointment.getAppointmentDate()), 1);
+        applyAfterCommit(deltas);
+    }
+
+    public void recordChange(Appointment.Status previousStatus, LocalDate previousDate, Appointment appointment) {
+        Map<String, Long> deltas = new TreeMap<>();
+        if (previousStatus != appointment.getStatus()) {
+            addDelta(deltas, statusKey(previousStatus), -1);
+            addDelta(deltas, statusKey(appointment.getStatus()), 1);
+        }
+        if (!Objects.equals(previousDate, appointment.getAppointmentDate())) {
+            addDelta(deltas, dateKey(previousDate), -1);
+            addDelta(deltas, dateKey(appointment.getAppointmentDate()), 1);
+        }
+        applyAfterCommit(deltas);
+    }
+
+    // Sin estado o sin fecha no hay contador que mover; el job de conciliación lo cuadra
+    private static void addDelta(Map<String, Long> deltas, String key, long delta) {
+        if (key != null) {
+            deltas.merge(key, delta, Long::sum);
+        }
+    }
+
+    private void applyAfterCommit(Map<String, Long> deltas) {
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(deltas);
+                }
+            });
+        } else {
+            apply(deltas);
+        }
+    }
+
+    // Transacción propia: la de la reserva ya ha hecho commit y sus bloqueos están liberados
+    private void apply(Map<String, Long> deltas) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transaction.executeWithoutResult(status -> deltas.forEach(counterRepository::increment));
+        } catch (RuntimeException e) {
+            logger.warn("Could not update appointment counters {}: {}", deltas.keySet(), e.getMessage());
+        }
+    }
+
+    public Map<Appointment.Status, Long> countsByStatus() {
+        List<String> keys = new ArrayList<>();
+        for (Appointment.Status status : Appointment.Status.values()) {
+            keys.add(statusKey(status));
+        }
+        Map<String, Long> values = new HashMap<>();
+        counterRepository.findAllById(keys).forEach(c -> values.put(c.getCounterKey(), c.getCounterValue()));
+
+        Map<Appointment.Status, Long> counts = new LinkedHashMap<>();
+        for (Appointment.Status status : Appointment.Status.values()) {
+            counts.put(status, values.getOrDefault(statusKey(status), 0L));
+        }
+        return counts;
+    }
+
+    public long countByDate(LocalDate date) {
+        return counterRepository.findById(dateKey(date)).map(AppointmentCounter::getCounterValue).orElse(0L);
+    }
+
+    /**
+     * Recalcula los contadores con dos agregados y aplica la diferencia como
+     * incremento, de modo que las reservas que confirman mientras tanto no se
+     * pierden. Contadores y agregados se leen en la misma instantánea.
+     */
+    @Scheduled(fixedDelayString = "${appointments.counters.reconcile-interval-ms:300000}")
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public int reconcile() {
+        LocalDate today = LocalDate.now();
+        Map<String, Long> actual = new HashMap<>();
+        counterRepository.findByCounterKeyStartingWith(STATUS_PREFIX)
+                .forEach(c -> actual.put(c.getCounterKey(), c.getCounterValue()));
+        counterRepository.findByCounterKeyStartingWith(DATE_PREFIX).stream()
+                .filter(c -> c.getCounterKey().compareTo(dateKey(today)) >= 0)
+                .forEach(c -> actual.put(c.getCounterKey(), c.getCounterValue()));
+
+        Map<String, Long> expected = new HashMap<>();
+        for (Object[] row : appointmentRepository.countGroupByStatus()) {
+            addDelta(expected, statusKey((Appointment.Status) row[0]), ((Number) row[1]).longValue());
+        }
+        for (Object[] row : appointmentRepository.countGroupByAppointmentDateFrom(today)) {
+            addDelta(expected, dateKey((LocalDate) row[0]), ((Number) row[1]).longValue());
+        }
+
+        int repaired = 0;
+        // En orden de clave, como los incrementos de las reservas
+        Map<String, Long> all = new TreeMap<>(actual);
+        expected.forEach(all::putIfAbsent);
+        for (String key : all.keySet()) {
+            long drift = expected.getOrDefault(key, 0L) - actual.getOrDefault(key, 0L);
+            if (drift != 0) {
+                counterRepository.increment(key, drift);
+                repaired++;
+            }
+        }
+
+        // Los días pasados ya no se consultan
+        counterRepository.deleteDateCountersBefore(dateKey(today));
+
+        if (repaired > 0) {
+            logger.warn("Appointment counter drift detected, repaired {} counters", repaired);
+        }
+        return repaired;
+    }
+
+    static String statusKey(Appointment.Status status) {
+        return status != null ? STATUS_PREFIX + status.name() : null;
+    }
+
+    static String dateKey(LocalDate date) {
+        return date != null ? DATE_PREFIX + date : null;
+    }
+}
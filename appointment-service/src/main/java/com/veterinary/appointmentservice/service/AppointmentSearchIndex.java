@@ -0,0 +1,108 @@
+package com.veterinary.appointmentservice.service;
+
+import com.veterinary.clinic.common.search.SearchIndex;
+import com.veterinary.appointmentservice.entity.Appointment;
+import com.veterinary.appointmentservice.repository.AppointmentRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Índice de trigramas de la búsqueda de citas por motivo y notas, en
+ * cualquier estado.
+ */
+@Component
+public class AppointmentSearchIndex extends SearchIndex<Appointment> {
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentChangeFeed appointmentChangeFeed;
+
+    @Value("${changes.lag-ms:5000}")
+    private long lagMillis = 5000;
+
+    @Value("${appointments.search.snapshot-path:${java.io.tmpdir}/appointment-search.idx}")
+    private String snapshotPath = System.getProperty("java.io.tmpdir") + "/appointment-search.idx";
+
+    @Value("${appointments.search.max-results:200}")
+    private int maxResults = 200;
+
+    public AppointmentSearchIndex() {
+        super("appointment", 2);
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        super.warmUp();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${appointments.search.sync-interval-ms:30000}",
+            initialDelayString = "${appointments.search.sync-interval-ms:30000}")
+    public void sync() {
+        super.sync();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${appointments.search.snapshot-interval-ms:600000}",
+            initialDelayString = "${appointments.search.snapshot-interval-ms:600000}")
+    @PreDestroy
+    public void saveSnapshot() {
+        super.saveSnapshot();
+    }
+
+    @Override
+    protected List<Appointment> findChanges(long since, long upTo, int limit) {
+        return appointmentRepository.findChanges(since, upTo, PageRequest.of(0, limit));
+    }
+
+    @Override
+    protected List<Appointment> findAtVersion(long version) {
+        return appointmentRepository.findAtVersion(version);
+    }
+
+    @Override
+    protected long rowVersion(Appointment appointment) {
+        return appointment.getRowVersion();
+    }
+
+    @Override
+    protected Long idOf(Appointment appointment) {
+        return appointment.getId();
+    }
+
+    @Override
+    protected String[] fieldsOf(Appointment appointment) {
+        return new String[]{appointment.getReason(), appointment.getNotes()};
+    }
+
+    @Override
+    protected void backfillRowVersions() {
+        appointmentChangeFeed.backfillRowVersions();
+    }
+
+    @Override
+    protected String snapshotPath() {
+        return snapshotPath;
+    }
+
+    @Override
+    protected long lagMillis() {
+        return lagMillis;
+    }
+
+    @Override
+    public int maxResults() {
+        return maxResults;
+    }
+}
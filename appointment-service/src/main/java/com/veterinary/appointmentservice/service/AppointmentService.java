@@ -4,14 +4,23 @@ import com.veterinary.appointmentservice.client.PatientServiceClient;
 import com.veterinary.appointmentservice.client.UserServiceClient;
 import com.veterinary.appointmentservice.dto.*;
 import com.veterinary.appointmentservice.entity.Appointment;
+import com.veterinary.appointmentservice.entity.AppointmentType;
 import com.veterinary.appointmentservice.exception.AppointmentException;
 import com.veterinary.appointmentservice.repository.AppointmentRepository;
+import com.veterinary.appointmentservice.repository.AppointmentTypeRepository;
+import com.veterinary.clinic.common.paging.KeysetCursor;
+import com.veterinary.clinic.resolver.BatchFunction;
+import com.veterinary.clinic.resolver.BatchLoader;
+import com.veterinary.clinic.resolver.RequestResolver;
 import feign.FeignException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,24 +28,49 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.TemporalAdjusters;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class AppointmentService {
 
+    static final int MAX_SUMMARY_PATIENTS = 1000;
+
+    private static final KeysetCursor APPOINTMENT_CURSOR = new KeysetCursor(Appointment.class, Set.of(
+            "id", "appointmentDate", "appointmentTime", "patientId", "veterinarianId", "status", "createdAt", "updatedAt"));
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private AppointmentTypeRepository appointmentTypeRepository;
+
     @Autowired
     private PatientServiceClient patientServiceClient;
 
     @Autowired
     private UserServiceClient userServiceClient;
 
+    @Autowired
+    private ScheduleIndex scheduleIndex;
+
+    @Autowired
+    private BookingCoordinator bookingCoordinator;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private AppointmentCounters appointmentCounters;
+
+    @Autowired
+    private AppointmentSearchIndex appointmentSearchIndex;
+
     public AppointmentResponse createAppointment(CreateAppointmentRequest request, String currentUser, String authHeader) {
         // TEMPORALMENTE COMENTADO PARA PRUEBAS - Validar que el paciente existe
         /*try {
@@ -64,18 +98,13 @@ public class AppointmentService {
             throw new AppointmentException("Error validating veterinarian: " + e.getMessage());
         }*/
 
-        // TEMPORALMENTE COMENTADO PARA PRUEBAS - Validar disponibilidad del veterinario
-        /*LocalTime endTime = request.getAppointmentTime().plusMinutes(request.getDurationMinutes());
-        List<Appointment> conflicts = appointmentRepository.findConflictingAppointments(
-                request.getVeterinarianId(),
-                request.getAppointmentDate(),
-                request.getAppointmentTime(),
-                endTime
-        );
-
-        if (!conflicts.isEmpty()) {
+        // Validar disponibilidad del veterinario contra el índice de agenda,
+        // serializando las reservas sobre la misma agenda hasta el commit
+        bookingCoordinator.lockUntilCompletion(request.getVeterinarianId(), request.getAppointmentDate());
+        if (scheduleIndex.hasConflict(request.getVeterinarianId(), request.getAppointmentDate(),
+                request.getAppointmentTime(), request.getDurationMinutes(), null)) {
             throw new AppointmentException("Veterinarian is not available at the requested time");
-        }*/
+        }
 
         // TEMPORALMENTE COMENTADO PARA PRUEBAS - Validar que la fecha no sea en el pasado
         /*if (request.getAppointmentDate().isBefore(LocalDate.now()) ||
@@ -83,10 +112,15 @@ public class AppointmentService {
             throw new AppointmentException("Appointment date and time must be in the future");
         }*/
 
+        if (request.getAppointmentTypeId() != null) {
+            requireActiveType(request.getAppointmentTypeId());
+        }
+
         // Crear nueva cita
         Appointment appointment = new Appointment();
         appointment.setPatientId(request.getPatientId());
         appointment.setVeterinarianId(request.getVeterinarianId());
+        appointment.setAppointmentTypeId(request.getAppointmentTypeId());
         appointment.setAppointmentDate(request.getAppointmentDate());
         appointment.setAppointmentTime(request.getAppointmentTime());
         appointment.setReason(request.getReason());
@@ -97,6 +131,9 @@ public class AppointmentService {
         appointment.setUpdatedBy(currentUser);
 
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        appointmentCounters.recordCreated(savedAppointment);
+        scheduleIndex.onSaved(savedAppointment);
+        appointmentSearchIndex.onSaved(savedAppointment);
         AppointmentDTO appointmentDTO = new AppointmentDTO(savedAppointment);
 
         // TEMPORALMENTE COMENTADO PARA PRUEBAS - Enriquecer con información del paciente y veterinario
@@ -145,22 +182,22 @@ public class AppointmentService {
             LocalTime appointmentTime = request.getAppointmentTime() != null ? request.getAppointmentTime() : appointment.getAppointmentTime();
             Integer duration = request.getDurationMinutes() != null ? request.getDurationMinutes() : appointment.getDurationMinutes();
 
-            LocalTime endTime = appointmentTime.plusMinutes(duration);
-            List<Appointment> conflicts = appointmentRepository.findConflictingAppointments(
-                    veterinarianId, appointmentDate, appointmentTime, endTime
-            );
+            bookingCoordinator.lockUntilCompletion(appointment.getVeterinarianId(), appointment.getAppointmentDate(),
+                    veterinarianId, appointmentDate);
 
             // Excluir la cita actual de los conflictos
-            conflicts = conflicts.stream()
-                    .filter(a -> !a.getId().equals(appointment.getId()))
-                    .collect(Collectors.toList());
-
-            if (!conflicts.isEmpty()) {
+            if (scheduleIndex.hasConflict(veterinarianId, appointmentDate, appointmentTime, duration, appointment.getId())) {
                 throw new AppointmentException("Veterinarian is not available at the requested time");
             }
         }
 
         // Actualizar campos
+        Appointment.Status previousStatus = appointment.getStatus();
+        LocalDate previousDate = appointment.getAppointmentDate();
+        if (request.getAppointmentTypeId() != null) {
+            requireActiveType(request.getAppointmentTypeId());
+            appointment.setAppointmentTypeId(request.getAppointmentTypeId());
+        }
         if (request.getVeterinarianId() != null) {
             appointment.setVeterinarianId(request.getVeterinarianId());
         }
@@ -185,6 +222,9 @@ public class AppointmentService {
 
         appointment.setUpdatedBy(currentUser);
         Appointment updatedAppointment = appointmentRepository.save(appointment);
+        appointmentCounters.recordChange(previousStatus, previousDate, updatedAppointment);
+        scheduleIndex.onSaved(updatedAppointment);
+        appointmentSearchIndex.onSaved(updatedAppointment);
         AppointmentDTO appointmentDTO = new AppointmentDTO(updatedAppointment);
 
         enrichWithExternalInfo(appointmentDTO, authHeader);
@@ -200,9 +240,13 @@ public class AppointmentService {
             throw new AppointmentException("Cannot cancel completed appointment");
         }
 
+        Appointment.Status previousStatus = appointment.getStatus();
         appointment.setStatus(Appointment.Status.CANCELLED);
         appointment.setUpdatedBy(currentUser);
-        appointmentRepository.save(appointment);
+        Appointment cancelledAppointment = appointmentRepository.save(appointment);
+        appointmentCounters.recordChange(previousStatus, cancelledAppointment.getAppointmentDate(), cancelledAppointment);
+        scheduleIndex.onSaved(cancelledAppointment);
+        appointmentSearchIndex.onSaved(cancelledAppointment);
 
         return new AppointmentResponse("Appointment cancelled successfully");
     }
@@ -220,7 +264,7 @@ public class AppointmentService {
                 .collect(Collectors.toList());
 
         // TEMPORALMENTE COMENTADO PARA PRUEBAS - Enriquecer con información externa
-        // appointments.forEach(dto -> enrichWithExternalInfo(dto, authHeader));
+        // enrichWithExternalInfo(appointments, authHeader);
 
         Map<String, Object> response = new HashMap<>();
         response.put("appointments", appointments);
@@ -232,6 +276,43 @@ public class AppointmentService {
         return new AppointmentResponse("Appointments retrieved successfully", response);
     }
 
+    // Paginación por cursor: cada página cuesta lo mismo, sin OFFSET ni COUNT(*)
+    @Transactional(readOnly = true)
+    public AppointmentResponse getAppointmentsByCursor(String cursor, int size, String sortBy, String sortDir,
+                                                       boolean skipCount, String authHeader) {
+        if (size < 1 || size > 100) {
+            throw new AppointmentException("Page size must be between 1 and 100");
+        }
+        Sort sort;
+        KeysetScrollPosition position;
+        try {
+            sort = APPOINTMENT_CURSOR.sort(sortBy, sortDir);
+            position = APPOINTMENT_CURSOR.decode(cursor, sortBy, sortDir);
+        } catch (IllegalArgumentException e) {
+            throw new AppointmentException(e.getMessage());
+        }
+
+        Window<Appointment> window = appointmentRepository.findBy(Specification.where(null),
+                query -> query.sortBy(sort).limit(size).scroll(position));
+
+        List<AppointmentDTO> appointments = window.getContent().stream()
+                .map(AppointmentDTO::new)
+                .collect(Collectors.toList());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("appointments", appointments);
+        response.put("pageSize", size);
+        response.put("hasNext", window.hasNext());
+        response.put("nextCursor", window.hasNext()
+                ? APPOINTMENT_CURSOR.encode(window.positionAt(window.size() - 1), sortBy, sortDir) : null);
+        if (!skipCount) {
+            response.put("totalElements", appointmentCounters.countsByStatus().values().stream()
+                    .mapToLong(Long::longValue).sum());
+        }
+
+        return new AppointmentResponse("Appointments retrieved successfully", response);
+    }
+
     public AppointmentResponse getAppointmentsByPatient(Long patientId, String authHeader) {
         List<Appointment> appointments = appointmentRepository.findByPatientIdOrderByAppointmentDateDescAppointmentTimeDesc(patientId);
 
@@ -239,7 +320,7 @@ public class AppointmentService {
                 .map(AppointmentDTO::new)
                 .collect(Collectors.toList());
 
-        appointmentDTOs.forEach(dto -> enrichWithExternalInfo(dto, authHeader));
+        enrichWithExternalInfo(appointmentDTOs, authHeader);
 
         return new AppointmentResponse("Appointments found for patient", appointmentDTOs);
     }
@@ -251,7 +332,7 @@ public class AppointmentService {
                 .map(AppointmentDTO::new)
                 .collect(Collectors.toList());
 
-        appointmentDTOs.forEach(dto -> enrichWithExternalInfo(dto, authHeader));
+        enrichWithExternalInfo(appointmentDTOs, authHeader);
 
         return new AppointmentResponse("Appointments found for veterinarian", appointmentDTOs);
     }
@@ -263,7 +344,7 @@ public class AppointmentService {
                 .map(AppointmentDTO::new)
                 .collect(Collectors.toList());
 
-        appointmentDTOs.forEach(dto -> enrichWithExternalInfo(dto, authHeader));
+        enrichWithExternalInfo(appointmentDTOs, authHeader);
 
         return new AppointmentResponse("Appointments found for date", appointmentDTOs);
     }
@@ -275,7 +356,7 @@ public class AppointmentService {
                 .map(AppointmentDTO::new)
                 .collect(Collectors.toList());
 
-        appointmentDTOs.forEach(dto -> enrichWithExternalInfo(dto, authHeader));
+        enrichWithExternalInfo(appointmentDTOs, authHeader);
 
         return new AppointmentResponse("Today's appointments retrieved", appointmentDTOs);
     }
@@ -288,7 +369,7 @@ public class AppointmentService {
                 .map(AppointmentDTO::new)
                 .collect(Collectors.toList());
 
-        appointmentDTOs.forEach(dto -> enrichWithExternalInfo(dto, authHeader));
+        enrichWithExternalInfo(appointmentDTOs, authHeader);
 
         return new AppointmentResponse("Weekly appointments retrieved", appointmentDTOs);
     }
@@ -300,7 +381,7 @@ public class AppointmentService {
                 .map(AppointmentDTO::new)
                 .collect(Collectors.toList());
 
-        appointmentDTOs.forEach(dto -> enrichWithExternalInfo(dto, authHeader));
+        enrichWithExternalInfo(appointmentDTOs, authHeader);
 
         return new AppointmentResponse("Monthly appointments retrieved", appointmentDTOs);
     }
@@ -312,20 +393,23 @@ public class AppointmentService {
                 .map(AppointmentDTO::new)
                 .collect(Collectors.toList());
 
-        appointmentDTOs.forEach(dto -> enrichWithExternalInfo(dto, authHeader));
+        enrichWithExternalInfo(appointmentDTOs, authHeader);
 
         return new AppointmentResponse("Upcoming appointments retrieved", appointmentDTOs);
     }
 
+    @Transactional(readOnly = true)
     public AppointmentResponse getAppointmentStats(String authHeader) {
-        Long totalAppointments = appointmentRepository.count();
-        Long scheduledCount = appointmentRepository.countByStatus(Appointment.Status.SCHEDULED);
-        Long confirmedCount = appointmentRepository.countByStatus(Appointment.Status.CONFIRMED);
-        Long inProgressCount = appointmentRepository.countByStatus(Appointment.Status.IN_PROGRESS);
-        Long completedCount = appointmentRepository.countByStatus(Appointment.Status.COMPLETED);
-        Long cancelledCount = appointmentRepository.countByStatus(Appointment.Status.CANCELLED);
-        Long noShowCount = appointmentRepository.countByStatus(Appointment.Status.NO_SHOW);
-        Long todaysCount = appointmentRepository.countTodaysAppointments();
+        // Contadores mantenidos en cada cambio de estado, sin recorrer la tabla de citas
+        Map<Appointment.Status, Long> counts = appointmentCounters.countsByStatus();
+        Long totalAppointments = counts.values().stream().mapToLong(Long::longValue).sum();
+        Long scheduledCount = counts.get(Appointment.Status.SCHEDULED);
+        Long confirmedCount = counts.get(Appointment.Status.CONFIRMED);
+        Long inProgressCount = counts.get(Appointment.Status.IN_PROGRESS);
+        Long completedCount = counts.get(Appointment.Status.COMPLETED);
+        Long cancelledCount = counts.get(Appointment.Status.CANCELLED);
+        Long noShowCount = counts.get(Appointment.Status.NO_SHOW);
+        Long todaysCount = appointmentCounters.countByDate(LocalDate.now());
 
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalAppointments", totalAppointments);
@@ -340,63 +424,206 @@ public class AppointmentService {
         return new AppointmentResponse("Appointment statistics retrieved", stats);
     }
 
+    // Un resumen por paciente en una sola consulta; los pacientes sin citas no aparecen
+    @Transactional(readOnly = true)
+    public AppointmentResponse summarizeByPatients(List<Long> patientIds) {
+        if (patientIds == null || patientIds.isEmpty()) {
+            throw new AppointmentException("At least one patient id is required");
+        }
+        if (patientIds.size() > MAX_SUMMARY_PATIENTS) {
+            throw new AppointmentException("Cannot summarize more than " + MAX_SUMMARY_PATIENTS + " patients at once");
+        }
+        List<PatientAppointmentSummaryDTO> summaries = appointmentRepository.summarizeByPatients(patientIds).stream()
+                .map(row -> new PatientAppointmentSummaryDTO((Long) row[0], ((Number) row[1]).longValue(), (LocalDate) row[2]))
+                .collect(Collectors.toList());
+        return new AppointmentResponse("Patient appointment summaries retrieved", summaries);
+    }
+
+    @Transactional(readOnly = true)
+    public AppointmentResponse getAppointmentTypes() {
+        List<AppointmentTypeDTO> types = appointmentTypeRepository.findAllByOrderByNameAsc().stream()
+                .map(AppointmentTypeDTO::new)
+                .collect(Collectors.toList());
+        return new AppointmentResponse("Appointment types retrieved", types);
+    }
+
+    // Una fila por día, tipo y veterinario con citas: un rango de varios años no viaja cita a cita
+    @Transactional(readOnly = true)
+    public AppointmentResponse getAppointmentCharges(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new AppointmentException("End date must not be before start date");
+        }
+        List<AppointmentChargeDTO> charges = appointmentRepository.aggregateCharges(startDate, endDate).stream()
+                .map(row -> new AppointmentChargeDTO((LocalDate) row[0], (Long) row[1], (Long) row[2],
+                        ((Number) row[3]).longValue()))
+                .collect(Collectors.toList());
+        return new AppointmentResponse("Appointment charges retrieved", charges);
+    }
+
+    @Transactional(readOnly = true)
+    public AppointmentResponse getAppointmentAggregates(String groupBy, LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null && endDate.isBefore(startDate)) {
+            throw new AppointmentException("End date must not be before start date");
+        }
+        List<Object[]> rows;
+        switch (groupBy.toLowerCase()) {
+            case "status":
+                rows = appointmentRepository.aggregateByStatus(startDate, endDate);
+                break;
+            case "type":
+                rows = appointmentRepository.aggregateByType(startDate, endDate);
+                break;
+            case "veterinarian":
+                rows = appointmentRepository.aggregateByVeterinarian(startDate, endDate);
+                break;
+            case "day":
+                rows = appointmentRepository.aggregateByDay(startDate, endDate);
+                break;
+            default:
+                throw new AppointmentException("groupBy must be one of: status, type, veterinarian, day");
+        }
+
+        // Orden natural de la clave: estados por ordinal, ids numéricos, fechas cronológicas.
+        // Las citas sin tipo van al final, bajo "Unknown"
+        @SuppressWarnings("unchecked")
+        List<AggregateBucketDTO> buckets = rows.stream()
+                .sorted(Comparator.comparing(row -> (Comparable<Object>) row[0],
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(row -> new AggregateBucketDTO(row[0] != null ? row[0].toString() : "Unknown",
+                        ((Number) row[1]).longValue()))
+                .collect(Collectors.toList());
+
+        return new AppointmentResponse("Appointment aggregates retrieved", buckets);
+    }
+
+    @Transactional(readOnly = true)
+    public AppointmentResponse getAvailableSlots(int durationMinutes, LocalDate from, LocalDate to,
+                                                 Long veterinarianId, int limit) {
+        if (durationMinutes < 15 || durationMinutes > 240) {
+            throw new AppointmentException("Duration must be between 15 and 240 minutes");
+        }
+        LocalDate startDate = from != null ? from : LocalDate.now();
+        LocalDate endDate = to != null ? to : startDate.plusDays(6);
+        if (endDate.isBefore(startDate)) {
+            throw new AppointmentException("End date must not be before start date");
+        }
+        if (endDate.isAfter(startDate.plusDays(62))) {
+            throw new AppointmentException("Date range cannot exceed 62 days");
+        }
+        if (limit < 1 || limit > 500) {
+            throw new AppointmentException("Limit must be between 1 and 500");
+        }
+
+        List<AvailableSlotDTO> slots = availabilityIndex.findAvailableSlots(
+                durationMinutes, startDate, endDate, veterinarianId, limit);
+
+        return new AppointmentResponse("Available slots retrieved", slots);
+    }
+
     public AppointmentResponse searchAppointments(String query, String authHeader) {
-        List<Appointment> appointments = appointmentRepository.searchAppointments(query);
+        List<Appointment> appointments = appointmentSearchIndex.isReady()
+                ? findRanked(appointmentSearchIndex.search(query))
+                : appointmentRepository.searchAppointments(query, PageRequest.of(0, appointmentSearchIndex.maxResults()));
 
         List<AppointmentDTO> appointmentDTOs = appointments.stream()
                 .map(AppointmentDTO::new)
                 .collect(Collectors.toList());
 
-        appointmentDTOs.forEach(dto -> enrichWithExternalInfo(dto, authHeader));
+        enrichWithExternalInfo(appointmentDTOs, authHeader);
 
         return new AppointmentResponse("Search completed", appointmentDTOs);
     }
 
+    // Citas en el orden del índice
+    private List<Appointment> findRanked(List<Long> ids) {
+        Map<Long, Appointment> byId = new HashMap<>();
+        appointmentRepository.findAllById(ids).forEach(appointment -> byId.put(appointment.getId(), appointment));
+        return ids.stream()
+                .map(byId::get)
+                .filter(appointment -> appointment != null)
+                .collect(Collectors.toList());
+    }
+
+    // El tipo de una cita nueva o reprogramada debe existir y estar activo
+    private void requireActiveType(Long appointmentTypeId) {
+        AppointmentType type = appointmentTypeRepository.findById(appointmentTypeId)
+                .orElseThrow(() -> new AppointmentException("Appointment type not found with id: " + appointmentTypeId));
+        if (!Boolean.TRUE.equals(type.getIsActive())) {
+            throw new AppointmentException("Appointment type is not active: " + type.getName());
+        }
+    }
+
     // Helper method to enrich AppointmentDTO with external service information
     private void enrichWithExternalInfo(AppointmentDTO appointmentDTO, String authHeader) {
-        try {
-            if (authHeader != null) {
-                // Obtener información del paciente
-                if (appointmentDTO.getPatientId() != null) {
-                    try {
-                        var patientResponse = patientServiceClient.getPatientById(appointmentDTO.getPatientId(), authHeader);
-                        if (patientResponse.getBody() != null) {
-                            @SuppressWarnings("unchecked")
-                            Map<String, Object> patientData = (Map<String, Object>) patientResponse.getBody().get("patient");
-                            if (patientData != null) {
-                                String patientName = (String) patientData.get("name");
-                                if (patientName != null) {
-                                    appointmentDTO.setPatientName(patientName);
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        // Si falla, continúa sin la información del paciente
+        enrichWithExternalInfo(List.of(appointmentDTO), authHeader);
+    }
+
+    // Pacientes en bloque y cada veterinario una vez por petición, compartidos por todas las listas que se enriquecen
+    private void enrichWithExternalInfo(List<AppointmentDTO> appointmentDTOs, String authHeader) {
+        if (authHeader == null || appointmentDTOs.isEmpty()) {
+            return;
+        }
+
+        RequestResolver resolver = RequestResolver.current();
+        BatchLoader<Long, String> patientNames = resolver.loader("appointment.patientNames",
+                PatientServiceClient.MAX_BATCH_IDS, ids -> patientNames(ids, authHeader));
+        BatchLoader<Long, String> veterinarianNames = resolver.loader("appointment.veterinarianNames",
+                PatientServiceClient.MAX_BATCH_IDS, BatchFunction.perKey(id -> veterinarianName(id, authHeader)));
+
+        for (AppointmentDTO appointmentDTO : appointmentDTOs) {
+            patientNames.load(appointmentDTO.getPatientId());
+            veterinarianNames.load(appointmentDTO.getVeterinarianId());
+        }
+        patientNames.dispatch();
+        veterinarianNames.dispatch();
+
+        // Si falla algún servicio, continúa sin esa información
+        for (AppointmentDTO appointmentDTO : appointmentDTOs) {
+            String patientName = patientNames.getOrDefault(appointmentDTO.getPatientId(), null);
+            if (patientName != null) {
+                appointmentDTO.setPatientName(patientName);
+            }
+            String veterinarianName = veterinarianNames.getOrDefault(appointmentDTO.getVeterinarianId(), null);
+            if (veterinarianName != null) {
+                appointmentDTO.setVeterinarianName(veterinarianName);
+            }
+        }
+    }
+
+    private Map<Long, String> patientNames(List<Long> patientIds, String authHeader) {
+        Map<Long, String> names = new HashMap<>();
+        var patientResponse = patientServiceClient.getPatientsByIds(patientIds, authHeader);
+        if (patientResponse.getBody() != null) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> patients = (List<Map<String, Object>>) patientResponse.getBody().get("data");
+            if (patients != null) {
+                for (Map<String, Object> patient : patients) {
+                    if (patient.get("id") != null && patient.get("name") != null) {
+                        names.put(((Number) patient.get("id")).longValue(), (String) patient.get("name"));
                     }
                 }
+            }
+        }
+        return names;
+    }
 
-                // Obtener información del veterinario
-                if (appointmentDTO.getVeterinarianId() != null) {
-                    try {
-                        var veterinarianResponse = userServiceClient.getUserById(appointmentDTO.getVeterinarianId(), authHeader);
-                        if (veterinarianResponse.getBody() != null) {
-                            @SuppressWarnings("unchecked")
-                            Map<String, Object> veterinarianData = (Map<String, Object>) veterinarianResponse.getBody().get("user");
-                            if (veterinarianData != null) {
-                                String firstName = (String) veterinarianData.get("firstName");
-                                String lastName = (String) veterinarianData.get("lastName");
-                                if (firstName != null && lastName != null) {
-                                    appointmentDTO.setVeterinarianName(firstName + " " + lastName);
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        // Si falla, continúa sin la información del veterinario
+    private String veterinarianName(Long veterinarianId, String authHeader) {
+        try {
+            var veterinarianResponse = userServiceClient.getUserById(veterinarianId, authHeader);
+            if (veterinarianResponse.getBody() != null) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> veterinarianData = (Map<String, Object>) veterinarianResponse.getBody().get("user");
+                if (veterinarianData != null) {
+                    String firstName = (String) veterinarianData.get("firstName");
+                    String lastName = (String) veterinarianData.get("lastName");
+                    if (firstName != null && lastName != null) {
+                        return firstName + " " + lastName;
                     }
                 }
             }
         } catch (Exception e) {
-            // Si falla la comunicación, simplemente no se enriquece la información
+            // Si falla, continúa sin la información del veterinario
         }
+        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,265 @@
+package com.veterinary.appointmentservice.service;
+
+import com.veterinary.appointmentservice.dto.AvailableSlotDTO;
+import com.veterinary.appointmentservice.entity.ScheduleBlock;
+import com.veterinary.appointmentservice.entity.VeterinarianAvailability;
+import com.veterinary.appointmentservice.repository.ScheduleBlockRepository;
+import com.veterinary.appointmentservice.repository.VeterinarianAvailabilityRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mapa de bits de huecos libres por veterinario y día, en celdas de 5 minutos.
+ * La parte fija (horario, descanso y bloqueos) sale de veterinarian_availability
+ * y schedule_blocks; la ocupación sale del índice de agenda y se recalcula solo
+ * para el veterinario y día que cambian en cada reserva.
+ */
+@Component
+public class AvailabilityIndex implements ScheduleIndex.ScheduleChangeListener {
+
+    static final int CELL_MINUTES = 5;
+    static final int CELLS_PER_DAY = 24 * 60 / CELL_MINUTES;
+
+    @Autowired
+    private VeterinarianAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private ScheduleBlockRepository scheduleBlockRepository;
+
+    @Autowired
+    private ScheduleIndex scheduleIndex;
+
+    @Value("${appointments.slots.step-minutes:15}")
+    private int stepMinutes = 15;
+
+    @Value("${appointments.slots.availability-ttl-ms:300000}")
+    private long availabilityTtlMillis = 300000;
+
+    private final Map<LocalDate, CachedDay> days = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void register() {
+        scheduleIndex.addListener(this);
+    }
+
+    @Override
+    public void onScheduleChanged(Long veterinarianId, LocalDate date) {
+        CachedDay day = days.get(date);
+        if (day != null) {
+            VetDay vetDay = day.vets().get(veterinarianId);
+            if (vetDay != null) {
+                vetDay.markDirty();
+            }
+        }
+    }
+
+    public List<AvailableSlotDTO> findAvailableSlots(int durationMinutes, LocalDate from, LocalDate to,
+                                                     Long veterinarianId, int limit) {
+        ensureLoaded(from, to);
+
+        int needed = (durationMinutes + CELL_MINUTES - 1) / CELL_MINUTES;
+        int step = Math.max(1, stepMinutes / CELL_MINUTES);
+        LocalDate today = LocalDate.now();
+        List<AvailableSlotDTO> slots = new ArrayList<>();
+
+        for (LocalDate date = from; !date.isAfter(to) && slots.size() < limit; date = date.plusDays(1)) {
+            if (date.isBefore(today)) {
+                continue;
+            }
+            // Veterinarios del día con huecos, en orden de id para un resultado estable
+            CachedDay day = days.get(date);
+            if (day == null) {
+                continue;
+            }
+            List<Long> vetIds = new ArrayList<>();
+            List<BitSet> freeCells = new ArrayList<>();
+            for (Map.Entry<Long, VetDay> entry : day.vets().entrySet()) {
+                if (veterinarianId != null && !veterinarianId.equals(entry.getKey())) {
+                    continue;
+                }
+                BitSet free = entry.getValue().free(entry.getKey(), date);
+                if (!free.isEmpty()) {
+                    vetIds.add(entry.getKey());
+                    freeCells.add(free);
+                }
+            }
+            if (vetIds.isEmpty()) {
+                continue;
+            }
+
+            int firstCell = 0;
+            if (date.equals(today)) {
+                LocalTime now = LocalTime.now();
+                firstCell = ceilCell(now.getHour() * 60 + now.getMinute());
+            }
+            firstCell = (firstCell + step - 1) / step * step;
+
+            for (int cell = firstCell; cell + needed <= CELLS_PER_DAY && slots.size() < limit; cell += step) {
+                for (int i = 0; i < vetIds.size() && slots.size() < limit; i++) {
+                    BitSet free = freeCells.get(i);
+                    if (free.get(cell) && free.nextClearBit(cell) >= cell + needed) {
+                        LocalTime start = LocalTime.MIN.plusMinutes((long) cell * CELL_MINUTES);
+                        slots.add(new AvailableSlotDTO(vetIds.get(i), date, start, start.plusMinutes(durationMinutes)));
+                    }
+                }
+            }
+        }
+        return slots;
+    }
+
+    public void invalidate() {
+        days.clear();
+    }
+
+    private void ensureLoaded(LocalDate from, LocalDate to) {
+        days.keySet().removeIf(date -> date.isBefore(LocalDate.now()));
+
+        long now = System.currentTimeMillis();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            CachedDay day = days.get(date);
+            if (day == null || now - day.loadedAt() > availabilityTtlMillis) {
+                if (firstMissing == null) {
+                    firstMissing = date;
+                }
+                lastMissing = date;
+            }
+        }
+        if (firstMissing == null) {
+            return;
+        }
+
+        // Una consulta de horarios y otra de bloqueos para todo el tramo que falta
+        List<VeterinarianAvailability> availabilities = availabilityRepository.findByDateBetween(firstMissing, lastMissing);
+        List<ScheduleBlock> blocks = scheduleBlockRepository.findApplicableBlocks(
+                firstMissing.atStartOfDay(), lastMissing.plusDays(1).atStartOfDay());
+
+        Map<LocalDate, Map<Long, VetDay>> loaded = new TreeMap<>();
+        for (LocalDate date = firstMissing; !date.isAfter(lastMissing); date = date.plusDays(1)) {
+            loaded.put(date, new TreeMap<>());
+        }
+        for (VeterinarianAvailability availability : availabilities) {
+            if (Boolean.FALSE.equals(availability.getIsAvailable())) {
+                continue;
+            }
+            BitSet base = new BitSet(CELLS_PER_DAY);
+            int firstCell = ceilCell(minutes(availability.getStartTime()));
+            int lastCell = floorCell(minutes(availability.getEndTime()));
+            if (firstCell < lastCell) {
+                base.set(firstCell, lastCell);
+            }
+            if (availability.getBreakStartTime() != null && availability.getBreakEndTime() != null) {
+                clear(base, minutes(availability.getBreakStartTime()), minutes(availability.getBreakEndTime()));
+            }
+            for (ScheduleBlock block : blocks) {
+                applyBlock(base, block, availability.getVeterinarianId(), availability.getDate());
+            }
+            int maxAppointments = availability.getMaxAppointments() != null ? availability.getMaxAppointments() : Integer.MAX_VALUE;
+            loaded.get(availability.getDate()).put(availability.getVeterinarianId(), new VetDay(base, maxAppointments));
+        }
+        loaded.forEach((date, vets) -> days.put(date, new CachedDay(now, vets)));
+    }
+
+    private void applyBlock(BitSet base, ScheduleBlock block, Long veterinarianId, LocalDate date) {
+        if (block.getVeterinarianId() != null && !block.getVeterinarianId().equals(veterinarianId)) {
+            return;
+        }
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = dayStart.plusDays(1);
+
+        if (block.getStartDatetime().isBefore(dayEnd) && block.getEndDatetime().isAfter(dayStart)) {
+            int start = block.getStartDatetime().isAfter(dayStart) ? minutes(block.getStartDatetime().toLocalTime()) : 0;
+            int end = block.getEndDatetime().isBefore(dayEnd) ? minutes(block.getEndDatetime().toLocalTime()) : 24 * 60;
+            clear(base, start, end);
+        } else if (Boolean.TRUE.equals(block.getIsRecurring()) && recursOn(block, date)) {
+            int start = minutes(block.getStartDatetime().toLocalTime());
+            int end = minutes(block.getEndDatetime().toLocalTime());
+            clear(base, start, end > start ? end : 24 * 60);
+        }
+    }
+
+    private boolean recursOn(ScheduleBlock block, LocalDate date) {
+        LocalDate firstDay = block.getStartDatetime().toLocalDate();
+        if (date.isBefore(firstDay) || block.getRecurrencePattern() == null) {
+            return false;
+        }
+        switch (block.getRecurrencePattern().trim().toUpperCase()) {
+            case "DAILY":
+                return true;
+            case "WEEKDAYS":
+                return date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY;
+            case "WEEKLY":
+                return date.getDayOfWeek() == firstDay.getDayOfWeek();
+            default:
+                return false;
+        }
+    }
+
+    // Bloqueos y citas se redondean hacia fuera, el horario laboral hacia dentro
+    private static void clear(BitSet bits, int startMinute, int endMinute) {
+        int from = Math.max(0, startMinute / CELL_MINUTES);
+        int to = Math.min(CELLS_PER_DAY, ceilCell(endMinute));
+        if (from < to) {
+            bits.clear(from, to);
+        }
+    }
+
+    private static int ceilCell(int minute) {
+        return (minute + CELL_MINUTES - 1) / CELL_MINUTES;
+    }
+
+    private static int floorCell(int minute) {
+        return minute / CELL_MINUTES;
+    }
+
+    private static int minutes(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private record CachedDay(long loadedAt, Map<Long, VetDay> vets) {}
+
+    private class VetDay {
+        private final BitSet base;
+        private final int maxAppointments;
+        private BitSet free;
+
+        private VetDay(BitSet base, int maxAppointments) {
+            this.base = base;
+            this.maxAppointments = maxAppointments;
+        }
+
+        synchronized void markDirty() {
+            free = null;
+        }
+
+        synchronized BitSet free(Long veterinarianId, LocalDate date) {
+            if (free == null) {
+                List<int[]> intervals = scheduleIndex.activeIntervals(veterinarianId, date);
+                BitSet computed = (BitSet) base.clone();
+                if (intervals.size() >= maxAppointments) {
+                    computed.clear();
+                } else {
+                    for (int[] interval : intervals) {
+                        clear(computed, interval[0], interval[1]);
+                    }
+                }
+                free = computed;
+            }
+            return free;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.veterinary.appointmentservice.service;
+
+import com.veterinary.appointmentservice.exception.AppointmentException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializa las reservas sobre la misma agenda (veterinario y día) con locks
+ * repartidos en franjas. Reservas de veterinarios o días distintos caen, salvo
+ * colisión de hash, en franjas distintas y se ejecutan en paralelo.
+ *
+ * Los locks se toman dentro de la transacción y se liberan al terminarla, de
+ * modo que la comprobación de conflictos, el guardado, el commit y la
+ * actualización del índice de agenda quedan dentro de la misma sección crítica.
+ */
+@Component
+public class BookingCoordinator {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long lockTimeoutMillis;
+
+    public BookingCoordinator(@Value("${appointments.booking.stripes:1024}") int stripeCount,
+                              @Value("${appointments.booking.lock-timeout-ms:5000}") long lockTimeoutMillis) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+    }
+
+    public void lockUntilCompletion(Long veterinarianId, LocalDate date) {
+        lockUntilCompletion(new int[]{stripeFor(veterinarianId, date)});
+    }
+
+    // Para reasignaciones: se bloquean la agenda de origen y la de destino
+    public void lockUntilCompletion(Long veterinarianId, LocalDate date, Long targetVeterinarianId, LocalDate targetDate) {
+        lockUntilCompletion(new int[]{stripeFor(veterinarianId, date), stripeFor(targetVeterinarianId, targetDate)});
+    }
+
+    private void lockUntilCompletion(int[] requested) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Booking locks require an active transaction");
+        }
+
+        // Orden global de adquisición para evitar interbloqueos entre reasignaciones cruzadas
+        int[] ordered = Arrays.stream(requested).distinct().sorted().toArray();
+        int acquired = 0;
+        try {
+            for (int stripe : ordered) {
+                if (!stripes[stripe].tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new AppointmentException("Veterinarian schedule is busy, please try again");
+                }
+                acquired++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppointmentException("Booking interrupted", e);
+        } finally {
+            if (acquired < ordered.length) {
+                unlock(ordered, acquired);
+            }
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock(ordered, ordered.length);
+            }
+        });
+    }
+
+    private void unlock(int[] ordered, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[ordered[i]].unlock();
+        }
+    }
+
+    int stripeFor(Long veterinarianId, LocalDate date) {
+        int hash = Objects.hash(veterinarianId, date);
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+}
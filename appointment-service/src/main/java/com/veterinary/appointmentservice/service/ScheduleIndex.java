@@ -0,0 +1,314 @@
+package com.veterinary.appointmentservice.service;
+
+import com.veterinary.appointmentservice.entity.Appointment;
+import com.veterinary.appointmentservice.repository.AppointmentRepository;
+import com.veterinary.appointmentservice.util.IntervalTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Índice en memoria de la agenda de cada veterinario, un árbol de intervalos
+ * por (veterinarianId, appointmentDate). Sustituye a la consulta nativa de
+ * conflictos, que no puede usar índices por el ADDTIME sobre la columna.
+ */
+@Component
+public class ScheduleIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleIndex.class);
+
+    static final Set<Appointment.Status> INACTIVE_STATUSES =
+            EnumSet.of(Appointment.Status.CANCELLED, Appointment.Status.NO_SHOW);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Value("${appointments.schedule-index.warmup-days:30}")
+    private int warmupDays = 30;
+
+    private final Map<ScheduleKey, DaySchedule> schedules = new ConcurrentHashMap<>();
+
+    // Ubicación actual de cada cita indexada, para moverla si cambia de veterinario o fecha
+    private final Map<Long, ScheduleKey> locations = new ConcurrentHashMap<>();
+
+    private final List<ScheduleChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public interface ScheduleChangeListener {
+        void onScheduleChanged(Long veterinarianId, LocalDate date);
+    }
+
+    public void addListener(ScheduleChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDate today = LocalDate.now();
+        try {
+            List<Appointment> appointments =
+                    appointmentRepository.findByAppointmentDateBetween(today, today.plusDays(warmupDays));
+            Map<ScheduleKey, List<Appointment>> byKey = appointments.stream()
+                    .collect(Collectors.groupingBy(a -> new ScheduleKey(a.getVeterinarianId(), a.getAppointmentDate())));
+            byKey.forEach(this::install);
+            logger.info("Schedule index warmed with {} vet-days ({} appointments)", byKey.size(), appointments.size());
+        } catch (Exception e) {
+            // Si falla, los días se cargarán bajo demanda
+            logger.warn("Could not warm schedule index: {}", e.getMessage());
+        }
+    }
+
+    public List<Long> findConflicts(Long veterinarianId, LocalDate date, LocalTime startTime,
+                                    Integer durationMinutes, Long excludeId) {
+        DaySchedule schedule = getOrLoad(new ScheduleKey(veterinarianId, date));
+        int start = toMinutes(startTime);
+        List<Long> conflicts = schedule.findOverlapping(start, start + durationOrDefault(durationMinutes));
+        if (excludeId != null) {
+            conflicts.remove(excludeId);
+        }
+        return conflicts;
+    }
+
+    public boolean hasConflict(Long veterinarianId, LocalDate date, LocalTime startTime,
+                               Integer durationMinutes, Long excludeId) {
+        DaySchedule schedule = getOrLoad(new ScheduleKey(veterinarianId, date));
+        int start = toMinutes(startTime);
+        return schedule.overlapsAny(start, start + durationOrDefault(durationMinutes), excludeId);
+    }
+
+    // Intervalos [inicio, fin) en minutos del día de las citas activas
+    public List<int[]> activeIntervals(Long veterinarianId, LocalDate date) {
+        return getOrLoad(new ScheduleKey(veterinarianId, date)).intervals();
+    }
+
+    /**
+     * Refleja en el índice una cita recién guardada. Dentro de una transacción
+     * el cambio se aplica tras el commit, para no indexar escrituras que luego
+     * se deshacen (y con updatedAt ya fijado por el flush).
+     */
+    public void onSaved(Appointment appointment) {
+        if (appointment == null || appointment.getId() == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(Snapshot.of(appointment));
+                }
+            });
+        } else {
+            apply(Snapshot.of(appointment));
+        }
+    }
+
+    public void invalidate(Long veterinarianId, LocalDate date) {
+        DaySchedule removed = schedules.remove(new ScheduleKey(veterinarianId, date));
+        if (removed != null) {
+            removed.ids().forEach(locations::remove);
+            notifyListeners(veterinarianId, date);
+        }
+    }
+
+    /**
+     * Compara cada día indexado con un resumen (conteo y última modificación)
+     * calculado en base de datos y reconstruye los que hayan divergido, por
+     * ejemplo por escrituras de otra instancia del servicio.
+     */
+    @Scheduled(fixedDelayString = "${appointments.schedule-index.verify-interval-ms:60000}",
+            initialDelayString = "${appointments.schedule-index.verify-interval-ms:60000}")
+    public void verify() {
+        LocalDate today = LocalDate.now();
+
+        // Los días pasados ya no reciben reservas
+        schedules.keySet().stream()
+                .filter(key -> key.date().isBefore(today))
+                .collect(Collectors.toList())
+                .forEach(key -> invalidate(key.veterinarianId(), key.date()));
+
+        Map<ScheduleKey, Fingerprint> expected = new HashMap<>();
+        for (Object[] row : appointmentRepository.getScheduleFingerprints(today, INACTIVE_STATUSES)) {
+            ScheduleKey key = new ScheduleKey((Long) row[0], (LocalDate) row[1]);
+            expected.put(key, new Fingerprint(((Number) row[2]).intValue(), truncate((LocalDateTime) row[3])));
+        }
+
+        int rebuilt = 0;
+        for (Map.Entry<ScheduleKey, DaySchedule> entry : schedules.entrySet()) {
+            Fingerprint actual = entry.getValue().fingerprint();
+            Fingerprint wanted = expected.getOrDefault(entry.getKey(), Fingerprint.EMPTY);
+            if (!actual.equals(wanted)) {
+                rebuild(entry.getKey());
+                rebuilt++;
+            }
+        }
+        if (rebuilt > 0) {
+            logger.warn("Schedule index drift detected, rebuilt {} vet-days", rebuilt);
+        }
+    }
+
+    public int indexedDays() {
+        return schedules.size();
+    }
+
+    private void apply(Snapshot snapshot) {
+        ScheduleKey previous = locations.remove(snapshot.id());
+        if (previous != null) {
+            DaySchedule schedule = schedules.get(previous);
+            if (schedule != null) {
+                schedule.remove(snapshot.id());
+            }
+            notifyListeners(previous.veterinarianId(), previous.date());
+        }
+
+        ScheduleKey key = new ScheduleKey(snapshot.veterinarianId(), snapshot.date());
+        if (snapshot.active()) {
+            DaySchedule schedule = schedules.get(key);
+            // Si el día no está cargado se cargará completo en la próxima consulta
+            if (schedule != null) {
+                schedule.put(snapshot);
+                locations.put(snapshot.id(), key);
+            }
+        }
+        if (!key.equals(previous)) {
+            notifyListeners(key.veterinarianId(), key.date());
+        }
+    }
+
+    private void notifyListeners(Long veterinarianId, LocalDate date) {
+        for (ScheduleChangeListener listener : listeners) {
+            listener.onScheduleChanged(veterinarianId, date);
+        }
+    }
+
+    private DaySchedule getOrLoad(ScheduleKey key) {
+        DaySchedule schedule = schedules.get(key);
+        if (schedule != null) {
+            return schedule;
+        }
+        List<Appointment> appointments = appointmentRepository
+                .findByVeterinarianIdAndAppointmentDateOrderByAppointmentTime(key.veterinarianId(), key.date());
+        return install(key, appointments);
+    }
+
+    private void rebuild(ScheduleKey key) {
+        invalidate(key.veterinarianId(), key.date());
+        getOrLoad(key);
+    }
+
+    private DaySchedule install(ScheduleKey key, List<Appointment> appointments) {
+        DaySchedule schedule = new DaySchedule();
+        for (Appointment appointment : appointments) {
+            Snapshot snapshot = Snapshot.of(appointment);
+            if (snapshot.active()) {
+                schedule.put(snapshot);
+            }
+        }
+        DaySchedule existing = schedules.putIfAbsent(key, schedule);
+        if (existing != null) {
+            return existing;
+        }
+        schedule.ids().forEach(id -> locations.put(id, key));
+        notifyListeners(key.veterinarianId(), key.date());
+        return schedule;
+    }
+
+    static int toMinutes(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    static int durationOrDefault(Integer durationMinutes) {
+        return durationMinutes != null ? durationMinutes : 30;
+    }
+
+    private static LocalDateTime truncate(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.truncatedTo(ChronoUnit.SECONDS) : null;
+    }
+
+    record ScheduleKey(Long veterinarianId, LocalDate date) {}
+
+    private record Fingerprint(int count, LocalDateTime lastUpdated) {
+        private static final Fingerprint EMPTY = new Fingerprint(0, null);
+    }
+
+    private record Snapshot(Long id, Long veterinarianId, LocalDate date, int start, int end,
+                            boolean active, LocalDateTime updatedAt) {
+
+        private static Snapshot of(Appointment appointment) {
+            int start = toMinutes(appointment.getAppointmentTime());
+            int duration = durationOrDefault(appointment.getDurationMinutes());
+            boolean active = appointment.getStatus() == null || !INACTIVE_STATUSES.contains(appointment.getStatus());
+            return new Snapshot(appointment.getId(), appointment.getVeterinarianId(), appointment.getAppointmentDate(),
+                    start, start + duration, active, appointment.getUpdatedAt());
+        }
+    }
+
+    private static class DaySchedule {
+        private final IntervalTree tree = new IntervalTree();
+        private final Map<Long, Snapshot> entries = new HashMap<>();
+
+        synchronized void put(Snapshot snapshot) {
+            Snapshot previous = entries.put(snapshot.id(), snapshot);
+            if (previous != null) {
+                tree.remove(previous.start(), previous.id());
+            }
+            tree.insert(snapshot.start(), snapshot.end(), snapshot.id());
+        }
+
+        synchronized void remove(Long id) {
+            Snapshot previous = entries.remove(id);
+            if (previous != null) {
+                tree.remove(previous.start(), previous.id());
+            }
+        }
+
+        synchronized List<Long> findOverlapping(int start, int end) {
+            return tree.findOverlapping(start, end);
+        }
+
+        synchronized boolean overlapsAny(int start, int end, Long excludeId) {
+            return tree.overlapsAny(start, end, excludeId);
+        }
+
+        synchronized List<int[]> intervals() {
+            List<int[]> intervals = new ArrayList<>(entries.size());
+            for (Snapshot snapshot : entries.values()) {
+                intervals.add(new int[]{snapshot.start(), snapshot.end()});
+            }
+            return intervals;
+        }
+
+        synchronized List<Long> ids() {
+            return List.copyOf(entries.keySet());
+        }
+
+        synchronized Fingerprint fingerprint() {
+            LocalDateTime lastUpdated = null;
+            for (Snapshot snapshot : entries.values()) {
+                if (snapshot.updatedAt() != null && (lastUpdated == null || snapshot.updatedAt().isAfter(lastUpdated))) {
+                    lastUpdated = snapshot.updatedAt();
+                }
+            }
+            return new Fingerprint(entries.size(), truncate(lastUpdated));
+        }
+    }
+}
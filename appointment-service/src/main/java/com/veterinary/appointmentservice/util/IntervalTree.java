@@ -0,0 +1,201 @@
+package com.veterinary.appointmentservice.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Árbol de intervalos (AVL aumentado con el fin máximo de cada subárbol).
+ * Los intervalos son semiabiertos [start, end) expresados en minutos y cada
+ * uno va asociado al id de la cita que lo ocupa.
+ *
+ * No es thread-safe: el llamador debe sincronizar el acceso.
+ */
+public class IntervalTree {
+
+    private Node root;
+    private int size;
+
+    public void insert(int start, int end, long id) {
+        root = insert(root, new Node(start, end, id));
+        size++;
+    }
+
+    public boolean remove(int start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    public List<Long> findOverlapping(int start, int end) {
+        List<Long> result = new ArrayList<>();
+        collectOverlapping(root, start, end, result);
+        return result;
+    }
+
+    public boolean overlapsAny(int start, int end, Long excludeId) {
+        return anyOverlapping(root, start, end, excludeId);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    private void collectOverlapping(Node node, int start, int end, List<Long> result) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        collectOverlapping(node.left, start, end, result);
+        if (node.start < end) {
+            if (node.end > start) {
+                result.add(node.id);
+            }
+            collectOverlapping(node.right, start, end, result);
+        }
+    }
+
+    private boolean anyOverlapping(Node node, int start, int end, Long excludeId) {
+        if (node == null || node.maxEnd <= start) {
+            return false;
+        }
+        if (anyOverlapping(node.left, start, end, excludeId)) {
+            return true;
+        }
+        if (node.start >= end) {
+            return false;
+        }
+        if (node.end > start && (excludeId == null || node.id != excludeId)) {
+            return true;
+        }
+        return anyOverlapping(node.right, start, end, excludeId);
+    }
+
+    private Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (compare(newNode.start, newNode.id, node) < 0) {
+            node.left = insert(node.left, newNode);
+        } else {
+            node.right = insert(node.right, newNode);
+        }
+        return rebalance(node);
+    }
+
+    private Node remove(Node node, int start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.right = removeMin(node.right);
+            successor.left = node.left;
+            successor.right = node.right;
+            return rebalance(successor);
+        }
+        return rebalance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private int compare(int start, long id, Node node) {
+        if (start != node.start) {
+            return Integer.compare(start, node.start);
+        }
+        return Long.compare(id, node.id);
+    }
+
+    private Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        int maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static class Node {
+        private final int start;
+        private final int end;
+        private final long id;
+        private int maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        private Node(int start, int end, long id) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.maxEnd = end;
+        }
+    }
+}
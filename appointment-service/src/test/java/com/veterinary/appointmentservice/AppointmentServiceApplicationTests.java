@@ -4,7 +4,13 @@ import com.veterinary.appointmentservice.dto.CreateAppointmentRequest;
 import com.veterinary.appointmentservice.dto.UpdateAppointmentRequest;
 import com.veterinary.appointmentservice.entity.Appointment;
 import com.veterinary.appointmentservice.repository.AppointmentRepository;
+import com.veterinary.appointmentservice.repository.AppointmentTypeRepository;
 import com.veterinary.appointmentservice.service.AppointmentService;
+import com.veterinary.appointmentservice.service.AppointmentCounters;
+import com.veterinary.appointmentservice.service.AppointmentSearchIndex;
+import com.veterinary.appointmentservice.service.AvailabilityIndex;
+import com.veterinary.appointmentservice.service.BookingCoordinator;
+import com.veterinary.appointmentservice.service.ScheduleIndex;
 import com.veterinary.appointmentservice.client.PatientServiceClient;
 import com.veterinary.appointmentservice.client.UserServiceClient;
 import org.junit.jupiter.api.BeforeEach;
@@ -40,6 +46,24 @@ class AppointmentServiceApplicationTests {
     @Mock
     private UserServiceClient userServiceClient;
 
+    @Mock
+    private ScheduleIndex scheduleIndex;
+
+    @Mock
+    private BookingCoordinator bookingCoordinator;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private AppointmentCounters appointmentCounters;
+
+    @Mock
+    private AppointmentTypeRepository appointmentTypeRepository;
+
+    @Mock
+    private AppointmentSearchIndex appointmentSearchIndex;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
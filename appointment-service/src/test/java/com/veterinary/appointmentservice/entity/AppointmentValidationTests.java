@@ -0,0 +1,57 @@
+package com.veterinary.appointmentservice.entity;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Restricciones que Hibernate comprueba antes de cada insert y update: el
+ * tipo de cita es opcional (citas anteriores a la tarifa), la fecha no.
+ */
+class AppointmentValidationTests {
+
+    private static ValidatorFactory factory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    void testAppointmentWithoutTypeIsValid() {
+        Appointment appointment = new Appointment(7L, 3L, LocalDate.of(2024, 3, 1), LocalTime.of(10, 0), "Revisión");
+
+        assertNull(appointment.getAppointmentTypeId());
+        assertTrue(validator.validate(appointment).isEmpty());
+    }
+
+    @Test
+    void testAppointmentWithoutDateIsRejected() {
+        Appointment appointment = new Appointment(7L, 3L, null, LocalTime.of(10, 0), "Revisión");
+        appointment.setAppointmentTypeId(1L);
+
+        Set<ConstraintViolation<Appointment>> violations = validator.validate(appointment);
+
+        assertEquals(1, violations.size());
+        ConstraintViolation<Appointment> violation = violations.iterator().next();
+        assertEquals("appointmentDate", violation.getPropertyPath().toString());
+        assertEquals("Appointment date is required", violation.getMessage());
+    }
+}
@@ -0,0 +1,73 @@
+package com.veterinary.appointmentservice.repository;
+
+import com.veterinary.appointmentservice.entity.Appointment;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Las citas canceladas y las no presentadas no llegan a los cargos que
+ * report-service valora con la tarifa.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class AppointmentChargesTests {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    @Configuration
+    @EntityScan(basePackageClasses = Appointment.class)
+    @EnableJpaRepositories(basePackageClasses = AppointmentRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = AppointmentRepository.class))
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Test
+    void testCancelledAppointmentContributesNoCharge() {
+        persist(9, Appointment.Status.COMPLETED);
+        persist(10, Appointment.Status.CANCELLED);
+        persist(11, Appointment.Status.NO_SHOW);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Object[]> charges = appointmentRepository.aggregateCharges(DAY, DAY);
+
+        assertEquals(1, charges.size());
+        assertEquals(1L, charges.get(0)[1]);
+        assertEquals(1L, ((Number) charges.get(0)[3]).longValue());
+    }
+
+    @Test
+    void testOnlyCancelledAppointmentsLeaveNoCharges() {
+        persist(9, Appointment.Status.CANCELLED);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(appointmentRepository.aggregateCharges(DAY, DAY).isEmpty());
+    }
+
+    private void persist(int hour, Appointment.Status status) {
+        Appointment appointment = new Appointment(20L + hour, 7L, DAY, LocalTime.of(hour, 0), "Revisión");
+        appointment.setAppointmentTypeId(1L);
+        appointment.setStatus(status);
+        entityManager.persist(appointment);
+    }
+}
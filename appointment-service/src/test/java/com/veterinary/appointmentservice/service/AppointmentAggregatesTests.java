@@ -0,0 +1,94 @@
+package com.veterinary.appointmentservice.service;
+
+import com.veterinary.appointmentservice.dto.AggregateBucketDTO;
+import com.veterinary.appointmentservice.entity.Appointment;
+import com.veterinary.appointmentservice.exception.AppointmentException;
+import com.veterinary.appointmentservice.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Agregados por tipo de cita: un grupo por tipo y, al final, las citas
+ * anteriores a la tarifa, que no tienen tipo.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class AppointmentAggregatesTests {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    @Configuration
+    @EntityScan(basePackageClasses = Appointment.class)
+    @EnableJpaRepositories(basePackageClasses = AppointmentRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = AppointmentRepository.class))
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private AppointmentService appointmentService;
+
+    @BeforeEach
+    void setUp() {
+        appointmentService = new AppointmentService();
+        ReflectionTestUtils.setField(appointmentService, "appointmentRepository", appointmentRepository);
+
+        persist(DAY, 9, 2L);
+        persist(DAY, 10, 1L);
+        persist(DAY, 11, 2L);
+        persist(DAY, 12, null);
+        persist(DAY.plusDays(30), 9, 3L);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testTypeGroupsAppointmentsByAppointmentType() {
+        List<String> buckets = aggregate("type", DAY, DAY.plusDays(7));
+
+        assertEquals(List.of("1=1", "2=2", "Unknown=1"), buckets);
+    }
+
+    @Test
+    void testUnknownGroupByIsRejected() {
+        AppointmentException error = assertThrows(AppointmentException.class,
+                () -> appointmentService.getAppointmentAggregates("room", null, null));
+
+        assertEquals("groupBy must be one of: status, type, veterinarian, day", error.getMessage());
+    }
+
+    private void persist(LocalDate date, int hour, Long typeId) {
+        Appointment appointment = new Appointment(20L + hour, 7L, date, LocalTime.of(hour, 0), "Revisión");
+        appointment.setAppointmentTypeId(typeId);
+        entityManager.persist(appointment);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> aggregate(String groupBy, LocalDate startDate, LocalDate endDate) {
+        List<AggregateBucketDTO> buckets = (List<AggregateBucketDTO>) appointmentService
+                .getAppointmentAggregates(groupBy, startDate, endDate).getData();
+        return buckets.stream()
+                .map(bucket -> bucket.getKey() + "=" + bucket.getCount())
+                .collect(Collectors.toList());
+    }
+}
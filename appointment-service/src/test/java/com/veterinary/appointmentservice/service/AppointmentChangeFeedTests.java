@@ -0,0 +1,100 @@
+package com.veterinary.appointmentservice.service;
+
+import com.veterinary.appointmentservice.dto.AppointmentDTO;
+import com.veterinary.appointmentservice.entity.Appointment;
+import com.veterinary.appointmentservice.exception.AppointmentException;
+import com.veterinary.appointmentservice.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AppointmentChangeFeedTests {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private AppointmentChangeFeed appointmentChangeFeed;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPageReportsNextVersionAndHasMore() {
+        when(appointmentRepository.findChanges(eq(10L), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(appointment(1L, 11L), appointment(2L, 12L), appointment(3L, 15L)));
+
+        Map<String, Object> data = (Map<String, Object>) appointmentChangeFeed.getChanges(10L, 2).getData();
+
+        List<Map<String, Object>> changes = (List<Map<String, Object>>) data.get("changes");
+        assertEquals(2, changes.size());
+        assertEquals(11L, changes.get(0).get("version"));
+        assertEquals(false, changes.get(0).get("deleted"));
+        assertEquals(1L, ((AppointmentDTO) changes.get(0).get("data")).getId());
+        assertEquals(12L, data.get("nextVersion"));
+        assertEquals(true, data.get("hasMore"));
+        // Se pide una fila de más para saber si quedan cambios
+        verify(appointmentRepository).findChanges(eq(10L), anyLong(), argThat(page -> page.getPageSize() == 3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEmptyPageKeepsSinceVersion() {
+        when(appointmentRepository.findChanges(eq(42L), anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        Map<String, Object> data = (Map<String, Object>) appointmentChangeFeed.getChanges(42L, 500).getData();
+
+        assertTrue(((List<?>) data.get("changes")).isEmpty());
+        assertEquals(42L, data.get("nextVersion"));
+        assertEquals(false, data.get("hasMore"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPageInsideOneVersionReturnsTheWholeVersion() {
+        when(appointmentRepository.findChanges(eq(10L), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(appointment(1L, 12L), appointment(2L, 12L), appointment(3L, 12L)));
+        when(appointmentRepository.findAtVersion(12L)).thenReturn(List.of(
+                appointment(1L, 12L), appointment(2L, 12L), appointment(3L, 12L), appointment(4L, 12L)));
+
+        Map<String, Object> data = (Map<String, Object>) appointmentChangeFeed.getChanges(10L, 2).getData();
+
+        assertEquals(4, ((List<?>) data.get("changes")).size());
+        assertEquals(12L, data.get("nextVersion"));
+    }
+
+    @Test
+    void testInvalidArgumentsAreRejected() {
+        assertThrows(AppointmentException.class, () -> appointmentChangeFeed.getChanges(-1L, 10));
+        assertThrows(AppointmentException.class, () -> appointmentChangeFeed.getChanges(0L, 0));
+        assertThrows(AppointmentException.class, () -> appointmentChangeFeed.getChanges(0L, 1001));
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    private static Appointment appointment(Long id, long version) {
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setPatientId(100L + id);
+        appointment.setVeterinarianId(7L);
+        appointment.setAppointmentDate(LocalDate.of(2024, 3, 5));
+        appointment.setAppointmentTime(LocalTime.of(10, 30));
+        appointment.setStatus(Appointment.Status.COMPLETED);
+        appointment.setRowVersion(version);
+        return appointment;
+    }
+}
@@ -0,0 +1,149 @@
+package com.veterinary.appointmentservice.service;
+
+import com.veterinary.appointmentservice.entity.Appointment;
+import com.veterinary.appointmentservice.entity.AppointmentCounter;
+import com.veterinary.appointmentservice.repository.AppointmentCounterRepository;
+import com.veterinary.appointmentservice.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AppointmentCountersTests {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private AppointmentCounterRepository counterRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AppointmentCounters appointmentCounters;
+
+    // Tabla appointment_counters simulada en memoria
+    private final Map<String, Long> counters = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(counterRepository.increment(anyString(), anyLong())).thenAnswer(invocation -> {
+            counters.merge(invocation.getArgument(0), invocation.<Long>getArgument(1), Long::sum);
+            return 1;
+        });
+        when(counterRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<String> keys = invocation.getArgument(0);
+            List<AppointmentCounter> found = new ArrayList<>();
+            keys.forEach(key -> {
+                if (counters.containsKey(key)) {
+                    found.add(new AppointmentCounter(key, counters.get(key)));
+                }
+            });
+            return found;
+        });
+        when(counterRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(
+                counters.get(invocation.<String>getArgument(0)))
+                .map(value -> new AppointmentCounter(invocation.getArgument(0), value)));
+        when(counterRepository.findByCounterKeyStartingWith(anyString())).thenAnswer(invocation -> counters.entrySet()
+                .stream()
+                .filter(e -> e.getKey().startsWith(invocation.getArgument(0)))
+                .map(e -> new AppointmentCounter(e.getKey(), e.getValue()))
+                .toList());
+    }
+
+    @Test
+    void testTransitionsMoveCountsBetweenStatusesAndDays() {
+        Appointment appointment = ScheduleIndexTests.appointment(1L, 1L, TODAY, LocalTime.of(9, 0), 30,
+                Appointment.Status.SCHEDULED);
+        appointmentCounters.recordCreated(appointment);
+        appointmentCounters.recordCreated(ScheduleIndexTests.appointment(2L, 1L, TODAY, LocalTime.of(10, 0), 30,
+                Appointment.Status.SCHEDULED));
+
+        appointment.setStatus(Appointment.Status.CONFIRMED);
+        appointment.setAppointmentDate(TODAY.plusDays(1));
+        appointmentCounters.recordChange(Appointment.Status.SCHEDULED, TODAY, appointment);
+
+        Map<Appointment.Status, Long> counts = appointmentCounters.countsByStatus();
+        assertEquals(1L, counts.get(Appointment.Status.SCHEDULED));
+        assertEquals(1L, counts.get(Appointment.Status.CONFIRMED));
+        assertEquals(0L, counts.get(Appointment.Status.NO_SHOW));
+        assertEquals(1L, appointmentCounters.countByDate(TODAY));
+        assertEquals(1L, appointmentCounters.countByDate(TODAY.plusDays(1)));
+
+        // Cambios que no tocan estado ni fecha no escriben contadores
+        clearInvocations(counterRepository);
+        appointmentCounters.recordChange(Appointment.Status.CONFIRMED, TODAY.plusDays(1), appointment);
+        verify(counterRepository, never()).increment(anyString(), anyLong());
+    }
+
+    @Test
+    void testDeltasWaitForCommitAndTakeRowsInKeyOrder() {
+        Appointment appointment = ScheduleIndexTests.appointment(1L, 1L, TODAY, LocalTime.of(9, 0), 30,
+                Appointment.Status.CONFIRMED);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            appointmentCounters.recordChange(Appointment.Status.SCHEDULED, TODAY, appointment);
+            appointmentCounters.recordChange(null, TODAY, appointment);
+            verify(counterRepository, never()).increment(anyString(), anyLong());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        InOrder inOrder = inOrder(counterRepository);
+        inOrder.verify(counterRepository).increment("status:CONFIRMED", 1L);
+        inOrder.verify(counterRepository).increment("status:SCHEDULED", -1L);
+        // Sin estado anterior solo cuenta el nuevo
+        inOrder.verify(counterRepository).increment("status:CONFIRMED", 1L);
+        verify(counterRepository, never()).increment(startsWith("date:"), anyLong());
+    }
+
+    @Test
+    void testReconcileRepairsDriftWithIncrementsAndPrunesPastDays() {
+        counters.put("status:SCHEDULED", 5L);
+        counters.put("status:CANCELLED", 2L);
+        counters.put("date:" + TODAY, 3L);
+        when(appointmentRepository.countGroupByStatus()).thenReturn(List.of(
+                new Object[]{Appointment.Status.SCHEDULED, 5L},
+                new Object[]{Appointment.Status.COMPLETED, 4L}));
+        when(appointmentRepository.countGroupByAppointmentDateFrom(TODAY)).thenReturn(List.<Object[]>of(
+                new Object[]{TODAY, 2L}));
+
+        int repaired = appointmentCounters.reconcile();
+
+        assertEquals(3, repaired);
+        assertEquals(5L, counters.get("status:SCHEDULED"));
+        assertEquals(0L, counters.get("status:CANCELLED"));
+        assertEquals(4L, counters.get("status:COMPLETED"));
+        assertEquals(2L, counters.get("date:" + TODAY));
+        verify(counterRepository, never()).increment(eq("status:SCHEDULED"), anyLong());
+        verify(counterRepository).deleteDateCountersBefore("date:" + TODAY);
+
+        // Sin deriva no hay escrituras
+        clearInvocations(counterRepository);
+        assertEquals(0, appointmentCounters.reconcile());
+        verify(counterRepository, never()).increment(anyString(), anyLong());
+    }
+}
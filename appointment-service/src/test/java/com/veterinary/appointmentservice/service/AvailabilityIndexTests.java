@@ -0,0 +1,161 @@
+package com.veterinary.appointmentservice.service;
+
+import com.veterinary.appointmentservice.dto.AvailableSlotDTO;
+import com.veterinary.appointmentservice.entity.Appointment;
+import com.veterinary.appointmentservice.entity.ScheduleBlock;
+import com.veterinary.appointmentservice.entity.VeterinarianAvailability;
+import com.veterinary.appointmentservice.repository.AppointmentRepository;
+import com.veterinary.appointmentservice.repository.ScheduleBlockRepository;
+import com.veterinary.appointmentservice.repository.VeterinarianAvailabilityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class AvailabilityIndexTests {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+
+    private AppointmentRepository appointmentRepository;
+    private VeterinarianAvailabilityRepository availabilityRepository;
+    private ScheduleBlockRepository scheduleBlockRepository;
+    private ScheduleIndex scheduleIndex;
+    private AvailabilityIndex availabilityIndex;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        availabilityRepository = mock(VeterinarianAvailabilityRepository.class);
+        scheduleBlockRepository = mock(ScheduleBlockRepository.class);
+        when(appointmentRepository.findByVeterinarianIdAndAppointmentDateOrderByAppointmentTime(anyLong(), any()))
+                .thenReturn(List.of());
+        when(scheduleBlockRepository.findApplicableBlocks(any(), any())).thenReturn(List.of());
+
+        scheduleIndex = new ScheduleIndex();
+        ReflectionTestUtils.setField(scheduleIndex, "appointmentRepository", appointmentRepository);
+        availabilityIndex = new AvailabilityIndex();
+        ReflectionTestUtils.setField(availabilityIndex, "availabilityRepository", availabilityRepository);
+        ReflectionTestUtils.setField(availabilityIndex, "scheduleBlockRepository", scheduleBlockRepository);
+        ReflectionTestUtils.setField(availabilityIndex, "scheduleIndex", scheduleIndex);
+        availabilityIndex.register();
+    }
+
+    @Test
+    void testSlotsRespectHoursBreaksBlocksAndBookings() {
+        when(availabilityRepository.findByDateBetween(DAY, DAY))
+                .thenReturn(List.of(availability(1L, DAY, "09:00", "12:00", "10:00", "10:30", 16)));
+        ScheduleBlock meeting = new ScheduleBlock(1L, DAY.atTime(11, 0), DAY.atTime(11, 30), ScheduleBlock.BlockType.MEETING);
+        when(scheduleBlockRepository.findApplicableBlocks(any(), any())).thenReturn(List.of(meeting));
+        when(appointmentRepository.findByVeterinarianIdAndAppointmentDateOrderByAppointmentTime(1L, DAY))
+                .thenReturn(List.of(ScheduleIndexTests.appointment(1L, 1L, DAY, LocalTime.of(9, 0), 30,
+                        Appointment.Status.SCHEDULED)));
+
+        List<LocalTime> starts = startTimes(availabilityIndex.findAvailableSlots(30, DAY, DAY, null, 20));
+
+        assertEquals(List.of(LocalTime.of(9, 30), LocalTime.of(10, 30), LocalTime.of(11, 30)), starts);
+    }
+
+    @Test
+    void testBookingChangesPatchTheBitmap() {
+        when(availabilityRepository.findByDateBetween(DAY, DAY))
+                .thenReturn(List.of(availability(1L, DAY, "09:00", "10:00", null, null, 16)));
+        assertEquals(List.of(LocalTime.of(9, 0), LocalTime.of(9, 15), LocalTime.of(9, 30)),
+                startTimes(availabilityIndex.findAvailableSlots(30, DAY, DAY, 1L, 20)));
+
+        Appointment booking = ScheduleIndexTests.appointment(5L, 1L, DAY, LocalTime.of(9, 15), 30,
+                Appointment.Status.SCHEDULED);
+        scheduleIndex.onSaved(booking);
+        assertTrue(availabilityIndex.findAvailableSlots(30, DAY, DAY, 1L, 20).isEmpty());
+
+        booking.setStatus(Appointment.Status.CANCELLED);
+        scheduleIndex.onSaved(booking);
+        assertEquals(3, availabilityIndex.findAvailableSlots(30, DAY, DAY, 1L, 20).size());
+
+        // Una sola carga de horarios: los cambios de reserva no vuelven a la base de datos
+        verify(availabilityRepository, times(1)).findByDateBetween(DAY, DAY);
+    }
+
+    @Test
+    void testFullDayAndRecurringBlocks() {
+        LocalDate monday = DAY.with(java.time.temporal.TemporalAdjusters.next(java.time.DayOfWeek.MONDAY));
+        when(availabilityRepository.findByDateBetween(monday, monday)).thenReturn(List.of(
+                availability(1L, monday, "09:00", "10:00", null, null, 16),
+                availability(2L, monday, "09:00", "10:00", null, null, 1)));
+        ScheduleBlock standup = new ScheduleBlock(null, monday.minusWeeks(1).atTime(9, 0),
+                monday.minusWeeks(1).atTime(9, 30), ScheduleBlock.BlockType.MEETING);
+        standup.setIsRecurring(true);
+        standup.setRecurrencePattern("WEEKLY");
+        when(scheduleBlockRepository.findApplicableBlocks(any(), any())).thenReturn(List.of(standup));
+        // El veterinario 2 ya cubrió su cupo del día
+        when(appointmentRepository.findByVeterinarianIdAndAppointmentDateOrderByAppointmentTime(2L, monday))
+                .thenReturn(List.of(ScheduleIndexTests.appointment(9L, 2L, monday, LocalTime.of(9, 30), 15,
+                        Appointment.Status.CONFIRMED)));
+
+        List<AvailableSlotDTO> slots = availabilityIndex.findAvailableSlots(30, monday, monday, null, 20);
+
+        assertEquals(1, slots.size());
+        assertEquals(1L, slots.get(0).getVeterinarianId());
+        assertEquals(LocalTime.of(9, 30), slots.get(0).getStartTime());
+    }
+
+    @Test
+    void testNextTwentySlotsAcrossAllVetsThisWeekIsFast() {
+        List<VeterinarianAvailability> week = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            for (long vet = 1; vet <= 25; vet++) {
+                week.add(availability(vet, DAY.plusDays(day), "08:00", "18:00", "13:00", "14:00", 16));
+            }
+        }
+        when(availabilityRepository.findByDateBetween(DAY, DAY.plusDays(6))).thenReturn(week);
+        when(appointmentRepository.findByVeterinarianIdAndAppointmentDateOrderByAppointmentTime(anyLong(), any()))
+                .thenAnswer(invocation -> {
+                    // Mañanas completas para forzar la búsqueda hasta la tarde
+                    List<Appointment> busy = new ArrayList<>();
+                    for (int slot = 0; slot < 10; slot++) {
+                        busy.add(ScheduleIndexTests.appointment(1000L * invocation.<Long>getArgument(0) + slot,
+                                invocation.getArgument(0), invocation.getArgument(1),
+                                LocalTime.of(8, 0).plusMinutes(30L * slot), 30, Appointment.Status.SCHEDULED));
+                    }
+                    return busy;
+                });
+        availabilityIndex.findAvailableSlots(30, DAY, DAY.plusDays(6), null, 20);
+
+        long start = System.nanoTime();
+        int rounds = 200;
+        List<AvailableSlotDTO> slots = null;
+        for (int i = 0; i < rounds; i++) {
+            slots = availabilityIndex.findAvailableSlots(30, DAY, DAY.plusDays(6), null, 20);
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / rounds;
+
+        assertEquals(20, slots.size());
+        assertEquals(LocalTime.of(14, 0), slots.get(0).getStartTime());
+        System.out.printf("next 20 free 30-minute slots, 25 vets x 7 days: %.3f ms/query%n", millis);
+        assertTrue(millis < 5, "slot search took " + millis + " ms");
+    }
+
+    private static List<LocalTime> startTimes(List<AvailableSlotDTO> slots) {
+        return slots.stream().map(AvailableSlotDTO::getStartTime).toList();
+    }
+
+    private static VeterinarianAvailability availability(Long veterinarianId, LocalDate date, String start, String end,
+                                                         String breakStart, String breakEnd, int maxAppointments) {
+        VeterinarianAvailability availability = new VeterinarianAvailability(veterinarianId, date,
+                LocalTime.parse(start), LocalTime.parse(end));
+        if (breakStart != null) {
+            availability.setBreakStartTime(LocalTime.parse(breakStart));
+            availability.setBreakEndTime(LocalTime.parse(breakEnd));
+        }
+        availability.setMaxAppointments(maxAppointments);
+        return availability;
+    }
+}
@@ -0,0 +1,222 @@
+package com.veterinary.appointmentservice.service;
+
+import com.veterinary.appointmentservice.dto.CreateAppointmentRequest;
+import com.veterinary.appointmentservice.entity.Appointment;
+import com.veterinary.appointmentservice.exception.AppointmentException;
+import com.veterinary.appointmentservice.repository.AppointmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Lanza reservas concurrentes sobre pocas agendas para forzar colisiones y
+ * comprueba que ninguna agenda termina con citas solapadas. Imprime las
+ * reservas por segundo para cada número de hilos.
+ */
+class BookingCoordinatorStressTests {
+
+    private static final int VETERINARIANS = 8;
+    private static final int DAYS = 4;
+    private static final int SLOTS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 150;
+    private static final LocalDate FIRST_DAY = LocalDate.now().plusDays(1);
+
+    @Test
+    void testConcurrentBookingsNeverDoubleBook() throws Exception {
+        for (int threads : new int[]{1, 2, 4, 8, 16}) {
+            RunResult result = run(threads, new BookingCoordinator(1024, 5000));
+            System.out.printf("threads=%2d booked=%4d rejected=%4d double-booked=%d | %,.0f bookings/s%n",
+                    threads, result.booked, result.rejected, result.doubleBooked, result.bookingsPerSecond());
+            assertEquals(0, result.doubleBooked, "double bookings with " + threads + " threads");
+            assertEquals(threads * ATTEMPTS_PER_THREAD, result.booked + result.rejected);
+        }
+    }
+
+    @Test
+    void testDifferentSchedulesDoNotBlockEachOther() throws Exception {
+        BookingCoordinator coordinator = new BookingCoordinator(1024, 200);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+        CountDownLatch firstLocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            coordinator.lockUntilCompletion(1L, FIRST_DAY);
+            firstLocked.countDown();
+            awaitQuietly(release);
+        }));
+        holder.start();
+        assertTrue(firstLocked.await(5, TimeUnit.SECONDS));
+
+        // Otra agenda (si no comparte franja) se reserva sin esperar
+        long otherVet = 2L;
+        while (coordinator.stripeFor(otherVet, FIRST_DAY) == coordinator.stripeFor(1L, FIRST_DAY)) {
+            otherVet++;
+        }
+        long vet = otherVet;
+        transactionTemplate.executeWithoutResult(status -> coordinator.lockUntilCompletion(vet, FIRST_DAY));
+
+        // La misma agenda queda bloqueada hasta que termina la transacción que la tiene
+        assertThrows(AppointmentException.class, () -> transactionTemplate.executeWithoutResult(
+                status -> coordinator.lockUntilCompletion(1L, FIRST_DAY)));
+
+        release.countDown();
+        holder.join();
+        transactionTemplate.executeWithoutResult(status -> coordinator.lockUntilCompletion(1L, FIRST_DAY));
+    }
+
+    private RunResult run(int threads, BookingCoordinator coordinator) throws Exception {
+        Map<Long, Appointment> store = new ConcurrentHashMap<>();
+        AppointmentService service = newService(store, coordinator);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(31L * threads + t);
+            futures.add(executor.submit(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    CreateAppointmentRequest request = new CreateAppointmentRequest(1L,
+                            1L + random.nextInt(VETERINARIANS), FIRST_DAY.plusDays(random.nextInt(DAYS)),
+                            LocalTime.of(8, 0).plusMinutes(30L * random.nextInt(SLOTS)), "Stress booking");
+                    request.setDurationMinutes(random.nextBoolean() ? 30 : 45);
+                    try {
+                        transactionTemplate.executeWithoutResult(
+                                status -> service.createAppointment(request, "stress", "Bearer token"));
+                        booked.incrementAndGet();
+                    } catch (AppointmentException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        return new RunResult(booked.get(), rejected.get(), countDoubleBookings(store.values()), elapsed);
+    }
+
+    private AppointmentService newService(Map<Long, Appointment> store, BookingCoordinator coordinator) {
+        AtomicLong ids = new AtomicLong();
+        AppointmentRepository repository = mock(AppointmentRepository.class, withSettings().stubOnly());
+        when(repository.save(any(Appointment.class))).thenAnswer(invocation -> {
+            Appointment appointment = invocation.getArgument(0);
+            // Simula la latencia del INSERT, que es donde se abre la ventana de carrera
+            LockSupport.parkNanos(200_000);
+            if (appointment.getId() == null) {
+                appointment.setId(ids.incrementAndGet());
+            }
+            store.put(appointment.getId(), appointment);
+            return appointment;
+        });
+        when(repository.findByVeterinarianIdAndAppointmentDateOrderByAppointmentTime(anyLong(), any()))
+                .thenAnswer(invocation -> store.values().stream()
+                        .filter(a -> a.getVeterinarianId().equals(invocation.getArgument(0))
+                                && a.getAppointmentDate().equals(invocation.getArgument(1)))
+                        .collect(Collectors.toList()));
+
+        ScheduleIndex scheduleIndex = new ScheduleIndex();
+        ReflectionTestUtils.setField(scheduleIndex, "appointmentRepository", repository);
+
+        AppointmentService service = new AppointmentService();
+        ReflectionTestUtils.setField(service, "appointmentRepository", repository);
+        ReflectionTestUtils.setField(service, "scheduleIndex", scheduleIndex);
+        ReflectionTestUtils.setField(service, "bookingCoordinator", coordinator);
+        ReflectionTestUtils.setField(service, "appointmentCounters", mock(AppointmentCounters.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(service, "appointmentSearchIndex", mock(AppointmentSearchIndex.class, withSettings().stubOnly()));
+        return service;
+    }
+
+    private int countDoubleBookings(Iterable<Appointment> appointments) {
+        Map<String, List<Appointment>> bySchedule = new ConcurrentHashMap<>();
+        appointments.forEach(a -> bySchedule
+                .computeIfAbsent(a.getVeterinarianId() + "|" + a.getAppointmentDate(), k -> new ArrayList<>())
+                .add(a));
+
+        int doubleBooked = 0;
+        for (List<Appointment> schedule : bySchedule.values()) {
+            schedule.sort(Comparator.comparing(Appointment::getAppointmentTime));
+            LocalTime busyUntil = LocalTime.MIN;
+            for (Appointment appointment : schedule) {
+                if (appointment.getAppointmentTime().isBefore(busyUntil)) {
+                    doubleBooked++;
+                }
+                LocalTime end = appointment.getAppointmentTime().plusMinutes(appointment.getDurationMinutes());
+                if (end.isAfter(busyUntil)) {
+                    busyUntil = end;
+                }
+            }
+        }
+        return doubleBooked;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record RunResult(int booked, int rejected, int doubleBooked, long elapsedNanos) {
+        double bookingsPerSecond() {
+            return (booked + rejected) / (elapsedNanos / 1_000_000_000.0);
+        }
+    }
+
+    // Gestor de transacciones mínimo: solo activa las sincronizaciones de Spring
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.veterinary.appointmentservice.service;
+
+import com.veterinary.appointmentservice.entity.Appointment;
+import com.veterinary.appointmentservice.repository.AppointmentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compara el índice de agenda con la ruta SQL de findConflictingAppointments.
+ * La tabla appointments no tiene índice sobre veterinarian_id ni appointment_date
+ * y el ADDTIME impide usar uno, así que la ruta SQL se modela como el recorrido
+ * completo que hace MySQL evaluando el mismo predicado fila a fila (sin contar
+ * la ida y vuelta a la base de datos, que solo la encarece).
+ *
+ * Ejecutar con: mvn test -Dtest=ScheduleIndexBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ScheduleIndexBenchmarkTests {
+
+    private static final int VETERINARIANS = 40;
+    private static final int APPOINTMENTS_PER_DAY = 16;
+    private static final int PROBES = 2_000;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private ScheduleIndex scheduleIndex;
+
+    @Test
+    void benchmarkIndexAgainstSqlScan() {
+        for (int size : new int[]{10_000, 100_000, 1_000_000}) {
+            scheduleIndex = null;
+            MockitoAnnotations.openMocks(this);
+            run(size);
+        }
+    }
+
+    private void run(int size) {
+        AppointmentTable table = new AppointmentTable(size);
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        when(appointmentRepository.findByVeterinarianIdAndAppointmentDateOrderByAppointmentTime(anyLong(), any()))
+                .thenAnswer(invocation -> table.load(invocation.getArgument(0),
+                        (LocalDate) invocation.getArgument(1), firstDay));
+
+        long loadStart = System.nanoTime();
+        for (int day = 0; day < table.days; day++) {
+            for (long vet = 1; vet <= VETERINARIANS; vet++) {
+                scheduleIndex.hasConflict(vet, firstDay.plusDays(day), LocalTime.of(0, 0), 15, null);
+            }
+        }
+        long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+
+        Random random = new Random(7);
+        long[] vets = new long[PROBES];
+        int[] days = new int[PROBES];
+        int[] starts = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            vets[i] = 1 + random.nextInt(VETERINARIANS);
+            days[i] = random.nextInt(table.days);
+            starts[i] = 8 * 60 + random.nextInt(10 * 60);
+        }
+
+        int sqlConflicts = 0;
+        long sqlStart = System.nanoTime();
+        for (int i = 0; i < PROBES; i++) {
+            sqlConflicts += table.scanConflicts(vets[i], days[i], starts[i], starts[i] + 30);
+        }
+        long sqlNanos = System.nanoTime() - sqlStart;
+
+        int indexConflicts = 0;
+        long indexStart = System.nanoTime();
+        for (int i = 0; i < PROBES; i++) {
+            indexConflicts += scheduleIndex.findConflicts(vets[i], firstDay.plusDays(days[i]),
+                    LocalTime.of(starts[i] / 60, starts[i] % 60), 30, null).size();
+        }
+        long indexNanos = System.nanoTime() - indexStart;
+
+        assertEquals(sqlConflicts, indexConflicts);
+        System.out.printf("appointments=%,d vet-days=%,d warmup=%dms | sql-scan %.1f us/check | index %.2f us/check | speedup x%.0f%n",
+                size, table.days * VETERINARIANS, loadMillis,
+                sqlNanos / 1000.0 / PROBES, indexNanos / 1000.0 / PROBES, (double) sqlNanos / indexNanos);
+    }
+
+    // Tabla en columnas, para no inflar el heap con un millón de entidades
+    private static class AppointmentTable {
+        private final int size;
+        private final int days;
+        private final long[] veterinarianIds;
+        private final int[] dayOffsets;
+        private final int[] starts;
+        private final int[] durations;
+        private final boolean[] cancelled;
+
+        private AppointmentTable(int size) {
+            this.size = size;
+            this.days = (size + VETERINARIANS * APPOINTMENTS_PER_DAY - 1) / (VETERINARIANS * APPOINTMENTS_PER_DAY);
+            this.veterinarianIds = new long[size];
+            this.dayOffsets = new int[size];
+            this.starts = new int[size];
+            this.durations = new int[size];
+            this.cancelled = new boolean[size];
+
+            Random random = new Random(size);
+            for (int i = 0; i < size; i++) {
+                int slot = i % APPOINTMENTS_PER_DAY;
+                veterinarianIds[i] = 1 + (i / APPOINTMENTS_PER_DAY) % VETERINARIANS;
+                dayOffsets[i] = i / (APPOINTMENTS_PER_DAY * VETERINARIANS);
+                starts[i] = 8 * 60 + slot * 40;
+                durations[i] = random.nextBoolean() ? 30 : 45;
+                cancelled[i] = random.nextInt(20) == 0;
+            }
+        }
+
+        private int scanConflicts(long veterinarianId, int day, int start, int end) {
+            int conflicts = 0;
+            for (int i = 0; i < size; i++) {
+                if (veterinarianIds[i] == veterinarianId && dayOffsets[i] == day && !cancelled[i]
+                        && ((starts[i] < end && starts[i] >= start)
+                        || (starts[i] < end && starts[i] + durations[i] > start))) {
+                    conflicts++;
+                }
+            }
+            return conflicts;
+        }
+
+        private List<Appointment> load(long veterinarianId, LocalDate date, LocalDate firstDay) {
+            int day = (int) (date.toEpochDay() - firstDay.toEpochDay());
+            int from = (day * VETERINARIANS + (int) veterinarianId - 1) * APPOINTMENTS_PER_DAY;
+            List<Appointment> appointments = new ArrayList<>();
+            for (int i = from; i < Math.min(size, from + APPOINTMENTS_PER_DAY); i++) {
+                appointments.add(ScheduleIndexTests.appointment((long) i + 1, veterinarianId, date,
+                        LocalTime.of(starts[i] / 60, starts[i] % 60), durations[i],
+                        cancelled[i] ? Appointment.Status.CANCELLED : Appointment.Status.SCHEDULED));
+            }
+            return appointments;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.veterinary.appointmentservice.service;
+
+import com.veterinary.appointmentservice.entity.Appointment;
+import com.veterinary.appointmentservice.repository.AppointmentRepository;
+import com.veterinary.appointmentservice.util.IntervalTree;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ScheduleIndexTests {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private ScheduleIndex scheduleIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testIntervalTreeMatchesBruteForce() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        Map<Long, int[]> intervals = new HashMap<>();
+
+        for (long id = 1; id <= 2000; id++) {
+            int start = random.nextInt(1440);
+            int end = start + 15 + random.nextInt(120);
+            tree.insert(start, end, id);
+            intervals.put(id, new int[]{start, end});
+            // Eliminar de vez en cuando para ejercitar el rebalanceo
+            if (random.nextInt(4) == 0) {
+                long victim = 1 + random.nextInt((int) id);
+                int[] removed = intervals.remove(victim);
+                if (removed != null) {
+                    assertTrue(tree.remove(removed[0], victim));
+                }
+            }
+        }
+        assertEquals(intervals.size(), tree.size());
+
+        for (int i = 0; i < 500; i++) {
+            int start = random.nextInt(1440);
+            int end = start + 15 + random.nextInt(60);
+            List<Long> expected = new ArrayList<>();
+            intervals.forEach((id, interval) -> {
+                if (interval[0] < end && interval[1] > start) {
+                    expected.add(id);
+                }
+            });
+            List<Long> actual = tree.findOverlapping(start, end);
+            Collections.sort(expected);
+            Collections.sort(actual);
+            assertEquals(expected, actual);
+            assertEquals(!expected.isEmpty(), tree.overlapsAny(start, end, null));
+        }
+    }
+
+    @Test
+    void testConflictDetectionLoadsDayOnce() {
+        when(appointmentRepository.findByVeterinarianIdAndAppointmentDateOrderByAppointmentTime(1L, DAY))
+                .thenReturn(List.of(appointment(10L, 1L, DAY, LocalTime.of(10, 0), 30, Appointment.Status.SCHEDULED),
+                        appointment(11L, 1L, DAY, LocalTime.of(11, 0), 30, Appointment.Status.CANCELLED)));
+
+        assertTrue(scheduleIndex.hasConflict(1L, DAY, LocalTime.of(10, 15), 30, null));
+        assertTrue(scheduleIndex.hasConflict(1L, DAY, LocalTime.of(9, 45), 30, null));
+        assertFalse(scheduleIndex.hasConflict(1L, DAY, LocalTime.of(10, 30), 30, null));
+        assertFalse(scheduleIndex.hasConflict(1L, DAY, LocalTime.of(9, 30), 30, null));
+        // Las citas canceladas no ocupan agenda
+        assertFalse(scheduleIndex.hasConflict(1L, DAY, LocalTime.of(11, 0), 30, null));
+        // La propia cita no entra en conflicto consigo misma
+        assertFalse(scheduleIndex.hasConflict(1L, DAY, LocalTime.of(10, 0), 30, 10L));
+
+        verify(appointmentRepository, times(1))
+                .findByVeterinarianIdAndAppointmentDateOrderByAppointmentTime(1L, DAY);
+    }
+
+    @Test
+    void testIndexFollowsSavedAppointments() {
+        when(appointmentRepository.findByVeterinarianIdAndAppointmentDateOrderByAppointmentTime(anyLong(), any()))
+                .thenReturn(List.of());
+        assertFalse(scheduleIndex.hasConflict(1L, DAY, LocalTime.of(10, 0), 30, null));
+        assertFalse(scheduleIndex.hasConflict(2L, DAY, LocalTime.of(10, 0), 30, null));
+
+        Appointment appointment = appointment(20L, 1L, DAY, LocalTime.of(10, 0), 30, Appointment.Status.SCHEDULED);
+        scheduleIndex.onSaved(appointment);
+        assertEquals(List.of(20L), scheduleIndex.findConflicts(1L, DAY, LocalTime.of(10, 0), 30, null));
+
+        // Reasignar a otro veterinario mueve la cita entre días indexados
+        appointment.setVeterinarianId(2L);
+        scheduleIndex.onSaved(appointment);
+        assertFalse(scheduleIndex.hasConflict(1L, DAY, LocalTime.of(10, 0), 30, null));
+        assertTrue(scheduleIndex.hasConflict(2L, DAY, LocalTime.of(10, 0), 30, null));
+
+        appointment.setStatus(Appointment.Status.CANCELLED);
+        scheduleIndex.onSaved(appointment);
+        assertFalse(scheduleIndex.hasConflict(2L, DAY, LocalTime.of(10, 0), 30, null));
+    }
+
+    @Test
+    void testVerifyRebuildsDriftedDays() {
+        LocalDateTime updatedAt = LocalDateTime.now().withNano(0);
+        Appointment existing = appointment(30L, 1L, DAY, LocalTime.of(9, 0), 30, Appointment.Status.SCHEDULED);
+        existing.setUpdatedAt(updatedAt);
+        Appointment external = appointment(31L, 1L, DAY, LocalTime.of(15, 0), 30, Appointment.Status.SCHEDULED);
+        external.setUpdatedAt(updatedAt.plusMinutes(1));
+
+        when(appointmentRepository.findByVeterinarianIdAndAppointmentDateOrderByAppointmentTime(1L, DAY))
+                .thenReturn(List.of(existing))
+                .thenReturn(List.of(existing, external));
+        assertFalse(scheduleIndex.hasConflict(1L, DAY, LocalTime.of(15, 0), 30, null));
+
+        // Otra instancia reservó las 15:00 sin pasar por este índice
+        List<Object[]> fingerprints = new ArrayList<>();
+        fingerprints.add(new Object[]{1L, DAY, 2L, updatedAt.plusMinutes(1)});
+        when(appointmentRepository.getScheduleFingerprints(any(), any())).thenReturn(fingerprints);
+
+        scheduleIndex.verify();
+
+        assertTrue(scheduleIndex.hasConflict(1L, DAY, LocalTime.of(15, 0), 30, null));
+        verify(appointmentRepository, times(2))
+                .findByVeterinarianIdAndAppointmentDateOrderByAppointmentTime(1L, DAY);
+    }
+
+    static Appointment appointment(Long id, Long veterinarianId, LocalDate date, LocalTime time,
+                                   int duration, Appointment.Status status) {
+        Appointment appointment = new Appointment(1L, veterinarianId, date, time, "Checkup");
+        appointment.setId(id);
+        appointment.setDurationMinutes(duration);
+        appointment.setStatus(status);
+        return appointment;
+    }
+}
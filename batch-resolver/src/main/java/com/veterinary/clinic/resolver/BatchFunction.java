@@ -0,0 +1,38 @@
+package com.veterinary.clinic.resolver;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consulta en bloque de un servicio remoto. Devuelve los valores de las
+ * claves encontradas; las que no aparecen en el mapa se resuelven a null.
+ */
+@FunctionalInterface
+public interface BatchFunction<K, V> {
+
+    Map<K, V> load(List<K> keys) throws Exception;
+
+    /**
+     * Para servicios sin endpoint en bloque: una llamada por clave distinta.
+     * Una clave que falla queda sin valor y no afecta al resto.
+     */
+    static <K, V> BatchFunction<K, V> perKey(KeyFunction<K, V> keyFunction) {
+        return keys -> {
+            Map<K, V> values = new HashMap<>();
+            for (K key : keys) {
+                try {
+                    values.put(key, keyFunction.load(key));
+                } catch (Exception e) {
+                    // Sin valor: quien consulta aplica su valor por defecto
+                }
+            }
+            return values;
+        };
+    }
+
+    @FunctionalInterface
+    interface KeyFunction<K, V> {
+        V load(K key) throws Exception;
+    }
+}
@@ -0,0 +1,132 @@
+package com.veterinary.clinic.resolver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Agrupa y memoriza las consultas a un servicio durante una petición, al
+ * estilo DataLoader. Las claves se encolan con {@link #load} o
+ * {@link #prefetch} sin llamar al servicio; {@link #dispatch} (o el primer
+ * {@link #get} de una clave pendiente) las envía todas juntas, sin
+ * duplicados y en bloques de como mucho {@code maxBatchSize}. Cada clave se
+ * pide una sola vez: el resultado, o el fallo, se reutiliza hasta que
+ * termina la petición.
+ *
+ * <p>Para que las consultas de una lista salgan en un solo bloque hay que
+ * encolar primero todas las claves y leer después los valores.
+ */
+public final class BatchLoader<K, V> {
+
+    private final String name;
+    private final int maxBatchSize;
+    private final BatchFunction<K, V> batchFunction;
+
+    private final Map<K, CompletableFuture<V>> results = new HashMap<>();
+    private final Set<K> pending = new LinkedHashSet<>();
+
+    private long requests;
+    private long keysLoaded;
+    private long batches;
+    private int largestBatch;
+    private long failedBatches;
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    public BatchLoader(String name, int maxBatchSize, BatchFunction<K, V> batchFunction) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.batchFunction = batchFunction;
+    }
+
+    public synchronized CompletableFuture<V> load(K key) {
+        requests++;
+        return enqueue(key);
+    }
+
+    // Encola las claves de una lista antes de recorrerla; no cuenta como consulta
+    public synchronized void prefetch(Collection<? extends K> keys) {
+        keys.forEach(this::enqueue);
+    }
+
+    public synchronized void dispatch() {
+        while (!pending.isEmpty()) {
+            List<K> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+            Iterator<K> keys = pending.iterator();
+            while (keys.hasNext() && batch.size() < maxBatchSize) {
+                batch.add(keys.next());
+                keys.remove();
+            }
+            batches++;
+            keysLoaded += batch.size();
+            largestBatch = Math.max(largestBatch, batch.size());
+            batchSizes.add(batch.size());
+            try {
+                Map<K, V> values = batchFunction.load(batch);
+                for (K key : batch) {
+                    results.get(key).complete(values != null ? values.get(key) : null);
+                }
+            } catch (Exception e) {
+                failedBatches++;
+                batch.forEach(key -> results.get(key).completeExceptionally(e));
+            }
+        }
+    }
+
+    /**
+     * Valor de la clave; null si el servicio no la devolvió. Lanza
+     * {@link CompletionException} si falló su bloque.
+     */
+    public V get(K key) {
+        CompletableFuture<V> result = load(key);
+        if (!result.isDone()) {
+            dispatch();
+        }
+        return result.join();
+    }
+
+    public V getOrDefault(K key, V defaultValue) {
+        try {
+            V value = get(key);
+            return value != null ? value : defaultValue;
+        } catch (CompletionException e) {
+            return defaultValue;
+        }
+    }
+
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        prefetch(keys);
+        Map<K, V> values = new HashMap<>();
+        for (K key : keys) {
+            V value = getOrDefault(key, null);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    public synchronized LoaderStats stats() {
+        return new LoaderStats(name, requests, keysLoaded, batches, largestBatch, failedBatches,
+                batchSizes.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private CompletableFuture<V> enqueue(K key) {
+        if (key == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return results.computeIfAbsent(key, k -> {
+            pending.add(k);
+            return new CompletableFuture<>();
+        });
+    }
+}
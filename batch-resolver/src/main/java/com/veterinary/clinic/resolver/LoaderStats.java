@@ -0,0 +1,52 @@
+package com.veterinary.clinic.resolver;
+
+/**
+ * Métricas de un {@link BatchLoader}: consultas recibidas, claves pedidas
+ * al servicio, llamadas en bloque y tamaño de cada bloque.
+ */
+public final class LoaderStats {
+
+    private final String name;
+    private final long requests;
+    private final long keysLoaded;
+    private final long batches;
+    private final int largestBatch;
+    private final long failedBatches;
+    private final int[] batchSizes;
+
+    public LoaderStats(String name, long requests, long keysLoaded, long batches, int largestBatch, long failedBatches,
+                       int[] batchSizes) {
+        this.name = name;
+        this.requests = requests;
+        this.keysLoaded = keysLoaded;
+        this.batches = batches;
+        this.largestBatch = largestBatch;
+        this.failedBatches = failedBatches;
+        this.batchSizes = batchSizes;
+    }
+
+    public String getName() { return name; }
+    public long getRequests() { return requests; }
+    public long getKeysLoaded() { return keysLoaded; }
+    public long getBatches() { return batches; }
+    public int getLargestBatch() { return largestBatch; }
+    public long getFailedBatches() { return failedBatches; }
+
+    // Claves de cada llamada en bloque, en el orden en que se hicieron
+    public int[] getBatchSizes() { return batchSizes.clone(); }
+
+    // Consultas resueltas sin pedir una clave nueva al servicio
+    public long getHits() {
+        return Math.max(0, requests - keysLoaded);
+    }
+
+    public double getAverageBatchSize() {
+        return batches > 0 ? (double) keysLoaded / batches : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d requests, %d hits, %d keys in %d batches (avg %.1f, max %d), %d failed",
+                name, requests, getHits(), keysLoaded, batches, getAverageBatchSize(), largestBatch, failedBatches);
+    }
+}
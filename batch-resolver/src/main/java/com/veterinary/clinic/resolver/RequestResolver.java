@@ -0,0 +1,86 @@
+package com.veterinary.clinic.resolver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Los {@link BatchLoader} de una petición HTTP, por nombre. Se guarda como
+ * atributo de la petición, así que todos los servicios que la atienden
+ * comparten caché, y al terminar sus métricas se pasan a los listeners (ver
+ * {@link ResolverMetrics}) y se registran en el log. Fuera de una
+ * petición (tareas programadas, hilos propios) cada llamada a
+ * {@link #current()} devuelve un resolver nuevo.
+ */
+public class RequestResolver implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestResolver.class);
+
+    static final String ATTRIBUTE = RequestResolver.class.getName();
+
+    private static final List<Consumer<LoaderStats>> listeners = new CopyOnWriteArrayList<>();
+
+    private final Map<String, BatchLoader<?, ?>> loaders = new LinkedHashMap<>();
+
+    public static RequestResolver current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new RequestResolver();
+        }
+        RequestResolver resolver = (RequestResolver) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolver == null) {
+            resolver = new RequestResolver();
+            attributes.setAttribute(ATTRIBUTE, resolver, RequestAttributes.SCOPE_REQUEST);
+            attributes.registerDestructionCallback(ATTRIBUTE, resolver::close, RequestAttributes.SCOPE_REQUEST);
+        }
+        return resolver;
+    }
+
+    // Recibe las métricas de cada loader cuando termina la petición
+    public static void addListener(Consumer<LoaderStats> listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Consumer<LoaderStats> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Loader con ese nombre; se crea con la función y el tamaño de bloque
+     * dados la primera vez que se pide en la petición.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <K, V> BatchLoader<K, V> loader(String name, int maxBatchSize, BatchFunction<K, V> batchFunction) {
+        return (BatchLoader<K, V>) loaders.computeIfAbsent(name,
+                key -> new BatchLoader<>(key, maxBatchSize, batchFunction));
+    }
+
+    public synchronized List<LoaderStats> stats() {
+        List<LoaderStats> stats = new ArrayList<>(loaders.size());
+        loaders.values().forEach(loader -> stats.add(loader.stats()));
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        for (LoaderStats stats : stats()) {
+            for (Consumer<LoaderStats> listener : listeners) {
+                try {
+                    listener.accept(stats);
+                } catch (RuntimeException e) {
+                    // Las métricas no deben romper la respuesta
+                    logger.warn("Could not record lookups of {}: {}", stats.getName(), e.getMessage());
+                }
+            }
+            logger.debug("Lookups {}", stats);
+        }
+    }
+}
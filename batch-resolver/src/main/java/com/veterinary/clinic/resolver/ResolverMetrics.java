@@ -0,0 +1,92 @@
+package com.veterinary.clinic.resolver;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Totales acumulados de los {@link BatchLoader} de todas las peticiones,
+ * por nombre de loader: consultas, aciertos de caché, claves pedidas,
+ * llamadas en bloque (y las que fallaron) y la distribución del tamaño de
+ * bloque. Escucha el cierre de cada {@link RequestResolver} desde que se
+ * crea hasta {@link #close()}.
+ */
+public class ResolverMetrics implements MeterBinder, AutoCloseable {
+
+    private final Map<String, Totals> totals = new ConcurrentHashMap<>();
+    private final List<MeterRegistry> registries = new CopyOnWriteArrayList<>();
+    private final Consumer<LoaderStats> listener = this::record;
+
+    public ResolverMetrics() {
+        RequestResolver.addListener(listener);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registries.add(registry);
+        totals.forEach((name, loader) -> register(registry, name, loader));
+    }
+
+    void record(LoaderStats stats) {
+        Totals loader = totals.computeIfAbsent(stats.getName(), name -> {
+            Totals created = new Totals();
+            registries.forEach(registry -> register(registry, name, created));
+            return created;
+        });
+        loader.requests.add(stats.getRequests());
+        loader.hits.add(stats.getHits());
+        loader.keysLoaded.add(stats.getKeysLoaded());
+        loader.batches.add(stats.getBatches());
+        loader.failedBatches.add(stats.getFailedBatches());
+        for (MeterRegistry registry : registries) {
+            DistributionSummary batchSize = batchSize(registry, stats.getName());
+            for (int size : stats.getBatchSizes()) {
+                batchSize.record(size);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        RequestResolver.removeListener(listener);
+    }
+
+    private static void register(MeterRegistry registry, String name, Totals loader) {
+        FunctionCounter.builder("resolver.requests", loader.requests, LongAdder::sum)
+                .tag("loader", name).register(registry);
+        FunctionCounter.builder("resolver.hits", loader.hits, LongAdder::sum)
+                .tag("loader", name).register(registry);
+        FunctionCounter.builder("resolver.keys_loaded", loader.keysLoaded, LongAdder::sum)
+                .tag("loader", name).register(registry);
+        FunctionCounter.builder("resolver.batches", loader.batches, LongAdder::sum)
+                .tag("loader", name).register(registry);
+        FunctionCounter.builder("resolver.failed_batches", loader.failedBatches, LongAdder::sum)
+                .tag("loader", name).register(registry);
+        batchSize(registry, name);
+    }
+
+    // Registrar de nuevo un medidor existente devuelve el mismo
+    private static DistributionSummary batchSize(MeterRegistry registry, String name) {
+        return DistributionSummary.builder("resolver.batch_size")
+                .tag("loader", name)
+                .baseUnit("keys")
+                .register(registry);
+    }
+
+    private static final class Totals {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder keysLoaded = new LongAdder();
+        private final LongAdder batches = new LongAdder();
+        private final LongAdder failedBatches = new LongAdder();
+    }
+}
@@ -0,0 +1,22 @@
+package com.veterinary.clinic.resolver;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publica {@link ResolverMetrics} en las aplicaciones con Micrometer; el
+ * actuator lo enlaza con su registro como cualquier otro MeterBinder.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(MeterBinder.class)
+public class ResolverMetricsAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ResolverMetrics resolverMetrics() {
+        return new ResolverMetrics();
+    }
+}
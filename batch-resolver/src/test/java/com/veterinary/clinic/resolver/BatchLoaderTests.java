@@ -0,0 +1,114 @@
+package com.veterinary.clinic.resolver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchLoaderTests {
+
+    private final List<List<Long>> calls = new ArrayList<>();
+
+    private final BatchFunction<Long, String> names = keys -> {
+        calls.add(new ArrayList<>(keys));
+        Map<Long, String> values = new HashMap<>();
+        // Los ids negativos no existen en el servicio
+        keys.stream().filter(key -> key > 0).forEach(key -> values.put(key, "Name " + key));
+        return values;
+    };
+
+    @Test
+    void testQueuedKeysAreDeduplicatedIntoOneBatch() {
+        BatchLoader<Long, String> loader = new BatchLoader<>("names", 100, names);
+
+        CompletableFuture<String> first = loader.load(1L);
+        CompletableFuture<String> second = loader.load(2L);
+        CompletableFuture<String> again = loader.load(1L);
+        assertTrue(calls.isEmpty());
+
+        loader.dispatch();
+
+        assertEquals(List.of(List.of(1L, 2L)), calls);
+        assertEquals("Name 1", first.join());
+        assertEquals("Name 2", second.join());
+        assertSame(first, again);
+    }
+
+    @Test
+    void testResultsAreCachedForTheRestOfTheRequest() {
+        BatchLoader<Long, String> loader = new BatchLoader<>("names", 100, names);
+        loader.prefetch(List.of(1L, 2L, 3L, 2L));
+
+        assertEquals("Name 2", loader.get(2L));
+        assertEquals("Name 1", loader.get(1L));
+        assertEquals("Name 1", loader.get(1L));
+        assertEquals("Name 4", loader.get(4L));
+
+        assertEquals(List.of(List.of(1L, 2L, 3L), List.of(4L)), calls);
+        LoaderStats stats = loader.stats();
+        assertEquals(4, stats.getRequests());
+        assertEquals(4, stats.getKeysLoaded());
+        assertEquals(2, stats.getBatches());
+        assertEquals(3, stats.getLargestBatch());
+    }
+
+    @Test
+    void testPendingKeysAreSplitByMaxBatchSize() {
+        BatchLoader<Long, String> loader = new BatchLoader<>("names", 2, names);
+
+        Map<Long, String> values = loader.getAll(List.of(1L, 2L, 3L, 4L, 5L, -1L));
+
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L, -1L)), calls);
+        assertEquals(5, values.size());
+        assertFalse(values.containsKey(-1L));
+    }
+
+    @Test
+    void testFailedBatchIsRememberedAndFallsBackToDefault() {
+        int[] attempts = {0};
+        BatchLoader<Long, String> loader = new BatchLoader<>("names", 100, keys -> {
+            attempts[0]++;
+            throw new IllegalStateException("user-service down");
+        });
+
+        loader.prefetch(List.of(1L, 2L));
+        assertEquals("Unknown", loader.getOrDefault(1L, "Unknown"));
+        assertEquals("Unknown", loader.getOrDefault(2L, "Unknown"));
+        assertThrows(CompletionException.class, () -> loader.get(1L));
+
+        assertEquals(1, attempts[0]);
+        assertEquals(1, loader.stats().getFailedBatches());
+    }
+
+    @Test
+    void testPerKeyFunctionIsolatesFailingKeys() {
+        BatchLoader<Long, String> loader = new BatchLoader<>("names", 100, BatchFunction.perKey(key -> {
+            if (key == 2L) {
+                throw new IllegalStateException("not found");
+            }
+            return "Name " + key;
+        }));
+
+        loader.prefetch(List.of(1L, 2L, 3L));
+
+        assertEquals("Name 1", loader.getOrDefault(1L, "Unknown"));
+        assertEquals("Unknown", loader.getOrDefault(2L, "Unknown"));
+        assertEquals("Name 3", loader.getOrDefault(3L, "Unknown"));
+        assertEquals(0, loader.stats().getFailedBatches());
+    }
+
+    @Test
+    void testNullKeysNeverReachTheService() {
+        BatchLoader<Long, String> loader = new BatchLoader<>("names", 100, names);
+
+        assertNull(loader.get(null));
+        assertEquals("Unknown", loader.getOrDefault(null, "Unknown"));
+        assertTrue(calls.isEmpty());
+    }
+}
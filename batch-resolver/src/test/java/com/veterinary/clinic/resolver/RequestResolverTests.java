@@ -0,0 +1,102 @@
+package com.veterinary.clinic.resolver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestResolverTests {
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testLoadersAreSharedWithinARequest() {
+        StubRequestAttributes request = new StubRequestAttributes();
+        RequestContextHolder.setRequestAttributes(request);
+
+        BatchLoader<Long, String> loader = RequestResolver.current().loader("vets", 10, keys -> Map.of(1L, "Dr. Ruiz"));
+        assertEquals("Dr. Ruiz", loader.get(1L));
+
+        // Otro servicio de la misma petición recibe el mismo loader, con su caché
+        BatchLoader<Long, String> same = RequestResolver.current().loader("vets", 10, keys -> {
+            throw new AssertionError("should be cached");
+        });
+        assertSame(loader, same);
+        assertEquals("Dr. Ruiz", same.get(1L));
+        assertNotNull(request.destructionCallbacks.get(RequestResolver.ATTRIBUTE));
+    }
+
+    @Test
+    void testEachRequestGetsItsOwnResolver() {
+        RequestContextHolder.setRequestAttributes(new StubRequestAttributes());
+        RequestResolver first = RequestResolver.current();
+        RequestContextHolder.setRequestAttributes(new StubRequestAttributes());
+
+        assertNotSame(first, RequestResolver.current());
+    }
+
+    @Test
+    void testOutsideARequestEveryCallGetsAFreshResolver() {
+        RequestResolver first = RequestResolver.current();
+        first.loader("vets", 10, keys -> Map.of()).prefetch(List.of(1L));
+
+        assertNotSame(first, RequestResolver.current());
+        assertEquals(1, first.stats().size());
+        assertTrue(RequestResolver.current().stats().isEmpty());
+    }
+
+    private static final class StubRequestAttributes implements RequestAttributes {
+
+        private final Map<String, Object> attributes = new HashMap<>();
+        private final Map<String, Runnable> destructionCallbacks = new HashMap<>();
+
+        @Override
+        public Object getAttribute(String name, int scope) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value, int scope) {
+            attributes.put(name, value);
+        }
+
+        @Override
+        public void removeAttribute(String name, int scope) {
+            attributes.remove(name);
+        }
+
+        @Override
+        public String[] getAttributeNames(int scope) {
+            return attributes.keySet().toArray(new String[0]);
+        }
+
+        @Override
+        public void registerDestructionCallback(String name, Runnable callback, int scope) {
+            destructionCallbacks.put(name, callback);
+        }
+
+        @Override
+        public Object resolveReference(String key) {
+            return null;
+        }
+
+        @Override
+        public String getSessionId() {
+            return "session";
+        }
+
+        @Override
+        public Object getSessionMutex() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.veterinary.clinic.resolver;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResolverMetricsTests {
+
+    private ResolverMetrics metrics;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new ResolverMetrics();
+        registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        metrics.close();
+    }
+
+    @Test
+    void testTotalsAccumulateAcrossRequests() {
+        // Primera petición: 5 claves en bloques de 2, 2 y 1; la clave 1 se consulta dos veces
+        RequestResolver first = new RequestResolver();
+        BatchLoader<Long, String> vets = first.loader("vets", 2, ResolverMetricsTests::names);
+        vets.getAll(List.of(1L, 2L, 3L, 4L, 5L));
+        vets.get(1L);
+        first.close();
+
+        // Segunda petición: una sola clave
+        RequestResolver second = new RequestResolver();
+        second.loader("vets", 2, ResolverMetricsTests::names).get(9L);
+        second.close();
+
+        assertEquals(7.0, counter("resolver.requests", "vets"));
+        assertEquals(1.0, counter("resolver.hits", "vets"));
+        assertEquals(6.0, counter("resolver.keys_loaded", "vets"));
+        assertEquals(4.0, counter("resolver.batches", "vets"));
+        assertEquals(0.0, counter("resolver.failed_batches", "vets"));
+
+        DistributionSummary batchSize = registry.get("resolver.batch_size").tag("loader", "vets").summary();
+        assertEquals(4, batchSize.count());
+        assertEquals(6.0, batchSize.totalAmount());
+        assertEquals(2.0, batchSize.max());
+    }
+
+    @Test
+    void testLoadersAreTaggedByName() {
+        RequestResolver resolver = new RequestResolver();
+        resolver.loader("vets", 10, ResolverMetricsTests::names).get(1L);
+        resolver.<Long, String>loader("patients", 10, keys -> {
+            throw new IllegalStateException("patient-service down");
+        }).getOrDefault(7L, "Desconocido");
+        resolver.close();
+
+        assertEquals(1.0, counter("resolver.batches", "vets"));
+        assertEquals(0.0, counter("resolver.failed_batches", "vets"));
+        assertEquals(1.0, counter("resolver.batches", "patients"));
+        assertEquals(1.0, counter("resolver.failed_batches", "patients"));
+    }
+
+    @Test
+    void testLoadersSeenBeforeBindingAreRegistered() {
+        ResolverMetrics unbound = new ResolverMetrics();
+        try {
+            RequestResolver resolver = new RequestResolver();
+            resolver.loader("clients", 10, ResolverMetricsTests::names).getAll(List.of(1L, 2L));
+            resolver.close();
+
+            SimpleMeterRegistry later = new SimpleMeterRegistry();
+            unbound.bindTo(later);
+
+            assertEquals(2.0, later.get("resolver.keys_loaded").tag("loader", "clients").functionCounter().count());
+            assertNotNull(later.get("resolver.batch_size").tag("loader", "clients").summary());
+        } finally {
+            unbound.close();
+        }
+    }
+
+    @Test
+    void testClosedMetricsStopListening() {
+        metrics.close();
+
+        RequestResolver resolver = new RequestResolver();
+        resolver.loader("vets", 10, ResolverMetricsTests::names).get(1L);
+        resolver.close();
+
+        assertNull(registry.find("resolver.requests").tag("loader", "vets").functionCounter());
+    }
+
+    private double counter(String name, String loader) {
+        return registry.get(name).tag("loader", loader).functionCounter().count();
+    }
+
+    private static Map<Long, String> names(List<Long> keys) {
+        Map<Long, String> names = new HashMap<>();
+        keys.forEach(key -> names.put(key, "Vet " + key));
+        return names;
+    }
+}
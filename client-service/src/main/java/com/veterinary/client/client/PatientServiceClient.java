@@ -0,0 +1,13 @@
+package com.veterinary.client.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@FeignClient(name = "patient-service", path = "/patients")
+public interface PatientServiceClient {
+
+    // Descarta el nombre del cliente que patient-service tiene en caché
+    @DeleteMapping("/client-names/{clientId}")
+    void evictClientName(@PathVariable("clientId") Long clientId);
+}
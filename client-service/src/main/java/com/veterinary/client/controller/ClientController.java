@@ -2,6 +2,7 @@ package com.veterinary.client.controller;
 
 import com.veterinary.client.dto.*;
 import com.veterinary.client.entity.Client;
+import com.veterinary.client.service.ClientChangeFeed;
 import com.veterinary.client.service.ClientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -24,6 +25,9 @@ public class ClientController {
     @Autowired
     private ClientService clientService;
 
+    @Autowired
+    private ClientChangeFeed clientChangeFeed;
+
     @PostMapping
     @Operation(summary = "Create a new client")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -34,6 +38,18 @@ public class ClientController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/changes")
+    @Operation(summary = "Clients created or modified after a change version")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('REPORT_SYNC')")
+    public ResponseEntity<ClientResponse> getChanges(
+            @Parameter(description = "Last change version already processed")
+            @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes")
+            @RequestParam(defaultValue = "500") int limit) {
+        ClientResponse response = clientChangeFeed.getChanges(since, limit);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get client by ID")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -42,6 +58,14 @@ public class ClientController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Get several clients by ID in one request")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<ClientResponse> getClientsByIds(@RequestBody List<Long> ids) {
+        ClientResponse response = clientService.getClientsByIds(ids);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/document/{documentNumber}")
     @Operation(summary = "Get client by document number")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -97,6 +121,24 @@ public class ClientController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Get clients with cursor (keyset) pagination")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<ClientResponse> getClientsByCursor(
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Sort field")
+            @RequestParam(defaultValue = "firstName") String sortBy,
+            @Parameter(description = "Sort direction")
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Skip the total element count")
+            @RequestParam(defaultValue = "false") boolean skipCount) {
+        ClientResponse response = clientService.getClientsByCursor(cursor, size, sortBy, sortDir, skipCount);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/active")
     @Operation(summary = "Get all active clients")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
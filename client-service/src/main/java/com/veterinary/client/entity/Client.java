@@ -1,5 +1,6 @@
 package com.veterinary.client.entity;
 
+import com.veterinary.clinic.common.changes.ChangeVersion;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -10,7 +11,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "clients")
+@Table(name = "clients", indexes = @Index(name = "idx_clients_row_version", columnList = "row_version"))
 public class Client {
 
     @Id
@@ -90,6 +91,10 @@ public class Client {
     @Column(name = "updated_by")
     private String updatedBy;
 
+    // Versión para el feed de cambios que consume report-service
+    @Column(name = "row_version")
+    private Long rowVersion;
+
     public enum DocumentType {
         DNI, PASSPORT, DRIVER_LICENSE, OTHER
     }
@@ -102,11 +107,13 @@ public class Client {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        rowVersion = ChangeVersion.next();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        rowVersion = ChangeVersion.next();
     }
 
     // Constructors
@@ -296,6 +303,14 @@ public class Client {
         this.updatedBy = updatedBy;
     }
 
+    public Long getRowVersion() {
+        return rowVersion;
+    }
+
+    public void setRowVersion(Long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
+
     public String getFullName() {
         return firstName + " " + lastName;
     }
@@ -1,7 +1,9 @@
 package com.veterinary.client.repository;
 
 import com.veterinary.client.entity.Client;
-import org.springframework.data.jpa.repository.JpaRepository;
+import com.veterinary.clinic.common.changes.VersionedRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ClientRepository extends JpaRepository<Client, Long> {
+public interface ClientRepository extends VersionedRepository<Client, Long>, JpaSpecificationExecutor<Client> {
 
     Optional<Client> findByDocumentNumber(String documentNumber);
 
@@ -31,8 +33,8 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
             "c.documentNumber LIKE CONCAT('%', :query, '%') OR " +
             "LOWER(c.email) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "c.phoneNumber LIKE CONCAT('%', :query, '%')) " +
-            "AND c.isActive = true")
-    List<Client> searchClients(@Param("query") String query);
+            "AND c.isActive = true ORDER BY c.lastName, c.firstName, c.id")
+    List<Client> searchClients(@Param("query") String query, Pageable pageable);
 
     @Query("SELECT c FROM Client c WHERE c.city = :city AND c.isActive = true")
     List<Client> findByCity(@Param("city") String city);
@@ -54,4 +56,11 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
 
     @Query("SELECT c FROM Client c WHERE c.emergencyContactPhone IS NOT NULL AND c.isActive = true")
     List<Client> findClientsWithEmergencyContact();
-}
\ No newline at end of file
+
+    // Documentos y emails por páginas de id, [id, documento, email], para rellenar los filtros sin cargar clientes
+    @Query("SELECT c.id, c.documentNumber, c.email FROM Client c WHERE c.id > :afterId ORDER BY c.id")
+    List<Object[]> findKeysAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT c.documentNumber, c.email FROM Client c WHERE c.rowVersion > :since")
+    List<Object[]> findKeysChangedSince(@Param("since") long since);
+}
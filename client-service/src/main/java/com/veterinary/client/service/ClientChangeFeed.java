@@ -0,0 +1,66 @@
+package com.veterinary.client.service;
+
+import com.veterinary.client.dto.ClientDTO;
+import com.veterinary.client.dto.ClientResponse;
+import com.veterinary.client.entity.Client;
+import com.veterinary.client.exception.ClientException;
+import com.veterinary.client.repository.ClientRepository;
+import com.veterinary.clinic.common.changes.ChangeFeed;
+import com.veterinary.clinic.common.changes.ChangeVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feed de cambios de clientes por versión de fila. report-service lo consulta
+ * periódicamente con la última versión que procesó y recibe los clientes
+ * creados o modificados después, en orden de versión.
+ */
+@Service
+public class ClientChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientChangeFeed.class);
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    // Margen para no servir versiones de transacciones que aún no han hecho commit
+    @Value("${changes.lag-ms:5000}")
+    private long lagMillis = 5000;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillRowVersions() {
+        int updated = clientRepository.backfillRowVersions();
+        if (updated > 0) {
+            logger.info("Assigned change versions to {} existing clients", updated);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ClientResponse getChanges(long since, int limit) {
+        ChangeFeed.checkRequest(since, limit, ClientException::new);
+        List<Client> rows = clientRepository.findChanges(since,
+                ChangeVersion.safeUpperBound(lagMillis), PageRequest.of(0, limit + 1));
+        return new ClientResponse("Changes retrieved successfully", ChangeFeed.page(toChanges(rows), since, limit,
+                version -> toChanges(clientRepository.findAtVersion(version))));
+    }
+
+    private static List<Map<String, Object>> toChanges(List<Client> rows) {
+        List<Map<String, Object>> changes = new ArrayList<>(rows.size());
+        for (Client row : rows) {
+            changes.add(ChangeFeed.change(row.getRowVersion(), row.getId(), false, new ClientDTO(row)));
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,44 @@
+package com.veterinary.client.service;
+
+import com.veterinary.client.client.PatientServiceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Avisa a patient-service de que un cliente ha cambiado para que descarte
+ * su nombre en caché. El aviso sale después del commit y, si falla, solo
+ * se registra: la caducidad de la caché acaba corrigiendo el nombre.
+ */
+@Component
+public class ClientChangeNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientChangeNotifier.class);
+
+    @Autowired
+    private PatientServiceClient patientServiceClient;
+
+    public void clientChanged(Long clientId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            notifyPatientService(clientId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                notifyPatientService(clientId);
+            }
+        });
+    }
+
+    private void notifyPatientService(Long clientId) {
+        try {
+            patientServiceClient.evictClientName(clientId);
+        } catch (Exception e) {
+            logger.warn("Could not notify patient-service about client {}: {}", clientId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.veterinary.client.service;
+
+import com.veterinary.client.entity.Client;
+import com.veterinary.client.repository.ClientRepository;
+import com.veterinary.clinic.common.search.KeyFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Filtros de Bloom con los documentos y emails de todos los clientes. Un
+ * positivo se confirma en la base de datos, que tiene índice único sobre las
+ * dos columnas. Se rellenan al arrancar y recogen cada pocos segundos lo
+ * guardado por cualquier instancia.
+ */
+@Component
+public class ClientKeyFilter extends KeyFilter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientKeyFilter.class);
+
+    private static final int DOCUMENT = 0;
+    private static final int EMAIL = 1;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Value("${changes.lag-ms:5000}")
+    private long lagMillis = 5000;
+
+    @Value("${clients.keys.expected-count:100000}")
+    private int expectedCount = 100000;
+
+    @Value("${clients.keys.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    public ClientKeyFilter() {
+        super(2);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Sin filtros todas las comprobaciones van a la base de datos; se reintenta al sincronizar
+            logger.warn("Could not build client key filters: {}", e.getMessage());
+        }
+    }
+
+    // Falso si seguro que ningún cliente tiene ese documento
+    public boolean documentMightExist(String documentNumber) {
+        return mightContain(DOCUMENT, documentNumber);
+    }
+
+    // Falso si seguro que ningún cliente tiene ese email
+    public boolean emailMightExist(String email) {
+        return mightContain(EMAIL, email);
+    }
+
+    public void onSaved(Client client) {
+        if (client != null) {
+            add(client.getDocumentNumber(), client.getEmail());
+        }
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        super.rebuild();
+        logger.info("Client key filters built with {} documents", size(DOCUMENT));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${clients.keys.sync-interval-ms:5000}",
+            initialDelayString = "${clients.keys.sync-interval-ms:5000}")
+    public void sync() {
+        super.sync();
+    }
+
+    @Override
+    protected long countRows() {
+        return clientRepository.count();
+    }
+
+    @Override
+    protected List<Object[]> findKeysAfter(long afterId, int limit) {
+        return clientRepository.findKeysAfter(afterId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    protected List<Object[]> findKeysChangedSince(long since) {
+        return clientRepository.findKeysChangedSince(since);
+    }
+
+    @Override
+    protected int expectedCount() {
+        return expectedCount;
+    }
+
+    @Override
+    protected double falsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    @Override
+    protected long lagMillis() {
+        return lagMillis;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("clients.keys.checks", this, KeyFilter::absentChecks)
+                .tag("result", "absent").register(registry);
+        FunctionCounter.builder("clients.keys.checks", this, KeyFilter::maybeChecks)
+                .tag("result", "maybe").register(registry);
+    }
+}
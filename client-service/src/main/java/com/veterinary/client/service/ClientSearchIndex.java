@@ -0,0 +1,112 @@
+package com.veterinary.client.service;
+
+import com.veterinary.clinic.common.search.SearchIndex;
+import com.veterinary.client.entity.Client;
+import com.veterinary.client.repository.ClientRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Índice de trigramas de la búsqueda de clientes activos: nombre, apellidos,
+ * documento, email y teléfono.
+ */
+@Component
+public class ClientSearchIndex extends SearchIndex<Client> {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ClientChangeFeed clientChangeFeed;
+
+    @Value("${changes.lag-ms:5000}")
+    private long lagMillis = 5000;
+
+    @Value("${clients.search.snapshot-path:${java.io.tmpdir}/client-search.idx}")
+    private String snapshotPath = System.getProperty("java.io.tmpdir") + "/client-search.idx";
+
+    @Value("${clients.search.max-results:200}")
+    private int maxResults = 200;
+
+    public ClientSearchIndex() {
+        super("client", 5);
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        super.warmUp();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${clients.search.sync-interval-ms:30000}",
+            initialDelayString = "${clients.search.sync-interval-ms:30000}")
+    public void sync() {
+        super.sync();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${clients.search.snapshot-interval-ms:600000}",
+            initialDelayString = "${clients.search.snapshot-interval-ms:600000}")
+    @PreDestroy
+    public void saveSnapshot() {
+        super.saveSnapshot();
+    }
+
+    @Override
+    protected List<Client> findChanges(long since, long upTo, int limit) {
+        return clientRepository.findChanges(since, upTo, PageRequest.of(0, limit));
+    }
+
+    @Override
+    protected List<Client> findAtVersion(long version) {
+        return clientRepository.findAtVersion(version);
+    }
+
+    @Override
+    protected long rowVersion(Client client) {
+        return client.getRowVersion();
+    }
+
+    @Override
+    protected Long idOf(Client client) {
+        return client.getId();
+    }
+
+    @Override
+    protected String[] fieldsOf(Client client) {
+        if (!Boolean.TRUE.equals(client.getIsActive())) {
+            return null;
+        }
+        return new String[]{client.getFirstName(), client.getLastName(), client.getDocumentNumber(),
+                client.getEmail(), client.getPhoneNumber()};
+    }
+
+    @Override
+    protected void backfillRowVersions() {
+        clientChangeFeed.backfillRowVersions();
+    }
+
+    @Override
+    protected String snapshotPath() {
+        return snapshotPath;
+    }
+
+    @Override
+    protected long lagMillis() {
+        return lagMillis;
+    }
+
+    @Override
+    public int maxResults() {
+        return maxResults;
+    }
+}
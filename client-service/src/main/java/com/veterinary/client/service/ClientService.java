@@ -4,11 +4,15 @@ import com.veterinary.client.dto.*;
 import com.veterinary.client.entity.Client;
 import com.veterinary.client.exception.ClientException;
 import com.veterinary.client.repository.ClientRepository;
+import com.veterinary.clinic.common.paging.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,24 +20,42 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ClientService {
 
+    static final int MAX_BATCH_IDS = 1000;
+
+    private static final KeysetCursor CLIENT_CURSOR = new KeysetCursor(Client.class, Set.of(
+            "id", "firstName", "lastName", "documentNumber", "createdAt", "updatedAt"));
+
     @Autowired
     private ClientRepository clientRepository;
 
+    @Autowired
+    private ClientChangeNotifier clientChangeNotifier;
+
+    @Autowired
+    private ClientSearchIndex clientSearchIndex;
+
+    @Autowired
+    private ClientKeyFilter clientKeyFilter;
+
     public ClientResponse createClient(CreateClientRequest request, String currentUser) {
         // Validar que el documento no existe
-        if (clientRepository.existsByDocumentNumber(request.getDocumentNumber())) {
+        if (clientKeyFilter.documentMightExist(request.getDocumentNumber())
+                && clientRepository.existsByDocumentNumber(request.getDocumentNumber())) {
             throw new ClientException("Document number already exists!");
         }
 
         // Validar que el email no existe (si se proporciona)
         if (request.getEmail() != null && !request.getEmail().trim().isEmpty()) {
-            if (clientRepository.existsByEmail(request.getEmail())) {
+            if (clientKeyFilter.emailMightExist(request.getEmail())
+                    && clientRepository.existsByEmail(request.getEmail())) {
                 throw new ClientException("Email already exists!");
             }
         }
@@ -61,6 +83,8 @@ public class ClientService {
         client.setUpdatedBy(currentUser);
 
         Client savedClient = clientRepository.save(client);
+        clientSearchIndex.onSaved(savedClient);
+        clientKeyFilter.onSaved(savedClient);
         ClientDTO clientDTO = new ClientDTO(savedClient);
 
         return new ClientResponse("Client created successfully", clientDTO);
@@ -75,20 +99,39 @@ public class ClientService {
     }
 
     public ClientResponse getClientByDocumentNumber(String documentNumber) {
-        Client client = clientRepository.findByDocumentNumber(documentNumber)
+        Optional<Client> found = clientKeyFilter.documentMightExist(documentNumber)
+                ? clientRepository.findByDocumentNumber(documentNumber)
+                : Optional.empty();
+        Client client = found
                 .orElseThrow(() -> new ClientException("Client not found with document number: " + documentNumber));
 
         ClientDTO clientDTO = new ClientDTO(client);
         return new ClientResponse("Client found", clientDTO);
     }
 
+    // Una sola consulta para varios clientes; los ids que no existen se omiten
+    @Transactional(readOnly = true)
+    public ClientResponse getClientsByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new ClientException("At least one client id is required");
+        }
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new ClientException("Cannot look up more than " + MAX_BATCH_IDS + " clients at once");
+        }
+        List<ClientDTO> clients = clientRepository.findAllById(ids).stream()
+                .map(ClientDTO::new)
+                .collect(Collectors.toList());
+        return new ClientResponse("Clients retrieved successfully", clients);
+    }
+
     public ClientResponse updateClient(Long id, UpdateClientRequest request, String currentUser) {
         Client client = clientRepository.findById(id)
                 .orElseThrow(() -> new ClientException("Client not found with id: " + id));
 
         // Validar email único si se está cambiando
         if (request.getEmail() != null && !request.getEmail().equals(client.getEmail())) {
-            if (clientRepository.existsByEmail(request.getEmail())) {
+            if (clientKeyFilter.emailMightExist(request.getEmail())
+                    && clientRepository.existsByEmail(request.getEmail())) {
                 throw new ClientException("Email already exists!");
             }
         }
@@ -139,6 +182,9 @@ public class ClientService {
 
         client.setUpdatedBy(currentUser);
         Client updatedClient = clientRepository.save(client);
+        clientSearchIndex.onSaved(updatedClient);
+        clientKeyFilter.onSaved(updatedClient);
+        clientChangeNotifier.clientChanged(id);
         ClientDTO clientDTO = new ClientDTO(updatedClient);
 
         return new ClientResponse("Client updated successfully", clientDTO);
@@ -150,7 +196,8 @@ public class ClientService {
 
         client.setIsActive(true);
         client.setUpdatedBy(currentUser);
-        clientRepository.save(client);
+        clientSearchIndex.onSaved(clientRepository.save(client));
+        clientChangeNotifier.clientChanged(id);
 
         return new ClientResponse("Client activated successfully");
     }
@@ -161,7 +208,8 @@ public class ClientService {
 
         client.setIsActive(false);
         client.setUpdatedBy(currentUser);
-        clientRepository.save(client);
+        clientSearchIndex.onSaved(clientRepository.save(client));
+        clientChangeNotifier.clientChanged(id);
 
         return new ClientResponse("Client deactivated successfully");
     }
@@ -188,6 +236,41 @@ public class ClientService {
         return new ClientResponse("Clients retrieved successfully", response);
     }
 
+    // Paginación por cursor: cada página cuesta lo mismo, sin OFFSET ni COUNT(*)
+    @Transactional(readOnly = true)
+    public ClientResponse getClientsByCursor(String cursor, int size, String sortBy, String sortDir, boolean skipCount) {
+        if (size < 1 || size > 100) {
+            throw new ClientException("Page size must be between 1 and 100");
+        }
+        Sort sort;
+        KeysetScrollPosition position;
+        try {
+            sort = CLIENT_CURSOR.sort(sortBy, sortDir);
+            position = CLIENT_CURSOR.decode(cursor, sortBy, sortDir);
+        } catch (IllegalArgumentException e) {
+            throw new ClientException(e.getMessage());
+        }
+
+        Window<Client> window = clientRepository.findBy(Specification.where(null),
+                query -> query.sortBy(sort).limit(size).scroll(position));
+
+        List<ClientDTO> clients = window.getContent().stream()
+                .map(ClientDTO::new)
+                .collect(Collectors.toList());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("clients", clients);
+        response.put("pageSize", size);
+        response.put("hasNext", window.hasNext());
+        response.put("nextCursor", window.hasNext()
+                ? CLIENT_CURSOR.encode(window.positionAt(window.size() - 1), sortBy, sortDir) : null);
+        if (!skipCount) {
+            response.put("totalElements", clientRepository.count());
+        }
+
+        return new ClientResponse("Clients retrieved successfully", response);
+    }
+
     public ClientResponse getActiveClients() {
         List<Client> clients = clientRepository.findAllActiveClients();
 
@@ -199,7 +282,9 @@ public class ClientService {
     }
 
     public ClientResponse searchClients(String query) {
-        List<Client> clients = clientRepository.searchClients(query);
+        List<Client> clients = clientSearchIndex.isReady()
+                ? findRanked(clientSearchIndex.search(query))
+                : clientRepository.searchClients(query, PageRequest.of(0, clientSearchIndex.maxResults()));
 
         List<ClientDTO> clientDTOs = clients.stream()
                 .map(ClientDTO::new)
@@ -208,6 +293,16 @@ public class ClientService {
         return new ClientResponse("Search completed", clientDTOs);
     }
 
+    // Clientes en el orden del índice; los que ya no estén activos se descartan
+    private List<Client> findRanked(List<Long> ids) {
+        Map<Long, Client> byId = new HashMap<>();
+        clientRepository.findAllById(ids).forEach(client -> byId.put(client.getId(), client));
+        return ids.stream()
+                .map(byId::get)
+                .filter(client -> client != null && Boolean.TRUE.equals(client.getIsActive()))
+                .collect(Collectors.toList());
+    }
+
     public ClientResponse searchClientsByName(String name) {
         List<Client> clients = clientRepository.findByFirstNameContainingOrLastNameContaining(name);
 
@@ -268,7 +363,8 @@ public class ClientService {
         // Eliminación lógica (desactivar)
         client.setIsActive(false);
         client.setUpdatedBy(currentUser);
-        clientRepository.save(client);
+        clientSearchIndex.onSaved(clientRepository.save(client));
+        clientChangeNotifier.clientChanged(id);
 
         return new ClientResponse("Client deleted successfully");
     }
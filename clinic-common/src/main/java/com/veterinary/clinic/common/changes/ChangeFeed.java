@@ -0,0 +1,79 @@
+package com.veterinary.clinic.common.changes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Páginas del feed {@code /changes} que report-service consulta con la
+ * última versión que procesó. Cada servicio lee de su repositorio una fila
+ * más que el límite, en orden de versión, y arma aquí la respuesta:
+ * {@code changes}, {@code nextVersion} y {@code hasMore}.
+ */
+public final class ChangeFeed {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private ChangeFeed() {}
+
+    // Lanza el error del servicio, que su manejador convierte en 400
+    public static void checkRequest(long since, int limit, Function<String, ? extends RuntimeException> error) {
+        if (since < 0) {
+            throw error.apply("since must not be negative");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw error.apply("limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    public static Map<String, Object> change(long version, Long id, boolean deleted, Object data) {
+        Map<String, Object> change = new LinkedHashMap<>();
+        change.put("version", version);
+        change.put("id", id);
+        change.put("deleted", deleted);
+        change.put("data", data);
+        return change;
+    }
+
+    /**
+     * Respuesta con los cambios leídos (hasta {@code limit + 1}, ordenados
+     * por versión): la fila de más solo indica que quedan cambios.
+     * {@code versionGroup} devuelve todos los cambios de una versión, por si
+     * la página entera cae dentro de ella.
+     */
+    public static Map<String, Object> page(List<Map<String, Object>> rows, long since, int limit,
+                                           LongFunction<List<Map<String, Object>>> versionGroup) {
+        List<Map<String, Object>> changes = new ArrayList<>(
+                trimToVersionBoundary(rows, limit, change -> (Long) change.get("version"), versionGroup));
+        Map<String, Object> data = new HashMap<>();
+        data.put("changes", changes);
+        data.put("nextVersion", changes.isEmpty() ? since : changes.get(changes.size() - 1).get("version"));
+        data.put("hasMore", rows.size() > limit);
+        return data;
+    }
+
+    /**
+     * Si la página se corta entre filas con la misma versión (filas guardadas
+     * en el mismo microsegundo por dos instancias), esas filas pasan a la
+     * página siguiente para que {@code since} no se salte ninguna. Si todas
+     * las filas leídas comparten versión, la página es el grupo completo de
+     * esa versión aunque supere {@code limit}.
+     */
+    public static <T> List<T> trimToVersionBoundary(List<T> rows, int limit, ToLongFunction<T> versionOf,
+                                                    LongFunction<List<T>> versionGroup) {
+        if (rows.size() <= limit) {
+            return rows;
+        }
+        long cut = versionOf.applyAsLong(rows.get(limit));
+        int end = limit;
+        while (end > 0 && versionOf.applyAsLong(rows.get(end - 1)) == cut) {
+            end--;
+        }
+        return end > 0 ? rows.subList(0, end) : versionGroup.apply(cut);
+    }
+}
@@ -0,0 +1,33 @@
+package com.veterinary.clinic.common.changes;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión de cambio de las filas que lee el feed {@code /changes}: crece de
+ * forma monótona y sigue al reloj en microsegundos, de modo que un lector
+ * puede pedir "lo cambiado después de la versión N".
+ */
+public final class ChangeVersion {
+
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private ChangeVersion() {}
+
+    public static long next() {
+        long now = currentMicros();
+        return LAST.updateAndGet(previous -> Math.max(previous + 1, now));
+    }
+
+    /**
+     * Versión más alta que el feed puede servir sin saltarse filas: las
+     * transacciones que aún no han hecho commit tienen versiones posteriores
+     * a {@code now - lag}, siempre que duren menos que el margen.
+     */
+    public static long safeUpperBound(long lagMillis) {
+        return currentMicros() - lagMillis * 1000;
+    }
+
+    private static long currentMicros() {
+        return System.currentTimeMillis() * 1000;
+    }
+}
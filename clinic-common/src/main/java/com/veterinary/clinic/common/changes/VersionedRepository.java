@@ -0,0 +1,32 @@
+package com.veterinary.clinic.common.changes;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repositorio de una entidad con columna {@code rowVersion} asignada con
+ * {@link ChangeVersion#next()}, que sirve el feed {@code /changes}.
+ */
+@NoRepositoryBean
+public interface VersionedRepository<T, ID> extends JpaRepository<T, ID> {
+
+    // Feed de cambios para el modelo de lectura de report-service
+    @Query("SELECT e FROM #{#entityName} e WHERE e.rowVersion > :since AND e.rowVersion <= :upTo " +
+            "ORDER BY e.rowVersion, e.id")
+    List<T> findChanges(@Param("since") long since, @Param("upTo") long upTo, Pageable pageable);
+
+    // Grupo completo de una versión, para no partirlo entre páginas
+    @Query("SELECT e FROM #{#entityName} e WHERE e.rowVersion = :version ORDER BY e.id")
+    List<T> findAtVersion(@Param("version") long version);
+
+    // Filas anteriores a la columna row_version: toman el id como versión inicial
+    @Modifying
+    @Query("UPDATE #{#entityName} e SET e.rowVersion = e.id WHERE e.rowVersion IS NULL")
+    int backfillRowVersions();
+}
@@ -0,0 +1,117 @@
+package com.veterinary.clinic.common.paging;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cursor opaco para paginación por keyset: guarda el orden pedido y los
+ * valores de la última fila (campo de orden e id) en Base64 URL-safe.
+ * La siguiente página se lee con WHERE sobre esas claves, sin OFFSET.
+ */
+public final class KeysetCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Class<?> entityType;
+    private final Set<String> sortableFields;
+
+    public KeysetCursor(Class<?> entityType, Set<String> sortableFields) {
+        this.entityType = entityType;
+        this.sortableFields = sortableFields;
+    }
+
+    // Orden estable: el campo pedido y el id como desempate
+    public Sort sort(String sortBy, String sortDir) {
+        if (!sortableFields.contains(sortBy)) {
+            throw new IllegalArgumentException("Cursor pagination supports sortBy in " + sortableFields);
+        }
+        Sort.Direction direction = Sort.Direction.fromString(direction(sortDir));
+        Sort sort = Sort.by(direction, sortBy);
+        return "id".equals(sortBy) ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    public String encode(ScrollPosition position, String sortBy, String sortDir) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        ((KeysetScrollPosition) position).getKeys().forEach((key, value) -> keys.put(key, String.valueOf(value)));
+        Map<String, Object> cursor = new LinkedHashMap<>();
+        cursor.put("s", sortBy);
+        cursor.put("d", direction(sortDir));
+        cursor.put("k", keys);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(cursor));
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    public KeysetScrollPosition decode(String cursor, String sortBy, String sortDir) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> decoded;
+        try {
+            decoded = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), new TypeReference<>() {});
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        // Un cursor solo vale para el mismo orden con el que se generó
+        if (!sortBy.equals(decoded.get("s")) || !direction(sortDir).equals(decoded.get("d"))
+                || !(decoded.get("k") instanceof Map<?, ?> rawKeys)) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : rawKeys.entrySet()) {
+            String property = String.valueOf(entry.getKey());
+            if (!sortableFields.contains(property)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            keys.put(property, convert(property, String.valueOf(entry.getValue())));
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private static String direction(String sortDir) {
+        return "desc".equalsIgnoreCase(sortDir) ? "desc" : "asc";
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object convert(String property, String value) {
+        Class<?> type;
+        try {
+            Field field = entityType.getDeclaredField(property);
+            type = field.getType();
+        } catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            if (type == Long.class) {
+                return Long.valueOf(value);
+            } else if (type == Integer.class) {
+                return Integer.valueOf(value);
+            } else if (type == LocalDate.class) {
+                return LocalDate.parse(value);
+            } else if (type == LocalTime.class) {
+                return LocalTime.parse(value);
+            } else if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(value);
+            } else if (type.isEnum()) {
+                return Enum.valueOf((Class<Enum>) type, value);
+            }
+            return value;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
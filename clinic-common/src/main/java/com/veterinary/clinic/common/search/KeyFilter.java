@@ -0,0 +1,159 @@
+package com.veterinary.clinic.common.search;
+
+import com.veterinary.clinic.common.changes.ChangeVersion;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtros de Bloom con los valores de una o varias columnas únicas de una
+ * tabla, uno por columna. Un negativo asegura que el valor no existe y evita
+ * la consulta; un positivo se confirma en la base de datos. Se rellenan
+ * recorriendo la tabla por páginas de id y {@link #sync()} recoge lo guardado
+ * por cualquier instancia desde la última sincronización; las subclases solo
+ * aportan las consultas y la configuración.
+ */
+public abstract class KeyFilter {
+
+    public static final int PAGE_SIZE = 5000;
+
+    private final int columns;
+
+    private volatile BloomFilter[] filters;
+    private long syncedVersion;
+
+    private final LongAdder absent = new LongAdder();
+    private final LongAdder maybe = new LongAdder();
+
+    protected KeyFilter(int columns) {
+        this.columns = columns;
+    }
+
+    // Filas de la tabla, para dimensionar los filtros
+    protected abstract long countRows();
+
+    // [id, valor de cada columna] de las filas con id mayor que afterId, en orden de id
+    protected abstract List<Object[]> findKeysAfter(long afterId, int limit);
+
+    // [valor de cada columna] de las filas con versión de cambios mayor que since
+    protected abstract List<Object[]> findKeysChangedSince(long since);
+
+    // Versión de cambios hasta la que se ha leído todo, sin margen
+    protected long currentVersion() {
+        return ChangeVersion.safeUpperBound(0);
+    }
+
+    protected abstract int expectedCount();
+
+    protected abstract double falsePositiveRate();
+
+    // Transacciones más cortas que este margen ya son visibles en la siguiente sincronización
+    protected abstract long lagMillis();
+
+    /**
+     * Falso si seguro que ninguna fila tiene ese valor en la columna. Mientras
+     * los filtros no estén construidos responde siempre verdadero.
+     */
+    protected boolean mightContain(int column, String value) {
+        BloomFilter[] current = filters;
+        boolean mightExist = current == null || current[column].mightContain(key(value));
+        (mightExist ? maybe : absent).increment();
+        return mightExist;
+    }
+
+    // Se añade sin esperar al commit: si la escritura se deshace solo queda un falso positivo
+    protected void add(String... values) {
+        BloomFilter[] current = filters;
+        if (current != null) {
+            addAll(current, values);
+        }
+    }
+
+    /**
+     * Construye filtros nuevos con el doble de capacidad que filas hay, como
+     * mínimo la prevista, y los pone en uso de golpe. Los valores que ya no
+     * existen desaparecen al reconstruir.
+     */
+    public synchronized void rebuild() {
+        long startedAt = currentVersion();
+        int capacity = (int) Math.min(Integer.MAX_VALUE / 2, Math.max(expectedCount(), countRows() * 2));
+        BloomFilter[] built = new BloomFilter[columns];
+        for (int i = 0; i < columns; i++) {
+            built[i] = new BloomFilter(capacity, falsePositiveRate());
+        }
+        long afterId = 0;
+        List<Object[]> page;
+        do {
+            page = findKeysAfter(afterId, PAGE_SIZE);
+            for (Object[] row : page) {
+                for (int i = 0; i < columns; i++) {
+                    addTo(built[i], (String) row[i + 1]);
+                }
+                afterId = (Long) row[0];
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        // Lo guardado durante el recorrido entra con la primera sincronización
+        catchUp(built, startedAt);
+        filters = built;
+        syncedVersion = startedAt;
+    }
+
+    public synchronized void sync() {
+        BloomFilter[] current = filters;
+        if (current == null || isSaturated(current)) {
+            rebuild();
+            return;
+        }
+        long now = currentVersion();
+        catchUp(current, syncedVersion);
+        syncedVersion = now;
+    }
+
+    // Valores de la columna en el filtro en uso; 0 mientras no esté construido
+    public int size(int column) {
+        BloomFilter[] current = filters;
+        return current != null ? current[column].insertions() : 0;
+    }
+
+    public long absentChecks() {
+        return absent.sum();
+    }
+
+    public long maybeChecks() {
+        return maybe.sum();
+    }
+
+    // Como compara la colación de MySQL: sin mayúsculas, acentos ni espacios finales
+    public static String key(String value) {
+        return TrigramIndex.normalize(value).stripTrailing();
+    }
+
+    // Se relee el último margen: una fila puede hacer commit tarde con una versión anterior
+    private void catchUp(BloomFilter[] target, long since) {
+        for (Object[] row : findKeysChangedSince(since - lagMillis() * 1000)) {
+            addAll(target, row);
+        }
+    }
+
+    private void addAll(BloomFilter[] target, Object[] values) {
+        for (int i = 0; i < columns && i < values.length; i++) {
+            addTo(target[i], (String) values[i]);
+        }
+    }
+
+    private static void addTo(BloomFilter filter, String value) {
+        if (value != null) {
+            filter.add(key(value));
+        }
+    }
+
+    private static boolean isSaturated(BloomFilter[] current) {
+        for (BloomFilter filter : current) {
+            if (filter.isSaturated()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,150 @@
+package com.veterinary.clinic.common.search;
+
+import com.veterinary.clinic.common.changes.ChangeFeed;
+import com.veterinary.clinic.common.changes.ChangeVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Índice de trigramas para la búsqueda de texto de una tabla. Arranca del
+ * último snapshot en disco y se pone al día con el feed de cambios por
+ * versión de fila; sin snapshot se construye entero desde la versión 0.
+ * Hasta estar listo, la búsqueda sigue por SQL. Las subclases solo aportan
+ * las consultas, la configuración y los campos de cada fila.
+ */
+public abstract class SearchIndex<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+
+    public static final int PAGE_SIZE = 1000;
+
+    // Nombre en singular para los logs, p. ej. "patient"
+    private final String name;
+
+    private final TrigramIndex index;
+
+    private volatile boolean ready;
+    private volatile long syncedVersion;
+
+    protected SearchIndex(String name, int fields) {
+        this.name = name;
+        this.index = new TrigramIndex(fields);
+    }
+
+    // Filas con versión en (since, upTo], en orden de versión
+    protected abstract List<T> findChanges(long since, long upTo, int limit);
+
+    // Todas las filas escritas con esa versión
+    protected abstract List<T> findAtVersion(long version);
+
+    protected abstract long rowVersion(T row);
+
+    protected abstract Long idOf(T row);
+
+    // Campos indexados de la fila, o null si no debe salir en la búsqueda
+    protected abstract String[] fieldsOf(T row);
+
+    // Las filas sin versión no saldrían en el feed
+    protected abstract void backfillRowVersions();
+
+    protected abstract String snapshotPath();
+
+    // Transacciones más cortas que este margen ya son visibles en la siguiente sincronización
+    protected abstract long lagMillis();
+
+    // Tope de ids por búsqueda, para no cargar media tabla con una consulta de dos letras
+    public abstract int maxResults();
+
+    public void warmUp() {
+        try {
+            long version = index.loadSnapshot(Path.of(snapshotPath()));
+            if (version >= 0) {
+                syncedVersion = version;
+                logger.info("{} search index loaded from snapshot with {} entries", name, index.size());
+            }
+        } catch (Exception e) {
+            logger.warn("Could not load {} search snapshot: {}", name, e.getMessage());
+        }
+        try {
+            backfillRowVersions();
+            sync();
+            logger.info("{} search index ready with {} entries", name, index.size());
+        } catch (Exception e) {
+            // Si falla, se reintenta en la siguiente sincronización
+            logger.warn("Could not build {} search index: {}", name, e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Ids que contienen la consulta, de mejor a peor coincidencia, como mucho max-results
+    public List<Long> search(String query) {
+        return index.search(query, maxResults());
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public synchronized void sync() {
+        long upTo = ChangeVersion.safeUpperBound(lagMillis());
+        long since = syncedVersion;
+        List<T> rows;
+        do {
+            rows = findChanges(since, upTo, PAGE_SIZE + 1);
+            List<T> page = ChangeFeed.trimToVersionBoundary(rows, PAGE_SIZE, this::rowVersion, this::findAtVersion);
+            page.forEach(this::apply);
+            if (!page.isEmpty()) {
+                since = rowVersion(page.get(page.size() - 1));
+            }
+        } while (rows.size() > PAGE_SIZE);
+        syncedVersion = upTo;
+        ready = true;
+    }
+
+    public void saveSnapshot() {
+        if (!ready) {
+            return;
+        }
+        // La versión se lee antes que los documentos: lo que entre entretanto se reaplica al cargar
+        long version = syncedVersion;
+        try {
+            index.writeSnapshot(Path.of(snapshotPath()), version);
+        } catch (Exception e) {
+            logger.warn("Could not save {} search snapshot: {}", name, e.getMessage());
+        }
+    }
+
+    // Refleja una fila recién guardada; dentro de una transacción, tras el commit
+    public void onSaved(T row) {
+        if (row == null || idOf(row) == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(row);
+                }
+            });
+        } else {
+            apply(row);
+        }
+    }
+
+    private void apply(T row) {
+        String[] fields = fieldsOf(row);
+        if (fields != null) {
+            index.put(idOf(row), fields);
+        } else {
+            index.remove(idOf(row));
+        }
+    }
+}
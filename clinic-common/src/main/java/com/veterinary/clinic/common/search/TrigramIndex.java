@@ -0,0 +1,328 @@
+package com.veterinary.clinic.common.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas para búsquedas "contiene" sobre varios campos
+ * de texto, con la semántica de {@code LOWER(campo) LIKE '%q%'} (y, como la
+ * colación de MySQL, sin distinguir acentos). Los candidatos salen de cruzar
+ * las listas de los trigramas de la consulta y se confirman contra el texto,
+ * así que no hay falsos positivos. Los resultados se ordenan por calidad de la
+ * coincidencia y, a igualdad, por el orden de los campos: el primero pesa más.
+ */
+public class TrigramIndex {
+
+    static final int SNAPSHOT_FORMAT = 1;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final int fieldCount;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Campos ya normalizados de cada documento, para confirmar y puntuar coincidencias
+    private Map<Integer, String[]> documents = new HashMap<>();
+    private Map<Long, Postings> postings = new HashMap<>();
+
+    public TrigramIndex(int fieldCount) {
+        this.fieldCount = fieldCount;
+    }
+
+    public void put(long id, String... fields) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            return;
+        }
+        String[] normalized = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            normalized[i] = i < fields.length ? normalize(fields[i]) : "";
+        }
+        lock.writeLock().lock();
+        try {
+            add(documents, postings, (int) id, normalized);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.remove((int) id);
+            if (previous != null) {
+                for (long gram : trigrams(previous)) {
+                    unlink(postings, gram, (int) id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids de los documentos que contienen la consulta en algún campo, de la
+     * mejor coincidencia a la peor; a igualdad, primero los más recientes.
+     * Las consultas de menos de tres caracteres no tienen trigramas y recorren
+     * los documentos en memoria.
+     */
+    public List<Long> search(String query, int limit) {
+        String needle = normalize(query);
+        List<long[]> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (needle.length() < 3) {
+                documents.forEach((id, fields) -> score(hits, id, fields, needle));
+            } else {
+                List<Postings> lists = new ArrayList<>();
+                for (long gram : trigrams(needle)) {
+                    Postings list = postings.get(gram);
+                    if (list == null) {
+                        return List.of();
+                    }
+                    lists.add(list);
+                }
+                // Se recorre la lista más corta y se comprueba en las demás
+                lists.sort(Comparator.comparingInt(list -> list.size));
+                Postings shortest = lists.get(0);
+                for (int i = 0; i < shortest.size; i++) {
+                    int id = shortest.ids[i];
+                    boolean inAll = true;
+                    for (int j = 1; j < lists.size() && inAll; j++) {
+                        inAll = lists.get(j).contains(id);
+                    }
+                    if (inAll) {
+                        score(hits, id, documents.get(id), needle);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(b[0], a[0]));
+        List<Long> ids = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            ids.add(hits.get(i)[0]);
+        }
+        return ids;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Guarda los documentos con la versión de cambios hasta la que están al
+     * día. Se escribe a un fichero temporal y se renombra, así que un corte a
+     * medias deja el snapshot anterior intacto.
+     */
+    public void writeSnapshot(Path path, long version) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(SNAPSHOT_FORMAT);
+            out.writeInt(fieldCount);
+            out.writeLong(version);
+            out.writeInt(documents.size());
+            // En orden de id: al cargar, las listas se rellenan añadiendo al final
+            for (Map.Entry<Integer, String[]> document : new TreeMap<>(documents).entrySet()) {
+                out.writeInt(document.getKey());
+                for (String field : document.getValue()) {
+                    byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Sustituye el contenido por el del snapshot y devuelve su versión, o -1
+     * si no existe o es de otro formato.
+     */
+    public long loadSnapshot(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return -1;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_FORMAT || in.readInt() != fieldCount) {
+                return -1;
+            }
+            long version = in.readLong();
+            int count = in.readInt();
+            Map<Integer, String[]> loadedDocuments = new HashMap<>(count * 4 / 3 + 1);
+            Map<Long, Postings> loadedPostings = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                int id = in.readInt();
+                String[] fields = new String[fieldCount];
+                for (int f = 0; f < fieldCount; f++) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    fields[f] = new String(bytes, StandardCharsets.UTF_8);
+                }
+                add(loadedDocuments, loadedPostings, id, fields);
+            }
+
+            lock.writeLock().lock();
+            try {
+                documents = loadedDocuments;
+                postings = loadedPostings;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return version;
+        }
+    }
+
+    // Minúsculas y sin acentos, como compara la colación utf8mb4_unicode_ci
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return stripped.toLowerCase(Locale.ROOT);
+    }
+
+    private static void add(Map<Integer, String[]> documents, Map<Long, Postings> postings, int id, String[] fields) {
+        String[] previous = documents.put(id, fields);
+        Set<Long> grams = trigrams(fields);
+        if (previous != null) {
+            for (long gram : trigrams(previous)) {
+                if (!grams.contains(gram)) {
+                    unlink(postings, gram, id);
+                }
+            }
+        }
+        for (long gram : grams) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+        }
+    }
+
+    private static void unlink(Map<Long, Postings> postings, long gram, int id) {
+        Postings list = postings.get(gram);
+        if (list != null && list.remove(id) && list.size == 0) {
+            postings.remove(gram);
+        }
+    }
+
+    // Trigramas de cada campo por separado: ninguno cruza de un campo a otro
+    private static Set<Long> trigrams(String... fields) {
+        Set<Long> grams = new HashSet<>();
+        for (String field : fields) {
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                grams.add(((long) field.charAt(i) << 32) | ((long) field.charAt(i + 1) << 16) | field.charAt(i + 2));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Puntuación de la mejor coincidencia entre los campos: campo completo,
+     * inicio del campo, inicio de palabra o en medio; a igual calidad gana el
+     * campo anterior.
+     */
+    private void score(List<long[]> hits, int id, String[] fields, String needle) {
+        long best = 0;
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i];
+            int at = field.indexOf(needle);
+            if (at < 0) {
+                continue;
+            }
+            int quality;
+            if (field.length() == needle.length()) {
+                quality = 4;
+            } else if (at == 0) {
+                quality = 3;
+            } else if (!Character.isLetterOrDigit(field.charAt(at - 1))) {
+                quality = 2;
+            } else {
+                quality = 1;
+            }
+            best = Math.max(best, (long) quality * (fieldCount + 1) + (fieldCount - i));
+        }
+        if (best > 0) {
+            hits.add(new long[]{id, best});
+        }
+    }
+
+    // Ids ordenados de los documentos que contienen un trigrama
+    private static final class Postings {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] < id) {
+                append(id);
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        private void append(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.veterinary.clinic.common.changes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTests {
+
+    @Test
+    void testVersionsAreMonotonic() {
+        long previous = ChangeVersion.next();
+        for (int i = 0; i < 10_000; i++) {
+            long next = ChangeVersion.next();
+            assertTrue(next > previous);
+            previous = next;
+        }
+        assertTrue(ChangeVersion.safeUpperBound(5000) < previous);
+    }
+
+    @Test
+    void testPageIsNotCutInsideAVersion() {
+        List<Long> rows = new ArrayList<>(List.of(11L, 12L, 12L, 12L));
+
+        List<Long> page = ChangeFeed.trimToVersionBoundary(rows, 3, Long::longValue, version -> fail());
+
+        assertEquals(List.of(11L), page);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testVersionLargerThanLimitIsReturnedWhole() {
+        List<Map<String, Object>> group = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            group.add(ChangeFeed.change(12L, id, false, null));
+        }
+
+        // Se leen limit + 1 filas, todas de la versión 12; el grupo tiene 5
+        Map<String, Object> data = ChangeFeed.page(new ArrayList<>(group.subList(0, 3)), 10L, 2, version -> {
+            assertEquals(12L, version);
+            return group;
+        });
+
+        assertEquals(5, ((List<Map<String, Object>>) data.get("changes")).size());
+        assertEquals(12L, data.get("nextVersion"));
+        assertEquals(true, data.get("hasMore"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPageReportsNextVersionAndHasMore() {
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(
+                ChangeFeed.change(11L, 1L, false, "a"),
+                ChangeFeed.change(12L, 2L, true, null),
+                ChangeFeed.change(15L, 3L, false, "c")));
+
+        Map<String, Object> data = ChangeFeed.page(rows, 10L, 2, version -> fail());
+
+        List<Map<String, Object>> changes = (List<Map<String, Object>>) data.get("changes");
+        assertEquals(2, changes.size());
+        assertEquals(true, changes.get(1).get("deleted"));
+        assertEquals(12L, data.get("nextVersion"));
+        assertEquals(true, data.get("hasMore"));
+    }
+
+    @Test
+    void testInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ChangeFeed.checkRequest(-1L, 10, IllegalArgumentException::new));
+        assertThrows(IllegalArgumentException.class,
+                () -> ChangeFeed.checkRequest(0L, ChangeFeed.MAX_LIMIT + 1, IllegalArgumentException::new));
+        ChangeFeed.checkRequest(0L, ChangeFeed.MAX_LIMIT, IllegalArgumentException::new);
+    }
+}
@@ -0,0 +1,70 @@
+package com.veterinary.clinic.common.paging;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTests {
+
+    private final KeysetCursor cursor = new KeysetCursor(Visit.class,
+            Set.of("id", "appointmentDate", "status"));
+
+    @Test
+    void testSortAddsIdAsTieBreaker() {
+        assertEquals(Sort.by(Sort.Direction.DESC, "appointmentDate").and(Sort.by(Sort.Direction.DESC, "id")),
+                cursor.sort("appointmentDate", "DESC"));
+        assertEquals(Sort.by(Sort.Direction.ASC, "id"), cursor.sort("id", "asc"));
+        assertThrows(IllegalArgumentException.class, () -> cursor.sort("notes", "asc"));
+    }
+
+    @Test
+    void testCursorRoundTripRestoresTypedKeys() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("appointmentDate", LocalDate.of(2024, 2, 18));
+        keys.put("id", 5000L);
+
+        String encoded = cursor.encode(ScrollPosition.forward(keys), "appointmentDate", "desc");
+        KeysetScrollPosition decoded = cursor.decode(encoded, "appointmentDate", "DESC");
+
+        assertFalse(encoded.contains("appointmentDate"));
+        assertEquals(keys, decoded.getKeys());
+        assertTrue(decoded.scrollsForward());
+    }
+
+    @Test
+    void testEnumKeysAndFirstPage() {
+        String encoded = cursor.encode(ScrollPosition.forward(Map.of("status", Visit.Status.NO_SHOW, "id", 7L)),
+                "status", "asc");
+
+        assertEquals(Visit.Status.NO_SHOW, cursor.decode(encoded, "status", "asc").getKeys().get("status"));
+        assertTrue(cursor.decode(null, "status", "asc").isInitial());
+    }
+
+    @Test
+    void testRejectsForeignOrTamperedCursors() {
+        String encoded = cursor.encode(ScrollPosition.forward(Map.of("id", 10L)), "id", "asc");
+
+        assertThrows(IllegalArgumentException.class, () -> cursor.decode(encoded, "id", "desc"));
+        assertThrows(IllegalArgumentException.class, () -> cursor.decode(encoded, "appointmentDate", "asc"));
+        assertThrows(IllegalArgumentException.class, () -> cursor.decode("not-a-cursor", "id", "asc"));
+    }
+
+    // Entidad mínima: el cursor solo mira el tipo de cada campo
+    private static final class Visit {
+
+        enum Status { SCHEDULED, NO_SHOW }
+
+        private Long id;
+        private LocalDate appointmentDate;
+        private Status status;
+        private String notes;
+    }
+}
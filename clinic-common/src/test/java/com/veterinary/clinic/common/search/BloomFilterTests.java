@@ -0,0 +1,47 @@
+package com.veterinary.clinic.common.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTests {
+
+    @Test
+    void testAddedKeysAreNeverReportedAbsent() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("CHIP-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("CHIP-" + i));
+        }
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearTheTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("CHIP-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("OTHER-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testOnlyNewKeysCountTowardsCapacity() {
+        BloomFilter filter = new BloomFilter(2, 0.01);
+        assertTrue(filter.add("a"));
+        assertFalse(filter.add("a"));
+        filter.add("b");
+        assertEquals(2, filter.insertions());
+        assertFalse(filter.isSaturated());
+
+        filter.add("c");
+        assertTrue(filter.isSaturated());
+    }
+}
@@ -0,0 +1,103 @@
+package com.veterinary.clinic.common.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyFilterTests {
+
+    private TwoColumnFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new TwoColumnFilter();
+        filter.rows.add(new Object[]{1L, "12345678A", "ana@clinic.com"});
+        filter.rows.add(new Object[]{2L, "87654321B", null});
+    }
+
+    @Test
+    void testEachColumnHasItsOwnFilter() {
+        filter.rebuild();
+
+        assertTrue(filter.mightContain(0, "12345678a"));
+        assertTrue(filter.mightContain(1, "ANA@clinic.com "));
+        assertFalse(filter.mightContain(1, "12345678A"));
+        assertFalse(filter.mightContain(0, "ana@clinic.com"));
+        assertEquals(2, filter.size(0));
+        assertEquals(1, filter.size(1));
+        assertEquals(2, filter.absentChecks());
+        assertEquals(2, filter.maybeChecks());
+    }
+
+    @Test
+    void testSyncRereadsTheLagWindow() {
+        filter.version = 10_000_000;
+        filter.rebuild();
+        filter.changed.add(new Object[]{null, "luis@clinic.com"});
+        filter.version = 12_000_000;
+
+        filter.sync();
+
+        assertTrue(filter.mightContain(1, "luis@clinic.com"));
+        // Desde la versión de la última sincronización menos el margen, en microsegundos
+        assertEquals(List.of(5_000_000L, 5_000_000L), filter.since);
+    }
+
+    private static final class TwoColumnFilter extends KeyFilter {
+
+        private final List<Object[]> rows = new ArrayList<>();
+        private final List<Object[]> changed = new ArrayList<>();
+        private final List<Long> since = new ArrayList<>();
+        private long version;
+
+        TwoColumnFilter() {
+            super(2);
+        }
+
+        @Override
+        protected long countRows() {
+            return rows.size();
+        }
+
+        @Override
+        protected List<Object[]> findKeysAfter(long afterId, int limit) {
+            List<Object[]> page = new ArrayList<>();
+            for (Object[] row : rows) {
+                if ((Long) row[0] > afterId && page.size() < limit) {
+                    page.add(row);
+                }
+            }
+            return page;
+        }
+
+        @Override
+        protected List<Object[]> findKeysChangedSince(long since) {
+            this.since.add(since);
+            return changed;
+        }
+
+        @Override
+        protected long currentVersion() {
+            return version;
+        }
+
+        @Override
+        protected int expectedCount() {
+            return 100;
+        }
+
+        @Override
+        protected double falsePositiveRate() {
+            return 0.01;
+        }
+
+        @Override
+        protected long lagMillis() {
+            return 5000;
+        }
+    }
+}
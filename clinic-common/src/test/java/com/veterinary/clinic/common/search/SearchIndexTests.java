@@ -0,0 +1,127 @@
+package com.veterinary.clinic.common.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testSyncAppliesChangesInVersionOrder() {
+        NoteIndex index = new NoteIndex(dir.resolve("notes.idx"));
+        index.rows.add(new Note(1L, 10L, "vacuna anual"));
+        index.rows.add(new Note(2L, 11L, "vacuna de rabia"));
+        // La nota 1 se oculta después
+        index.rows.add(new Note(1L, 12L, null));
+        assertFalse(index.isReady());
+
+        index.sync();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(2L), index.search("vacuna"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testSearchIsCappedAtMaxResults() {
+        NoteIndex index = new NoteIndex(dir.resolve("notes.idx"));
+        for (long id = 1; id <= 5; id++) {
+            index.rows.add(new Note(id, id, "control " + id));
+        }
+        index.maxResults = 3;
+        index.sync();
+
+        assertEquals(3, index.search("control").size());
+    }
+
+    @Test
+    void testWarmUpStartsFromTheSnapshot() {
+        NoteIndex first = new NoteIndex(dir.resolve("notes.idx"));
+        first.rows.add(new Note(1L, 10L, "vacuna anual"));
+        first.warmUp();
+        first.saveSnapshot();
+
+        NoteIndex second = new NoteIndex(dir.resolve("notes.idx"));
+        second.warmUp();
+
+        assertTrue(second.backfilled);
+        assertEquals(List.of(1L), second.search("anual"));
+        // Solo lee lo posterior a la versión guardada con el snapshot
+        assertTrue(second.reads.get(0) > 10L);
+    }
+
+    private record Note(Long id, long version, String text) {
+    }
+
+    private static final class NoteIndex extends SearchIndex<Note> {
+
+        private final List<Note> rows = new ArrayList<>();
+        private final List<Long> reads = new ArrayList<>();
+        private final Path snapshot;
+        private int maxResults = 200;
+        private boolean backfilled;
+
+        NoteIndex(Path snapshot) {
+            super("note", 1);
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        protected List<Note> findChanges(long since, long upTo, int limit) {
+            reads.add(since);
+            return rows.stream()
+                    .filter(row -> row.version() > since && row.version() <= upTo)
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        protected List<Note> findAtVersion(long version) {
+            return rows.stream().filter(row -> row.version() == version).collect(Collectors.toList());
+        }
+
+        @Override
+        protected long rowVersion(Note row) {
+            return row.version();
+        }
+
+        @Override
+        protected Long idOf(Note row) {
+            return row.id();
+        }
+
+        @Override
+        protected String[] fieldsOf(Note row) {
+            return row.text() != null ? new String[]{row.text()} : null;
+        }
+
+        @Override
+        protected void backfillRowVersions() {
+            backfilled = true;
+        }
+
+        @Override
+        protected String snapshotPath() {
+            return snapshot.toString();
+        }
+
+        @Override
+        protected long lagMillis() {
+            return 0;
+        }
+
+        @Override
+        public int maxResults() {
+            return maxResults;
+        }
+    }
+}
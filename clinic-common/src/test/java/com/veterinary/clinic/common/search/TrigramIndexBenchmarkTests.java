@@ -0,0 +1,129 @@
+package com.veterinary.clinic.common.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara el índice de trigramas con la ruta SQL de searchPatients. Un
+ * {@code LIKE '%q%'} no puede usar ningún índice B-tree, así que la ruta SQL
+ * se modela como el recorrido completo que hace MySQL pasando cada columna a
+ * minúsculas y buscando la subcadena fila a fila (sin contar la ida y vuelta
+ * a la base de datos ni la carga de las entidades, que solo la encarecen).
+ *
+ * Ejecutar con: mvn test -Dtest=TrigramIndexBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TrigramIndexBenchmarkTests {
+
+    private static final int PATIENTS = 100_000;
+    private static final int PROBES = 500;
+
+    private static final String[] NAMES = {"Rocky", "Luna", "Toby", "Coco", "Max", "Nala", "Simba", "Kira",
+            "Bruno", "Lola", "Thor", "Mía", "Zeus", "Canela", "Chispa", "Pelusa", "Rex", "Manchas"};
+    private static final String[] SPECIES = {"Perro", "Gato", "Conejo", "Hurón", "Loro", "Tortuga"};
+    private static final String[] BREEDS = {"Labrador", "Pastor Alemán", "Bulldog Francés", "Siamés", "Persa",
+            "Beagle", "Border Collie", "Mestizo", "Caniche", "Maine Coon", "Yorkshire", "Golden Retriever"};
+    private static final String[] QUERIES = {"luna", "labrador", "pastor", "siam", "coon", "chispa", "rex",
+            "gol", "canela", "9817", "bull", "toby", "mestizo", "zeus"};
+
+    @Test
+    void benchmarkIndexAgainstLikeScan(@TempDir Path dir) throws Exception {
+        PatientTable table = new PatientTable(PATIENTS);
+
+        TrigramIndex index = new TrigramIndex(4);
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < PATIENTS; i++) {
+            index.put(i + 1L, table.names[i], table.species[i], table.breeds[i], table.microchips[i]);
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        Path snapshot = dir.resolve("patient-search.idx");
+        long writeStart = System.nanoTime();
+        index.writeSnapshot(snapshot, 1L);
+        long writeMillis = (System.nanoTime() - writeStart) / 1_000_000;
+        long loadStart = System.nanoTime();
+        TrigramIndex restored = new TrigramIndex(4);
+        restored.loadSnapshot(snapshot);
+        long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+
+        Random random = new Random(7);
+        String[] probes = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = QUERIES[random.nextInt(QUERIES.length)];
+        }
+
+        long likeMatches = 0;
+        long likeStart = System.nanoTime();
+        for (String probe : probes) {
+            likeMatches += table.scan(probe).size();
+        }
+        long likeNanos = System.nanoTime() - likeStart;
+
+        long indexMatches = 0;
+        long indexStart = System.nanoTime();
+        for (String probe : probes) {
+            indexMatches += restored.search(probe, Integer.MAX_VALUE).size();
+        }
+        long indexNanos = System.nanoTime() - indexStart;
+
+        for (String query : QUERIES) {
+            assertEquals(table.scan(query), new HashSet<>(restored.search(query, Integer.MAX_VALUE)), query);
+        }
+        assertEquals(likeMatches, indexMatches);
+        System.out.printf("patients=%,d build=%dms snapshot write=%dms load=%dms | like-scan %.0f us/query | index %.0f us/query | speedup x%.0f%n",
+                PATIENTS, buildMillis, writeMillis, loadMillis,
+                likeNanos / 1000.0 / PROBES, indexNanos / 1000.0 / PROBES, (double) likeNanos / indexNanos);
+    }
+
+    // Tabla en columnas con las mismas cuatro columnas que busca searchPatients
+    private static class PatientTable {
+        private final int size;
+        private final String[] names;
+        private final String[] species;
+        private final String[] breeds;
+        private final String[] microchips;
+
+        private PatientTable(int size) {
+            this.size = size;
+            this.names = new String[size];
+            this.species = new String[size];
+            this.breeds = new String[size];
+            this.microchips = new String[size];
+
+            Random random = new Random(size);
+            for (int i = 0; i < size; i++) {
+                names[i] = NAMES[random.nextInt(NAMES.length)] + (random.nextInt(4) == 0 ? " " + NAMES[random.nextInt(NAMES.length)] : "");
+                species[i] = SPECIES[random.nextInt(SPECIES.length)];
+                breeds[i] = random.nextInt(5) == 0 ? null : BREEDS[random.nextInt(BREEDS.length)];
+                microchips[i] = random.nextInt(3) == 0 ? null : String.format("%015d", Math.abs(random.nextLong()) % 1_000_000_000_000_000L);
+            }
+        }
+
+        private Set<Long> scan(String query) {
+            String needle = TrigramIndex.normalize(query);
+            Set<Long> matches = new HashSet<>();
+            for (int i = 0; i < size; i++) {
+                if (like(names[i], needle) || like(species[i], needle) || like(breeds[i], needle)
+                        || like(microchips[i], needle)) {
+                    matches.add(i + 1L);
+                }
+            }
+            return matches;
+        }
+
+        // LOWER(columna) LIKE '%q%'; las consultas no llevan acentos, así que basta con minúsculas
+        private static boolean like(String column, String needle) {
+            return column != null && column.toLowerCase(Locale.ROOT).contains(needle);
+        }
+    }
+}
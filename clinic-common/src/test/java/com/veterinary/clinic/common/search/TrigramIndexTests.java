@@ -0,0 +1,83 @@
+package com.veterinary.clinic.common.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTests {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex(4);
+        index.put(1L, "Rocky", "Perro", "Labrador", "CHIP-0001");
+        index.put(2L, "Luna", "Gato", "Siamés", "CHIP-0002");
+        index.put(3L, "Toby", "Perro", "Border Collie", null);
+        index.put(4L, "Coco", "Perro", "Labradoodle", "CHIP-0004");
+    }
+
+    @Test
+    void testMatchesSubstringsIgnoringCaseAndAccents() {
+        assertEquals(List.of(4L, 1L), index.search("LABRAD", 10));
+        assertEquals(List.of(2L), index.search("siames", 10));
+        assertEquals(List.of(2L), index.search("Siamés", 10));
+        assertEquals(List.of(), index.search("labradorx", 10));
+    }
+
+    @Test
+    void testCandidatesAreConfirmedAgainstTheText() {
+        // "abra" y "dor" tienen todos sus trigramas en Labradoodle, pero no seguidos como en la consulta
+        index.put(5L, "Abra", "Perro", "Dorado", null);
+        assertEquals(List.of(), index.search("abrador x", 10));
+        assertEquals(List.of(5L), index.search("abra", 10).subList(0, 1));
+    }
+
+    @Test
+    void testBetterMatchesRankFirst() {
+        index.put(5L, "Coco", "Perro", null, null);
+        index.put(6L, "Pancoco", "Perro", null, null);
+        index.put(7L, "Pepe", "Perro", "Coco de agua", null);
+
+        // Campo completo, luego inicio en el nombre, luego inicio en la raza, luego en medio de palabra
+        assertEquals(List.of(5L, 4L, 7L, 6L), index.search("coco", 10));
+        assertEquals(List.of(5L, 4L), index.search("coco", 2));
+    }
+
+    @Test
+    void testUpdatesAndRemovalsDropOldText() {
+        index.put(1L, "Rocky", "Perro", "Beagle", "CHIP-0001");
+        assertEquals(List.of(4L), index.search("labrad", 10));
+        assertEquals(List.of(1L), index.search("beagle", 10));
+
+        index.remove(4L);
+        assertEquals(List.of(), index.search("labrad", 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testShortQueriesScanTheDocuments() {
+        assertEquals(List.of(4L, 3L), index.search("co", 10));
+        assertEquals(4, index.search("", 10).size());
+    }
+
+    @Test
+    void testSnapshotRestoresDocumentsAndVersion(@TempDir Path dir) throws Exception {
+        Path snapshot = dir.resolve("search.idx");
+        index.writeSnapshot(snapshot, 42L);
+
+        TrigramIndex restored = new TrigramIndex(4);
+        assertEquals(42L, restored.loadSnapshot(snapshot));
+        assertEquals(4, restored.size());
+        assertEquals(index.search("perro", 10), restored.search("perro", 10));
+        assertEquals(List.of(3L), restored.search("collie", 10));
+
+        assertEquals(-1L, new TrigramIndex(3).loadSnapshot(snapshot));
+        assertEquals(-1L, restored.loadSnapshot(dir.resolve("missing.idx")));
+    }
+}
@@ -111,6 +111,13 @@ CREATE TABLE IF NOT EXISTS schedule_blocks (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Contadores de citas por estado ("status:...") y por día ("date:...")
+CREATE TABLE IF NOT EXISTS appointment_counters (
+    counter_key VARCHAR(40) PRIMARY KEY,
+    counter_value BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
 -- Insertar tipos de citas por defecto
 INSERT IGNORE INTO appointment_types (name, description, duration_minutes, base_price, color_code) VALUES 
 ('Consulta General', 'Consulta veterinaria general', 30, 45.00, '#4CAF50'),
@@ -0,0 +1,27 @@
+package com.veterinary.clinic.medicalhistoryservice.client;
+
+import java.util.List;
+
+// Respuesta de POST /patients/batch: id, nombre, especie y cliente de cada paciente encontrado
+public class PatientBatchResponse {
+    private String message;
+    private List<PatientDto> data;
+
+    public PatientBatchResponse() {}
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public List<PatientDto> getData() {
+        return data;
+    }
+
+    public void setData(List<PatientDto> data) {
+        this.data = data;
+    }
+}
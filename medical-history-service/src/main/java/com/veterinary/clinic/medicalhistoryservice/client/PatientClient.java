@@ -3,13 +3,23 @@ package com.veterinary.clinic.medicalhistoryservice.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
 
 @FeignClient(name = "patient-service")
 public interface PatientClient {
 
+    int MAX_BATCH_IDS = 1000;
+
     @GetMapping("/api/patients/{id}")
     PatientDto getPatientById(@PathVariable("id") Long id);
 
     @GetMapping("/api/patients/{id}/exists")
     boolean existsById(@PathVariable("id") Long id);
+
+    // Hasta MAX_BATCH_IDS pacientes en una sola consulta
+    @PostMapping("/patients/batch")
+    PatientBatchResponse getPatientsByIds(@RequestBody List<Long> ids);
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.veterinary.clinic.medicalhistoryservice.entity.MedicalDocument;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,6 +13,9 @@ public interface MedicalDocumentRepository extends JpaRepository<MedicalDocument
     // Buscar documentos por historial médico
     List<MedicalDocument> findByMedicalHistoryIdOrderByUploadedAtDesc(Long medicalHistoryId);
 
+    // Buscar documentos de varios historiales en una sola consulta
+    List<MedicalDocument> findByMedicalHistoryIdInOrderByUploadedAtDesc(Collection<Long> medicalHistoryIds);
+
     // Buscar documentos por tipo de archivo
     List<MedicalDocument> findByFileTypeIgnoreCaseOrderByUploadedAtDesc(String fileType);
 
@@ -22,8 +22,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -35,6 +40,9 @@ public class FileService {
     private final List<String> allowedFileTypes = Arrays.asList("pdf", "jpg", "jpeg", "png");
     private final long maxFileSize = 10 * 1024 * 1024; // 10MB
 
+    // Ids por consulta IN al cargar documentos de varios historiales
+    static final int MAX_IN_IDS = 1000;
+
     @Autowired
     private MedicalDocumentRepository documentRepository;
 
@@ -117,6 +125,24 @@ public class FileService {
                 .collect(Collectors.toList());
     }
 
+    // Documentos de varios historiales agrupados por historial; los que no tienen ninguno no aparecen
+    @Transactional(readOnly = true)
+    public Map<Long, List<MedicalDocumentDto>> getDocumentsByMedicalHistoryIds(Collection<Long> medicalHistoryIds) {
+        List<Long> ids = medicalHistoryIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, List<MedicalDocumentDto>> documents = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_IDS) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IN_IDS));
+            for (MedicalDocument document : documentRepository.findByMedicalHistoryIdInOrderByUploadedAtDesc(chunk)) {
+                documents.computeIfAbsent(document.getMedicalHistory().getId(), id -> new ArrayList<>())
+                        .add(convertToDto(document));
+            }
+        }
+        return documents;
+    }
+
     public void deleteDocument(Long documentId) {
         MedicalDocument document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found with id: " + documentId));
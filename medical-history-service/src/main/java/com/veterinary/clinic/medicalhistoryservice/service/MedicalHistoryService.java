@@ -1,22 +1,27 @@
 package com.veterinary.clinic.medicalhistoryservice.service;
 
+import com.veterinary.clinic.medicalhistoryservice.client.PatientBatchResponse;
 import com.veterinary.clinic.medicalhistoryservice.client.PatientClient;
-import com.veterinary.clinic.medicalhistoryservice.client.PatientDto;
 import com.veterinary.clinic.medicalhistoryservice.client.UserClient;
-import com.veterinary.clinic.medicalhistoryservice.client.UserDto;
 import com.veterinary.clinic.medicalhistoryservice.dto.*;
 import com.veterinary.clinic.medicalhistoryservice.entity.MedicalHistory;
 import com.veterinary.clinic.medicalhistoryservice.exception.ResourceNotFoundException;
 import com.veterinary.clinic.medicalhistoryservice.repository.MedicalHistoryRepository;
+import com.veterinary.clinic.resolver.BatchFunction;
+import com.veterinary.clinic.resolver.BatchLoader;
+import com.veterinary.clinic.resolver.RequestResolver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -67,47 +72,37 @@ public class MedicalHistoryService {
     @Transactional(readOnly = true)
     public List<MedicalHistoryResponseDto> getMedicalHistoryByPatientId(Long patientId) {
         List<MedicalHistory> histories = medicalHistoryRepository.findByPatientIdOrderByConsultationDateDesc(patientId);
-        return histories.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+        return convertToResponseDtos(histories);
     }
 
     @Transactional(readOnly = true)
     public Page<MedicalHistoryResponseDto> getMedicalHistoryByPatientId(Long patientId, Pageable pageable) {
         Page<MedicalHistory> histories = medicalHistoryRepository.findByPatientIdOrderByConsultationDateDesc(patientId, pageable);
-        return histories.map(this::convertToResponseDto);
+        return new PageImpl<>(convertToResponseDtos(histories.getContent()), pageable, histories.getTotalElements());
     }
 
     @Transactional(readOnly = true)
     public List<MedicalHistoryResponseDto> getMedicalHistoryByVeterinarianId(Long veterinarianId) {
         List<MedicalHistory> histories = medicalHistoryRepository.findByVeterinarianIdOrderByConsultationDateDesc(veterinarianId);
-        return histories.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+        return convertToResponseDtos(histories);
     }
 
     @Transactional(readOnly = true)
     public List<MedicalHistoryResponseDto> getMedicalHistoryByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         List<MedicalHistory> histories = medicalHistoryRepository.findByConsultationDateBetween(startDate, endDate);
-        return histories.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+        return convertToResponseDtos(histories);
     }
 
     @Transactional(readOnly = true)
     public List<MedicalHistoryResponseDto> getMedicalHistoryByPatientAndDateRange(Long patientId, LocalDateTime startDate, LocalDateTime endDate) {
         List<MedicalHistory> histories = medicalHistoryRepository.findByPatientIdAndConsultationDateBetween(patientId, startDate, endDate);
-        return histories.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+        return convertToResponseDtos(histories);
     }
 
     @Transactional(readOnly = true)
     public List<MedicalHistoryResponseDto> searchByDiagnosis(String diagnosis) {
         List<MedicalHistory> histories = medicalHistoryRepository.findByDiagnosisContainingIgnoreCase(diagnosis);
-        return histories.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+        return convertToResponseDtos(histories);
     }
 
     public MedicalHistoryResponseDto updateMedicalHistory(Long id, MedicalHistoryUpdateDto updateDto) {
@@ -156,37 +151,56 @@ public class MedicalHistoryService {
     }
 
     private MedicalHistoryResponseDto convertToResponseDto(MedicalHistory medicalHistory) {
-        MedicalHistoryResponseDto dto = new MedicalHistoryResponseDto();
-        dto.setId(medicalHistory.getId());
-        dto.setPatientId(medicalHistory.getPatientId());
-        dto.setVeterinarianId(medicalHistory.getVeterinarianId());
-        dto.setDiagnosis(medicalHistory.getDiagnosis());
-        dto.setTreatment(medicalHistory.getTreatment());
-        dto.setNotes(medicalHistory.getNotes());
-        dto.setConsultationDate(medicalHistory.getConsultationDate());
-        dto.setCreatedAt(medicalHistory.getCreatedAt());
-        dto.setUpdatedAt(medicalHistory.getUpdatedAt());
-
-        // Obtener información del paciente
-        try {
-            PatientDto patient = patientClient.getPatientById(medicalHistory.getPatientId());
-            dto.setPatientName(patient.getName());
-        } catch (Exception e) {
-            dto.setPatientName("Unknown Patient");
-        }
+        return convertToResponseDtos(List.of(medicalHistory)).get(0);
+    }
 
-        // Obtener información del veterinario
-        try {
-            UserDto veterinarian = userClient.getUserById(medicalHistory.getVeterinarianId());
-            dto.setVeterinarianName(veterinarian.getFullName());
-        } catch (Exception e) {
-            dto.setVeterinarianName("Unknown Veterinarian");
+    // Pacientes en bloque, cada veterinario una vez por petición y los documentos de todas las historias en un IN
+    private List<MedicalHistoryResponseDto> convertToResponseDtos(List<MedicalHistory> histories) {
+        RequestResolver resolver = RequestResolver.current();
+        BatchLoader<Long, String> patientNames = resolver.loader("medicalHistory.patientNames",
+                PatientClient.MAX_BATCH_IDS, this::patientNames);
+        BatchLoader<Long, String> veterinarianNames = resolver.loader("medicalHistory.veterinarianNames",
+                PatientClient.MAX_BATCH_IDS, BatchFunction.perKey(id -> userClient.getUserById(id).getFullName()));
+        List<Long> historyIds = new ArrayList<>(histories.size());
+        for (MedicalHistory medicalHistory : histories) {
+            patientNames.load(medicalHistory.getPatientId());
+            veterinarianNames.load(medicalHistory.getVeterinarianId());
+            historyIds.add(medicalHistory.getId());
         }
+        patientNames.dispatch();
+        veterinarianNames.dispatch();
+        Map<Long, List<MedicalDocumentDto>> documents = fileService.getDocumentsByMedicalHistoryIds(historyIds);
+
+        List<MedicalHistoryResponseDto> dtos = new ArrayList<>(histories.size());
+        for (MedicalHistory medicalHistory : histories) {
+            MedicalHistoryResponseDto dto = new MedicalHistoryResponseDto();
+            dto.setId(medicalHistory.getId());
+            dto.setPatientId(medicalHistory.getPatientId());
+            dto.setVeterinarianId(medicalHistory.getVeterinarianId());
+            dto.setDiagnosis(medicalHistory.getDiagnosis());
+            dto.setTreatment(medicalHistory.getTreatment());
+            dto.setNotes(medicalHistory.getNotes());
+            dto.setConsultationDate(medicalHistory.getConsultationDate());
+            dto.setCreatedAt(medicalHistory.getCreatedAt());
+            dto.setUpdatedAt(medicalHistory.getUpdatedAt());
+
+            dto.setPatientName(patientNames.getOrDefault(medicalHistory.getPatientId(), "Unknown Patient"));
+            dto.setVeterinarianName(veterinarianNames.getOrDefault(medicalHistory.getVeterinarianId(),
+                    "Unknown Veterinarian"));
+
+            dto.setDocuments(documents.getOrDefault(medicalHistory.getId(), new ArrayList<>()));
+
+            dtos.add(dto);
+        }
+        return dtos;
+    }
 
-        // Obtener documentos asociados
-        List<MedicalDocumentDto> documents = fileService.getDocumentsByMedicalHistoryId(medicalHistory.getId());
-        dto.setDocuments(documents);
-
-        return dto;
+    private Map<Long, String> patientNames(List<Long> patientIds) {
+        Map<Long, String> names = new HashMap<>();
+        PatientBatchResponse response = patientClient.getPatientsByIds(patientIds);
+        if (response != null && response.getData() != null) {
+            response.getData().forEach(patient -> names.put(patient.getId(), patient.getName()));
+        }
+        return names;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,141 @@
+package com.veterinary.clinic.medicalhistoryservice.service;
+
+import com.veterinary.clinic.medicalhistoryservice.client.PatientBatchResponse;
+import com.veterinary.clinic.medicalhistoryservice.client.PatientClient;
+import com.veterinary.clinic.medicalhistoryservice.client.PatientDto;
+import com.veterinary.clinic.medicalhistoryservice.client.UserClient;
+import com.veterinary.clinic.medicalhistoryservice.client.UserDto;
+import com.veterinary.clinic.medicalhistoryservice.dto.MedicalHistoryResponseDto;
+import com.veterinary.clinic.medicalhistoryservice.entity.MedicalDocument;
+import com.veterinary.clinic.medicalhistoryservice.entity.MedicalHistory;
+import com.veterinary.clinic.medicalhistoryservice.repository.MedicalDocumentRepository;
+import com.veterinary.clinic.medicalhistoryservice.repository.MedicalHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Un listado de historias lanza una consulta de documentos para todas las
+ * filas, un bloque de pacientes y una llamada por veterinario distinto,
+ * sin importar cuántas visitas tenga el paciente.
+ */
+class MedicalHistoryListLoadingTests {
+
+    private static final int VISITS = 200;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Mock
+    private MedicalHistoryRepository medicalHistoryRepository;
+
+    @Mock
+    private MedicalDocumentRepository documentRepository;
+
+    @Mock
+    private PatientClient patientClient;
+
+    @Mock
+    private UserClient userClient;
+
+    private MedicalHistoryService medicalHistoryService;
+
+    @BeforeEach
+    void setUp(@TempDir Path uploadDir) {
+        MockitoAnnotations.openMocks(this);
+        FileService fileService = new FileService(uploadDir.toString());
+        ReflectionTestUtils.setField(fileService, "documentRepository", documentRepository);
+        medicalHistoryService = new MedicalHistoryService();
+        ReflectionTestUtils.setField(medicalHistoryService, "medicalHistoryRepository", medicalHistoryRepository);
+        ReflectionTestUtils.setField(medicalHistoryService, "patientClient", patientClient);
+        ReflectionTestUtils.setField(medicalHistoryService, "userClient", userClient);
+        ReflectionTestUtils.setField(medicalHistoryService, "fileService", fileService);
+
+        PatientBatchResponse patients = new PatientBatchResponse();
+        patients.setData(List.of(new PatientDto(7L, "Luna", "Perro", "Beagle", 4, 12.5, 1L)));
+        when(patientClient.getPatientsByIds(anyList())).thenReturn(patients);
+        when(userClient.getUserById(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return new UserDto(id, "vet" + id, "vet" + id + "@clinic.com", "Vet", String.valueOf(id), "VETERINARIO");
+        });
+    }
+
+    @Test
+    void testPatientHistoryLoadsDocumentsAndNamesOncePerPage() {
+        List<MedicalHistory> histories = LongStream.rangeClosed(1, VISITS)
+                .mapToObj(id -> history(id, 7L, 100 + id % 3))
+                .collect(Collectors.toList());
+        when(medicalHistoryRepository.findByPatientIdOrderByConsultationDateDesc(7L)).thenReturn(histories);
+        // Dos documentos en la primera visita y uno en la décima; el resto sin documentos
+        when(documentRepository.findByMedicalHistoryIdInOrderByUploadedAtDesc(anyCollection())).thenReturn(List.of(
+                document(31L, histories.get(0), START.plusDays(2)),
+                document(30L, histories.get(0), START.plusDays(1)),
+                document(32L, histories.get(9), START)));
+
+        List<MedicalHistoryResponseDto> responses = medicalHistoryService.getMedicalHistoryByPatientId(7L);
+
+        assertEquals(VISITS, responses.size());
+        assertEquals(List.of(31L, 30L), documentIds(responses.get(0)));
+        assertEquals(List.of(32L), documentIds(responses.get(9)));
+        assertTrue(responses.get(1).getDocuments().isEmpty());
+        assertEquals("Luna", responses.get(0).getPatientName());
+        assertEquals("Vet 101", responses.get(0).getVeterinarianName());
+
+        verify(documentRepository, times(1)).findByMedicalHistoryIdInOrderByUploadedAtDesc(anyCollection());
+        verify(documentRepository, never()).findByMedicalHistoryIdOrderByUploadedAtDesc(anyLong());
+        verify(patientClient, times(1)).getPatientsByIds(List.of(7L));
+        verify(patientClient, never()).getPatientById(anyLong());
+        verify(userClient, times(3)).getUserById(anyLong());
+    }
+
+    @Test
+    void testLargeListsSplitDocumentQueriesIntoInChunks() {
+        int visits = FileService.MAX_IN_IDS + 1;
+        List<MedicalHistory> histories = LongStream.rangeClosed(1, visits)
+                .mapToObj(id -> history(id, 7L, 100L))
+                .collect(Collectors.toList());
+        when(medicalHistoryRepository.findByDiagnosisContainingIgnoreCase("otitis")).thenReturn(histories);
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(documentRepository.findByMedicalHistoryIdInOrderByUploadedAtDesc(anyCollection())).thenAnswer(invocation -> {
+            chunkSizes.add(invocation.<Collection<Long>>getArgument(0).size());
+            return List.of();
+        });
+
+        assertEquals(visits, medicalHistoryService.searchByDiagnosis("otitis").size());
+        assertEquals(List.of(FileService.MAX_IN_IDS, 1), chunkSizes);
+    }
+
+    private static MedicalHistory history(long id, long patientId, long veterinarianId) {
+        MedicalHistory history = new MedicalHistory();
+        history.setId(id);
+        history.setPatientId(patientId);
+        history.setVeterinarianId(veterinarianId);
+        history.setDiagnosis("Otitis externa");
+        history.setConsultationDate(START.minusDays(id));
+        return history;
+    }
+
+    private static MedicalDocument document(long id, MedicalHistory history, LocalDateTime uploadedAt) {
+        MedicalDocument document = new MedicalDocument("analitica-" + id + ".pdf", "doc-" + id + ".pdf", "pdf", 1024L, history);
+        document.setId(id);
+        document.setUploadedAt(uploadedAt);
+        return document;
+    }
+
+    private static List<Long> documentIds(MedicalHistoryResponseDto response) {
+        return response.getDocuments().stream().map(document -> document.getId()).collect(Collectors.toList());
+    }
+}
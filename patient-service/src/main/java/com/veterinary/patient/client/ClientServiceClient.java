@@ -4,19 +4,32 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 
+import java.util.List;
 import java.util.Map;
 
 @FeignClient(name = "client-service", path = "/clients")
 public interface ClientServiceClient {
 
+    // Límite de client-service para /clients/batch
+    int MAX_BATCH_IDS = 1000;
+
     @GetMapping("/{id}")
     ResponseEntity<Map<String, Object>> getClientById(
             @PathVariable("id") Long id,
             @RequestHeader("Authorization") String authorization
     );
 
+    // Los ids que no existen no aparecen en "data"
+    @PostMapping("/batch")
+    ResponseEntity<Map<String, Object>> getClientsByIds(
+            @RequestBody List<Long> ids,
+            @RequestHeader("Authorization") String authorization
+    );
+
     @GetMapping("/health")
     ResponseEntity<String> getClientServiceHealth();
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.veterinary.patient.controller;
 
 import com.veterinary.patient.dto.*;
+import com.veterinary.patient.service.ClientNameCache;
+import com.veterinary.patient.service.PatientChangeFeed;
 import com.veterinary.patient.service.PatientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,6 +25,12 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private PatientChangeFeed patientChangeFeed;
+
+    @Autowired
+    private ClientNameCache clientNameCache;
+
     @PostMapping
     @Operation(summary = "Create a new patient (pet)")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -34,6 +42,27 @@ public class PatientController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/changes")
+    @Operation(summary = "Patients created or modified after a change version")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('REPORT_SYNC')")
+    public ResponseEntity<PatientResponse> getChanges(
+            @Parameter(description = "Last change version already processed")
+            @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes")
+            @RequestParam(defaultValue = "500") int limit) {
+        PatientResponse response = patientChangeFeed.getChanges(since, limit);
+        return ResponseEntity.ok(response);
+    }
+
+    // Aviso de client-service cuando cambia un cliente
+    @DeleteMapping("/client-names/{clientId}")
+    @Operation(summary = "Evict a cached client name")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<PatientResponse> evictClientName(@PathVariable Long clientId) {
+        clientNameCache.invalidate(clientId);
+        return ResponseEntity.ok(new PatientResponse("Client name evicted"));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get patient by ID")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -44,6 +73,14 @@ public class PatientController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Get the id, name, species and client of several patients")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<PatientResponse> getPatientsByIds(@RequestBody List<Long> ids) {
+        PatientResponse response = patientService.getPatientsByIds(ids);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/client/{clientId}")
     @Operation(summary = "Get patients by client ID")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -113,6 +150,29 @@ public class PatientController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Get patients with cursor (keyset) pagination")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<PatientResponse> getPatientsByCursor(
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Sort field")
+            @RequestParam(defaultValue = "name") String sortBy,
+            @Parameter(description = "Sort direction")
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Skip the total element count")
+            @RequestParam(defaultValue = "false") boolean skipCount,
+            @Parameter(description = "Look up each patient's client name in client-service")
+            @RequestParam(defaultValue = "true") boolean includeClientName,
+            @RequestHeader("Authorization") String authHeader) {
+        // Sin token no se enriquece: quien pagina en bloque resuelve los clientes con una sola consulta
+        PatientResponse response = patientService.getPatientsByCursor(cursor, size, sortBy, sortDir, skipCount,
+                includeClientName ? authHeader : null);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/active")
     @Operation(summary = "Get all active patients")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -143,6 +203,30 @@ public class PatientController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/facets")
+    @Operation(summary = "Faceted patient search with counts per facet value")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<PatientResponse> searchFacets(
+            @Parameter(description = "Species; several values match any of them")
+            @RequestParam(required = false) List<String> species,
+            @Parameter(description = "Breeds; several values match any of them")
+            @RequestParam(required = false) List<String> breed,
+            @Parameter(description = "Genders (MALE, FEMALE, UNKNOWN)")
+            @RequestParam(required = false) List<String> gender,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Boolean sterilized,
+            @RequestParam(required = false) Boolean vaccinated,
+            @RequestParam(required = false) Boolean allergies,
+            @RequestParam(required = false) Boolean conditions,
+            @Parameter(description = "Last patient id of the previous page; omit for the first page")
+            @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "20") int size) {
+        PatientResponse response = patientService.searchFacets(species, breed, gender, active, sterilized,
+                vaccinated, allergies, conditions, afterId, size);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/stats")
     @Operation(summary = "Get patient statistics")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO')")
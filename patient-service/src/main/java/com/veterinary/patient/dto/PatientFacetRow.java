@@ -0,0 +1,112 @@
+package com.veterinary.patient.dto;
+
+import com.veterinary.patient.entity.Patient;
+
+// Columnas que indexa el buscador por facetas; alergias y condiciones llegan ya reducidas a sí/no
+public class PatientFacetRow {
+
+    private Long id;
+    private String species;
+    private String breed;
+    private Patient.Gender gender;
+    private boolean active;
+    private boolean sterilized;
+    private boolean vaccinated;
+    private boolean withAllergies;
+    private boolean withConditions;
+
+    public PatientFacetRow() {}
+
+    public PatientFacetRow(Long id, String species, String breed, Patient.Gender gender, Boolean active,
+                           Boolean sterilized, Boolean vaccinated, Boolean withAllergies, Boolean withConditions) {
+        this.id = id;
+        this.species = species;
+        this.breed = breed;
+        this.gender = gender;
+        this.active = Boolean.TRUE.equals(active);
+        this.sterilized = Boolean.TRUE.equals(sterilized);
+        this.vaccinated = Boolean.TRUE.equals(vaccinated);
+        this.withAllergies = Boolean.TRUE.equals(withAllergies);
+        this.withConditions = Boolean.TRUE.equals(withConditions);
+    }
+
+    public static PatientFacetRow of(Patient patient) {
+        return new PatientFacetRow(patient.getId(), patient.getSpecies(), patient.getBreed(), patient.getGender(),
+                patient.getIsActive(), patient.getIsSterilized(), patient.getIsVaccinated(),
+                patient.getAllergies() != null && !patient.getAllergies().isEmpty(),
+                patient.getMedicalConditions() != null && !patient.getMedicalConditions().isEmpty());
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSpecies() {
+        return species;
+    }
+
+    public void setSpecies(String species) {
+        this.species = species;
+    }
+
+    public String getBreed() {
+        return breed;
+    }
+
+    public void setBreed(String breed) {
+        this.breed = breed;
+    }
+
+    public Patient.Gender getGender() {
+        return gender;
+    }
+
+    public void setGender(Patient.Gender gender) {
+        this.gender = gender;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public boolean isSterilized() {
+        return sterilized;
+    }
+
+    public void setSterilized(boolean sterilized) {
+        this.sterilized = sterilized;
+    }
+
+    public boolean isVaccinated() {
+        return vaccinated;
+    }
+
+    public void setVaccinated(boolean vaccinated) {
+        this.vaccinated = vaccinated;
+    }
+
+    public boolean isWithAllergies() {
+        return withAllergies;
+    }
+
+    public void setWithAllergies(boolean withAllergies) {
+        this.withAllergies = withAllergies;
+    }
+
+    public boolean isWithConditions() {
+        return withConditions;
+    }
+
+    public void setWithConditions(boolean withConditions) {
+        this.withConditions = withConditions;
+    }
+}
@@ -0,0 +1,89 @@
+package com.veterinary.patient.dto;
+
+// Contadores de pacientes calculados en una sola consulta agregada
+public class PatientStatsCounters {
+
+    private long totalPatients;
+    private long activePatients;
+    private long newPatientsThisYear;
+    private long sterilizedCount;
+    private long vaccinatedCount;
+    private long patientsWithAllergies;
+    private long patientsWithMedicalConditions;
+
+    public PatientStatsCounters() {}
+
+    // Con la tabla vacía las sumas llegan a null
+    public PatientStatsCounters(Long totalPatients, Long activePatients, Long newPatientsThisYear,
+                                Long sterilizedCount, Long vaccinatedCount, Long patientsWithAllergies,
+                                Long patientsWithMedicalConditions) {
+        this.totalPatients = valueOf(totalPatients);
+        this.activePatients = valueOf(activePatients);
+        this.newPatientsThisYear = valueOf(newPatientsThisYear);
+        this.sterilizedCount = valueOf(sterilizedCount);
+        this.vaccinatedCount = valueOf(vaccinatedCount);
+        this.patientsWithAllergies = valueOf(patientsWithAllergies);
+        this.patientsWithMedicalConditions = valueOf(patientsWithMedicalConditions);
+    }
+
+    private static long valueOf(Long count) {
+        return count != null ? count : 0L;
+    }
+
+    // Getters and Setters
+    public long getTotalPatients() {
+        return totalPatients;
+    }
+
+    public void setTotalPatients(long totalPatients) {
+        this.totalPatients = totalPatients;
+    }
+
+    public long getActivePatients() {
+        return activePatients;
+    }
+
+    public void setActivePatients(long activePatients) {
+        this.activePatients = activePatients;
+    }
+
+    public long getNewPatientsThisYear() {
+        return newPatientsThisYear;
+    }
+
+    public void setNewPatientsThisYear(long newPatientsThisYear) {
+        this.newPatientsThisYear = newPatientsThisYear;
+    }
+
+    public long getSterilizedCount() {
+        return sterilizedCount;
+    }
+
+    public void setSterilizedCount(long sterilizedCount) {
+        this.sterilizedCount = sterilizedCount;
+    }
+
+    public long getVaccinatedCount() {
+        return vaccinatedCount;
+    }
+
+    public void setVaccinatedCount(long vaccinatedCount) {
+        this.vaccinatedCount = vaccinatedCount;
+    }
+
+    public long getPatientsWithAllergies() {
+        return patientsWithAllergies;
+    }
+
+    public void setPatientsWithAllergies(long patientsWithAllergies) {
+        this.patientsWithAllergies = patientsWithAllergies;
+    }
+
+    public long getPatientsWithMedicalConditions() {
+        return patientsWithMedicalConditions;
+    }
+
+    public void setPatientsWithMedicalConditions(long patientsWithMedicalConditions) {
+        this.patientsWithMedicalConditions = patientsWithMedicalConditions;
+    }
+}
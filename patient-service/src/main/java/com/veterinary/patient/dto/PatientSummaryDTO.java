@@ -0,0 +1,52 @@
+package com.veterinary.patient.dto;
+
+// Proyección mínima de un paciente para las consultas en bloque de otros servicios
+public class PatientSummaryDTO {
+
+    private Long id;
+    private String name;
+    private String species;
+    private Long clientId;
+
+    public PatientSummaryDTO() {}
+
+    public PatientSummaryDTO(Long id, String name, String species, Long clientId) {
+        this.id = id;
+        this.name = name;
+        this.species = species;
+        this.clientId = clientId;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSpecies() {
+        return species;
+    }
+
+    public void setSpecies(String species) {
+        this.species = species;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+}
@@ -1,5 +1,6 @@
 package com.veterinary.patient.entity;
 
+import com.veterinary.clinic.common.changes.ChangeVersion;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -11,7 +12,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "patients")
+@Table(name = "patients", indexes = @Index(name = "idx_patients_row_version", columnList = "row_version"))
 public class Patient {
 
     @Id
@@ -84,6 +85,10 @@ public class Patient {
     @Column(name = "updated_by")
     private String updatedBy;
 
+    // Versión para el feed de cambios que consume report-service
+    @Column(name = "row_version")
+    private Long rowVersion;
+
     public enum Gender {
         MALE, FEMALE, UNKNOWN
     }
@@ -92,6 +97,7 @@ public class Patient {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        rowVersion = ChangeVersion.next();
         if (registrationDate == null) {
             registrationDate = LocalDate.now();
         }
@@ -100,6 +106,7 @@ public class Patient {
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        rowVersion = ChangeVersion.next();
     }
 
     // Constructors
@@ -280,6 +287,14 @@ public class Patient {
         this.updatedBy = updatedBy;
     }
 
+    public Long getRowVersion() {
+        return rowVersion;
+    }
+
+    public void setRowVersion(Long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
+
     // Helper methods
     public Integer getAgeInYears() {
         if (birthDate == null) return null;
@@ -1,16 +1,27 @@
 package com.veterinary.patient.repository;
 
+import com.veterinary.clinic.common.changes.VersionedRepository;
+import com.veterinary.patient.dto.PatientFacetRow;
+import com.veterinary.patient.dto.PatientStatsCounters;
+import com.veterinary.patient.dto.PatientSummaryDTO;
 import com.veterinary.patient.entity.Patient;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, Long> {
+public interface PatientRepository extends VersionedRepository<Patient, Long>, JpaSpecificationExecutor<Patient> {
+
+    String FACET_ROW = "new com.veterinary.patient.dto.PatientFacetRow(p.id, p.species, p.breed, p.gender, " +
+            "p.isActive, p.isSterilized, p.isVaccinated, " +
+            "CASE WHEN p.allergies IS NOT NULL AND p.allergies != '' THEN true ELSE false END, " +
+            "CASE WHEN p.medicalConditions IS NOT NULL AND p.medicalConditions != '' THEN true ELSE false END)";
 
     List<Patient> findByClientId(Long clientId);
 
@@ -22,6 +33,11 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
 
     List<Patient> findByIsActive(Boolean isActive);
 
+    // Solo las columnas de la proyección, sin cargar las entidades
+    @Query("SELECT new com.veterinary.patient.dto.PatientSummaryDTO(p.id, p.name, p.species, p.clientId) " +
+            "FROM Patient p WHERE p.id IN :ids")
+    List<PatientSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
     Optional<Patient> findByMicrochipNumber(String microchipNumber);
 
     Boolean existsByMicrochipNumber(String microchipNumber);
@@ -34,8 +50,8 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
             "LOWER(p.species) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(p.breed) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "p.microchipNumber LIKE CONCAT('%', :query, '%')) " +
-            "AND p.isActive = true")
-    List<Patient> searchPatients(@Param("query") String query);
+            "AND p.isActive = true ORDER BY p.name, p.id")
+    List<Patient> searchPatients(@Param("query") String query, Pageable pageable);
 
     @Query("SELECT DISTINCT p.species FROM Patient p WHERE p.isActive = true ORDER BY p.species")
     List<String> findDistinctSpecies();
@@ -46,27 +62,37 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     @Query("SELECT DISTINCT p.breed FROM Patient p WHERE p.species = :species AND p.breed IS NOT NULL AND p.isActive = true ORDER BY p.breed")
     List<String> findDistinctBreedsBySpecies(@Param("species") String species);
 
-    @Query("SELECT COUNT(p) FROM Patient p WHERE p.isActive = true")
-    Long countActivePatients();
-
-    @Query("SELECT COUNT(p) FROM Patient p WHERE p.species = :species AND p.isActive = true")
-    Long countPatientsBySpecies(@Param("species") String species);
-
     @Query("SELECT COUNT(p) FROM Patient p WHERE p.clientId = :clientId AND p.isActive = true")
     Long countPatientsByClient(@Param("clientId") Long clientId);
 
-    @Query("SELECT COUNT(p) FROM Patient p WHERE YEAR(p.registrationDate) = :year")
-    Long countPatientsByRegistrationYear(@Param("year") int year);
-
-    @Query("SELECT p FROM Patient p WHERE p.isSterilized = :sterilized AND p.isActive = true")
-    List<Patient> findBySterilizedStatus(@Param("sterilized") Boolean sterilized);
-
-    @Query("SELECT p FROM Patient p WHERE p.isVaccinated = :vaccinated AND p.isActive = true")
-    List<Patient> findByVaccinationStatus(@Param("vaccinated") Boolean vaccinated);
-
-    @Query("SELECT p FROM Patient p WHERE p.allergies IS NOT NULL AND p.allergies != '' AND p.isActive = true")
-    List<Patient> findPatientsWithAllergies();
-
-    @Query("SELECT p FROM Patient p WHERE p.medicalConditions IS NOT NULL AND p.medicalConditions != '' AND p.isActive = true")
-    List<Patient> findPatientsWithMedicalConditions();
-}
\ No newline at end of file
+    // Todos los contadores de las estadísticas en una pasada, sin cargar entidades ni columnas TEXT
+    @Query("SELECT new com.veterinary.patient.dto.PatientStatsCounters(" +
+            "COUNT(p), " +
+            "SUM(CASE WHEN p.isActive = true THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN YEAR(p.registrationDate) = :year THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN p.isActive = true AND p.isSterilized = true THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN p.isActive = true AND p.isVaccinated = true THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN p.isActive = true AND p.allergies IS NOT NULL AND p.allergies != '' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN p.isActive = true AND p.medicalConditions IS NOT NULL AND p.medicalConditions != '' THEN 1 ELSE 0 END)) " +
+            "FROM Patient p")
+    PatientStatsCounters aggregateStats(@Param("year") int year);
+
+    // Filas del índice de facetas, por páginas de id y sin columnas TEXT
+    @Query("SELECT " + FACET_ROW + " FROM Patient p WHERE p.id > :afterId ORDER BY p.id")
+    List<PatientFacetRow> findFacetRows(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT " + FACET_ROW + " FROM Patient p WHERE p.rowVersion > :since AND p.rowVersion <= :upTo")
+    List<PatientFacetRow> findFacetRowChanges(@Param("since") long since, @Param("upTo") long upTo);
+
+    // Microchips por páginas de id, [id, microchip], para rellenar el filtro sin cargar pacientes
+    @Query("SELECT p.id, p.microchipNumber FROM Patient p WHERE p.id > :afterId AND p.microchipNumber IS NOT NULL " +
+            "ORDER BY p.id")
+    List<Object[]> findMicrochipsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT p.microchipNumber FROM Patient p WHERE p.rowVersion > :since AND p.microchipNumber IS NOT NULL")
+    List<String> findMicrochipsChangedSince(@Param("since") long since);
+
+    // Pacientes activos por especie: [especie, total]
+    @Query("SELECT p.species, COUNT(p) FROM Patient p WHERE p.isActive = true GROUP BY p.species ORDER BY p.species")
+    List<Object[]> countActiveBySpecies();
+}
@@ -0,0 +1,162 @@
+package com.veterinary.patient.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Nombres de los propietarios (clientId → "Nombre Apellido") en memoria,
+ * con caducidad y un máximo de entradas; al llenarse sale el menos usado.
+ * También se recuerdan, durante menos tiempo, los clientes que client-service
+ * no encontró. client-service avisa cuando un cliente cambia y esa entrada
+ * se descarta; la caducidad cubre los avisos que se pierdan.
+ */
+@Component
+public class ClientNameCache implements MeterBinder {
+
+    @Value("${patients.client-names.ttl-ms:600000}")
+    private long ttlMillis = 600000;
+
+    @Value("${patients.client-names.missing-ttl-ms:60000}")
+    private long missingTtlMillis = 60000;
+
+    @Value("${patients.client-names.max-entries:10000}")
+    private int maxEntries = 10000;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder missingHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder feignCalls = new LongAdder();
+    private final LongAdder feignCallsAvoided = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    // Orden de acceso: el primero es el menos usado
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > maxEntries) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // Cambia con cada aviso; lo cargado mientras llegaba un aviso no se guarda
+    private long generation;
+
+    /**
+     * Nombres de los clientes pedidos. Los que faltan o han caducado se
+     * piden juntos con {@code loader}; si falla, la excepción llega a quien
+     * llama y no se guarda nada. Los clientes inexistentes no aparecen en el
+     * resultado.
+     */
+    public Map<Long, String> getNames(Collection<Long> clientIds, Function<List<Long>, Map<Long, String>> loader) {
+        Map<Long, String> names = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long loadGeneration;
+        synchronized (entries) {
+            long now = System.currentTimeMillis();
+            for (Long clientId : clientIds) {
+                Entry entry = entries.get(clientId);
+                if (entry == null || entry.expiresAt <= now) {
+                    misses.increment();
+                    missing.add(clientId);
+                } else if (entry.name != null) {
+                    hits.increment();
+                    names.put(clientId, entry.name);
+                } else {
+                    missingHits.increment();
+                }
+            }
+            loadGeneration = generation;
+        }
+        if (missing.isEmpty()) {
+            feignCallsAvoided.increment();
+            return names;
+        }
+
+        feignCalls.increment();
+        Map<Long, String> loaded = loader.apply(missing);
+        synchronized (entries) {
+            boolean current = loadGeneration == generation;
+            long now = System.currentTimeMillis();
+            for (Long clientId : missing) {
+                String name = loaded.get(clientId);
+                if (current) {
+                    entries.put(clientId, new Entry(name, now + (name != null ? ttlMillis : missingTtlMillis)));
+                }
+                if (name != null) {
+                    names.put(clientId, name);
+                }
+            }
+        }
+        return names;
+    }
+
+    public void invalidate(Long clientId) {
+        synchronized (entries) {
+            entries.remove(clientId);
+            generation++;
+        }
+        invalidations.increment();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    // Consultas resueltas sin llamar a client-service, incluidas las de clientes inexistentes
+    public double hitRatio() {
+        long served = hits.sum() + missingHits.sum();
+        long total = served + misses.sum();
+        return total > 0 ? (double) served / total : 0.0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("patients.client_names.lookups", hits, LongAdder::sum)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("patients.client_names.lookups", missingHits, LongAdder::sum)
+                .tag("result", "missing").register(registry);
+        FunctionCounter.builder("patients.client_names.lookups", misses, LongAdder::sum)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("patients.client_names.feign_calls", feignCalls, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("patients.client_names.feign_calls_avoided", feignCallsAvoided, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("patients.client_names.evictions", evictions, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("patients.client_names.invalidations", invalidations, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("patients.client_names.size", this, ClientNameCache::size).register(registry);
+        Gauge.builder("patients.client_names.hit_ratio", this, ClientNameCache::hitRatio).register(registry);
+    }
+
+    private static final class Entry {
+
+        // null: el cliente no existe
+        private final String name;
+        private final long expiresAt;
+
+        private Entry(String name, long expiresAt) {
+            this.name = name;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.veterinary.patient.service;
+
+import com.veterinary.clinic.common.search.KeyFilter;
+import com.veterinary.patient.entity.Patient;
+import com.veterinary.patient.repository.PatientRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Filtro de Bloom con los microchips de todos los pacientes. Un positivo se
+ * confirma en la base de datos, que tiene índice único sobre la columna. Se
+ * rellena al arrancar y recoge cada pocos segundos los microchips guardados
+ * por cualquier instancia.
+ */
+@Component
+public class MicrochipFilter extends KeyFilter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(MicrochipFilter.class);
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Value("${changes.lag-ms:5000}")
+    private long lagMillis = 5000;
+
+    @Value("${patients.microchips.expected-count:100000}")
+    private int expectedCount = 100000;
+
+    @Value("${patients.microchips.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    public MicrochipFilter() {
+        super(1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Sin filtro todas las comprobaciones van a la base de datos; se reintenta al sincronizar
+            logger.warn("Could not build microchip filter: {}", e.getMessage());
+        }
+    }
+
+    // Falso si seguro que ningún paciente tiene el microchip
+    public boolean mightExist(String microchipNumber) {
+        return mightContain(0, microchipNumber);
+    }
+
+    public void onSaved(Patient patient) {
+        if (patient != null) {
+            add(patient.getMicrochipNumber());
+        }
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        super.rebuild();
+        logger.info("Microchip filter built with {} microchips", size(0));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${patients.microchips.sync-interval-ms:5000}",
+            initialDelayString = "${patients.microchips.sync-interval-ms:5000}")
+    public void sync() {
+        super.sync();
+    }
+
+    @Override
+    protected long countRows() {
+        return patientRepository.count();
+    }
+
+    @Override
+    protected List<Object[]> findKeysAfter(long afterId, int limit) {
+        return patientRepository.findMicrochipsAfter(afterId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    protected List<Object[]> findKeysChangedSince(long since) {
+        return patientRepository.findMicrochipsChangedSince(since).stream()
+                .map(microchipNumber -> new Object[]{microchipNumber})
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    protected int expectedCount() {
+        return expectedCount;
+    }
+
+    @Override
+    protected double falsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    @Override
+    protected long lagMillis() {
+        return lagMillis;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("patients.microchips.checks", this, KeyFilter::absentChecks)
+                .tag("result", "absent").register(registry);
+        FunctionCounter.builder("patients.microchips.checks", this, KeyFilter::maybeChecks)
+                .tag("result", "maybe").register(registry);
+        Gauge.builder("patients.microchips.size", this, microchips -> microchips.size(0)).register(registry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.veterinary.patient.service;
+
+import com.veterinary.clinic.common.changes.ChangeFeed;
+import com.veterinary.clinic.common.changes.ChangeVersion;
+import com.veterinary.patient.dto.PatientDTO;
+import com.veterinary.patient.dto.PatientResponse;
+import com.veterinary.patient.entity.Patient;
+import com.veterinary.patient.exception.PatientException;
+import com.veterinary.patient.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feed de cambios de pacientes por versión de fila. report-service lo consulta
+ * periódicamente con la última versión que procesó y recibe los pacientes
+ * creados o modificados después, en orden de versión.
+ */
+@Service
+public class PatientChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientChangeFeed.class);
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    // Margen para no servir versiones de transacciones que aún no han hecho commit
+    @Value("${changes.lag-ms:5000}")
+    private long lagMillis = 5000;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillRowVersions() {
+        int updated = patientRepository.backfillRowVersions();
+        if (updated > 0) {
+            logger.info("Assigned change versions to {} existing patients", updated);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public PatientResponse getChanges(long since, int limit) {
+        ChangeFeed.checkRequest(since, limit, PatientException::new);
+        List<Patient> rows = patientRepository.findChanges(since,
+                ChangeVersion.safeUpperBound(lagMillis), PageRequest.of(0, limit + 1));
+        return new PatientResponse("Changes retrieved successfully", ChangeFeed.page(toChanges(rows), since, limit,
+                version -> toChanges(patientRepository.findAtVersion(version))));
+    }
+
+    private static List<Map<String, Object>> toChanges(List<Patient> rows) {
+        List<Map<String, Object>> changes = new ArrayList<>(rows.size());
+        for (Patient row : rows) {
+            changes.add(ChangeFeed.change(row.getRowVersion(), row.getId(), false, new PatientDTO(row)));
+        }
+        return changes;
+    }
+}
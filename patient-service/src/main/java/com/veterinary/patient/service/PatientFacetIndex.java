@@ -0,0 +1,282 @@
+package com.veterinary.patient.service;
+
+import com.veterinary.clinic.common.changes.ChangeVersion;
+import com.veterinary.patient.dto.PatientFacetRow;
+import com.veterinary.patient.entity.Patient;
+import com.veterinary.patient.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Índice en memoria para la búsqueda por facetas: un mapa de bits por valor
+ * de cada faceta, con un bit por id de paciente. Los ids son autoincrementales
+ * y densos, así que cada mapa ocupa un bit por paciente. Un filtro es la
+ * intersección de las facetas pedidas (unión de valores dentro de cada una),
+ * y el recuento de cada valor se calcula sobre el resto de filtros, sin tocar
+ * la base de datos. Las escrituras de esta instancia se aplican tras su
+ * commit; las de otras instancias llegan en la sincronización periódica por
+ * versión de fila.
+ */
+@Component
+public class PatientFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientFacetIndex.class);
+
+    static final int LOAD_PAGE_SIZE = 5000;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    // Mismo margen que el feed de cambios: versiones anteriores ya han hecho commit
+    @Value("${changes.lag-ms:5000}")
+    private long lagMillis = 5000;
+
+    public enum Facet {
+        SPECIES("species", PatientFacetRow::getSpecies),
+        BREED("breed", PatientFacetRow::getBreed),
+        GENDER("gender", row -> row.getGender() != null ? row.getGender().name() : null),
+        ACTIVE("active", row -> String.valueOf(row.isActive())),
+        STERILIZED("sterilized", row -> String.valueOf(row.isSterilized())),
+        VACCINATED("vaccinated", row -> String.valueOf(row.isVaccinated())),
+        ALLERGIES("allergies", row -> String.valueOf(row.isWithAllergies())),
+        CONDITIONS("conditions", row -> String.valueOf(row.isWithConditions()));
+
+        private final String key;
+        private final Function<PatientFacetRow, String> value;
+
+        Facet(String key, Function<PatientFacetRow, String> value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Bitmaps bitmaps = new Bitmaps();
+    private volatile boolean ready;
+    private long syncedVersion;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Si falla, se construye con la primera búsqueda o sincronización
+            logger.warn("Could not build patient facet index: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void rebuild() {
+        long upTo = ChangeVersion.safeUpperBound(lagMillis);
+        Bitmaps loaded = new Bitmaps();
+        long afterId = 0;
+        List<PatientFacetRow> page;
+        do {
+            page = patientRepository.findFacetRows(afterId, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (PatientFacetRow row : page) {
+                loaded.put(row);
+                afterId = row.getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            bitmaps = loaded;
+            syncedVersion = upTo;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Patient facet index built with {} patients", loaded.size());
+    }
+
+    @Scheduled(fixedDelayString = "${patients.facets.sync-interval-ms:30000}",
+            initialDelayString = "${patients.facets.sync-interval-ms:30000}")
+    public synchronized void sync() {
+        if (!ready) {
+            rebuild();
+            return;
+        }
+        long upTo = ChangeVersion.safeUpperBound(lagMillis);
+        List<PatientFacetRow> changes = patientRepository.findFacetRowChanges(syncedVersion, upTo);
+        lock.writeLock().lock();
+        try {
+            changes.forEach(bitmaps::put);
+            syncedVersion = upTo;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Refleja un paciente recién guardado; dentro de una transacción, tras el commit
+    public void onSaved(Patient patient) {
+        if (patient == null || patient.getId() == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(PatientFacetRow.of(patient));
+                }
+            });
+        } else {
+            apply(PatientFacetRow.of(patient));
+        }
+    }
+
+    private void apply(PatientFacetRow row) {
+        lock.writeLock().lock();
+        try {
+            bitmaps.put(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Pacientes que cumplen los filtros, con un recuento por valor de cada
+     * faceta y una página de ids en orden a partir de {@code afterId}.
+     */
+    public Map<String, Object> search(Map<Facet, Set<String>> filters, long afterId, int size) {
+        if (!ready) {
+            sync();
+        }
+        lock.readLock().lock();
+        try {
+            BitSet matches = bitmaps.matching(filters, null);
+
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            BitSet scratch = new BitSet();
+            for (Facet facet : Facet.values()) {
+                // Cada faceta se cuenta sin su propio filtro, para ver qué daría cambiarlo
+                BitSet base = filters.containsKey(facet) ? bitmaps.matching(filters, facet) : matches;
+                Map<String, Long> counts = new TreeMap<>();
+                bitmaps.values(facet).forEach((value, bits) -> {
+                    scratch.clear();
+                    scratch.or(base);
+                    scratch.and(bits);
+                    int count = scratch.cardinality();
+                    if (count > 0) {
+                        counts.put(value, (long) count);
+                    }
+                });
+                facets.put(facet.getKey(), counts);
+            }
+
+            List<Long> ids = new ArrayList<>(size);
+            int next = matches.nextSetBit(afterId < 0 ? 0 : (int) Math.min(afterId + 1, Integer.MAX_VALUE));
+            while (next >= 0 && ids.size() < size) {
+                ids.add((long) next);
+                next = next == Integer.MAX_VALUE ? -1 : matches.nextSetBit(next + 1);
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("total", (long) matches.cardinality());
+            result.put("patientIds", ids);
+            result.put("hasNext", next >= 0);
+            result.put("nextAfterId", next >= 0 ? ids.get(ids.size() - 1) : null);
+            result.put("facets", facets);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mapas de bits por faceta y valor, más los valores actuales de cada
+     * paciente para quitar sus bits antiguos cuando cambia.
+     */
+    private static final class Bitmaps {
+
+        private final Map<Facet, Map<String, BitSet>> byFacet = new EnumMap<>(Facet.class);
+        private final Map<Integer, PatientFacetRow> rows = new HashMap<>();
+        private final BitSet all = new BitSet();
+
+        Bitmaps() {
+            for (Facet facet : Facet.values()) {
+                byFacet.put(facet, new HashMap<>());
+            }
+        }
+
+        void put(PatientFacetRow row) {
+            if (row.getId() == null || row.getId() > Integer.MAX_VALUE) {
+                return;
+            }
+            int id = row.getId().intValue();
+            PatientFacetRow previous = rows.put(id, row);
+            for (Facet facet : Facet.values()) {
+                Map<String, BitSet> values = byFacet.get(facet);
+                if (previous != null) {
+                    String old = facet.value.apply(previous);
+                    BitSet bits = old != null ? values.get(old) : null;
+                    if (bits != null) {
+                        bits.clear(id);
+                        if (bits.isEmpty()) {
+                            values.remove(old);
+                        }
+                    }
+                }
+                String value = facet.value.apply(row);
+                if (value != null) {
+                    values.computeIfAbsent(value, v -> new BitSet()).set(id);
+                }
+            }
+            all.set(id);
+        }
+
+        Map<String, BitSet> values(Facet facet) {
+            return byFacet.get(facet);
+        }
+
+        // Intersección de las facetas filtradas, salvo {@code except}; dentro de una faceta, unión de valores
+        BitSet matching(Map<Facet, Set<String>> filters, Facet except) {
+            BitSet result = (BitSet) all.clone();
+            for (Map.Entry<Facet, Set<String>> filter : filters.entrySet()) {
+                if (filter.getKey() == except) {
+                    continue;
+                }
+                BitSet union = new BitSet();
+                Map<String, BitSet> values = byFacet.get(filter.getKey());
+                for (String value : filter.getValue()) {
+                    BitSet bits = values.get(value);
+                    if (bits != null) {
+                        union.or(bits);
+                    }
+                }
+                result.and(union);
+            }
+            return result;
+        }
+
+        int size() {
+            return rows.size();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.veterinary.patient.service;
+
+import com.veterinary.clinic.common.search.SearchIndex;
+import com.veterinary.patient.entity.Patient;
+import com.veterinary.patient.repository.PatientRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Índice de trigramas de la búsqueda de pacientes activos: nombre, especie,
+ * raza y microchip.
+ */
+@Component
+public class PatientSearchIndex extends SearchIndex<Patient> {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientChangeFeed patientChangeFeed;
+
+    @Value("${changes.lag-ms:5000}")
+    private long lagMillis = 5000;
+
+    @Value("${patients.search.snapshot-path:${java.io.tmpdir}/patient-search.idx}")
+    private String snapshotPath = System.getProperty("java.io.tmpdir") + "/patient-search.idx";
+
+    @Value("${patients.search.max-results:200}")
+    private int maxResults = 200;
+
+    public PatientSearchIndex() {
+        super("patient", 4);
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        super.warmUp();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${patients.search.sync-interval-ms:30000}",
+            initialDelayString = "${patients.search.sync-interval-ms:30000}")
+    public void sync() {
+        super.sync();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${patients.search.snapshot-interval-ms:600000}",
+            initialDelayString = "${patients.search.snapshot-interval-ms:600000}")
+    @PreDestroy
+    public void saveSnapshot() {
+        super.saveSnapshot();
+    }
+
+    @Override
+    protected List<Patient> findChanges(long since, long upTo, int limit) {
+        return patientRepository.findChanges(since, upTo, PageRequest.of(0, limit));
+    }
+
+    @Override
+    protected List<Patient> findAtVersion(long version) {
+        return patientRepository.findAtVersion(version);
+    }
+
+    @Override
+    protected long rowVersion(Patient patient) {
+        return patient.getRowVersion();
+    }
+
+    @Override
+    protected Long idOf(Patient patient) {
+        return patient.getId();
+    }
+
+    @Override
+    protected String[] fieldsOf(Patient patient) {
+        if (!Boolean.TRUE.equals(patient.getIsActive())) {
+            return null;
+        }
+        return new String[]{patient.getName(), patient.getSpecies(), patient.getBreed(),
+                patient.getMicrochipNumber()};
+    }
+
+    @Override
+    protected void backfillRowVersions() {
+        patientChangeFeed.backfillRowVersions();
+    }
+
+    @Override
+    protected String snapshotPath() {
+        return snapshotPath;
+    }
+
+    @Override
+    protected long lagMillis() {
+        return lagMillis;
+    }
+
+    @Override
+    public int maxResults() {
+        return maxResults;
+    }
+}
@@ -5,31 +5,63 @@ import com.veterinary.patient.dto.*;
 import com.veterinary.patient.entity.Patient;
 import com.veterinary.patient.exception.PatientException;
 import com.veterinary.patient.repository.PatientRepository;
+import com.veterinary.clinic.common.paging.KeysetCursor;
+import com.veterinary.clinic.resolver.BatchLoader;
+import com.veterinary.clinic.resolver.RequestResolver;
 import feign.FeignException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class PatientService {
 
+    static final int MAX_BATCH_IDS = 1000;
+
+    private static final KeysetCursor PATIENT_CURSOR = new KeysetCursor(Patient.class, Set.of(
+            "id", "name", "species", "clientId", "createdAt", "updatedAt"));
+
     @Autowired
     private PatientRepository patientRepository;
 
     @Autowired
     private ClientServiceClient clientServiceClient;
 
+    @Autowired
+    private ClientNameCache clientNameCache;
+
+    @Autowired
+    private PatientStatsCache patientStatsCache;
+
+    @Autowired
+    private PatientFacetIndex patientFacetIndex;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private MicrochipFilter microchipFilter;
+
     public PatientResponse createPatient(CreatePatientRequest request, String currentUser, String authHeader) {
         // Validar que el cliente existe
         try {
@@ -46,7 +78,8 @@ public class PatientService {
 
         // Validar microchip único si se proporciona
         if (request.getMicrochipNumber() != null && !request.getMicrochipNumber().trim().isEmpty()) {
-            if (patientRepository.existsByMicrochipNumber(request.getMicrochipNumber())) {
+            if (microchipFilter.mightExist(request.getMicrochipNumber())
+                    && patientRepository.existsByMicrochipNumber(request.getMicrochipNumber())) {
                 throw new PatientException("Microchip number already exists!");
             }
         }
@@ -72,6 +105,7 @@ public class PatientService {
         patient.setUpdatedBy(currentUser);
 
         Patient savedPatient = patientRepository.save(patient);
+        patientChanged(savedPatient);
         PatientDTO patientDTO = new PatientDTO(savedPatient);
 
         // Intentar obtener nombre del cliente
@@ -90,6 +124,19 @@ public class PatientService {
         return new PatientResponse("Patient found", patientDTO);
     }
 
+    // Los ids que no existen se omiten; quien llama decide cómo mostrarlos
+    @Transactional(readOnly = true)
+    public PatientResponse getPatientsByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new PatientException("At least one patient id is required");
+        }
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new PatientException("Cannot look up more than " + MAX_BATCH_IDS + " patients at once");
+        }
+        List<PatientSummaryDTO> patients = patientRepository.findSummariesByIdIn(new HashSet<>(ids));
+        return new PatientResponse("Patients retrieved successfully", patients);
+    }
+
     public PatientResponse getPatientsByClientId(Long clientId, String authHeader) {
         // Verificar que el cliente existe
         try {
@@ -106,7 +153,7 @@ public class PatientService {
                 .collect(Collectors.toList());
 
         // Enriquecer con información del cliente
-        patientDTOs.forEach(dto -> enrichWithClientInfo(dto, authHeader));
+        enrichWithClientInfo(patientDTOs, authHeader);
 
         return new PatientResponse("Patients found for client", patientDTOs);
     }
@@ -118,7 +165,8 @@ public class PatientService {
         // Validar microchip único si se está cambiando
         if (request.getMicrochipNumber() != null &&
                 !request.getMicrochipNumber().equals(patient.getMicrochipNumber())) {
-            if (patientRepository.existsByMicrochipNumber(request.getMicrochipNumber())) {
+            if (microchipFilter.mightExist(request.getMicrochipNumber())
+                    && patientRepository.existsByMicrochipNumber(request.getMicrochipNumber())) {
                 throw new PatientException("Microchip number already exists!");
             }
         }
@@ -166,6 +214,7 @@ public class PatientService {
 
         patient.setUpdatedBy(currentUser);
         Patient updatedPatient = patientRepository.save(patient);
+        patientChanged(updatedPatient);
         PatientDTO patientDTO = new PatientDTO(updatedPatient);
 
         enrichWithClientInfo(patientDTO, authHeader);
@@ -186,7 +235,7 @@ public class PatientService {
                 .collect(Collectors.toList());
 
         // Enriquecer con información del cliente
-        patients.forEach(dto -> enrichWithClientInfo(dto, authHeader));
+        enrichWithClientInfo(patients, authHeader);
 
         Map<String, Object> response = new HashMap<>();
         response.put("patients", patients);
@@ -198,6 +247,44 @@ public class PatientService {
         return new PatientResponse("Patients retrieved successfully", response);
     }
 
+    // Paginación por cursor: cada página cuesta lo mismo, sin OFFSET ni COUNT(*)
+    @Transactional(readOnly = true)
+    public PatientResponse getPatientsByCursor(String cursor, int size, String sortBy, String sortDir, boolean skipCount, String authHeader) {
+        if (size < 1 || size > 100) {
+            throw new PatientException("Page size must be between 1 and 100");
+        }
+        Sort sort;
+        KeysetScrollPosition position;
+        try {
+            sort = PATIENT_CURSOR.sort(sortBy, sortDir);
+            position = PATIENT_CURSOR.decode(cursor, sortBy, sortDir);
+        } catch (IllegalArgumentException e) {
+            throw new PatientException(e.getMessage());
+        }
+
+        Window<Patient> window = patientRepository.findBy(Specification.where(null),
+                query -> query.sortBy(sort).limit(size).scroll(position));
+
+        List<PatientDTO> patients = window.getContent().stream()
+                .map(PatientDTO::new)
+                .collect(Collectors.toList());
+
+        // Enriquecer con información del cliente
+        enrichWithClientInfo(patients, authHeader);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("patients", patients);
+        response.put("pageSize", size);
+        response.put("hasNext", window.hasNext());
+        response.put("nextCursor", window.hasNext()
+                ? PATIENT_CURSOR.encode(window.positionAt(window.size() - 1), sortBy, sortDir) : null);
+        if (!skipCount) {
+            response.put("totalElements", patientRepository.count());
+        }
+
+        return new PatientResponse("Patients retrieved successfully", response);
+    }
+
     public PatientResponse getActivePatients(String authHeader) {
         List<Patient> patients = patientRepository.findByIsActive(true);
 
@@ -206,20 +293,22 @@ public class PatientService {
                 .collect(Collectors.toList());
 
         // Enriquecer con información del cliente
-        patientDTOs.forEach(dto -> enrichWithClientInfo(dto, authHeader));
+        enrichWithClientInfo(patientDTOs, authHeader);
 
         return new PatientResponse("Active patients retrieved successfully", patientDTOs);
     }
 
     public PatientResponse searchPatients(String query, String authHeader) {
-        List<Patient> patients = patientRepository.searchPatients(query);
+        List<Patient> patients = patientSearchIndex.isReady()
+                ? findRanked(patientSearchIndex.search(query))
+                : patientRepository.searchPatients(query, PageRequest.of(0, patientSearchIndex.maxResults()));
 
         List<PatientDTO> patientDTOs = patients.stream()
                 .map(PatientDTO::new)
                 .collect(Collectors.toList());
 
         // Enriquecer con información del cliente
-        patientDTOs.forEach(dto -> enrichWithClientInfo(dto, authHeader));
+        enrichWithClientInfo(patientDTOs, authHeader);
 
         return new PatientResponse("Search completed", patientDTOs);
     }
@@ -232,13 +321,17 @@ public class PatientService {
                 .collect(Collectors.toList());
 
         // Enriquecer con información del cliente
-        patientDTOs.forEach(dto -> enrichWithClientInfo(dto, authHeader));
+        enrichWithClientInfo(patientDTOs, authHeader);
 
         return new PatientResponse("Patients found by species", patientDTOs);
     }
 
     public PatientResponse getPatientByMicrochip(String microchipNumber, String authHeader) {
-        Patient patient = patientRepository.findByMicrochipNumber(microchipNumber)
+        // El escáner de la recepción pregunta por microchips que a menudo no están dados de alta
+        Optional<Patient> found = microchipFilter.mightExist(microchipNumber)
+                ? patientRepository.findByMicrochipNumber(microchipNumber)
+                : Optional.empty();
+        Patient patient = found
                 .orElseThrow(() -> new PatientException("Patient not found with microchip: " + microchipNumber));
 
         PatientDTO patientDTO = new PatientDTO(patient);
@@ -247,43 +340,75 @@ public class PatientService {
         return new PatientResponse("Patient found by microchip", patientDTO);
     }
 
+    // Foto en caché: una consulta agregada y un GROUP BY, en memoria constante sea cual sea el número de pacientes
+    @Transactional(readOnly = true)
     public PatientResponse getPatientStats(String authHeader) {
-        Long totalPatients = patientRepository.count();
-        Long activePatients = patientRepository.countActivePatients();
-        Long inactivePatients = totalPatients - activePatients;
-
-        int currentYear = LocalDateTime.now().getYear();
-        Long newPatientsThisYear = patientRepository.countPatientsByRegistrationYear(currentYear);
+        return new PatientResponse("Patient statistics retrieved", patientStatsCache.get(this::loadPatientStats));
+    }
 
-        List<String> species = patientRepository.findDistinctSpecies();
-        List<String> breeds = patientRepository.findDistinctBreeds();
+    private Map<String, Object> loadPatientStats() {
+        PatientStatsCounters counters = patientRepository.aggregateStats(LocalDateTime.now().getYear());
 
-        Map<String, Long> speciesCount = new HashMap<>();
-        for (String s : species) {
-            speciesCount.put(s, patientRepository.countPatientsBySpecies(s));
+        Map<String, Long> speciesCount = new LinkedHashMap<>();
+        for (Object[] row : patientRepository.countActiveBySpecies()) {
+            speciesCount.put((String) row[0], ((Number) row[1]).longValue());
         }
-
-        Long sterilizedCount = (long) patientRepository.findBySterilizedStatus(true).size();
-        Long vaccinatedCount = (long) patientRepository.findByVaccinationStatus(true).size();
-        Long patientsWithAllergies = (long) patientRepository.findPatientsWithAllergies().size();
-        Long patientsWithMedicalConditions = (long) patientRepository.findPatientsWithMedicalConditions().size();
+        List<String> species = new ArrayList<>(speciesCount.keySet());
+        List<String> breeds = patientRepository.findDistinctBreeds();
 
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalPatients", totalPatients);
-        stats.put("activePatients", activePatients);
-        stats.put("inactivePatients", inactivePatients);
-        stats.put("newPatientsThisYear", newPatientsThisYear);
+        stats.put("totalPatients", counters.getTotalPatients());
+        stats.put("activePatients", counters.getActivePatients());
+        stats.put("inactivePatients", counters.getTotalPatients() - counters.getActivePatients());
+        stats.put("newPatientsThisYear", counters.getNewPatientsThisYear());
         stats.put("totalSpecies", species.size());
         stats.put("totalBreeds", breeds.size());
         stats.put("speciesList", species);
         stats.put("breedsList", breeds);
         stats.put("speciesCount", speciesCount);
-        stats.put("sterilizedCount", sterilizedCount);
-        stats.put("vaccinatedCount", vaccinatedCount);
-        stats.put("patientsWithAllergies", patientsWithAllergies);
-        stats.put("patientsWithMedicalConditions", patientsWithMedicalConditions);
+        stats.put("sterilizedCount", counters.getSterilizedCount());
+        stats.put("vaccinatedCount", counters.getVaccinatedCount());
+        stats.put("patientsWithAllergies", counters.getPatientsWithAllergies());
+        stats.put("patientsWithMedicalConditions", counters.getPatientsWithMedicalConditions());
+        return stats;
+    }
+
+    // Búsqueda por facetas sobre el índice en memoria: recuentos por valor y una página de ids
+    public PatientResponse searchFacets(List<String> species, List<String> breeds, List<String> genders,
+                                        Boolean active, Boolean sterilized, Boolean vaccinated,
+                                        Boolean withAllergies, Boolean withConditions, Long afterId, int size) {
+        if (size < 1 || size > 100) {
+            throw new PatientException("Page size must be between 1 and 100");
+        }
+        Map<PatientFacetIndex.Facet, Set<String>> filters = new EnumMap<>(PatientFacetIndex.Facet.class);
+        addFilter(filters, PatientFacetIndex.Facet.SPECIES, species);
+        addFilter(filters, PatientFacetIndex.Facet.BREED, breeds);
+        if (genders != null && !genders.isEmpty()) {
+            addFilter(filters, PatientFacetIndex.Facet.GENDER,
+                    genders.stream().map(String::toUpperCase).collect(Collectors.toList()));
+        }
+        addFilter(filters, PatientFacetIndex.Facet.ACTIVE, active);
+        addFilter(filters, PatientFacetIndex.Facet.STERILIZED, sterilized);
+        addFilter(filters, PatientFacetIndex.Facet.VACCINATED, vaccinated);
+        addFilter(filters, PatientFacetIndex.Facet.ALLERGIES, withAllergies);
+        addFilter(filters, PatientFacetIndex.Facet.CONDITIONS, withConditions);
+
+        Map<String, Object> result = patientFacetIndex.search(filters, afterId != null ? afterId : 0L, size);
+        return new PatientResponse("Facet search completed", result);
+    }
+
+    private static void addFilter(Map<PatientFacetIndex.Facet, Set<String>> filters, PatientFacetIndex.Facet facet,
+                                  List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            filters.put(facet, new HashSet<>(values));
+        }
+    }
 
-        return new PatientResponse("Patient statistics retrieved", stats);
+    private static void addFilter(Map<PatientFacetIndex.Facet, Set<String>> filters, PatientFacetIndex.Facet facet,
+                                  Boolean value) {
+        if (value != null) {
+            filters.put(facet, Set.of(value.toString()));
+        }
     }
 
     public PatientResponse activatePatient(Long id, String currentUser) {
@@ -292,7 +417,7 @@ public class PatientService {
 
         patient.setIsActive(true);
         patient.setUpdatedBy(currentUser);
-        patientRepository.save(patient);
+        patientChanged(patientRepository.save(patient));
 
         return new PatientResponse("Patient activated successfully");
     }
@@ -303,7 +428,7 @@ public class PatientService {
 
         patient.setIsActive(false);
         patient.setUpdatedBy(currentUser);
-        patientRepository.save(patient);
+        patientChanged(patientRepository.save(patient));
 
         return new PatientResponse("Patient deactivated successfully");
     }
@@ -315,7 +440,7 @@ public class PatientService {
         // Eliminación lógica (desactivar)
         patient.setIsActive(false);
         patient.setUpdatedBy(currentUser);
-        patientRepository.save(patient);
+        patientChanged(patientRepository.save(patient));
 
         return new PatientResponse("Patient deleted successfully");
     }
@@ -332,26 +457,66 @@ public class PatientService {
         return patientRepository.findDistinctBreedsBySpecies(species);
     }
 
+    // Pacientes en el orden del índice; los que ya no estén activos se descartan
+    private List<Patient> findRanked(List<Long> ids) {
+        Map<Long, Patient> byId = new HashMap<>();
+        patientRepository.findAllById(ids).forEach(patient -> byId.put(patient.getId(), patient));
+        return ids.stream()
+                .map(byId::get)
+                .filter(patient -> patient != null && Boolean.TRUE.equals(patient.getIsActive()))
+                .collect(Collectors.toList());
+    }
+
+    // Tras cada escritura: las estadísticas se recalculan y los índices en memoria se actualizan
+    private void patientChanged(Patient patient) {
+        patientStatsCache.invalidate();
+        patientFacetIndex.onSaved(patient);
+        patientSearchIndex.onSaved(patient);
+        microchipFilter.onSaved(patient);
+    }
+
     // Helper method to enrich PatientDTO with client information
     private void enrichWithClientInfo(PatientDTO patientDTO, String authHeader) {
-        try {
-            if (authHeader != null && patientDTO.getClientId() != null) {
-                var clientResponse = clientServiceClient.getClientById(patientDTO.getClientId(), authHeader);
-                if (clientResponse.getBody() != null) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> clientData = (Map<String, Object>) clientResponse.getBody().get("client");
-                    if (clientData != null) {
-                        String firstName = (String) clientData.get("firstName");
-                        String lastName = (String) clientData.get("lastName");
-                        if (firstName != null && lastName != null) {
-                            patientDTO.setClientName(firstName + " " + lastName);
-                        }
+        enrichWithClientInfo(List.of(patientDTO), authHeader);
+    }
+
+    // Los clientes de la lista salen de la caché; los que faltan se piden juntos a client-service
+    private void enrichWithClientInfo(List<PatientDTO> patientDTOs, String authHeader) {
+        if (authHeader == null || patientDTOs.isEmpty()) {
+            return;
+        }
+        BatchLoader<Long, String> clientNames = RequestResolver.current().loader("patient.clientNames",
+                ClientServiceClient.MAX_BATCH_IDS,
+                ids -> clientNameCache.getNames(ids, missing -> clientNames(missing, authHeader)));
+        patientDTOs.forEach(dto -> clientNames.load(dto.getClientId()));
+        clientNames.dispatch();
+
+        // Si falla, simplemente no se enriquece la información del cliente
+        // Esto no debe interrumpir el flujo principal
+        for (PatientDTO patientDTO : patientDTOs) {
+            String clientName = clientNames.getOrDefault(patientDTO.getClientId(), null);
+            if (clientName != null) {
+                patientDTO.setClientName(clientName);
+            }
+        }
+    }
+
+    private Map<Long, String> clientNames(List<Long> clientIds, String authHeader) {
+        Map<Long, String> names = new HashMap<>();
+        var clientResponse = clientServiceClient.getClientsByIds(clientIds, authHeader);
+        if (clientResponse.getBody() != null) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> clients = (List<Map<String, Object>>) clientResponse.getBody().get("data");
+            if (clients != null) {
+                for (Map<String, Object> clientData : clients) {
+                    String firstName = (String) clientData.get("firstName");
+                    String lastName = (String) clientData.get("lastName");
+                    if (clientData.get("id") != null && firstName != null && lastName != null) {
+                        names.put(((Number) clientData.get("id")).longValue(), firstName + " " + lastName);
                     }
                 }
             }
-        } catch (Exception e) {
-            // Si falla, simplemente no se enriquece la información del cliente
-            // Esto no debe interrumpir el flujo principal
         }
+        return names;
     }
-}
\ No newline at end of file
+}
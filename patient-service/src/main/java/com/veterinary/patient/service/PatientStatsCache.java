@@ -0,0 +1,69 @@
+package com.veterinary.patient.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Última foto de las estadísticas de pacientes. Cada escritura la descarta
+ * al confirmarse su transacción y la siguiente lectura la recalcula; la
+ * edad máxima cubre las escrituras de otras instancias y el cambio de año.
+ */
+@Component
+public class PatientStatsCache {
+
+    @Value("${patients.stats.max-age-ms:60000}")
+    private long maxAgeMillis = 60000;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    public Map<String, Object> get(Supplier<Map<String, Object>> loader) {
+        Snapshot current = snapshot;
+        long now = System.currentTimeMillis();
+        int year = LocalDate.now().getYear();
+        if (current != null && current.generation == generation.get() && current.expiresAt > now && current.year == year) {
+            return current.stats;
+        }
+        // Si una escritura se confirma mientras se calcula, la foto nace ya descartada
+        long loadGeneration = generation.get();
+        Map<String, Object> stats = Map.copyOf(loader.get());
+        snapshot = new Snapshot(stats, loadGeneration, now + maxAgeMillis, year);
+        return stats;
+    }
+
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            generation.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                generation.incrementAndGet();
+            }
+        });
+    }
+
+    private static final class Snapshot {
+
+        private final Map<String, Object> stats;
+        private final long generation;
+        private final long expiresAt;
+        private final int year;
+
+        private Snapshot(Map<String, Object> stats, long generation, long expiresAt, int year) {
+            this.stats = stats;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+            this.year = year;
+        }
+    }
+}
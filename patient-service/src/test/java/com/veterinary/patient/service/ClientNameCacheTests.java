@@ -0,0 +1,134 @@
+package com.veterinary.patient.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientNameCacheTests {
+
+    private ClientNameCache cache;
+
+    private final List<List<Long>> calls = new ArrayList<>();
+
+    // El cliente 99 no existe en client-service
+    private final Function<List<Long>, Map<Long, String>> clientService = ids -> {
+        calls.add(new ArrayList<>(ids));
+        Map<Long, String> names = new HashMap<>();
+        ids.stream().filter(id -> id != 99L).forEach(id -> names.put(id, "Client " + id));
+        return names;
+    };
+
+    @BeforeEach
+    void setUp() {
+        cache = new ClientNameCache();
+    }
+
+    @Test
+    void testOnlyMissingClientsAreRequested() {
+        assertEquals(Map.of(1L, "Client 1", 2L, "Client 2"), cache.getNames(List.of(1L, 2L), clientService));
+        assertEquals(Map.of(1L, "Client 1", 3L, "Client 3"), cache.getNames(List.of(1L, 3L), clientService));
+        assertEquals(Map.of(2L, "Client 2", 3L, "Client 3"), cache.getNames(List.of(2L, 3L), clientService));
+
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L)), calls);
+    }
+
+    @Test
+    void testMissingClientsAreRemembered() {
+        assertEquals(Map.of(1L, "Client 1"), cache.getNames(List.of(1L, 99L), clientService));
+        assertEquals(Map.of(1L, "Client 1"), cache.getNames(List.of(1L, 99L), clientService));
+
+        assertEquals(1, calls.size());
+    }
+
+    @Test
+    void testMissingClientsUseTheirOwnTtl() {
+        ReflectionTestUtils.setField(cache, "missingTtlMillis", 0L);
+
+        cache.getNames(List.of(1L, 99L), clientService);
+        cache.getNames(List.of(1L, 99L), clientService);
+
+        assertEquals(List.of(List.of(1L, 99L), List.of(99L)), calls);
+    }
+
+    @Test
+    void testExpiredNamesAreReloaded() {
+        ReflectionTestUtils.setField(cache, "ttlMillis", 0L);
+
+        cache.getNames(List.of(1L), clientService);
+        cache.getNames(List.of(1L), clientService);
+
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    void testInvalidationDropsTheEntry() {
+        cache.getNames(List.of(1L, 2L), clientService);
+        cache.invalidate(1L);
+
+        cache.getNames(List.of(1L, 2L), clientService);
+
+        assertEquals(List.of(List.of(1L, 2L), List.of(1L)), calls);
+    }
+
+    @Test
+    void testNamesLoadedWhileAnInvalidationArrivesAreNotKept() {
+        cache.getNames(List.of(1L), ids -> {
+            // client-service avisa de un cambio mientras se cargaba el nombre
+            cache.invalidate(1L);
+            return clientService.apply(ids);
+        });
+
+        assertEquals(0, cache.size());
+        cache.getNames(List.of(1L), clientService);
+
+        assertEquals(List.of(List.of(1L), List.of(1L)), calls);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvictedWhenFull() {
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+
+        cache.getNames(List.of(1L, 2L), clientService);
+        cache.getNames(List.of(1L), clientService);
+        cache.getNames(List.of(3L), clientService);
+        cache.getNames(List.of(1L, 2L), clientService);
+
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L), List.of(2L)), calls);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testFailedLoadIsNotCached() {
+        assertThrows(IllegalStateException.class, () -> cache.getNames(List.of(1L), ids -> {
+            throw new IllegalStateException("client-service down");
+        }));
+
+        assertEquals(Map.of(1L, "Client 1"), cache.getNames(List.of(1L), clientService));
+    }
+
+    @Test
+    void testMetricsCountHitsAndAvoidedCalls() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.getNames(List.of(1L, 99L), clientService);
+        cache.getNames(List.of(1L, 99L), clientService);
+        cache.getNames(List.of(1L, 2L), clientService);
+
+        assertEquals(2.0, registry.get("patients.client_names.lookups").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("patients.client_names.lookups").tag("result", "missing").functionCounter().count());
+        assertEquals(3.0, registry.get("patients.client_names.lookups").tag("result", "miss").functionCounter().count());
+        assertEquals(2.0, registry.get("patients.client_names.feign_calls").functionCounter().count());
+        assertEquals(1.0, registry.get("patients.client_names.feign_calls_avoided").functionCounter().count());
+        assertEquals(0.5, registry.get("patients.client_names.hit_ratio").gauge().value());
+    }
+}
@@ -0,0 +1,82 @@
+package com.veterinary.patient.service;
+
+import com.veterinary.patient.entity.Patient;
+import com.veterinary.patient.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MicrochipFilterTests {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @InjectMocks
+    private MicrochipFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(patientRepository.count()).thenReturn(2L);
+        when(patientRepository.findMicrochipsAfter(eq(0L), any())).thenReturn(rows(
+                new Object[]{1L, "985112000000001"}, new Object[]{2L, "985112000000002"}));
+        when(patientRepository.findMicrochipsChangedSince(anyLong())).thenReturn(List.of());
+    }
+
+    @Test
+    void testEverythingMightExistUntilBuilt() {
+        assertTrue(filter.mightExist("985112999999999"));
+    }
+
+    @Test
+    void testUnknownMicrochipsAreAbsentWithoutQueries() {
+        filter.rebuild();
+
+        assertTrue(filter.mightExist("985112000000001"));
+        assertFalse(filter.mightExist("985112999999999"));
+        // Igual que la colación de MySQL
+        assertTrue(filter.mightExist("985112000000002  "));
+    }
+
+    @Test
+    void testSavedAndSyncedMicrochipsArePicked() {
+        filter.rebuild();
+        Patient patient = new Patient();
+        patient.setMicrochipNumber("ABC-123");
+        filter.onSaved(patient);
+        assertTrue(filter.mightExist("abc-123"));
+
+        when(patientRepository.findMicrochipsChangedSince(anyLong())).thenReturn(List.of("FROM-OTHER-INSTANCE"));
+        assertFalse(filter.mightExist("FROM-OTHER-INSTANCE"));
+        filter.sync();
+        assertTrue(filter.mightExist("FROM-OTHER-INSTANCE"));
+    }
+
+    @Test
+    void testSaturatedFilterIsRebuiltOnSync() {
+        filter.rebuild();
+        Patient patient = new Patient();
+        for (int i = 0; i < 200_001; i++) {
+            patient.setMicrochipNumber("BULK-" + i);
+            filter.onSaved(patient);
+        }
+
+        filter.sync();
+
+        verify(patientRepository, times(2)).findMicrochipsAfter(eq(0L), any());
+        assertFalse(filter.mightExist("BULK-7"));
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
@@ -0,0 +1,145 @@
+package com.veterinary.patient.service;
+
+import com.veterinary.patient.dto.PatientFacetRow;
+import com.veterinary.patient.entity.Patient;
+import com.veterinary.patient.repository.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PatientFacetIndexTests {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @InjectMocks
+    private PatientFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(patientRepository.findFacetRows(eq(0L), any())).thenReturn(List.of(
+                row(1L, "Perro", "Labrador", Patient.Gender.MALE, true, true, false),
+                row(2L, "Perro", "Beagle", Patient.Gender.FEMALE, true, false, true),
+                row(3L, "Gato", "Siamés", Patient.Gender.FEMALE, true, true, false),
+                row(4L, "Gato", null, Patient.Gender.MALE, false, false, false)));
+        index.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testFiltersAreAndedAcrossFacetsAndOredWithinOne() {
+        Map<String, Object> result = index.search(Map.of(
+                PatientFacetIndex.Facet.SPECIES, Set.of("Perro", "Gato"),
+                PatientFacetIndex.Facet.STERILIZED, Set.of("true")), 0L, 20);
+
+        assertEquals(2L, result.get("total"));
+        assertEquals(List.of(1L, 3L), result.get("patientIds"));
+        assertEquals(false, result.get("hasNext"));
+    }
+
+    @Test
+    void testEachFacetIsCountedWithoutItsOwnFilter() {
+        Map<String, Object> result = index.search(Map.of(
+                PatientFacetIndex.Facet.SPECIES, Set.of("Perro"),
+                PatientFacetIndex.Facet.ACTIVE, Set.of("true")), 0L, 20);
+
+        Map<String, Map<String, Long>> facets = facets(result);
+        // Especie se cuenta solo con el filtro de activos; el resto, con los dos
+        assertEquals(Map.of("Perro", 2L, "Gato", 1L), facets.get("species"));
+        assertEquals(Map.of("Labrador", 1L, "Beagle", 1L), facets.get("breed"));
+        assertEquals(Map.of("MALE", 1L, "FEMALE", 1L), facets.get("gender"));
+        assertEquals(Map.of("true", 2L), facets.get("active"));
+        assertEquals(Map.of("true", 1L, "false", 1L), facets.get("sterilized"));
+    }
+
+    @Test
+    void testPagesFollowTheIdCursor() {
+        Map<String, Object> first = index.search(Map.of(), 0L, 3);
+        assertEquals(List.of(1L, 2L, 3L), first.get("patientIds"));
+        assertEquals(true, first.get("hasNext"));
+        assertEquals(3L, first.get("nextAfterId"));
+
+        Map<String, Object> second = index.search(Map.of(), 3L, 3);
+        assertEquals(List.of(4L), second.get("patientIds"));
+        assertEquals(false, second.get("hasNext"));
+        assertNull(second.get("nextAfterId"));
+    }
+
+    @Test
+    void testSavedPatientMovesBetweenValuesAfterCommit() {
+        Patient patient = patient(2L, "Perro", "Beagle", false);
+        TransactionSynchronizationManager.initSynchronization();
+        index.onSaved(patient);
+
+        assertEquals(3L, index.search(Map.of(PatientFacetIndex.Facet.ACTIVE, Set.of("true")), 0L, 20).get("total"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        Map<String, Object> result = index.search(Map.of(PatientFacetIndex.Facet.ACTIVE, Set.of("true")), 0L, 20);
+        assertEquals(List.of(1L, 3L), result.get("patientIds"));
+        assertEquals(Map.of("true", 2L, "false", 2L), facets(result).get("active"));
+    }
+
+    @Test
+    void testSyncAppliesChangesFromOtherInstances() {
+        when(patientRepository.findFacetRowChanges(anyLong(), anyLong())).thenReturn(List.of(
+                row(4L, "Gato", "Persa", Patient.Gender.MALE, true, false, false),
+                row(5L, "Conejo", null, Patient.Gender.UNKNOWN, true, false, false)));
+
+        index.sync();
+
+        Map<String, Object> result = index.search(Map.of(PatientFacetIndex.Facet.ACTIVE, Set.of("true")), 0L, 20);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), result.get("patientIds"));
+        assertEquals(Map.of("Labrador", 1L, "Beagle", 1L, "Siamés", 1L, "Persa", 1L), facets(result).get("breed"));
+    }
+
+    @Test
+    void testUnknownValueMatchesNothing() {
+        Map<String, Object> result = index.search(Map.of(PatientFacetIndex.Facet.SPECIES, Set.of("Loro")), 0L, 20);
+
+        assertEquals(0L, result.get("total"));
+        assertEquals(List.of(), result.get("patientIds"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, Long>> facets(Map<String, Object> result) {
+        return (Map<String, Map<String, Long>>) result.get("facets");
+    }
+
+    private static PatientFacetRow row(Long id, String species, String breed, Patient.Gender gender,
+                                       boolean active, boolean sterilized, boolean vaccinated) {
+        return new PatientFacetRow(id, species, breed, gender, active, sterilized, vaccinated, false, false);
+    }
+
+    private static Patient patient(Long id, String species, String breed, boolean active) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setSpecies(species);
+        patient.setBreed(breed);
+        patient.setGender(Patient.Gender.FEMALE);
+        patient.setIsActive(active);
+        patient.setIsSterilized(false);
+        patient.setIsVaccinated(true);
+        return patient;
+    }
+}
@@ -0,0 +1,77 @@
+package com.veterinary.patient.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientStatsCacheTests {
+
+    private PatientStatsCache cache;
+
+    private int loads;
+
+    private final Supplier<Map<String, Object>> loader = () -> Map.of("totalPatients", (long) ++loads);
+
+    @BeforeEach
+    void setUp() {
+        cache = new PatientStatsCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testSnapshotIsReusedUntilAWrite() {
+        assertEquals(1L, cache.get(loader).get("totalPatients"));
+        assertEquals(1L, cache.get(loader).get("totalPatients"));
+
+        cache.invalidate();
+
+        assertEquals(2L, cache.get(loader).get("totalPatients"));
+        assertEquals(2, loads);
+    }
+
+    @Test
+    void testWriteInvalidatesOnlyAfterCommit() {
+        cache.get(loader);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidate();
+        assertEquals(1L, cache.get(loader).get("totalPatients"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(2L, cache.get(loader).get("totalPatients"));
+    }
+
+    @Test
+    void testWriteDuringLoadDiscardsTheSnapshot() {
+        cache.get(() -> {
+            cache.invalidate();
+            return loader.get();
+        });
+
+        assertEquals(2L, cache.get(loader).get("totalPatients"));
+    }
+
+    @Test
+    void testSnapshotExpires() {
+        ReflectionTestUtils.setField(cache, "maxAgeMillis", 0L);
+
+        cache.get(loader);
+        cache.get(loader);
+
+        assertEquals(2, loads);
+    }
+}
@@ -3,13 +3,36 @@ package com.veterinary.clinic.prescriptionservice.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
 
 @FeignClient(name = "patient-service")
 public interface PatientClient {
 
+    int MAX_BATCH_IDS = 1000;
+
     @GetMapping("/api/patients/{id}")
     PatientResponseDTO getPatientById(@PathVariable("id") Long id);
 
+    // Hasta MAX_BATCH_IDS pacientes en una sola consulta: id, nombre, especie y cliente
+    @PostMapping("/patients/batch")
+    PatientBatchResponse getPatientsByIds(@RequestBody List<Long> ids);
+
+    class PatientBatchResponse {
+        private String message;
+        private List<PatientResponseDTO> data;
+
+        public PatientBatchResponse() {}
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+
+        public List<PatientResponseDTO> getData() { return data; }
+        public void setData(List<PatientResponseDTO> data) { this.data = data; }
+    }
+
     class PatientResponseDTO {
         private Long id;
         private String name;
@@ -0,0 +1,34 @@
+package com.veterinary.clinic.prescriptionservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool acotado para las validaciones remotas previas a crear una receta. Con
+ * la cola llena la tarea se rechaza y ParallelValidation la ejecuta en el
+ * hilo de la petición.
+ */
+@Configuration
+public class ValidationExecutorConfig {
+
+    @Bean(name = "validationExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService validationExecutor(@Value("${prescriptions.validation.threads:16}") int threads,
+                                              @Value("${prescriptions.validation.queue-capacity:64}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "validation-" + counter.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -1,8 +1,10 @@
 package com.veterinary.clinic.prescriptionservice.controller;
 
+import com.veterinary.clinic.prescriptionservice.dto.AggregateBucketDTO;
 import com.veterinary.clinic.prescriptionservice.dto.PrescriptionRequestDTO;
 import com.veterinary.clinic.prescriptionservice.dto.PrescriptionResponseDTO;
 import com.veterinary.clinic.prescriptionservice.entity.Prescription;
+import com.veterinary.clinic.prescriptionservice.service.PrescriptionChangeFeed;
 import com.veterinary.clinic.prescriptionservice.service.PrescriptionService;
 import com.veterinary.clinic.prescriptionservice.service.PdfGeneratorService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -22,6 +24,7 @@ import org.springframework.web.bind.annotation.*;
 import javax.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/prescriptions")
@@ -35,6 +38,9 @@ public class PrescriptionController {
     @Autowired
     private PdfGeneratorService pdfGeneratorService;
 
+    @Autowired
+    private PrescriptionChangeFeed prescriptionChangeFeed;
+
     @PostMapping
     @Operation(summary = "Create new prescription", description = "Create a new prescription for a patient")
     @PreAuthorize("hasRole('VETERINARIO') or hasRole('ADMIN')")
@@ -93,6 +99,26 @@ public class PrescriptionController {
         return ResponseEntity.ok(prescriptions);
     }
 
+    @GetMapping("/aggregate")
+    @Operation(summary = "Aggregate prescriptions", description = "Count prescriptions grouped by status, type (medication), veterinarian or day")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<List<AggregateBucketDTO>> getPrescriptionAggregates(
+            @RequestParam String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        List<AggregateBucketDTO> buckets = prescriptionService.getPrescriptionAggregates(groupBy, startDate, endDate);
+        return ResponseEntity.ok(buckets);
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Prescription changes", description = "Prescriptions created, modified or deleted after a change version")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('REPORT_SYNC')")
+    public ResponseEntity<Map<String, Object>> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(prescriptionChangeFeed.getChanges(since, limit));
+    }
+
     @PutMapping("/{id}/status")
     @Operation(summary = "Update prescription status", description = "Update the status of a prescription")
     @PreAuthorize("hasRole('VETERINARIO') or hasRole('ADMIN')")
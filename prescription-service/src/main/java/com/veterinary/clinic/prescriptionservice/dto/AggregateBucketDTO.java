@@ -0,0 +1,23 @@
+package com.veterinary.clinic.prescriptionservice.dto;
+
+public class AggregateBucketDTO {
+
+    // Estado, id de veterinario o fecha ISO según la agrupación
+    private String key;
+    private Long count;
+
+    // Constructors
+    public AggregateBucketDTO() {}
+
+    public AggregateBucketDTO(String key, Long count) {
+        this.key = key;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public Long getCount() { return count; }
+    public void setCount(Long count) { this.count = count; }
+}
@@ -1,5 +1,8 @@
 package com.veterinary.clinic.prescriptionservice.entity;
 
+import com.veterinary.clinic.common.changes.ChangeVersion;
+import org.hibernate.annotations.BatchSize;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
@@ -41,18 +44,26 @@ public class Prescription {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Versión para el feed de cambios que consume report-service
+    @Column(name = "row_version")
+    private Long rowVersion;
+
+    // Al recorrer una lista, los medicamentos de hasta 100 recetas llegan en una sola consulta IN
     @OneToMany(mappedBy = "prescription", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private List<Medication> medications;
 
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        rowVersion = ChangeVersion.next();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        rowVersion = ChangeVersion.next();
     }
 
     // Constructors
@@ -95,6 +106,9 @@ public class Prescription {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getRowVersion() { return rowVersion; }
+    public void setRowVersion(Long rowVersion) { this.rowVersion = rowVersion; }
+
     public List<Medication> getMedications() { return medications; }
     public void setMedications(List<Medication> medications) { this.medications = medications; }
 
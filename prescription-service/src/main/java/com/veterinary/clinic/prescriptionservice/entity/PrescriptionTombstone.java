@@ -0,0 +1,47 @@
+package com.veterinary.clinic.prescriptionservice.entity;
+
+import com.veterinary.clinic.common.changes.ChangeVersion;
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marca de una receta borrada. Las recetas se eliminan físicamente, así que
+ * el feed de cambios publica el borrado a partir de esta fila.
+ */
+@Entity
+@Table(name = "prescription_tombstones", indexes = @Index(name = "idx_tombstone_row_version", columnList = "row_version"))
+public class PrescriptionTombstone {
+
+    @Id
+    @Column(name = "prescription_id")
+    private Long prescriptionId;
+
+    @Column(name = "row_version", nullable = false)
+    private Long rowVersion;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        deletedAt = LocalDateTime.now();
+        rowVersion = ChangeVersion.next();
+    }
+
+    // Constructors
+    public PrescriptionTombstone() {}
+
+    public PrescriptionTombstone(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+    }
+
+    // Getters and Setters
+    public Long getPrescriptionId() { return prescriptionId; }
+    public void setPrescriptionId(Long prescriptionId) { this.prescriptionId = prescriptionId; }
+
+    public Long getRowVersion() { return rowVersion; }
+    public void setRowVersion(Long rowVersion) { this.rowVersion = rowVersion; }
+
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
+}
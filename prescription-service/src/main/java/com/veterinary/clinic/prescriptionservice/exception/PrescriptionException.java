@@ -0,0 +1,9 @@
+package com.veterinary.clinic.prescriptionservice.exception;
+
+// Petición inválida: se responde con 400
+public class PrescriptionException extends RuntimeException {
+
+    public PrescriptionException(String message) {
+        super(message);
+    }
+}
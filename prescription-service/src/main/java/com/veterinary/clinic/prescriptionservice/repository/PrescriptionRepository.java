@@ -1,9 +1,9 @@
 package com.veterinary.clinic.prescriptionservice.repository;
 
+import com.veterinary.clinic.common.changes.VersionedRepository;
 import com.veterinary.clinic.prescriptionservice.entity.Prescription;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
+public interface PrescriptionRepository extends VersionedRepository<Prescription, Long> {
 
     List<Prescription> findByPatientIdOrderByPrescriptionDateDesc(Long patientId);
 
@@ -36,4 +36,31 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, Long
     Long countTodayPrescriptionsByVeterinarian(@Param("veterinarianId") Long veterinarianId);
 
     boolean existsByMedicalHistoryId(Long medicalHistoryId);
+
+    // Agregados para report-service, calculados en SQL en vez de descargar la tabla
+    @Query("SELECT p.status, COUNT(p) FROM Prescription p " +
+           "WHERE (:startDate IS NULL OR p.prescriptionDate >= :startDate) " +
+           "AND (:endDate IS NULL OR p.prescriptionDate <= :endDate) GROUP BY p.status")
+    List<Object[]> aggregateByStatus(@Param("startDate") LocalDateTime startDate,
+                                     @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT p.veterinarianId, COUNT(p) FROM Prescription p " +
+           "WHERE (:startDate IS NULL OR p.prescriptionDate >= :startDate) " +
+           "AND (:endDate IS NULL OR p.prescriptionDate <= :endDate) GROUP BY p.veterinarianId")
+    List<Object[]> aggregateByVeterinarian(@Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate);
+
+    // Las recetas no tienen tipo propio: se agrupan por medicamento, y una receta
+    // con varios medicamentos cuenta en cada uno
+    @Query("SELECT m.medicationName, COUNT(DISTINCT p) FROM Prescription p JOIN p.medications m " +
+           "WHERE (:startDate IS NULL OR p.prescriptionDate >= :startDate) " +
+           "AND (:endDate IS NULL OR p.prescriptionDate <= :endDate) GROUP BY m.medicationName")
+    List<Object[]> aggregateByType(@Param("startDate") LocalDateTime startDate,
+                                   @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT DATE(p.prescriptionDate), COUNT(p) FROM Prescription p " +
+           "WHERE (:startDate IS NULL OR p.prescriptionDate >= :startDate) " +
+           "AND (:endDate IS NULL OR p.prescriptionDate <= :endDate) GROUP BY DATE(p.prescriptionDate)")
+    List<Object[]> aggregateByDay(@Param("startDate") LocalDateTime startDate,
+                                  @Param("endDate") LocalDateTime endDate);
 }
@@ -0,0 +1,20 @@
+package com.veterinary.clinic.prescriptionservice.repository;
+
+import com.veterinary.clinic.prescriptionservice.entity.PrescriptionTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface PrescriptionTombstoneRepository extends JpaRepository<PrescriptionTombstone, Long> {
+
+    @Query("SELECT t FROM PrescriptionTombstone t WHERE t.rowVersion > :since AND t.rowVersion <= :upTo " +
+           "ORDER BY t.rowVersion, t.prescriptionId")
+    List<PrescriptionTombstone> findChanges(@Param("since") long since, @Param("upTo") long upTo, Pageable pageable);
+
+    @Query("SELECT t FROM PrescriptionTombstone t WHERE t.rowVersion = :version ORDER BY t.prescriptionId")
+    List<PrescriptionTombstone> findAtVersion(@Param("version") long version);
+}
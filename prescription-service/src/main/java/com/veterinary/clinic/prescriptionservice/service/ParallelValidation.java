@@ -0,0 +1,79 @@
+package com.veterinary.clinic.prescriptionservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lanza a la vez comprobaciones independientes y espera a todas con un plazo
+ * común. La primera que falla cancela las demás y su excepción llega tal cual
+ * al que espera, sin aguardar a las más lentas.
+ */
+class ParallelValidation {
+
+    private final Executor executor;
+    private final long deadlineNanos;
+    private final List<Future<?>> checks = new ArrayList<>();
+    private final BlockingQueue<Future<?>> finished = new LinkedBlockingQueue<>();
+
+    ParallelValidation(Executor executor, long deadlineMillis) {
+        this.executor = executor;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+    }
+
+    <T> Future<T> submit(Callable<T> check) {
+        FutureTask<T> task = new FutureTask<>(check) {
+            @Override
+            protected void done() {
+                finished.add(this);
+            }
+        };
+        checks.add(task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Con el pool lleno se valida en el hilo de la petición, como antes
+            task.run();
+        }
+        return task;
+    }
+
+    // Vuelve cuando todas han terminado bien; si no, lanza la excepción de la primera que falló
+    void await() {
+        try {
+            for (int pending = checks.size(); pending > 0; pending--) {
+                Future<?> check = finished.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (check == null) {
+                    throw new RuntimeException("Validation timed out");
+                }
+                check.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Validation interrupted");
+        } finally {
+            // Las que siguen en marcha ya no cambian el resultado
+            checks.forEach(check -> check.cancel(true));
+        }
+    }
+
+    // Resultado de una comprobación tras await(), sin esperas
+    <T> T result(Future<T> check) {
+        try {
+            return check.get(0, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Validation result read before await()", e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.veterinary.clinic.prescriptionservice.service;
+
+import com.veterinary.clinic.common.changes.ChangeFeed;
+import com.veterinary.clinic.common.changes.ChangeVersion;
+import com.veterinary.clinic.prescriptionservice.dto.PrescriptionResponseDTO;
+import com.veterinary.clinic.prescriptionservice.entity.Prescription;
+import com.veterinary.clinic.prescriptionservice.entity.PrescriptionTombstone;
+import com.veterinary.clinic.prescriptionservice.exception.PrescriptionException;
+import com.veterinary.clinic.prescriptionservice.repository.PrescriptionRepository;
+import com.veterinary.clinic.prescriptionservice.repository.PrescriptionTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feed de cambios de recetas por versión de fila para report-service. Mezcla
+ * las recetas creadas o modificadas con los borrados registrados en
+ * prescription_tombstones, en orden de versión.
+ */
+@Service
+public class PrescriptionChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrescriptionChangeFeed.class);
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PrescriptionTombstoneRepository prescriptionTombstoneRepository;
+
+    // Margen para no servir versiones de transacciones que aún no han hecho commit
+    @Value("${changes.lag-ms:5000}")
+    private long lagMillis = 5000;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillRowVersions() {
+        int updated = prescriptionRepository.backfillRowVersions();
+        if (updated > 0) {
+            logger.info("Assigned change versions to {} existing prescriptions", updated);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getChanges(long since, int limit) {
+        ChangeFeed.checkRequest(since, limit, PrescriptionException::new);
+        long upTo = ChangeVersion.safeUpperBound(lagMillis);
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<Map<String, Object>> merged = merge(prescriptionRepository.findChanges(since, upTo, page),
+                prescriptionTombstoneRepository.findChanges(since, upTo, page));
+        return ChangeFeed.page(merged, since, limit, version -> merge(prescriptionRepository.findAtVersion(version),
+                prescriptionTombstoneRepository.findAtVersion(version)));
+    }
+
+    // Recetas y borrados en un solo orden por versión e id
+    private static List<Map<String, Object>> merge(List<Prescription> prescriptions,
+                                                   List<PrescriptionTombstone> tombstones) {
+        List<Map<String, Object>> merged = new ArrayList<>();
+        for (Prescription prescription : prescriptions) {
+            merged.add(ChangeFeed.change(prescription.getRowVersion(), prescription.getId(), false,
+                    toFeedDTO(prescription)));
+        }
+        for (PrescriptionTombstone tombstone : tombstones) {
+            merged.add(ChangeFeed.change(tombstone.getRowVersion(), tombstone.getPrescriptionId(), true, null));
+        }
+        merged.sort(Comparator.comparing((Map<String, Object> change) -> (Long) change.get("version"))
+                .thenComparing(change -> (Long) change.get("id")));
+        return merged;
+    }
+
+    // Sin nombres ni medicamentos: report-service ya recibe pacientes y usuarios por sus feeds
+    private static PrescriptionResponseDTO toFeedDTO(Prescription prescription) {
+        return new PrescriptionResponseDTO(
+                prescription.getId(),
+                prescription.getMedicalHistoryId(),
+                prescription.getPatientId(),
+                prescription.getVeterinarianId(),
+                null,
+                null,
+                prescription.getPrescriptionDate(),
+                prescription.getObservations(),
+                prescription.getStatus().name(),
+                null,
+                prescription.getCreatedAt(),
+                prescription.getUpdatedAt()
+        );
+    }
+}
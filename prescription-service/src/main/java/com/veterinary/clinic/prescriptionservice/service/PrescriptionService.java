@@ -3,18 +3,33 @@ package com.veterinary.clinic.prescriptionservice.service;
 import com.veterinary.clinic.prescriptionservice.dto.*;
 import com.veterinary.clinic.prescriptionservice.entity.Medication;
 import com.veterinary.clinic.prescriptionservice.entity.Prescription;
+import com.veterinary.clinic.prescriptionservice.entity.PrescriptionTombstone;
+import com.veterinary.clinic.prescriptionservice.exception.PrescriptionException;
 import com.veterinary.clinic.prescriptionservice.repository.PrescriptionRepository;
+import com.veterinary.clinic.prescriptionservice.repository.PrescriptionTombstoneRepository;
 import com.veterinary.clinic.prescriptionservice.client.PatientClient;
 import com.veterinary.clinic.prescriptionservice.client.UserClient;
 import com.veterinary.clinic.prescriptionservice.client.MedicalHistoryClient;
+import com.veterinary.clinic.resolver.BatchFunction;
+import com.veterinary.clinic.resolver.BatchLoader;
+import com.veterinary.clinic.resolver.RequestResolver;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +39,9 @@ public class PrescriptionService {
     @Autowired
     private PrescriptionRepository prescriptionRepository;
 
+    @Autowired
+    private PrescriptionTombstoneRepository prescriptionTombstoneRepository;
+
     @Autowired
     private PatientClient patientClient;
 
@@ -33,32 +51,53 @@ public class PrescriptionService {
     @Autowired
     private MedicalHistoryClient medicalHistoryClient;
 
+    @Autowired
+    @Qualifier("validationExecutor")
+    private Executor validationExecutor;
+
+    @Value("${prescriptions.validation.deadline-ms:3000}")
+    private long validationDeadlineMillis = 3000;
+
+    // Sin transacción mientras se valida: la conexión solo se toma para guardar
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PrescriptionResponseDTO createPrescription(PrescriptionRequestDTO requestDTO) {
+        // Las tres validaciones son independientes: van a la vez con un plazo común
+        ParallelValidation validation = new ParallelValidation(validationExecutor, validationDeadlineMillis);
+
         // Validar que la historia médica existe
-        try {
-            medicalHistoryClient.getMedicalHistoryById(requestDTO.getMedicalHistoryId());
-        } catch (Exception e) {
-            throw new RuntimeException("Medical history not found with ID: " + requestDTO.getMedicalHistoryId());
-        }
+        validation.submit(() -> {
+            try {
+                return medicalHistoryClient.getMedicalHistoryById(requestDTO.getMedicalHistoryId());
+            } catch (Exception e) {
+                throw new RuntimeException("Medical history not found with ID: " + requestDTO.getMedicalHistoryId());
+            }
+        });
 
         // Validar que el paciente existe
-        PatientClient.PatientResponseDTO patient;
-        try {
-            patient = patientClient.getPatientById(requestDTO.getPatientId());
-        } catch (Exception e) {
-            throw new RuntimeException("Patient not found with ID: " + requestDTO.getPatientId());
-        }
+        Future<PatientClient.PatientResponseDTO> patientCheck = validation.submit(() -> {
+            try {
+                return patientClient.getPatientById(requestDTO.getPatientId());
+            } catch (Exception e) {
+                throw new RuntimeException("Patient not found with ID: " + requestDTO.getPatientId());
+            }
+        });
 
         // Validar que el veterinario existe
-        UserClient.UserResponseDTO veterinarian;
-        try {
-            veterinarian = userClient.getUserById(requestDTO.getVeterinarianId());
-            if (!"VETERINARIO".equals(veterinarian.getRole())) {
-                throw new RuntimeException("User is not a veterinarian");
+        Future<UserClient.UserResponseDTO> veterinarianCheck = validation.submit(() -> {
+            try {
+                UserClient.UserResponseDTO user = userClient.getUserById(requestDTO.getVeterinarianId());
+                if (!"VETERINARIO".equals(user.getRole())) {
+                    throw new RuntimeException("User is not a veterinarian");
+                }
+                return user;
+            } catch (Exception e) {
+                throw new RuntimeException("Veterinarian not found with ID: " + requestDTO.getVeterinarianId());
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Veterinarian not found with ID: " + requestDTO.getVeterinarianId());
-        }
+        });
+
+        validation.await();
+        PatientClient.PatientResponseDTO patient = validation.result(patientCheck);
+        UserClient.UserResponseDTO veterinarian = validation.result(veterinarianCheck);
 
         // Crear la prescripción
         Prescription prescription = new Prescription();
@@ -102,43 +141,36 @@ public class PrescriptionService {
     public List<PrescriptionResponseDTO> getPrescriptionsByPatient(Long patientId) {
         List<Prescription> prescriptions = prescriptionRepository.findByPatientIdOrderByPrescriptionDateDesc(patientId);
 
-        return prescriptions.stream()
-                .map(this::convertToResponseDTOSimple)
-                .collect(Collectors.toList());
+        return convertToResponseDTOsSimple(prescriptions);
     }
 
     @Transactional(readOnly = true)
     public List<PrescriptionResponseDTO> getPrescriptionsByVeterinarian(Long veterinarianId) {
         List<Prescription> prescriptions = prescriptionRepository.findByVeterinarianIdOrderByPrescriptionDateDesc(veterinarianId);
 
-        return prescriptions.stream()
-                .map(this::convertToResponseDTOSimple)
-                .collect(Collectors.toList());
+        return convertToResponseDTOsSimple(prescriptions);
     }
 
     @Transactional(readOnly = true)
     public List<PrescriptionResponseDTO> getPrescriptionsByMedicalHistory(Long medicalHistoryId) {
         List<Prescription> prescriptions = prescriptionRepository.findByMedicalHistoryId(medicalHistoryId);
 
-        return prescriptions.stream()
-                .map(this::convertToResponseDTOSimple)
-                .collect(Collectors.toList());
+        return convertToResponseDTOsSimple(prescriptions);
     }
 
     @Transactional(readOnly = true)
     public Page<PrescriptionResponseDTO> getAllPrescriptions(Pageable pageable) {
         Page<Prescription> prescriptions = prescriptionRepository.findAll(pageable);
 
-        return prescriptions.map(this::convertToResponseDTOSimple);
+        return new PageImpl<>(convertToResponseDTOsSimple(prescriptions.getContent()), pageable,
+                prescriptions.getTotalElements());
     }
 
     @Transactional(readOnly = true)
     public List<PrescriptionResponseDTO> getPrescriptionsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         List<Prescription> prescriptions = prescriptionRepository.findByDateRange(startDate, endDate);
 
-        return prescriptions.stream()
-                .map(this::convertToResponseDTOSimple)
-                .collect(Collectors.toList());
+        return convertToResponseDTOsSimple(prescriptions);
     }
 
     public PrescriptionResponseDTO updatePrescriptionStatus(Long id, Prescription.PrescriptionStatus status) {
@@ -155,9 +187,41 @@ public class PrescriptionService {
         if (!prescriptionRepository.existsById(id)) {
             throw new RuntimeException("Prescription not found with ID: " + id);
         }
+        // El borrado queda registrado para el feed de cambios
+        prescriptionTombstoneRepository.save(new PrescriptionTombstone(id));
         prescriptionRepository.deleteById(id);
     }
 
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<AggregateBucketDTO> getPrescriptionAggregates(String groupBy, LocalDateTime startDate, LocalDateTime endDate) {
+        List<Object[]> rows;
+        switch (groupBy.toLowerCase()) {
+            case "status":
+                rows = prescriptionRepository.aggregateByStatus(startDate, endDate);
+                break;
+            case "type":
+                rows = prescriptionRepository.aggregateByType(startDate, endDate);
+                break;
+            case "veterinarian":
+                rows = prescriptionRepository.aggregateByVeterinarian(startDate, endDate);
+                break;
+            case "day":
+                rows = prescriptionRepository.aggregateByDay(startDate, endDate);
+                break;
+            default:
+                throw new PrescriptionException("groupBy must be one of: status, type, veterinarian, day");
+        }
+
+        // Filas sin veterinario, fecha o medicamento se agrupan bajo "Unknown"
+        return rows.stream()
+                .sorted(Comparator.comparing(row -> (Comparable<Object>) row[0],
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(row -> new AggregateBucketDTO(row[0] != null ? row[0].toString() : "Unknown",
+                        ((Number) row[1]).longValue()))
+                .collect(Collectors.toList());
+    }
+
     @Transactional(readOnly = true)
     public Long getTodayPrescriptionsCountByVeterinarian(Long veterinarianId) {
         return prescriptionRepository.countTodayPrescriptionsByVeterinarian(veterinarianId);
@@ -166,6 +230,11 @@ public class PrescriptionService {
     private PrescriptionResponseDTO convertToResponseDTO(Prescription prescription,
                                                          PatientClient.PatientResponseDTO patient,
                                                          UserClient.UserResponseDTO veterinarian) {
+        return convertToResponseDTO(prescription, patient.getName(), veterinarian.getFullName());
+    }
+
+    private PrescriptionResponseDTO convertToResponseDTO(Prescription prescription, String patientName,
+                                                         String veterinarianName) {
         List<MedicationDTO> medicationDTOs = prescription.getMedications().stream()
                 .map(medication -> new MedicationDTO(
                         medication.getId(),
@@ -182,8 +251,8 @@ public class PrescriptionService {
                 prescription.getMedicalHistoryId(),
                 prescription.getPatientId(),
                 prescription.getVeterinarianId(),
-                patient.getName(),
-                veterinarian.getFullName(),
+                patientName,
+                veterinarianName,
                 prescription.getPrescriptionDate(),
                 prescription.getObservations(),
                 prescription.getStatus().name(),
@@ -194,37 +263,37 @@ public class PrescriptionService {
     }
 
     private PrescriptionResponseDTO convertToResponseDTOSimple(Prescription prescription) {
-        try {
-            PatientClient.PatientResponseDTO patient = patientClient.getPatientById(prescription.getPatientId());
-            UserClient.UserResponseDTO veterinarian = userClient.getUserById(prescription.getVeterinarianId());
-            return convertToResponseDTO(prescription, patient, veterinarian);
-        } catch (Exception e) {
-            // En caso de error en la comunicación con otros servicios, devolver datos básicos
-            List<MedicationDTO> medicationDTOs = prescription.getMedications().stream()
-                    .map(medication -> new MedicationDTO(
-                            medication.getId(),
-                            medication.getMedicationName(),
-                            medication.getDosage(),
-                            medication.getFrequency(),
-                            medication.getDuration(),
-                            medication.getInstructions()
-                    ))
-                    .collect(Collectors.toList());
-
-            return new PrescriptionResponseDTO(
-                    prescription.getId(),
-                    prescription.getMedicalHistoryId(),
-                    prescription.getPatientId(),
-                    prescription.getVeterinarianId(),
-                    "Unknown Patient",
-                    "Unknown Veterinarian",
-                    prescription.getPrescriptionDate(),
-                    prescription.getObservations(),
-                    prescription.getStatus().name(),
-                    medicationDTOs,
-                    prescription.getCreatedAt(),
-                    prescription.getUpdatedAt()
-            );
+        return convertToResponseDTOsSimple(List.of(prescription)).get(0);
+    }
+
+    // Pacientes en bloque y cada veterinario una vez por petición, no por receta
+    private List<PrescriptionResponseDTO> convertToResponseDTOsSimple(List<Prescription> prescriptions) {
+        RequestResolver resolver = RequestResolver.current();
+        BatchLoader<Long, String> patientNames = resolver.loader("prescription.patientNames",
+                PatientClient.MAX_BATCH_IDS, this::patientNames);
+        BatchLoader<Long, String> veterinarianNames = resolver.loader("prescription.veterinarianNames",
+                PatientClient.MAX_BATCH_IDS, BatchFunction.perKey(id -> userClient.getUserById(id).getFullName()));
+        for (Prescription prescription : prescriptions) {
+            patientNames.load(prescription.getPatientId());
+            veterinarianNames.load(prescription.getVeterinarianId());
+        }
+        patientNames.dispatch();
+        veterinarianNames.dispatch();
+
+        // En caso de error en la comunicación con otros servicios, se devuelven los datos básicos
+        return prescriptions.stream()
+                .map(prescription -> convertToResponseDTO(prescription,
+                        patientNames.getOrDefault(prescription.getPatientId(), "Unknown Patient"),
+                        veterinarianNames.getOrDefault(prescription.getVeterinarianId(), "Unknown Veterinarian")))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, String> patientNames(List<Long> patientIds) {
+        Map<Long, String> names = new HashMap<>();
+        PatientClient.PatientBatchResponse response = patientClient.getPatientsByIds(patientIds);
+        if (response != null && response.getData() != null) {
+            response.getData().forEach(patient -> names.put(patient.getId(), patient.getName()));
         }
+        return names;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package com.veterinary.clinic.prescriptionservice.service;
+
+import com.veterinary.clinic.prescriptionservice.dto.AggregateBucketDTO;
+import com.veterinary.clinic.prescriptionservice.entity.Medication;
+import com.veterinary.clinic.prescriptionservice.entity.Prescription;
+import com.veterinary.clinic.prescriptionservice.exception.PrescriptionException;
+import com.veterinary.clinic.prescriptionservice.repository.PrescriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Agregados por tipo: las recetas se agrupan por medicamento y cada receta
+ * cuenta una vez por medicamento aunque lo repita en varias líneas.
+ */
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.dialect=com.veterinary.clinic.prescriptionservice.service.PrescriptionQueryCountTests$H2DateDialect")
+class PrescriptionAggregatesTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @Configuration
+    @EntityScan(basePackageClasses = Prescription.class)
+    @EnableJpaRepositories(basePackageClasses = PrescriptionRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    private PrescriptionService prescriptionService;
+
+    @BeforeEach
+    void setUp() {
+        prescriptionService = new PrescriptionService();
+        ReflectionTestUtils.setField(prescriptionService, "prescriptionRepository", prescriptionRepository);
+
+        persist(START, "Amoxicilina", "Meloxicam");
+        persist(START.plusDays(1), "Amoxicilina");
+        // La dosis de carga y la de mantenimiento son dos líneas del mismo medicamento
+        persist(START.plusDays(2), "Amoxicilina", "Amoxicilina");
+        persist(START.plusDays(10), "Meloxicam");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testTypeGroupsPrescriptionsByMedication() {
+        List<AggregateBucketDTO> buckets = prescriptionService.getPrescriptionAggregates("type", START, START.plusDays(5));
+
+        assertEquals(List.of("Amoxicilina=3", "Meloxicam=1"), render(buckets));
+    }
+
+    @Test
+    void testUnknownGroupByIsABadRequest() {
+        PrescriptionException error = assertThrows(PrescriptionException.class,
+                () -> prescriptionService.getPrescriptionAggregates("medication", null, null));
+
+        assertEquals("groupBy must be one of: status, type, veterinarian, day", error.getMessage());
+    }
+
+    private void persist(LocalDateTime date, String... medicationNames) {
+        Prescription prescription = new Prescription(1L, 7L, 3L, date, null);
+        List<Medication> medications = new ArrayList<>();
+        for (String name : medicationNames) {
+            medications.add(new Medication(prescription, name, "250mg", "Cada 12 horas", "7 días", null));
+        }
+        prescription.setMedications(medications);
+        entityManager.persist(prescription);
+    }
+
+    private static List<String> render(List<AggregateBucketDTO> buckets) {
+        return buckets.stream()
+                .map(bucket -> bucket.getKey() + "=" + bucket.getCount())
+                .collect(Collectors.toList());
+    }
+}
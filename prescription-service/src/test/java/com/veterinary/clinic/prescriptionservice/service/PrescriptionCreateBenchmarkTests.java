@@ -0,0 +1,101 @@
+package com.veterinary.clinic.prescriptionservice.service;
+
+import com.veterinary.clinic.prescriptionservice.client.MedicalHistoryClient;
+import com.veterinary.clinic.prescriptionservice.client.PatientClient;
+import com.veterinary.clinic.prescriptionservice.client.UserClient;
+import com.veterinary.clinic.prescriptionservice.config.ValidationExecutorConfig;
+import com.veterinary.clinic.prescriptionservice.entity.Prescription;
+import com.veterinary.clinic.prescriptionservice.repository.PrescriptionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Latencia de createPrescription con los tres servicios simulados, cada uno
+ * con una latencia aleatoria de 5 a 25 ms. "En serie" ejecuta las
+ * validaciones en el hilo de la petición, una tras otra, como antes; "en
+ * paralelo" usa el pool de validación.
+ *
+ * Ejecutar con: mvn test -Dtest=PrescriptionCreateBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PrescriptionCreateBenchmarkTests {
+
+    private static final int WARMUP = 20;
+    private static final int REQUESTS = 200;
+
+    @Test
+    void benchmarkSequentialAgainstParallelValidation() {
+        long[] sequential = measure(Runnable::run);
+        ExecutorService executor = new ValidationExecutorConfig().validationExecutor(16, 64);
+        long[] parallel;
+        try {
+            parallel = measure(executor);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.out.printf("create latency | sequential p50=%.1fms p99=%.1fms | parallel p50=%.1fms p99=%.1fms%n",
+                percentile(sequential, 50), percentile(sequential, 99),
+                percentile(parallel, 50), percentile(parallel, 99));
+        assertTrue(percentile(parallel, 50) < percentile(sequential, 50));
+    }
+
+    private static long[] measure(Executor executor) {
+        PrescriptionService service = service(executor);
+        for (int i = 0; i < WARMUP; i++) {
+            service.createPrescription(PrescriptionCreateValidationTests.request());
+        }
+        long[] latencies = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            long start = System.nanoTime();
+            service.createPrescription(PrescriptionCreateValidationTests.request());
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static PrescriptionService service(Executor executor) {
+        MedicalHistoryClient medicalHistoryClient = mock(MedicalHistoryClient.class);
+        when(medicalHistoryClient.getMedicalHistoryById(1L)).thenAnswer(jittered(new MedicalHistoryClient.MedicalHistoryResponseDTO()));
+        PatientClient patientClient = mock(PatientClient.class);
+        when(patientClient.getPatientById(7L)).thenAnswer(jittered(PrescriptionCreateValidationTests.patient("Luna")));
+        UserClient userClient = mock(UserClient.class);
+        when(userClient.getUserById(3L)).thenAnswer(jittered(PrescriptionCreateValidationTests.user("VETERINARIO", "Ana", "Pérez")));
+        PrescriptionRepository prescriptionRepository = mock(PrescriptionRepository.class);
+        when(prescriptionRepository.save(any(Prescription.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PrescriptionService service = new PrescriptionService();
+        ReflectionTestUtils.setField(service, "medicalHistoryClient", medicalHistoryClient);
+        ReflectionTestUtils.setField(service, "patientClient", patientClient);
+        ReflectionTestUtils.setField(service, "userClient", userClient);
+        ReflectionTestUtils.setField(service, "prescriptionRepository", prescriptionRepository);
+        ReflectionTestUtils.setField(service, "validationExecutor", executor);
+        ReflectionTestUtils.setField(service, "validationDeadlineMillis", 3000L);
+        return service;
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int at = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, at)] / 1_000_000.0;
+    }
+
+    private static <T> Answer<T> jittered(T value) {
+        return invocation -> {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(5, 26));
+            return value;
+        };
+    }
+}
@@ -0,0 +1,186 @@
+package com.veterinary.clinic.prescriptionservice.service;
+
+import com.veterinary.clinic.prescriptionservice.client.MedicalHistoryClient;
+import com.veterinary.clinic.prescriptionservice.client.PatientClient;
+import com.veterinary.clinic.prescriptionservice.client.UserClient;
+import com.veterinary.clinic.prescriptionservice.config.ValidationExecutorConfig;
+import com.veterinary.clinic.prescriptionservice.dto.MedicationDTO;
+import com.veterinary.clinic.prescriptionservice.dto.PrescriptionRequestDTO;
+import com.veterinary.clinic.prescriptionservice.dto.PrescriptionResponseDTO;
+import com.veterinary.clinic.prescriptionservice.entity.Prescription;
+import com.veterinary.clinic.prescriptionservice.repository.PrescriptionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Validaciones previas a crear una receta contra servicios simulados con
+ * latencia: van a la vez, la primera que falla corta la espera y paciente y
+ * veterinario no se vuelven a pedir para la respuesta.
+ */
+class PrescriptionCreateValidationTests {
+
+    private static final long CALL_LATENCY_MS = 150;
+
+    @Mock
+    private PrescriptionRepository prescriptionRepository;
+
+    @Mock
+    private PatientClient patientClient;
+
+    @Mock
+    private UserClient userClient;
+
+    @Mock
+    private MedicalHistoryClient medicalHistoryClient;
+
+    @InjectMocks
+    private PrescriptionService prescriptionService;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = new ValidationExecutorConfig().validationExecutor(16, 64);
+        ReflectionTestUtils.setField(prescriptionService, "validationExecutor", executor);
+        ReflectionTestUtils.setField(prescriptionService, "validationDeadlineMillis", 1000L);
+
+        when(medicalHistoryClient.getMedicalHistoryById(1L)).thenAnswer(delayed(new MedicalHistoryClient.MedicalHistoryResponseDTO()));
+        when(patientClient.getPatientById(7L)).thenAnswer(delayed(patient("Luna")));
+        when(userClient.getUserById(3L)).thenAnswer(delayed(user("VETERINARIO", "Ana", "Pérez")));
+        when(prescriptionRepository.save(any(Prescription.class))).thenAnswer(invocation -> {
+            Prescription prescription = invocation.getArgument(0);
+            prescription.setId(42L);
+            return prescription;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testValidationsRunConcurrentlyAndResultsAreReused() {
+        long start = System.nanoTime();
+        PrescriptionResponseDTO response = prescriptionService.createPrescription(request());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(42L, response.getId());
+        assertEquals("Luna", response.getPatientName());
+        assertEquals("Ana Pérez", response.getVeterinarianName());
+        assertEquals(1, response.getMedications().size());
+        // En serie serían tres latencias
+        assertTrue(elapsedMillis < 2 * CALL_LATENCY_MS, "Validations took " + elapsedMillis + "ms");
+        verify(patientClient, times(1)).getPatientById(7L);
+        verify(userClient, times(1)).getUserById(3L);
+    }
+
+    @Test
+    void testFirstRejectionCancelsTheOthers() {
+        AtomicBoolean historyInterrupted = new AtomicBoolean();
+        when(medicalHistoryClient.getMedicalHistoryById(1L)).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                historyInterrupted.set(true);
+                throw e;
+            }
+            return new MedicalHistoryClient.MedicalHistoryResponseDTO();
+        });
+        when(patientClient.getPatientById(7L)).thenThrow(new IllegalStateException("404"));
+
+        long start = System.nanoTime();
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> prescriptionService.createPrescription(request()));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("Patient not found with ID: 7", error.getMessage());
+        assertTrue(elapsedMillis < CALL_LATENCY_MS * 2, "Rejection took " + elapsedMillis + "ms");
+        verify(prescriptionRepository, never()).save(any());
+        verify(medicalHistoryClient, timeout(1000)).getMedicalHistoryById(1L);
+        // La llamada lenta se interrumpe en vez de seguir ocupando un hilo
+        long waitUntil = System.currentTimeMillis() + 1000;
+        while (!historyInterrupted.get() && System.currentTimeMillis() < waitUntil) {
+            Thread.onSpinWait();
+        }
+        assertTrue(historyInterrupted.get());
+    }
+
+    @Test
+    void testUserWhoIsNotAVeterinarianIsRejected() {
+        when(userClient.getUserById(3L)).thenAnswer(delayed(user("RECEPCIONISTA", "Eva", "Gil")));
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> prescriptionService.createPrescription(request()));
+
+        assertEquals("Veterinarian not found with ID: 3", error.getMessage());
+        verify(prescriptionRepository, never()).save(any());
+    }
+
+    @Test
+    void testSharedDeadlineBoundsSlowDownstreams() {
+        ReflectionTestUtils.setField(prescriptionService, "validationDeadlineMillis", 300L);
+        when(userClient.getUserById(3L)).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return user("VETERINARIO", "Ana", "Pérez");
+        });
+
+        long start = System.nanoTime();
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> prescriptionService.createPrescription(request()));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("Validation timed out", error.getMessage());
+        assertTrue(elapsedMillis < 1000, "Deadline took " + elapsedMillis + "ms");
+        verify(prescriptionRepository, never()).save(any());
+    }
+
+    static PrescriptionRequestDTO request() {
+        PrescriptionRequestDTO request = new PrescriptionRequestDTO();
+        request.setMedicalHistoryId(1L);
+        request.setPatientId(7L);
+        request.setVeterinarianId(3L);
+        request.setPrescriptionDate(LocalDateTime.of(2024, 3, 1, 9, 0));
+        request.setMedications(List.of(new MedicationDTO("Amoxicilina", "250mg", "Cada 12 horas", "7 días", null)));
+        return request;
+    }
+
+    static PatientClient.PatientResponseDTO patient(String name) {
+        PatientClient.PatientResponseDTO patient = new PatientClient.PatientResponseDTO();
+        patient.setId(7L);
+        patient.setName(name);
+        return patient;
+    }
+
+    static UserClient.UserResponseDTO user(String role, String firstName, String lastName) {
+        UserClient.UserResponseDTO user = new UserClient.UserResponseDTO();
+        user.setId(3L);
+        user.setRole(role);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        return user;
+    }
+
+    private static <T> Answer<T> delayed(T value) {
+        return invocation -> {
+            Thread.sleep(CALL_LATENCY_MS);
+            return value;
+        };
+    }
+}
@@ -0,0 +1,135 @@
+package com.veterinary.clinic.prescriptionservice.service;
+
+import com.veterinary.clinic.prescriptionservice.client.PatientClient;
+import com.veterinary.clinic.prescriptionservice.client.UserClient;
+import com.veterinary.clinic.prescriptionservice.dto.PrescriptionResponseDTO;
+import com.veterinary.clinic.prescriptionservice.entity.Medication;
+import com.veterinary.clinic.prescriptionservice.entity.Prescription;
+import com.veterinary.clinic.prescriptionservice.repository.PrescriptionRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.stat.Statistics;
+import org.hibernate.type.StandardBasicTypes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cuenta las sentencias que lanza cada listado de recetas. Si alguno vuelve a
+ * cargar los medicamentos receta a receta (N+1), el número crece con el de
+ * recetas y el test falla.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.dialect=com.veterinary.clinic.prescriptionservice.service.PrescriptionQueryCountTests$H2DateDialect",
+        "spring.jpa.show-sql=false"
+})
+class PrescriptionQueryCountTests {
+
+    private static final int PRESCRIPTIONS = 20;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @Configuration
+    @EntityScan(basePackageClasses = Prescription.class)
+    @EnableJpaRepositories(basePackageClasses = PrescriptionRepository.class)
+    static class JpaConfig {
+    }
+
+    // Las consultas de agregados usan DATE() de MySQL, que H2 no tiene
+    public static class H2DateDialect extends H2Dialect {
+        public H2DateDialect() {
+            registerFunction("date", new SQLFunctionTemplate(StandardBasicTypes.DATE, "cast(?1 as date)"));
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    private PrescriptionService prescriptionService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        PatientClient patientClient = mock(PatientClient.class);
+        PatientClient.PatientBatchResponse patients = new PatientClient.PatientBatchResponse();
+        patients.setData(List.of());
+        when(patientClient.getPatientsByIds(anyList())).thenReturn(patients);
+        UserClient userClient = mock(UserClient.class);
+        when(userClient.getUserById(anyLong())).thenReturn(new UserClient.UserResponseDTO());
+
+        prescriptionService = new PrescriptionService();
+        ReflectionTestUtils.setField(prescriptionService, "prescriptionRepository", prescriptionRepository);
+        ReflectionTestUtils.setField(prescriptionService, "patientClient", patientClient);
+        ReflectionTestUtils.setField(prescriptionService, "userClient", userClient);
+
+        for (int i = 0; i < PRESCRIPTIONS; i++) {
+            Prescription prescription = new Prescription(1L, 7L, 3L, START.plusHours(i), "Control " + i);
+            List<Medication> medications = new ArrayList<>();
+            medications.add(new Medication(prescription, "Amoxicilina", "250mg", "Cada 12 horas", "7 días", null));
+            medications.add(new Medication(prescription, "Meloxicam", "0.1mg/kg", "Cada 24 horas", "5 días", null));
+            prescription.setMedications(medications);
+            entityManager.persist(prescription);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testListsLoadMedicationsInOneBatch() {
+        assertStatements(2, () -> prescriptionService.getPrescriptionsByPatient(7L));
+        assertStatements(2, () -> prescriptionService.getPrescriptionsByVeterinarian(3L));
+        assertStatements(2, () -> prescriptionService.getPrescriptionsByMedicalHistory(1L));
+        assertStatements(2, () -> prescriptionService.getPrescriptionsByDateRange(START, START.plusDays(1)));
+    }
+
+    @Test
+    void testPagesKeepPaginationInSql() {
+        // Página, recuento y medicamentos de las recetas de la página
+        Page<PrescriptionResponseDTO> page = assertStatements(3,
+                () -> prescriptionService.getAllPrescriptions(PageRequest.of(0, 5)));
+
+        assertEquals(5, page.getContent().size());
+        assertEquals(PRESCRIPTIONS, page.getTotalElements());
+    }
+
+    private <T> T assertStatements(int max, Supplier<T> call) {
+        entityManager.clear();
+        statistics.clear();
+        T result = call.get();
+        if (result instanceof List) {
+            List<?> prescriptions = (List<?>) result;
+            assertEquals(PRESCRIPTIONS, prescriptions.size());
+            prescriptions.forEach(dto -> assertEquals(2, ((PrescriptionResponseDTO) dto).getMedications().size()));
+        }
+        assertTrue(statistics.getPrepareStatementCount() <= max,
+                "Expected at most " + max + " statements but got " + statistics.getPrepareStatementCount());
+        return result;
+    }
+}
@@ -1,12 +1,18 @@
 package com.veterinary.clinic.reportservice.client;
 
+import com.veterinary.clinic.reportservice.dto.ChangeFeedResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 @FeignClient(name = "appointment-service")
@@ -38,6 +44,32 @@ public interface AppointmentClient {
     @GetMapping("/api/appointments/count/month")
     Long getMonthAppointmentsCount();
 
+    // Conteos agrupados en SQL (status, type, veterinarian o day); el tamaño depende de los grupos, no de las filas
+    @GetMapping("/appointments/aggregate")
+    AggregateResponse getAppointmentAggregates(
+            @RequestParam("groupBy") String groupBy,
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate);
+
+    // Feed de cambios para el modelo de lectura local
+    @GetMapping("/appointments/changes")
+    ChangeFeedResponse<AppointmentSnapshot> getAppointmentChanges(@RequestParam("since") long since,
+                                                                  @RequestParam("limit") int limit);
+
+    // Número de citas y última fecha de varios pacientes en una sola consulta agrupada
+    @PostMapping("/appointments/summary/patients")
+    PatientSummaryResponse summarizeByPatients(@RequestBody List<Long> patientIds);
+
+    // Tarifa de cada tipo de cita
+    @GetMapping("/appointments/types")
+    AppointmentTypeResponse getAppointmentTypes();
+
+    // Citas agrupadas por día, tipo y veterinario, para valorarlas con la tarifa
+    @GetMapping("/appointments/charges")
+    AppointmentChargeResponse getAppointmentCharges(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate);
+
     class AppointmentResponseDTO {
         private Long id;
         private Long patientId;
@@ -80,4 +112,178 @@ public interface AppointmentClient {
         public String getVeterinarianName() { return veterinarianName; }
         public void setVeterinarianName(String veterinarianName) { this.veterinarianName = veterinarianName; }
     }
+
+    // Respuesta envuelta de appointment-service: { message, data }
+    class AggregateResponse {
+        private String message;
+        private List<AggregateBucketDTO> data;
+
+        public AggregateResponse() {}
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+
+        public List<AggregateBucketDTO> getData() { return data; }
+        public void setData(List<AggregateBucketDTO> data) { this.data = data; }
+    }
+
+    class AggregateBucketDTO {
+        private String key;
+        private Long count;
+
+        public AggregateBucketDTO() {}
+
+        public String getKey() { return key; }
+        public void setKey(String key) { this.key = key; }
+
+        public Long getCount() { return count; }
+        public void setCount(Long count) { this.count = count; }
+    }
+
+    class AppointmentSnapshot {
+        private Long id;
+        private Long patientId;
+        private Long veterinarianId;
+        private Long appointmentTypeId;
+        private LocalDate appointmentDate;
+        private LocalTime appointmentTime;
+        private String reason;
+        private String status;
+        private String notes;
+        private Integer durationMinutes;
+
+        public AppointmentSnapshot() {}
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public Long getPatientId() { return patientId; }
+        public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+        public Long getVeterinarianId() { return veterinarianId; }
+        public void setVeterinarianId(Long veterinarianId) { this.veterinarianId = veterinarianId; }
+
+        public Long getAppointmentTypeId() { return appointmentTypeId; }
+        public void setAppointmentTypeId(Long appointmentTypeId) { this.appointmentTypeId = appointmentTypeId; }
+
+        public LocalDate getAppointmentDate() { return appointmentDate; }
+        public void setAppointmentDate(LocalDate appointmentDate) { this.appointmentDate = appointmentDate; }
+
+        public LocalTime getAppointmentTime() { return appointmentTime; }
+        public void setAppointmentTime(LocalTime appointmentTime) { this.appointmentTime = appointmentTime; }
+
+        public String getReason() { return reason; }
+        public void setReason(String reason) { this.reason = reason; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public String getNotes() { return notes; }
+        public void setNotes(String notes) { this.notes = notes; }
+
+        public Integer getDurationMinutes() { return durationMinutes; }
+        public void setDurationMinutes(Integer durationMinutes) { this.durationMinutes = durationMinutes; }
+    }
+
+    class PatientSummaryResponse {
+        private String message;
+        private List<PatientAppointmentSummaryDTO> data;
+
+        public PatientSummaryResponse() {}
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+
+        public List<PatientAppointmentSummaryDTO> getData() { return data; }
+        public void setData(List<PatientAppointmentSummaryDTO> data) { this.data = data; }
+    }
+
+    class PatientAppointmentSummaryDTO {
+        private Long patientId;
+        private Long totalAppointments;
+        private LocalDate lastVisitDate;
+
+        public PatientAppointmentSummaryDTO() {}
+
+        public Long getPatientId() { return patientId; }
+        public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+        public Long getTotalAppointments() { return totalAppointments; }
+        public void setTotalAppointments(Long totalAppointments) { this.totalAppointments = totalAppointments; }
+
+        public LocalDate getLastVisitDate() { return lastVisitDate; }
+        public void setLastVisitDate(LocalDate lastVisitDate) { this.lastVisitDate = lastVisitDate; }
+    }
+
+    class AppointmentTypeResponse {
+        private String message;
+        private List<AppointmentTypeDTO> data;
+
+        public AppointmentTypeResponse() {}
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+
+        public List<AppointmentTypeDTO> getData() { return data; }
+        public void setData(List<AppointmentTypeDTO> data) { this.data = data; }
+    }
+
+    class AppointmentTypeDTO {
+        private Long id;
+        private String name;
+        private Integer durationMinutes;
+        private BigDecimal basePrice;
+        private Boolean isActive;
+
+        public AppointmentTypeDTO() {}
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public Integer getDurationMinutes() { return durationMinutes; }
+        public void setDurationMinutes(Integer durationMinutes) { this.durationMinutes = durationMinutes; }
+
+        public BigDecimal getBasePrice() { return basePrice; }
+        public void setBasePrice(BigDecimal basePrice) { this.basePrice = basePrice; }
+
+        public Boolean getIsActive() { return isActive; }
+        public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+    }
+
+    class AppointmentChargeResponse {
+        private String message;
+        private List<AppointmentChargeDTO> data;
+
+        public AppointmentChargeResponse() {}
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+
+        public List<AppointmentChargeDTO> getData() { return data; }
+        public void setData(List<AppointmentChargeDTO> data) { this.data = data; }
+    }
+
+    class AppointmentChargeDTO {
+        private LocalDate appointmentDate;
+        private Long appointmentTypeId;
+        private Long veterinarianId;
+        private Long count;
+
+        public AppointmentChargeDTO() {}
+
+        public LocalDate getAppointmentDate() { return appointmentDate; }
+        public void setAppointmentDate(LocalDate appointmentDate) { this.appointmentDate = appointmentDate; }
+
+        public Long getAppointmentTypeId() { return appointmentTypeId; }
+        public void setAppointmentTypeId(Long appointmentTypeId) { this.appointmentTypeId = appointmentTypeId; }
+
+        public Long getVeterinarianId() { return veterinarianId; }
+        public void setVeterinarianId(Long veterinarianId) { this.veterinarianId = veterinarianId; }
+
+        public Long getCount() { return count; }
+        public void setCount(Long count) { this.count = count; }
+    }
 }
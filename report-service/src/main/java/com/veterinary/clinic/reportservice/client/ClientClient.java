@@ -1,9 +1,14 @@
 package com.veterinary.clinic.reportservice.client;
 
+import com.veterinary.clinic.reportservice.dto.ChangeFeedResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @FeignClient(name = "client-service")
@@ -15,6 +20,15 @@ public interface ClientClient {
     @GetMapping("/api/clients")
     List<ClientResponseDTO> getAllClients();
 
+    // Varios clientes en una sola llamada; los ids inexistentes no aparecen en la respuesta
+    @PostMapping("/clients/batch")
+    ClientBatchResponse getClientsByIds(@RequestBody List<Long> ids);
+
+    // Feed de cambios para el modelo de lectura local
+    @GetMapping("/clients/changes")
+    ChangeFeedResponse<ClientSnapshot> getClientChanges(@RequestParam("since") long since,
+                                                        @RequestParam("limit") int limit);
+
     class ClientResponseDTO {
         private Long id;
         private String firstName;
@@ -53,4 +67,54 @@ public interface ClientClient {
             return (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "");
         }
     }
+
+    class ClientSnapshot {
+        private Long id;
+        private String firstName;
+        private String lastName;
+        private String documentNumber;
+        private String email;
+        private String phoneNumber;
+        private LocalDateTime createdAt;
+
+        public ClientSnapshot() {}
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getFirstName() { return firstName; }
+        public void setFirstName(String firstName) { this.firstName = firstName; }
+
+        public String getLastName() { return lastName; }
+        public void setLastName(String lastName) { this.lastName = lastName; }
+
+        public String getDocumentNumber() { return documentNumber; }
+        public void setDocumentNumber(String documentNumber) { this.documentNumber = documentNumber; }
+
+        public String getEmail() { return email; }
+        public void setEmail(String email) { this.email = email; }
+
+        public String getPhoneNumber() { return phoneNumber; }
+        public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+        public String getFullName() {
+            return (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "");
+        }
+    }
+
+    class ClientBatchResponse {
+        private String message;
+        private List<ClientSnapshot> data;
+
+        public ClientBatchResponse() {}
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+
+        public List<ClientSnapshot> getData() { return data; }
+        public void setData(List<ClientSnapshot> data) { this.data = data; }
+    }
 }
@@ -1,15 +1,23 @@
 package com.veterinary.clinic.reportservice.client;
 
+import com.veterinary.clinic.reportservice.dto.ChangeFeedResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @FeignClient(name = "patient-service")
 public interface PatientClient {
 
+    int MAX_BATCH_IDS = 1000;
+
     @GetMapping("/api/patients")
     List<PatientResponseDTO> getAllPatients();
 
@@ -25,6 +33,24 @@ public interface PatientClient {
     @GetMapping("/api/patients/statistics/species")
     List<SpeciesStatisticsDTO> getPatientsBySpeciesStatistics();
 
+    // Feed de cambios para el modelo de lectura local
+    @GetMapping("/patients/changes")
+    ChangeFeedResponse<PatientSnapshot> getPatientChanges(@RequestParam("since") long since,
+                                                          @RequestParam("limit") int limit);
+
+    // Páginas por cursor para el reporte de pacientes; los propietarios se resuelven aparte, en bloque
+    @GetMapping("/patients/scroll")
+    PatientScrollResponse scrollPatients(@RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam("size") int size,
+                                         @RequestParam("sortBy") String sortBy,
+                                         @RequestParam("sortDir") String sortDir,
+                                         @RequestParam("skipCount") boolean skipCount,
+                                         @RequestParam("includeClientName") boolean includeClientName);
+
+    // Hasta MAX_BATCH_IDS pacientes por llamada, con id, nombre, especie y cliente
+    @PostMapping("/patients/batch")
+    PatientBatchResponse getPatientsByIds(@RequestBody List<Long> ids);
+
     class PatientResponseDTO {
         private Long id;
         private String name;
@@ -80,4 +106,92 @@ public interface PatientClient {
         public Long getCount() { return count; }
         public void setCount(Long count) { this.count = count; }
     }
+
+    class PatientSnapshot {
+        private Long id;
+        private String name;
+        private Long clientId;
+        private String species;
+        private String breed;
+        private LocalDate birthDate;
+        private BigDecimal weight;
+        private LocalDate registrationDate;
+        private Boolean isActive;
+        private LocalDateTime createdAt;
+
+        public PatientSnapshot() {}
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public Long getClientId() { return clientId; }
+        public void setClientId(Long clientId) { this.clientId = clientId; }
+
+        public String getSpecies() { return species; }
+        public void setSpecies(String species) { this.species = species; }
+
+        public String getBreed() { return breed; }
+        public void setBreed(String breed) { this.breed = breed; }
+
+        public LocalDate getBirthDate() { return birthDate; }
+        public void setBirthDate(LocalDate birthDate) { this.birthDate = birthDate; }
+
+        public BigDecimal getWeight() { return weight; }
+        public void setWeight(BigDecimal weight) { this.weight = weight; }
+
+        public LocalDate getRegistrationDate() { return registrationDate; }
+        public void setRegistrationDate(LocalDate registrationDate) { this.registrationDate = registrationDate; }
+
+        public Boolean getIsActive() { return isActive; }
+        public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    }
+
+    class PatientBatchResponse {
+        private String message;
+        private List<PatientSnapshot> data;
+
+        public PatientBatchResponse() {}
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+
+        public List<PatientSnapshot> getData() { return data; }
+        public void setData(List<PatientSnapshot> data) { this.data = data; }
+    }
+
+    class PatientScrollResponse {
+        private String message;
+        private PatientPage data;
+
+        public PatientScrollResponse() {}
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+
+        public PatientPage getData() { return data; }
+        public void setData(PatientPage data) { this.data = data; }
+    }
+
+    class PatientPage {
+        private List<PatientSnapshot> patients;
+        private boolean hasNext;
+        private String nextCursor;
+
+        public PatientPage() {}
+
+        public List<PatientSnapshot> getPatients() { return patients; }
+        public void setPatients(List<PatientSnapshot> patients) { this.patients = patients; }
+
+        public boolean isHasNext() { return hasNext; }
+        public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+
+        public String getNextCursor() { return nextCursor; }
+        public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    }
 }
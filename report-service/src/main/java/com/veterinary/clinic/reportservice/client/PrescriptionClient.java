@@ -1,5 +1,6 @@
 package com.veterinary.clinic.reportservice.client;
 
+import com.veterinary.clinic.reportservice.dto.ChangeFeedDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -26,6 +27,18 @@ public interface PrescriptionClient {
     @GetMapping("/api/prescriptions/count/total")
     Long getTotalPrescriptionsCount();
 
+    // Conteos agrupados en SQL (status, type, veterinarian o day)
+    @GetMapping("/api/prescriptions/aggregate")
+    List<AggregateBucketDTO> getPrescriptionAggregates(
+            @RequestParam("groupBy") String groupBy,
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate);
+
+    // Feed de cambios para el modelo de lectura local; incluye los borrados
+    @GetMapping("/api/prescriptions/changes")
+    ChangeFeedDTO<PrescriptionResponseDTO> getPrescriptionChanges(@RequestParam("since") long since,
+                                                                  @RequestParam("limit") int limit);
+
     class PrescriptionResponseDTO {
         private Long id;
         private Long patientId;
@@ -60,4 +73,17 @@ public interface PrescriptionClient {
         public String getStatus() { return status; }
         public void setStatus(String status) { this.status = status; }
     }
-}
\ No newline at end of file
+
+    class AggregateBucketDTO {
+        private String key;
+        private Long count;
+
+        public AggregateBucketDTO() {}
+
+        public String getKey() { return key; }
+        public void setKey(String key) { this.key = key; }
+
+        public Long getCount() { return count; }
+        public void setCount(Long count) { this.count = count; }
+    }
+}
@@ -1,9 +1,11 @@
 package com.veterinary.clinic.reportservice.client;
 
 
+import com.veterinary.clinic.reportservice.dto.ChangeFeedResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 
@@ -22,6 +24,11 @@ public interface UserClient {
     @GetMapping("/api/users/veterinarians")
     List<UserResponseDTO> getVeterinarians();
 
+    // Feed de cambios para el modelo de lectura local
+    @GetMapping("/users/changes")
+    ChangeFeedResponse<UserSnapshot> getUserChanges(@RequestParam("since") long since,
+                                                    @RequestParam("limit") int limit);
+
     class UserResponseDTO {
         private Long id;
         private String username;
@@ -56,4 +63,25 @@ public interface UserClient {
             return (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "");
         }
     }
+
+    class UserSnapshot {
+        private Long id;
+        private String firstName;
+        private String lastName;
+        private String role;
+
+        public UserSnapshot() {}
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getFirstName() { return firstName; }
+        public void setFirstName(String firstName) { this.firstName = firstName; }
+
+        public String getLastName() { return lastName; }
+        public void setLastName(String lastName) { this.lastName = lastName; }
+
+        public String getRole() { return role; }
+        public void setRole(String role) { this.role = role; }
+    }
 }
@@ -0,0 +1,51 @@
+package com.veterinary.clinic.reportservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool acotado para las llamadas Feign del dashboard. Usa hilos virtuales si
+ * la JVM los ofrece (Java 21+) y hilos de plataforma en caso contrario.
+ */
+@Configuration
+public class DashboardExecutorConfig {
+
+    @Bean(name = "dashboardExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService dashboardExecutor(@Value("${reports.dashboard.threads:16}") int threads,
+                                             @Value("${reports.dashboard.queue-capacity:256}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), threadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        // Las llamadas reenvían el token del usuario que pidió el dashboard
+        return new DelegatingSecurityContextExecutorService(executor);
+    }
+
+    private static ThreadFactory threadFactory() {
+        try {
+            // Thread.ofVirtual().name("dashboard-", 0).factory(), sin compilar contra Java 21
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builder.getClass().getMethod("name", String.class, long.class)
+                    .invoke(builder, "dashboard-", 0L);
+            return (ThreadFactory) builder.getClass().getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory defaults = Executors.defaultThreadFactory();
+            return runnable -> {
+                Thread thread = defaults.newThread(runnable);
+                thread.setName("dashboard-" + counter.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+}
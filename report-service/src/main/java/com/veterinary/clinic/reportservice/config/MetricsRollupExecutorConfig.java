@@ -0,0 +1,31 @@
+package com.veterinary.clinic.reportservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool para recalcular business_metrics por tramos de días en paralelo. La
+ * cola no se acota: el rollup ya trocea los días pendientes y espera a que
+ * terminen todos los tramos.
+ */
+@Configuration
+public class MetricsRollupExecutorConfig {
+
+    @Bean(name = "metricsRollupExecutor", destroyMethod = "shutdown")
+    public ExecutorService metricsRollupExecutor(@Value("${reports.metrics.threads:4}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "metrics-rollup-" + counter.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
@@ -0,0 +1,35 @@
+package com.veterinary.clinic.reportservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool compartido por los reportes de pacientes que se generan llamando a
+ * los servicios. Cada tarea resuelve un bloque de pacientes con dos
+ * llamadas en bloque; cada reporte limita además sus bloques en vuelo.
+ */
+@Configuration
+public class PatientReportExecutorConfig {
+
+    @Bean(name = "patientReportExecutor", destroyMethod = "shutdown")
+    public ExecutorService patientReportExecutor(@Value("${reports.patients.threads:8}") int threads,
+                                                 @Value("${reports.patients.queue-capacity:64}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "patient-report-" + counter.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        // Las llamadas en bloque reenvían el token del usuario que pidió el reporte
+        return new DelegatingSecurityContextExecutorService(executor);
+    }
+}
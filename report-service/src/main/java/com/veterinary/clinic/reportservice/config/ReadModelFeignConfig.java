@@ -0,0 +1,67 @@
+package com.veterinary.clinic.reportservice.config;
+
+import feign.RequestInterceptor;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Autorización de las llamadas Feign. Si hay un usuario detrás (la petición
+ * o el trabajo de reporte que lanzó) se reenvía su token, de modo que los
+ * demás servicios aplican sus propios roles. Las consultas a los feeds
+ * {@code /changes} salen del planificador, sin usuario: se firman con un
+ * token de servicio de vida corta con el rol REPORT_SYNC, que solo aceptan
+ * esos feeds.
+ */
+@Configuration
+public class ReadModelFeignConfig {
+
+    static final String SERVICE_ROLE = "REPORT_SYNC";
+
+    private static final String CHANGE_FEED_PATH = "/changes";
+
+    @Value("${reports.read-model.service-jwt-secret:${jwt.secret}}")
+    private String serviceJwtSecret;
+
+    @Value("${reports.read-model.service-jwt-ttl-ms:300000}")
+    private long serviceJwtTtlMillis = 300000;
+
+    @Bean
+    public RequestInterceptor serviceTokenInterceptor() {
+        return template -> {
+            if (template.headers().containsKey("Authorization")) {
+                return;
+            }
+            String callerToken = callerToken();
+            if (callerToken != null) {
+                template.header("Authorization", "Bearer " + callerToken);
+            } else if (template.path().endsWith(CHANGE_FEED_PATH)) {
+                template.header("Authorization", "Bearer " + serviceToken());
+            }
+        };
+    }
+
+    private static String callerToken() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getCredentials() instanceof String token ? token : null;
+    }
+
+    private String serviceToken() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject("report-service")
+                .claim("roles", List.of(SERVICE_ROLE))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + serviceJwtTtlMillis))
+                .signWith(Keys.hmacShaKeyFor(serviceJwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
@@ -0,0 +1,31 @@
+package com.veterinary.clinic.reportservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool acotado para los trabajos de reportes asíncronos. La generación de
+ * Excel y PDF consume CPU, así que se usan pocos hilos de plataforma.
+ */
+@Configuration
+public class ReportJobExecutorConfig {
+
+    @Bean(name = "reportJobExecutor", destroyMethod = "shutdown")
+    public ExecutorService reportJobExecutor(@Value("${reports.jobs.threads:4}") int threads,
+                                             @Value("${reports.jobs.queue-capacity:100}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + counter.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
@@ -3,13 +3,19 @@ package com.veterinary.clinic.reportservice.controller;
 
 import com.veterinary.clinic.reportservice.dto.*;
 import com.veterinary.clinic.reportservice.entity.ReportHistory;
+import com.veterinary.clinic.reportservice.service.BusinessMetricsRollup;
 import com.veterinary.clinic.reportservice.service.ReportService;
 import com.veterinary.clinic.reportservice.service.ExcelGeneratorService;
 import com.veterinary.clinic.reportservice.service.PdfReportService;
+import com.veterinary.clinic.reportservice.service.ReportArtifactCache;
+import com.veterinary.clinic.reportservice.service.ReadModelSyncService;
+import com.veterinary.clinic.reportservice.service.ReportJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -18,7 +24,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -40,6 +48,18 @@ public class ReportController {
     @Autowired
     private PdfReportService pdfReportService;
 
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private ReportArtifactCache reportArtifactCache;
+
+    @Autowired
+    private ReadModelSyncService readModelSyncService;
+
+    @Autowired
+    private BusinessMetricsRollup businessMetricsRollup;
+
     @GetMapping("/dashboard")
     @Operation(summary = "Get dashboard metrics", description = "Retrieve dashboard metrics and statistics")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -61,52 +81,73 @@ public class ReportController {
         return ResponseEntity.ok(report);
     }
 
+    @GetMapping("/appointments/trend")
+    @Operation(summary = "Get appointments trend", description = "Appointments per day for the specified date range")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<Map<LocalDate, Long>> getAppointmentsTrend(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(reportService.getAppointmentsTrend(startDate, endDate));
+    }
+
     @GetMapping("/appointments/excel")
     @Operation(summary = "Export appointment report to Excel", description = "Generate and download appointment report in Excel format")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
-    public ResponseEntity<byte[]> exportAppointmentReportExcel(
+    public ResponseEntity<StreamingResponseBody> exportAppointmentReportExcel(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            Authentication authentication) throws IOException {
+            Authentication authentication) {
 
         Long userId = getUserIdFromAuthentication(authentication);
-        List<AppointmentReportDTO> report = reportService.getAppointmentReport(startDate, endDate, userId);
-        byte[] excelBytes = excelGeneratorService.generateAppointmentReportExcel(report);
+        // El libro se escribe directamente en la respuesta, sin copia intermedia en byte[];
+        // los datos solo se piden si el fichero no está en la caché
+        StreamingResponseBody body = outputStream -> {
+            boolean cached = reportArtifactCache.writeTo("APPOINTMENT_REPORT", startDate, endDate, "EXCEL", outputStream,
+                    out -> reportService.writeAppointmentReport(startDate, endDate, userId, "EXCEL",
+                            rows -> excelGeneratorService.writeAppointmentReportExcel(rows, out)));
+            if (cached) {
+                reportService.recordCachedReport("APPOINTMENT_REPORT", userId, startDate, endDate, "EXCEL");
+            }
+        };
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", "reporte_citas_" +
                 startDate.format(DateTimeFormatter.ofPattern("ddMMyyyy")) + "_" +
                 endDate.format(DateTimeFormatter.ofPattern("ddMMyyyy")) + ".xlsx");
-        headers.setContentLength(excelBytes.length);
 
-        return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     @GetMapping("/appointments/pdf")
     @Operation(summary = "Export appointment report to PDF", description = "Generate and download appointment report in PDF format")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
-    public ResponseEntity<byte[]> exportAppointmentReportPdf(
+    public ResponseEntity<StreamingResponseBody> exportAppointmentReportPdf(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             Authentication authentication) {
 
         Long userId = getUserIdFromAuthentication(authentication);
-        List<AppointmentReportDTO> report = reportService.getAppointmentReport(startDate, endDate, userId);
 
         String startDateStr = startDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
         String endDateStr = endDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
 
-        byte[] pdfBytes = pdfReportService.generateAppointmentReportPdf(report, startDateStr, endDateStr);
+        StreamingResponseBody body = outputStream -> {
+            boolean cached = reportArtifactCache.writeTo("APPOINTMENT_REPORT", startDate, endDate, "PDF", outputStream,
+                    out -> reportService.writeAppointmentReport(startDate, endDate, userId, "PDF",
+                            rows -> pdfReportService.writeAppointmentReportPdf(rows, startDateStr, endDateStr, out)));
+            if (cached) {
+                reportService.recordCachedReport("APPOINTMENT_REPORT", userId, startDate, endDate, "PDF");
+            }
+        };
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "reporte_citas_" +
                 startDate.format(DateTimeFormatter.ofPattern("ddMMyyyy")) + "_" +
                 endDate.format(DateTimeFormatter.ofPattern("ddMMyyyy")) + ".pdf");
-        headers.setContentLength(pdfBytes.length);
 
-        return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     @GetMapping("/patients")
@@ -121,35 +162,33 @@ public class ReportController {
     @GetMapping("/patients/excel")
     @Operation(summary = "Export patient report to Excel", description = "Generate and download patient report in Excel format")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
-    public ResponseEntity<byte[]> exportPatientReportExcel(Authentication authentication) throws IOException {
+    public ResponseEntity<StreamingResponseBody> exportPatientReportExcel(Authentication authentication) {
         Long userId = getUserIdFromAuthentication(authentication);
-        List<PatientReportDTO> report = reportService.getPatientReport(userId);
-        byte[] excelBytes = excelGeneratorService.generatePatientReportExcel(report);
+        StreamingResponseBody body = outputStream -> reportService.writePatientReport(userId, "EXCEL",
+                rows -> excelGeneratorService.writePatientReportExcel(rows, outputStream));
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", "reporte_pacientes_" +
                 LocalDate.now().format(DateTimeFormatter.ofPattern("ddMMyyyy")) + ".xlsx");
-        headers.setContentLength(excelBytes.length);
 
-        return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     @GetMapping("/patients/pdf")
     @Operation(summary = "Export patient report to PDF", description = "Generate and download patient report in PDF format")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
-    public ResponseEntity<byte[]> exportPatientReportPdf(Authentication authentication) {
+    public ResponseEntity<StreamingResponseBody> exportPatientReportPdf(Authentication authentication) {
         Long userId = getUserIdFromAuthentication(authentication);
-        List<PatientReportDTO> report = reportService.getPatientReport(userId);
-        byte[] pdfBytes = pdfReportService.generatePatientReportPdf(report);
+        StreamingResponseBody body = outputStream -> reportService.writePatientReport(userId, "PDF",
+                rows -> pdfReportService.writePatientReportPdf(rows, outputStream));
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "reporte_pacientes_" +
                 LocalDate.now().format(DateTimeFormatter.ofPattern("ddMMyyyy")) + ".pdf");
-        headers.setContentLength(pdfBytes.length);
 
-        return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     @GetMapping("/financial")
@@ -171,11 +210,17 @@ public class ReportController {
     public ResponseEntity<byte[]> exportFinancialReportPdf(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            Authentication authentication) {
+            Authentication authentication) throws IOException {
 
         Long userId = getUserIdFromAuthentication(authentication);
-        FinancialReportDTO report = reportService.getFinancialReport(startDate, endDate, userId);
-        byte[] pdfBytes = pdfReportService.generateFinancialReportPdf(report);
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        boolean cached = reportArtifactCache.writeTo("FINANCIAL_REPORT", startDate, endDate, "PDF", pdf,
+                out -> out.write(pdfReportService.generateFinancialReportPdf(
+                        reportService.getFinancialReport(startDate, endDate, userId))));
+        if (cached) {
+            reportService.recordCachedReport("FINANCIAL_REPORT", userId, startDate, endDate, "PDF");
+        }
+        byte[] pdfBytes = pdf.toByteArray();
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
@@ -187,6 +232,80 @@ public class ReportController {
         return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
     }
 
+    @PostMapping("/jobs")
+    @Operation(summary = "Submit report job", description = "Queue a report for background generation and return its job id")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<ReportJobDTO> submitReportJob(@RequestBody ReportJobRequest request,
+                                                        Authentication authentication) {
+        Long userId = getUserIdFromAuthentication(authentication);
+        if ("FINANCIAL_REPORT".equalsIgnoreCase(request.getReportType()) && !hasRole(authentication, "ROLE_ADMIN")) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        ReportJobDTO job = reportJobService.submitJob(request, userId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Get report job status", description = "Poll the status of a background report job")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<ReportJobDTO> getReportJob(@PathVariable Long jobId, Authentication authentication) {
+        Long userId = getUserIdFromAuthentication(authentication);
+        return ResponseEntity.ok(reportJobService.getJob(jobId, userId));
+    }
+
+    @GetMapping("/jobs/{jobId}/download")
+    @Operation(summary = "Download report job artifact", description = "Download the file produced by a completed report job")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
+    public ResponseEntity<?> downloadReportJob(@PathVariable Long jobId, Authentication authentication) {
+        Long userId = getUserIdFromAuthentication(authentication);
+        ReportHistory job = reportJobService.findJob(jobId, userId);
+        // El fichero ya se borró al pasar el periodo de retención
+        if (job.getStatus() == ReportHistory.ReportStatus.EXPIRED) {
+            return ResponseEntity.status(HttpStatus.GONE).body(ReportJobDTO.from(job));
+        }
+        if (job.getStatus() != ReportHistory.ReportStatus.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ReportJobDTO.from(job));
+        }
+
+        Resource artifact = new FileSystemResource(job.getFilePath());
+        if (!artifact.exists()) {
+            return ResponseEntity.status(HttpStatus.GONE).body(ReportJobDTO.from(job));
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType("EXCEL".equals(job.getFileFormat())
+                ? MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                : MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", job.getFileName());
+        headers.setContentLength(job.getFileSize());
+
+        return new ResponseEntity<>(artifact, headers, HttpStatus.OK);
+    }
+
+    @GetMapping("/cache/statistics")
+    @Operation(summary = "Get report cache statistics", description = "Hit, miss and eviction counters of the shared report file cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Long>> getReportCacheStatistics() {
+        return ResponseEntity.ok(reportArtifactCache.getStatistics());
+    }
+
+    @GetMapping("/read-model/status")
+    @Operation(summary = "Get read model status", description = "Checkpoint, last sync and last error of each change feed")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getReadModelStatus() {
+        return ResponseEntity.ok(readModelSyncService.getStatus());
+    }
+
+    @PostMapping("/metrics/rebuild")
+    @Operation(summary = "Rebuild business metrics", description = "Recompute the daily business_metrics rows of a date range")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildBusinessMetrics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        int recomputedDays = businessMetricsRollup.rebuild(startDate, endDate);
+        return ResponseEntity.ok(Map.of("recomputedDays", recomputedDays));
+    }
+
     @GetMapping("/history")
     @Operation(summary = "Get report history", description = "Get history of generated reports for current user")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -204,6 +323,11 @@ public class ReportController {
         return ResponseEntity.ok(statistics);
     }
 
+    private boolean hasRole(Authentication authentication, String role) {
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> role.equals(authority.getAuthority()));
+    }
+
     private Long getUserIdFromAuthentication(Authentication authentication) {
         // En un escenario real, obtendrías el ID del usuario del JWT o de la base de datos
         // Por simplicidad, retornamos 1L (asumiendo que es un admin)
@@ -0,0 +1,55 @@
+package com.veterinary.clinic.reportservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Página del feed {@code /changes} de un servicio de dominio: cambios en
+ * orden de versión, la versión desde la que pedir la siguiente página y si
+ * quedan más cambios pendientes.
+ */
+public class ChangeFeedDTO<T> {
+
+    private List<Change<T>> changes = new ArrayList<>();
+    private Long nextVersion;
+    private boolean hasMore;
+
+    public ChangeFeedDTO() {}
+
+    public List<Change<T>> getChanges() { return changes; }
+    public void setChanges(List<Change<T>> changes) { this.changes = changes; }
+
+    public Long getNextVersion() { return nextVersion; }
+    public void setNextVersion(Long nextVersion) { this.nextVersion = nextVersion; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public static class Change<T> {
+        private Long version;
+        private Long id;
+        private boolean deleted;
+        private T data;
+
+        public Change() {}
+
+        public Change(Long version, Long id, boolean deleted, T data) {
+            this.version = version;
+            this.id = id;
+            this.deleted = deleted;
+            this.data = data;
+        }
+
+        public Long getVersion() { return version; }
+        public void setVersion(Long version) { this.version = version; }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public boolean isDeleted() { return deleted; }
+        public void setDeleted(boolean deleted) { this.deleted = deleted; }
+
+        public T getData() { return data; }
+        public void setData(T data) { this.data = data; }
+    }
+}
@@ -0,0 +1,16 @@
+package com.veterinary.clinic.reportservice.dto;
+
+// Respuesta envuelta de los servicios de dominio: { message, data }
+public class ChangeFeedResponse<T> {
+
+    private String message;
+    private ChangeFeedDTO<T> data;
+
+    public ChangeFeedResponse() {}
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public ChangeFeedDTO<T> getData() { return data; }
+    public void setData(ChangeFeedDTO<T> data) { this.data = data; }
+}
@@ -22,6 +22,10 @@ public class DashboardMetricsDTO {
     private Map<LocalDate, Long> appointmentsTrend;
     private Map<String, Long> prescriptionsByVeterinarian;
 
+    // Estado de cada sección (OK, TIMEOUT, ERROR, REJECTED) y si falta alguna
+    private Map<String, String> sectionStatus;
+    private boolean partial;
+
     // Constructors
     public DashboardMetricsDTO() {}
 
@@ -64,4 +68,10 @@ public class DashboardMetricsDTO {
 
     public Map<String, Long> getPrescriptionsByVeterinarian() { return prescriptionsByVeterinarian; }
     public void setPrescriptionsByVeterinarian(Map<String, Long> prescriptionsByVeterinarian) { this.prescriptionsByVeterinarian = prescriptionsByVeterinarian; }
-}
\ No newline at end of file
+
+    public Map<String, String> getSectionStatus() { return sectionStatus; }
+    public void setSectionStatus(Map<String, String> sectionStatus) { this.sectionStatus = sectionStatus; }
+
+    public boolean isPartial() { return partial; }
+    public void setPartial(boolean partial) { this.partial = partial; }
+}
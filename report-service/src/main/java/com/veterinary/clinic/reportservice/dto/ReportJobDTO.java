@@ -0,0 +1,74 @@
+package com.veterinary.clinic.reportservice.dto;
+
+import com.veterinary.clinic.reportservice.entity.ReportHistory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class ReportJobDTO {
+
+    private Long jobId;
+    private String reportType;
+    private String format;
+    private String status;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String fileName;
+    private Long fileSize;
+    private Long durationMillis;
+    private String errorMessage;
+    private LocalDateTime submittedAt;
+
+    // Constructors
+    public ReportJobDTO() {}
+
+    public static ReportJobDTO from(ReportHistory history) {
+        ReportJobDTO dto = new ReportJobDTO();
+        dto.setJobId(history.getId());
+        dto.setReportType(history.getReportType());
+        dto.setFormat(history.getFileFormat());
+        dto.setStatus(history.getStatus().name());
+        dto.setStartDate(history.getStartDate());
+        dto.setEndDate(history.getEndDate());
+        dto.setFileName(history.getFileName());
+        dto.setFileSize(history.getFileSize());
+        dto.setDurationMillis(history.getDurationMillis());
+        dto.setErrorMessage(history.getErrorMessage());
+        dto.setSubmittedAt(history.getGeneratedAt());
+        return dto;
+    }
+
+    // Getters and Setters
+    public Long getJobId() { return jobId; }
+    public void setJobId(Long jobId) { this.jobId = jobId; }
+
+    public String getReportType() { return reportType; }
+    public void setReportType(String reportType) { this.reportType = reportType; }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public Long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(Long durationMillis) { this.durationMillis = durationMillis; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
+}
@@ -0,0 +1,38 @@
+package com.veterinary.clinic.reportservice.dto;
+
+import java.time.LocalDate;
+
+public class ReportJobRequest {
+
+    // APPOINTMENT_REPORT, PATIENT_REPORT o FINANCIAL_REPORT
+    private String reportType;
+
+    // EXCEL o PDF
+    private String format;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    // Constructors
+    public ReportJobRequest() {}
+
+    public ReportJobRequest(String reportType, String format, LocalDate startDate, LocalDate endDate) {
+        this.reportType = reportType;
+        this.format = format;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    // Getters and Setters
+    public String getReportType() { return reportType; }
+    public void setReportType(String reportType) { this.reportType = reportType; }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+}
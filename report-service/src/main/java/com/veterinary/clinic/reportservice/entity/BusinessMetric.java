@@ -0,0 +1,96 @@
+package com.veterinary.clinic.reportservice.entity;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Resumen diario de actividad (tabla business_metrics de report-db.sql). Lo
+ * rellena {@code BusinessMetricsRollup} a partir del modelo de lectura; las
+ * columnas de gastos y satisfacción no tienen fuente y no se mapean.
+ */
+@Entity
+@Table(name = "business_metrics")
+public class BusinessMetric {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "metric_date", nullable = false, unique = true)
+    private LocalDate metricDate;
+
+    @Column(name = "total_appointments")
+    private Integer totalAppointments = 0;
+
+    @Column(name = "completed_appointments")
+    private Integer completedAppointments = 0;
+
+    @Column(name = "cancelled_appointments")
+    private Integer cancelledAppointments = 0;
+
+    @Column(name = "new_clients")
+    private Integer newClients = 0;
+
+    @Column(name = "new_patients")
+    private Integer newPatients = 0;
+
+    @Column(name = "total_revenue", precision = 12, scale = 2)
+    private BigDecimal totalRevenue = BigDecimal.ZERO;
+
+    @Column(name = "appointment_revenue", precision = 12, scale = 2)
+    private BigDecimal appointmentRevenue = BigDecimal.ZERO;
+
+    @Column(name = "medication_revenue", precision = 12, scale = 2)
+    private BigDecimal medicationRevenue = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public BusinessMetric() {}
+
+    public BusinessMetric(LocalDate metricDate) {
+        this.metricDate = metricDate;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getMetricDate() { return metricDate; }
+    public void setMetricDate(LocalDate metricDate) { this.metricDate = metricDate; }
+
+    public Integer getTotalAppointments() { return totalAppointments; }
+    public void setTotalAppointments(Integer totalAppointments) { this.totalAppointments = totalAppointments; }
+
+    public Integer getCompletedAppointments() { return completedAppointments; }
+    public void setCompletedAppointments(Integer completedAppointments) { this.completedAppointments = completedAppointments; }
+
+    public Integer getCancelledAppointments() { return cancelledAppointments; }
+    public void setCancelledAppointments(Integer cancelledAppointments) { this.cancelledAppointments = cancelledAppointments; }
+
+    public Integer getNewClients() { return newClients; }
+    public void setNewClients(Integer newClients) { this.newClients = newClients; }
+
+    public Integer getNewPatients() { return newPatients; }
+    public void setNewPatients(Integer newPatients) { this.newPatients = newPatients; }
+
+    public BigDecimal getTotalRevenue() { return totalRevenue; }
+    public void setTotalRevenue(BigDecimal totalRevenue) { this.totalRevenue = totalRevenue; }
+
+    public BigDecimal getAppointmentRevenue() { return appointmentRevenue; }
+    public void setAppointmentRevenue(BigDecimal appointmentRevenue) { this.appointmentRevenue = appointmentRevenue; }
+
+    public BigDecimal getMedicationRevenue() { return medicationRevenue; }
+    public void setMedicationRevenue(BigDecimal medicationRevenue) { this.medicationRevenue = medicationRevenue; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,35 @@
+package com.veterinary.clinic.reportservice.entity;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Día de business_metrics pendiente de recalcular. El proyector lo marca en
+ * la misma transacción en la que aplica los cambios que lo afectan; el
+ * rollup lo borra solo si nadie lo ha vuelto a marcar mientras calculaba.
+ */
+@Entity
+@Table(name = "business_metrics_dirty_days")
+public class MetricsDirtyDay {
+
+    @Id
+    @Column(name = "metric_date")
+    private LocalDate metricDate;
+
+    // Crece con cada marca; el borrado compara este valor con el leído
+    @Column(name = "mark_count", nullable = false)
+    private Long markCount = 0L;
+
+    public MetricsDirtyDay() {}
+
+    public MetricsDirtyDay(LocalDate metricDate) {
+        this.metricDate = metricDate;
+    }
+
+    // Getters and Setters
+    public LocalDate getMetricDate() { return metricDate; }
+    public void setMetricDate(LocalDate metricDate) { this.metricDate = metricDate; }
+
+    public Long getMarkCount() { return markCount; }
+    public void setMarkCount(Long markCount) { this.markCount = markCount; }
+}
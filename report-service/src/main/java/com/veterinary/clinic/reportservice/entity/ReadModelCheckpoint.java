@@ -0,0 +1,47 @@
+package com.veterinary.clinic.reportservice.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Última versión aplicada de cada feed de cambios. Se guarda en la misma
+ * transacción que las filas de la página, así que tras un reinicio se
+ * retoma justo donde se dejó.
+ */
+@Entity
+@Table(name = "read_model_checkpoints")
+public class ReadModelCheckpoint {
+
+    @Id
+    @Column(name = "feed", length = 50)
+    private String feed;
+
+    @Column(name = "last_version", nullable = false)
+    private Long lastVersion = 0L;
+
+    @Column(name = "last_synced_at")
+    private LocalDateTime lastSyncedAt;
+
+    // Último error al consultar el feed; null si la última consulta fue bien
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public ReadModelCheckpoint() {}
+
+    public ReadModelCheckpoint(String feed) {
+        this.feed = feed;
+    }
+
+    // Getters and Setters
+    public String getFeed() { return feed; }
+    public void setFeed(String feed) { this.feed = feed; }
+
+    public Long getLastVersion() { return lastVersion; }
+    public void setLastVersion(Long lastVersion) { this.lastVersion = lastVersion; }
+
+    public LocalDateTime getLastSyncedAt() { return lastSyncedAt; }
+    public void setLastSyncedAt(LocalDateTime lastSyncedAt) { this.lastSyncedAt = lastSyncedAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
@@ -0,0 +1,92 @@
+package com.veterinary.clinic.reportservice.entity;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Copia local de una cita, mantenida por el feed de cambios de
+ * appointment-service. Los reportes y el dashboard consultan esta tabla en
+ * vez de llamar al servicio.
+ */
+@Entity
+@Table(name = "rm_appointments", indexes = {
+        @Index(name = "idx_rm_appointments_date", columnList = "appointment_date"),
+        @Index(name = "idx_rm_appointments_patient", columnList = "patient_id")
+})
+public class ReportAppointment {
+
+    // Mismo id que en el servicio de origen
+    @Id
+    private Long id;
+
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Column(name = "veterinarian_id")
+    private Long veterinarianId;
+
+    @Column(name = "appointment_type_id")
+    private Long appointmentTypeId;
+
+    @Column(name = "appointment_date")
+    private LocalDate appointmentDate;
+
+    @Column(name = "appointment_time")
+    private LocalTime appointmentTime;
+
+    private String status;
+
+    private String reason;
+
+    @Column(name = "notes", columnDefinition = "TEXT")
+    private String notes;
+
+    @Column(name = "duration_minutes")
+    private Integer durationMinutes;
+
+    // Versión del feed con la que se escribió la fila
+    @Column(name = "source_version", nullable = false)
+    private Long sourceVersion;
+
+    public ReportAppointment() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public Long getVeterinarianId() { return veterinarianId; }
+    public void setVeterinarianId(Long veterinarianId) { this.veterinarianId = veterinarianId; }
+
+    public Long getAppointmentTypeId() { return appointmentTypeId; }
+    public void setAppointmentTypeId(Long appointmentTypeId) { this.appointmentTypeId = appointmentTypeId; }
+
+    public LocalDate getAppointmentDate() { return appointmentDate; }
+    public void setAppointmentDate(LocalDate appointmentDate) { this.appointmentDate = appointmentDate; }
+
+    public LocalTime getAppointmentTime() { return appointmentTime; }
+    public void setAppointmentTime(LocalTime appointmentTime) { this.appointmentTime = appointmentTime; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public Integer getDurationMinutes() { return durationMinutes; }
+    public void setDurationMinutes(Integer durationMinutes) { this.durationMinutes = durationMinutes; }
+
+    public Long getSourceVersion() { return sourceVersion; }
+    public void setSourceVersion(Long sourceVersion) { this.sourceVersion = sourceVersion; }
+
+    public LocalDateTime getAppointmentDateTime() {
+        return appointmentTime != null ? appointmentDate.atTime(appointmentTime) : appointmentDate.atStartOfDay();
+    }
+}
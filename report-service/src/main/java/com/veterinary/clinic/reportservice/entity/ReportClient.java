@@ -0,0 +1,72 @@
+package com.veterinary.clinic.reportservice.entity;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Copia local de un cliente, mantenida por el feed de cambios de
+ * client-service.
+ */
+@Entity
+@Table(name = "rm_clients", indexes = {
+        @Index(name = "idx_rm_clients_registration", columnList = "registration_date")
+})
+public class ReportClient {
+
+    // Mismo id que en el servicio de origen
+    @Id
+    private Long id;
+
+    @Column(name = "first_name")
+    private String firstName;
+
+    @Column(name = "last_name")
+    private String lastName;
+
+    @Column(name = "document_number")
+    private String documentNumber;
+
+    private String email;
+
+    @Column(name = "phone_number")
+    private String phoneNumber;
+
+    // Día de alta del cliente, para los clientes nuevos de business_metrics
+    @Column(name = "registration_date")
+    private LocalDate registrationDate;
+
+    // Versión del feed con la que se escribió la fila
+    @Column(name = "source_version", nullable = false)
+    private Long sourceVersion;
+
+    public ReportClient() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public String getDocumentNumber() { return documentNumber; }
+    public void setDocumentNumber(String documentNumber) { this.documentNumber = documentNumber; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getPhoneNumber() { return phoneNumber; }
+    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+
+    public LocalDate getRegistrationDate() { return registrationDate; }
+    public void setRegistrationDate(LocalDate registrationDate) { this.registrationDate = registrationDate; }
+
+    public Long getSourceVersion() { return sourceVersion; }
+    public void setSourceVersion(Long sourceVersion) { this.sourceVersion = sourceVersion; }
+
+    public String getFullName() {
+        return (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "");
+    }
+}
@@ -1,5 +1,7 @@
 package com.veterinary.clinic.reportservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import java.time.LocalDate;
@@ -41,6 +43,16 @@ public class ReportHistory {
     @Column(name = "file_size")
     private Long fileSize;
 
+    @JsonIgnore
+    @Column(name = "file_path", length = 500)
+    private String filePath;
+
+    @Column(name = "duration_ms")
+    private Long durationMillis;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
     @Column(columnDefinition = "JSON")
     private String parameters;
 
@@ -96,6 +108,15 @@ public class ReportHistory {
     public Long getFileSize() { return fileSize; }
     public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
 
+    public String getFilePath() { return filePath; }
+    public void setFilePath(String filePath) { this.filePath = filePath; }
+
+    public Long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(Long durationMillis) { this.durationMillis = durationMillis; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
     public String getParameters() { return parameters; }
     public void setParameters(String parameters) { this.parameters = parameters; }
 
@@ -106,6 +127,6 @@ public class ReportHistory {
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
     public enum ReportStatus {
-        PENDING, PROCESSING, COMPLETED, FAILED
+        PENDING, PROCESSING, COMPLETED, FAILED, EXPIRED
     }
 }
\ No newline at end of file
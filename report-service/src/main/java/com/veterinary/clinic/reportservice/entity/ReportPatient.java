@@ -0,0 +1,86 @@
+package com.veterinary.clinic.reportservice.entity;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Copia local de un paciente, mantenida por el feed de cambios de
+ * patient-service.
+ */
+@Entity
+@Table(name = "rm_patients", indexes = {
+        @Index(name = "idx_rm_patients_client", columnList = "client_id"),
+        @Index(name = "idx_rm_patients_registration", columnList = "registration_date")
+})
+public class ReportPatient {
+
+    // Mismo id que en el servicio de origen
+    @Id
+    private Long id;
+
+    private String name;
+
+    @Column(name = "client_id")
+    private Long clientId;
+
+    private String species;
+
+    private String breed;
+
+    @Column(name = "birth_date")
+    private LocalDate birthDate;
+
+    @Column(name = "weight", precision = 5, scale = 2)
+    private BigDecimal weight;
+
+    @Column(name = "registration_date")
+    private LocalDate registrationDate;
+
+    @Column(name = "is_active")
+    private Boolean isActive;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Versión del feed con la que se escribió la fila
+    @Column(name = "source_version", nullable = false)
+    private Long sourceVersion;
+
+    public ReportPatient() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Long getClientId() { return clientId; }
+    public void setClientId(Long clientId) { this.clientId = clientId; }
+
+    public String getSpecies() { return species; }
+    public void setSpecies(String species) { this.species = species; }
+
+    public String getBreed() { return breed; }
+    public void setBreed(String breed) { this.breed = breed; }
+
+    public LocalDate getBirthDate() { return birthDate; }
+    public void setBirthDate(LocalDate birthDate) { this.birthDate = birthDate; }
+
+    public BigDecimal getWeight() { return weight; }
+    public void setWeight(BigDecimal weight) { this.weight = weight; }
+
+    public LocalDate getRegistrationDate() { return registrationDate; }
+    public void setRegistrationDate(LocalDate registrationDate) { this.registrationDate = registrationDate; }
+
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Long getSourceVersion() { return sourceVersion; }
+    public void setSourceVersion(Long sourceVersion) { this.sourceVersion = sourceVersion; }
+}
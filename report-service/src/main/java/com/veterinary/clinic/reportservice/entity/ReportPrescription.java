@@ -0,0 +1,55 @@
+package com.veterinary.clinic.reportservice.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Copia local de una receta, mantenida por el feed de cambios de
+ * prescription-service. Las recetas borradas se eliminan también aquí.
+ */
+@Entity
+@Table(name = "rm_prescriptions", indexes = {
+        @Index(name = "idx_rm_prescriptions_veterinarian", columnList = "veterinarian_id")
+})
+public class ReportPrescription {
+
+    // Mismo id que en el servicio de origen
+    @Id
+    private Long id;
+
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Column(name = "veterinarian_id")
+    private Long veterinarianId;
+
+    @Column(name = "prescription_date")
+    private LocalDateTime prescriptionDate;
+
+    private String status;
+
+    // Versión del feed con la que se escribió la fila
+    @Column(name = "source_version", nullable = false)
+    private Long sourceVersion;
+
+    public ReportPrescription() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public Long getVeterinarianId() { return veterinarianId; }
+    public void setVeterinarianId(Long veterinarianId) { this.veterinarianId = veterinarianId; }
+
+    public LocalDateTime getPrescriptionDate() { return prescriptionDate; }
+    public void setPrescriptionDate(LocalDateTime prescriptionDate) { this.prescriptionDate = prescriptionDate; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getSourceVersion() { return sourceVersion; }
+    public void setSourceVersion(Long sourceVersion) { this.sourceVersion = sourceVersion; }
+}
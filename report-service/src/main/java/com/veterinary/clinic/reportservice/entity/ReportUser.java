@@ -0,0 +1,50 @@
+package com.veterinary.clinic.reportservice.entity;
+
+import javax.persistence.*;
+
+/**
+ * Copia local de un usuario (nombre y rol), mantenida por el feed de
+ * cambios de user-service.
+ */
+@Entity
+@Table(name = "rm_users")
+public class ReportUser {
+
+    // Mismo id que en el servicio de origen
+    @Id
+    private Long id;
+
+    @Column(name = "first_name")
+    private String firstName;
+
+    @Column(name = "last_name")
+    private String lastName;
+
+    private String role;
+
+    // Versión del feed con la que se escribió la fila
+    @Column(name = "source_version", nullable = false)
+    private Long sourceVersion;
+
+    public ReportUser() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+
+    public Long getSourceVersion() { return sourceVersion; }
+    public void setSourceVersion(Long sourceVersion) { this.sourceVersion = sourceVersion; }
+
+    public String getFullName() {
+        return (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "");
+    }
+}
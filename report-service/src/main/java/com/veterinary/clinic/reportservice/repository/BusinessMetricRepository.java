@@ -0,0 +1,17 @@
+package com.veterinary.clinic.reportservice.repository;
+
+import com.veterinary.clinic.reportservice.entity.BusinessMetric;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BusinessMetricRepository extends JpaRepository<BusinessMetric, Long> {
+
+    List<BusinessMetric> findByMetricDateBetweenOrderByMetricDateAsc(LocalDate startDate, LocalDate endDate);
+
+    List<BusinessMetric> findByMetricDateIn(Collection<LocalDate> dates);
+}
@@ -0,0 +1,22 @@
+package com.veterinary.clinic.reportservice.repository;
+
+import com.veterinary.clinic.reportservice.entity.MetricsDirtyDay;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MetricsDirtyDayRepository extends JpaRepository<MetricsDirtyDay, LocalDate> {
+
+    List<MetricsDirtyDay> findAllByOrderByMetricDateAsc();
+
+    // Si se volvió a marcar mientras se calculaba, el día sigue pendiente
+    @Modifying
+    @Query("DELETE FROM MetricsDirtyDay d WHERE d.metricDate = :date AND d.markCount = :markCount")
+    int deleteIfUnchanged(@Param("date") LocalDate date, @Param("markCount") Long markCount);
+}
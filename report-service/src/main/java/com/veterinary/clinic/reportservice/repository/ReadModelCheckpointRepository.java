@@ -0,0 +1,9 @@
+package com.veterinary.clinic.reportservice.repository;
+
+import com.veterinary.clinic.reportservice.entity.ReadModelCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReadModelCheckpointRepository extends JpaRepository<ReadModelCheckpoint, String> {
+}
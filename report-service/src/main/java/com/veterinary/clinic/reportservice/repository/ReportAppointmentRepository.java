@@ -0,0 +1,46 @@
+package com.veterinary.clinic.reportservice.repository;
+
+import com.veterinary.clinic.reportservice.entity.ReportAppointment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReportAppointmentRepository extends JpaRepository<ReportAppointment, Long> {
+
+    List<ReportAppointment> findByAppointmentDateBetweenOrderByAppointmentDateAscAppointmentTimeAsc(
+            LocalDate startDate, LocalDate endDate);
+
+    long countByAppointmentDateBetween(LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT a.status, COUNT(a) FROM ReportAppointment a GROUP BY a.status")
+    List<Object[]> countGroupByStatus();
+
+    // Total de citas y última fecha por paciente, para el reporte de pacientes
+    @Query("SELECT a.patientId, COUNT(a), MAX(a.appointmentDate) FROM ReportAppointment a GROUP BY a.patientId")
+    List<Object[]> summarizeByPatient();
+
+    // Citas totales, completadas y canceladas de cada día, para business_metrics
+    @Query("SELECT a.appointmentDate, COUNT(a), " +
+           "SUM(CASE WHEN a.status = 'COMPLETED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN a.status = 'CANCELLED' THEN 1 ELSE 0 END) " +
+           "FROM ReportAppointment a WHERE a.appointmentDate IN :dates GROUP BY a.appointmentDate")
+    List<Object[]> summarizeByDay(@Param("dates") Collection<LocalDate> dates);
+
+    // Citas cobrables de cada día por tipo, para valorar business_metrics con la tarifa
+    @Query("SELECT a.appointmentDate, a.appointmentTypeId, COUNT(a) FROM ReportAppointment a " +
+           "WHERE a.appointmentDate IN :dates AND a.status NOT IN ('CANCELLED', 'NO_SHOW') " +
+           "GROUP BY a.appointmentDate, a.appointmentTypeId")
+    List<Object[]> countGroupByDayAndType(@Param("dates") Collection<LocalDate> dates);
+
+    // Citas cobrables por día, tipo y veterinario de un tramo, para el reporte financiero
+    @Query("SELECT a.appointmentDate, a.appointmentTypeId, a.veterinarianId, COUNT(a) FROM ReportAppointment a " +
+           "WHERE a.appointmentDate BETWEEN :startDate AND :endDate AND a.status NOT IN ('CANCELLED', 'NO_SHOW') " +
+           "GROUP BY a.appointmentDate, a.appointmentTypeId, a.veterinarianId")
+    List<Object[]> aggregateCharges(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,19 @@
+package com.veterinary.clinic.reportservice.repository;
+
+import com.veterinary.clinic.reportservice.entity.ReportClient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReportClientRepository extends JpaRepository<ReportClient, Long> {
+
+    @Query("SELECT c.registrationDate, COUNT(c) FROM ReportClient c " +
+           "WHERE c.registrationDate IN :dates GROUP BY c.registrationDate")
+    List<Object[]> countGroupByRegistrationDate(@Param("dates") Collection<LocalDate> dates);
+}
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,6 +21,12 @@ public interface ReportHistoryRepository extends JpaRepository<ReportHistory, Lo
 
     Page<ReportHistory> findByGeneratedByUserId(Long userId, Pageable pageable);
 
+    List<ReportHistory> findByStatusIn(Collection<ReportHistory.ReportStatus> statuses);
+
+    // Trabajos con fichero en disco generados antes de la fecha dada
+    List<ReportHistory> findByStatusAndFilePathIsNotNullAndGeneratedAtBefore(ReportHistory.ReportStatus status,
+                                                                            LocalDateTime before);
+
     @Query("SELECT r FROM ReportHistory r WHERE r.generatedAt BETWEEN :startDate AND :endDate ORDER BY r.generatedAt DESC")
     List<ReportHistory> findByDateRange(@Param("startDate") LocalDateTime startDate,
                                         @Param("endDate") LocalDateTime endDate);
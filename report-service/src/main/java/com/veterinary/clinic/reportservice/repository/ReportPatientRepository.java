@@ -0,0 +1,26 @@
+package com.veterinary.clinic.reportservice.repository;
+
+import com.veterinary.clinic.reportservice.entity.ReportPatient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReportPatientRepository extends JpaRepository<ReportPatient, Long> {
+
+    List<ReportPatient> findAllByOrderByIdAsc();
+
+    long countByRegistrationDateGreaterThanEqual(LocalDate date);
+
+    @Query("SELECT p.species, COUNT(p) FROM ReportPatient p GROUP BY p.species")
+    List<Object[]> countGroupBySpecies();
+
+    @Query("SELECT p.registrationDate, COUNT(p) FROM ReportPatient p " +
+           "WHERE p.registrationDate IN :dates GROUP BY p.registrationDate")
+    List<Object[]> countGroupByRegistrationDate(@Param("dates") Collection<LocalDate> dates);
+}
@@ -0,0 +1,18 @@
+package com.veterinary.clinic.reportservice.repository;
+
+import com.veterinary.clinic.reportservice.entity.ReportPrescription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReportPrescriptionRepository extends JpaRepository<ReportPrescription, Long> {
+
+    @Query("SELECT p.veterinarianId, COUNT(p) FROM ReportPrescription p GROUP BY p.veterinarianId")
+    List<Object[]> countGroupByVeterinarian();
+
+    @Query("SELECT p.patientId, COUNT(p) FROM ReportPrescription p GROUP BY p.patientId")
+    List<Object[]> countGroupByPatient();
+}
@@ -0,0 +1,221 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.entity.BusinessMetric;
+import com.veterinary.clinic.reportservice.entity.MetricsDirtyDay;
+import com.veterinary.clinic.reportservice.repository.BusinessMetricRepository;
+import com.veterinary.clinic.reportservice.repository.MetricsDirtyDayRepository;
+import com.veterinary.clinic.reportservice.repository.ReportAppointmentRepository;
+import com.veterinary.clinic.reportservice.repository.ReportClientRepository;
+import com.veterinary.clinic.reportservice.repository.ReportPatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Mantiene business_metrics con un resumen por día a partir del modelo de
+ * lectura. Solo se recalculan los días que el proyector ha marcado como
+ * afectados; la carga inicial marca todo el histórico, que se procesa en
+ * tramos de días en paralelo, cada uno en su propia transacción.
+ */
+@Service
+public class BusinessMetricsRollup {
+
+    private static final Logger logger = LoggerFactory.getLogger(BusinessMetricsRollup.class);
+
+    private static final BigDecimal NO_REVENUE = new BigDecimal("0.00");
+
+    static final int MAX_REBUILD_DAYS = 3660;
+
+    @Autowired
+    private BusinessMetricRepository businessMetricRepository;
+
+    @Autowired
+    private MetricsDirtyDayRepository metricsDirtyDayRepository;
+
+    @Autowired
+    private ReportAppointmentRepository reportAppointmentRepository;
+
+    @Autowired
+    private ReportPatientRepository reportPatientRepository;
+
+    @Autowired
+    private ReportClientRepository reportClientRepository;
+
+    @Autowired
+    private TariffTable tariffTable;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("metricsRollupExecutor")
+    private ExecutorService metricsRollupExecutor;
+
+    @Value("${reports.metrics.chunk-days:31}")
+    private int chunkDays = 31;
+
+    // Se llama dentro de la transacción del proyector; los días ya pendientes suben su contador
+    @Transactional
+    public void markDirty(Collection<LocalDate> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+        Map<LocalDate, MetricsDirtyDay> marks = new HashMap<>();
+        for (MetricsDirtyDay mark : metricsDirtyDayRepository.findAllById(days)) {
+            marks.put(mark.getMetricDate(), mark);
+        }
+        for (LocalDate day : days) {
+            MetricsDirtyDay mark = marks.computeIfAbsent(day, MetricsDirtyDay::new);
+            mark.setMarkCount(mark.getMarkCount() + 1);
+        }
+        metricsDirtyDayRepository.saveAll(marks.values());
+    }
+
+    /**
+     * Recalcula los días pendientes y devuelve cuántos se han escrito. Un
+     * tramo que falla deja sus días marcados para la siguiente pasada.
+     */
+    public synchronized int rollUpDirtyDays() {
+        List<MetricsDirtyDay> pending = metricsDirtyDayRepository.findAllByOrderByMetricDateAsc();
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<Future<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += chunkDays) {
+            List<MetricsDirtyDay> chunk = pending.subList(from, Math.min(from + chunkDays, pending.size()));
+            chunks.add(metricsRollupExecutor.submit(() -> rollUpChunk(chunk)));
+        }
+
+        int recomputed = 0;
+        for (Future<Integer> chunk : chunks) {
+            try {
+                recomputed += chunk.get();
+            } catch (ExecutionException e) {
+                logger.warn("Could not roll up business metrics chunk: {}", e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        logger.debug("Rolled up {} of {} pending business metric days", recomputed, pending.size());
+        return recomputed;
+    }
+
+    // Vuelve a calcular un rango completo, por ejemplo tras cargar datos que no pasaron por los feeds
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new RuntimeException("startDate must not be after endDate");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_REBUILD_DAYS) {
+            throw new RuntimeException("Cannot rebuild more than " + MAX_REBUILD_DAYS + " days at once");
+        }
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> markDirty(days));
+        return rollUpDirtyDays();
+    }
+
+    @Transactional(readOnly = true)
+    public List<BusinessMetric> metricsBetween(LocalDate startDate, LocalDate endDate) {
+        return businessMetricRepository.findByMetricDateBetweenOrderByMetricDateAsc(startDate, endDate);
+    }
+
+    // Una fila por día: una tendencia de dos años son 730 filas
+    @Transactional(readOnly = true)
+    public Map<LocalDate, Long> appointmentsTrend(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, Long> trend = new TreeMap<>();
+        for (BusinessMetric metric : metricsBetween(startDate, endDate)) {
+            if (metric.getTotalAppointments() != null && metric.getTotalAppointments() > 0) {
+                trend.put(metric.getMetricDate(), metric.getTotalAppointments().longValue());
+            }
+        }
+        return trend;
+    }
+
+    public long pendingDays() {
+        return metricsDirtyDayRepository.count();
+    }
+
+    int rollUpChunk(List<MetricsDirtyDay> chunk) {
+        Integer written = new TransactionTemplate(transactionManager).execute(status -> {
+            List<LocalDate> days = new ArrayList<>(chunk.size());
+            chunk.forEach(mark -> days.add(mark.getMetricDate()));
+
+            Map<LocalDate, Object[]> appointments = new HashMap<>();
+            reportAppointmentRepository.summarizeByDay(days).forEach(row -> appointments.put((LocalDate) row[0], row));
+            // Ingresos con la tarifa de cada tipo, igual que el reporte financiero
+            TariffTable.Tariffs tariffs = tariffTable.current();
+            Map<LocalDate, BigDecimal> revenue = new HashMap<>();
+            reportAppointmentRepository.countGroupByDayAndType(days).forEach(row -> revenue.merge((LocalDate) row[0],
+                    tariffs.priceOf((Long) row[1]).multiply(BigDecimal.valueOf(((Number) row[2]).longValue())),
+                    BigDecimal::add));
+            Map<LocalDate, Long> newPatients = countsByDay(reportPatientRepository.countGroupByRegistrationDate(days));
+            Map<LocalDate, Long> newClients = countsByDay(reportClientRepository.countGroupByRegistrationDate(days));
+            Map<LocalDate, BusinessMetric> existing = new HashMap<>();
+            businessMetricRepository.findByMetricDateIn(days).forEach(metric -> existing.put(metric.getMetricDate(), metric));
+
+            List<BusinessMetric> changed = new ArrayList<>();
+            for (LocalDate day : days) {
+                Object[] summary = appointments.get(day);
+                int total = summary != null ? ((Number) summary[1]).intValue() : 0;
+                int completed = summary != null ? ((Number) summary[2]).intValue() : 0;
+                int cancelled = summary != null ? ((Number) summary[3]).intValue() : 0;
+                int patients = newPatients.getOrDefault(day, 0L).intValue();
+                int clients = newClients.getOrDefault(day, 0L).intValue();
+
+                BusinessMetric metric = existing.get(day);
+                if (metric == null) {
+                    // Un día sin actividad no necesita fila
+                    if (total == 0 && patients == 0 && clients == 0) {
+                        continue;
+                    }
+                    metric = new BusinessMetric(day);
+                }
+                metric.setTotalAppointments(total);
+                metric.setCompletedAppointments(completed);
+                metric.setCancelledAppointments(cancelled);
+                metric.setNewPatients(patients);
+                metric.setNewClients(clients);
+                metric.setAppointmentRevenue(revenue.getOrDefault(day, NO_REVENUE));
+                BigDecimal medicationRevenue = metric.getMedicationRevenue() != null ? metric.getMedicationRevenue() : BigDecimal.ZERO;
+                metric.setTotalRevenue(metric.getAppointmentRevenue().add(medicationRevenue));
+                changed.add(metric);
+            }
+            businessMetricRepository.saveAll(changed);
+
+            for (MetricsDirtyDay mark : chunk) {
+                metricsDirtyDayRepository.deleteIfUnchanged(mark.getMetricDate(), mark.getMarkCount());
+            }
+            return days.size();
+        });
+        return written != null ? written : 0;
+    }
+
+    private static Map<LocalDate, Long> countsByDay(List<Object[]> rows) {
+        Map<LocalDate, Long> counts = new HashMap<>();
+        rows.forEach(row -> counts.put((LocalDate) row[0], ((Number) row[1]).longValue()));
+        return counts;
+    }
+}
@@ -0,0 +1,42 @@
+package com.veterinary.clinic.reportservice.service;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Filas de reporte convertidas por bloques a medida que se recorren: cada
+ * bloque resuelve sus referencias de una vez y sus DTOs se descartan en
+ * cuanto el escritor pasa al siguiente.
+ */
+final class ChunkedRows {
+
+    private ChunkedRows() {}
+
+    static <S, T> Iterable<T> of(List<S> source, int chunkSize, Function<List<S>, List<T>> convert) {
+        return () -> new Iterator<T>() {
+            private int converted;
+            private Iterator<T> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && converted < source.size()) {
+                    List<S> chunk = source.subList(converted, Math.min(converted + chunkSize, source.size()));
+                    converted += chunk.size();
+                    current = convert.apply(chunk).iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package com.veterinary.clinic.reportservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Lanza en paralelo las llamadas de una petición del dashboard y recoge sus
+ * resultados respetando un tiempo máximo por llamada y un plazo global.
+ * Cada sección queda marcada como OK, TIMEOUT, ERROR o REJECTED.
+ */
+class DashboardFanOut {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardFanOut.class);
+
+    static final String OK = "OK";
+    static final String TIMEOUT = "TIMEOUT";
+    static final String ERROR = "ERROR";
+    static final String REJECTED = "REJECTED";
+
+    private final ExecutorService executor;
+    private final long callTimeoutNanos;
+    private final long deadlineNanos;
+    private final Map<Future<?>, Long> startedAt = new LinkedHashMap<>();
+    private final Map<String, String> status = new LinkedHashMap<>();
+
+    DashboardFanOut(ExecutorService executor, long callTimeoutMillis, long deadlineMillis) {
+        this.executor = executor;
+        this.callTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(callTimeoutMillis);
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+    }
+
+    <T> Future<T> submit(Supplier<T> call) {
+        Future<T> future;
+        try {
+            future = executor.submit(call::get);
+        } catch (RejectedExecutionException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        startedAt.put(future, System.nanoTime());
+        return future;
+    }
+
+    <T> void collect(String section, Future<T> future, Consumer<T> setter) {
+        long callDeadline = startedAt.getOrDefault(future, System.nanoTime()) + callTimeoutNanos;
+        long waitNanos = Math.min(callDeadline, deadlineNanos) - System.nanoTime();
+        try {
+            T value = future.get(Math.max(0, waitNanos), TimeUnit.NANOSECONDS);
+            setter.accept(value);
+            status.put(section, OK);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            status.put(section, TIMEOUT);
+            logger.warn("Dashboard section {} timed out", section);
+        } catch (ExecutionException e) {
+            boolean rejected = e.getCause() instanceof RejectedExecutionException;
+            status.put(section, rejected ? REJECTED : ERROR);
+            logger.warn("Dashboard section {} failed: {}", section, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            status.put(section, TIMEOUT);
+        }
+    }
+
+    Map<String, String> status() {
+        return status;
+    }
+
+    boolean isPartial() {
+        return status.values().stream().anyMatch(s -> !OK.equals(s));
+    }
+}
@@ -3,130 +3,145 @@ package com.veterinary.clinic.reportservice.service;
 import com.veterinary.clinic.reportservice.dto.AppointmentReportDTO;
 import com.veterinary.clinic.reportservice.dto.PatientReportDTO;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-
+import java.util.function.Function;
+
+/**
+ * Genera los reportes Excel con un libro SXSSF: solo las últimas filas quedan
+ * en memoria y el resto se vuelca a un temporal comprimido, así que el heap no
+ * depende del número de filas. El ancho de columna se estima con las primeras
+ * filas en lugar de usar autoSizeColumn.
+ */
 @Service
 public class ExcelGeneratorService {
 
-    public byte[] generateAppointmentReportExcel(List<AppointmentReportDTO> appointments) throws IOException {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Reporte de Citas");
-
-        // Crear estilo para headers
-        CellStyle headerStyle = workbook.createCellStyle();
-        Font headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        headerStyle.setFont(headerFont);
-        headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
-        // Crear headers
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {
-                "ID Cita", "Paciente", "Especie", "Propietario", "Veterinario",
-                "Fecha", "Estado", "Tipo", "Observaciones"
-        };
-
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
+    private static final String[] APPOINTMENT_HEADERS = {
+            "ID Cita", "Paciente", "Especie", "Propietario", "Veterinario",
+            "Fecha", "Estado", "Tipo", "Observaciones"
+    };
 
-        // Llenar datos
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-        int rowNum = 1;
-
-        for (AppointmentReportDTO appointment : appointments) {
-            Row row = sheet.createRow(rowNum++);
-
-            row.createCell(0).setCellValue(appointment.getAppointmentId());
-            row.createCell(1).setCellValue(appointment.getPatientName());
-            row.createCell(2).setCellValue(appointment.getPatientSpecies());
-            row.createCell(3).setCellValue(appointment.getOwnerName());
-            row.createCell(4).setCellValue(appointment.getVeterinarianName());
-            row.createCell(5).setCellValue(appointment.getAppointmentDate().format(formatter));
-            row.createCell(6).setCellValue(appointment.getStatus());
-            row.createCell(7).setCellValue(appointment.getAppointmentType());
-            row.createCell(8).setCellValue(appointment.getObservations());
-        }
+    private static final String[] PATIENT_HEADERS = {
+            "ID", "Paciente", "Especie", "Raza", "Edad", "Peso",
+            "Propietario", "Teléfono", "Email", "Registro", "Total Citas", "Última Visita"
+    };
 
-        // Auto-ajustar columnas
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
+    // Límite de Excel: 255 caracteres por columna
+    private static final int MAX_COLUMN_CHARS = 255;
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        workbook.write(outputStream);
-        workbook.close();
+    @Value("${reports.excel.row-window:100}")
+    private int rowWindow = 100;
+
+    @Value("${reports.excel.width-sample-rows:500}")
+    private int widthSampleRows = 500;
 
+    public byte[] generateAppointmentReportExcel(List<AppointmentReportDTO> appointments) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeAppointmentReportExcel(appointments, outputStream);
         return outputStream.toByteArray();
     }
 
+    public void writeAppointmentReportExcel(Iterable<AppointmentReportDTO> appointments, OutputStream outputStream)
+            throws IOException {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        writeSheet("Reporte de Citas", APPOINTMENT_HEADERS, appointments, appointment -> new Object[] {
+                appointment.getAppointmentId(),
+                appointment.getPatientName(),
+                appointment.getPatientSpecies(),
+                appointment.getOwnerName(),
+                appointment.getVeterinarianName(),
+                appointment.getAppointmentDate() != null ? appointment.getAppointmentDate().format(formatter) : "",
+                appointment.getStatus(),
+                appointment.getAppointmentType(),
+                appointment.getObservations()
+        }, outputStream);
+    }
+
     public byte[] generatePatientReportExcel(List<PatientReportDTO> patients) throws IOException {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Reporte de Pacientes");
-
-        // Crear estilo para headers
-        CellStyle headerStyle = workbook.createCellStyle();
-        Font headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        headerStyle.setFont(headerFont);
-        headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
-        // Crear headers
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {
-                "ID", "Paciente", "Especie", "Raza", "Edad", "Peso",
-                "Propietario", "Teléfono", "Email", "Registro", "Total Citas", "Última Visita"
-        };
-
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writePatientReportExcel(patients, outputStream);
+        return outputStream.toByteArray();
+    }
 
-        // Llenar datos
+    public void writePatientReportExcel(Iterable<PatientReportDTO> patients, OutputStream outputStream)
+            throws IOException {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        int rowNum = 1;
-
-        for (PatientReportDTO patient : patients) {
-            Row row = sheet.createRow(rowNum++);
-
-            row.createCell(0).setCellValue(patient.getPatientId());
-            row.createCell(1).setCellValue(patient.getPatientName());
-            row.createCell(2).setCellValue(patient.getSpecies());
-            row.createCell(3).setCellValue(patient.getBreed());
-            row.createCell(4).setCellValue(patient.getAge() != null ? patient.getAge() : 0);
-            row.createCell(5).setCellValue(patient.getWeight() != null ? patient.getWeight() : 0.0);
-            row.createCell(6).setCellValue(patient.getOwnerName());
-            row.createCell(7).setCellValue(patient.getOwnerPhone());
-            row.createCell(8).setCellValue(patient.getOwnerEmail());
-            row.createCell(9).setCellValue(patient.getRegistrationDate() != null ?
-                    patient.getRegistrationDate().format(formatter) : "");
-            row.createCell(10).setCellValue(patient.getTotalAppointments() != null ?
-                    patient.getTotalAppointments() : 0);
-            row.createCell(11).setCellValue(patient.getLastVisit() != null ?
-                    patient.getLastVisit().format(formatter) : "");
-        }
+        writeSheet("Reporte de Pacientes", PATIENT_HEADERS, patients, patient -> new Object[] {
+                patient.getPatientId(),
+                patient.getPatientName(),
+                patient.getSpecies(),
+                patient.getBreed(),
+                patient.getAge() != null ? patient.getAge() : 0,
+                patient.getWeight() != null ? patient.getWeight() : 0.0,
+                patient.getOwnerName(),
+                patient.getOwnerPhone(),
+                patient.getOwnerEmail(),
+                patient.getRegistrationDate() != null ? patient.getRegistrationDate().format(formatter) : "",
+                patient.getTotalAppointments() != null ? patient.getTotalAppointments() : 0,
+                patient.getLastVisit() != null ? patient.getLastVisit().format(formatter) : ""
+        }, outputStream);
+    }
 
-        // Auto-ajustar columnas
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
+    private <T> void writeSheet(String sheetName, String[] headers, Iterable<T> rows,
+                                Function<T, Object[]> columns, OutputStream outputStream) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet(sheetName);
+
+            // Crear estilo para headers
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+            // Crear headers
+            int[] widths = new int[headers.length];
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < headers.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(headers[i]);
+                cell.setCellStyle(headerStyle);
+                widths[i] = headers[i].length();
+            }
+
+            // Llenar datos; las primeras filas sirven de muestra para el ancho
+            int rowNum = 1;
+            for (T item : rows) {
+                Object[] values = columns.apply(item);
+                Row row = sheet.createRow(rowNum);
+                for (int i = 0; i < values.length; i++) {
+                    Cell cell = row.createCell(i);
+                    Object value = values[i];
+                    if (value instanceof Number) {
+                        cell.setCellValue(((Number) value).doubleValue());
+                    } else if (value != null) {
+                        cell.setCellValue(value.toString());
+                    }
+                    if (rowNum <= widthSampleRows && value != null) {
+                        widths[i] = Math.max(widths[i], value.toString().length());
+                    }
+                }
+                rowNum++;
+            }
+
+            for (int i = 0; i < widths.length; i++) {
+                sheet.setColumnWidth(i, Math.min(widths[i] + 2, MAX_COLUMN_CHARS) * 256);
+            }
+
+            workbook.write(outputStream);
+        } finally {
+            workbook.dispose();
+            workbook.close();
         }
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        workbook.write(outputStream);
-        workbook.close();
-
-        return outputStream.toByteArray();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,182 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.dto.FinancialReportDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Reporte financiero valorado con la tarifa de cada tipo de cita. Las citas
+ * llegan agrupadas por día, tipo y veterinario, y una sola pasada acumula a
+ * la vez el total, el desglose por tipo, por veterinario y por día. Los
+ * rangos largos se reparten en tramos de días que se acumulan en paralelo y
+ * se combinan al final; los importes se suman en BigDecimal, sin redondeos
+ * intermedios.
+ */
+@Service
+public class FinancialReportEngine {
+
+    @Autowired
+    private TariffTable tariffTable;
+
+    // Mismo pool que el resumen diario: las dos son agregaciones cortas sobre datos ya agrupados
+    @Autowired
+    @Qualifier("metricsRollupExecutor")
+    private ExecutorService metricsRollupExecutor;
+
+    @Value("${reports.financial.chunk-days:92}")
+    private int chunkDays = 92;
+
+    /**
+     * Fuente de citas agrupadas de un tramo de días, ambos incluidos: el
+     * modelo de lectura o appointment-service.
+     */
+    @FunctionalInterface
+    public interface ChargeSource {
+        Stream<Charge> charges(LocalDate startDate, LocalDate endDate);
+    }
+
+    public FinancialReportDTO report(LocalDate startDate, LocalDate endDate, ChargeSource source,
+                                     Function<Set<Long>, Map<Long, String>> veterinarianNames) {
+        if (startDate.isAfter(endDate)) {
+            throw new RuntimeException("startDate must not be after endDate");
+        }
+        TariffTable.Tariffs tariffs = tariffTable.current();
+
+        List<LocalDate[]> chunks = new ArrayList<>();
+        for (LocalDate from = startDate; !from.isAfter(endDate); from = from.plusDays(chunkDays)) {
+            LocalDate to = from.plusDays(chunkDays - 1L);
+            chunks.add(new LocalDate[]{from, to.isAfter(endDate) ? endDate : to});
+        }
+
+        FinancialTotals totals;
+        if (chunks.size() == 1) {
+            totals = accumulate(source, startDate, endDate, tariffs);
+        } else {
+            List<Future<FinancialTotals>> pending = new ArrayList<>(chunks.size());
+            for (LocalDate[] chunk : chunks) {
+                pending.add(metricsRollupExecutor.submit(() -> accumulate(source, chunk[0], chunk[1], tariffs)));
+            }
+            totals = new FinancialTotals();
+            try {
+                for (Future<FinancialTotals> chunk : pending) {
+                    totals.combine(chunk.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.forEach(chunk -> chunk.cancel(true));
+                throw new RuntimeException("Financial report was interrupted", e);
+            } catch (ExecutionException e) {
+                pending.forEach(chunk -> chunk.cancel(true));
+                throw new RuntimeException("Could not generate financial report: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return totals.toReport(startDate, endDate, tariffs, veterinarianNames);
+    }
+
+    static FinancialTotals accumulate(ChargeSource source, LocalDate startDate, LocalDate endDate,
+                                      TariffTable.Tariffs tariffs) {
+        try (Stream<Charge> charges = source.charges(startDate, endDate)) {
+            return charges.collect(collector(tariffs));
+        }
+    }
+
+    // Un acumulador por hilo; el combinador suma dos acumuladores sin perder precisión
+    static Collector<Charge, ?, FinancialTotals> collector(TariffTable.Tariffs tariffs) {
+        return Collector.of(FinancialTotals::new, (totals, charge) -> totals.add(charge, tariffs), FinancialTotals::combine);
+    }
+
+    /**
+     * Citas de un día, tipo y veterinario. El tipo es nulo en las citas
+     * anteriores a la tarifa.
+     */
+    public static final class Charge {
+
+        private final LocalDate appointmentDate;
+        private final Long appointmentTypeId;
+        private final Long veterinarianId;
+        private final long count;
+
+        public Charge(LocalDate appointmentDate, Long appointmentTypeId, Long veterinarianId, long count) {
+            this.appointmentDate = appointmentDate;
+            this.appointmentTypeId = appointmentTypeId;
+            this.veterinarianId = veterinarianId;
+            this.count = count;
+        }
+
+        public LocalDate getAppointmentDate() { return appointmentDate; }
+        public Long getAppointmentTypeId() { return appointmentTypeId; }
+        public Long getVeterinarianId() { return veterinarianId; }
+        public long getCount() { return count; }
+    }
+
+    static final class FinancialTotals {
+
+        private long appointments;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private final Map<Long, Long> appointmentsByType = new HashMap<>();
+        private final Map<Long, BigDecimal> revenueByVeterinarian = new HashMap<>();
+        private final Map<LocalDate, BigDecimal> revenueByDay = new TreeMap<>();
+
+        void add(Charge charge, TariffTable.Tariffs tariffs) {
+            BigDecimal amount = tariffs.priceOf(charge.getAppointmentTypeId()).multiply(BigDecimal.valueOf(charge.getCount()));
+            appointments += charge.getCount();
+            revenue = revenue.add(amount);
+            appointmentsByType.merge(charge.getAppointmentTypeId(), charge.getCount(), Long::sum);
+            revenueByVeterinarian.merge(charge.getVeterinarianId(), amount, BigDecimal::add);
+            revenueByDay.merge(charge.getAppointmentDate(), amount, BigDecimal::add);
+        }
+
+        FinancialTotals combine(FinancialTotals other) {
+            appointments += other.appointments;
+            revenue = revenue.add(other.revenue);
+            other.appointmentsByType.forEach((type, count) -> appointmentsByType.merge(type, count, Long::sum));
+            other.revenueByVeterinarian.forEach((vet, amount) -> revenueByVeterinarian.merge(vet, amount, BigDecimal::add));
+            other.revenueByDay.forEach((day, amount) -> revenueByDay.merge(day, amount, BigDecimal::add));
+            return this;
+        }
+
+        FinancialReportDTO toReport(LocalDate startDate, LocalDate endDate, TariffTable.Tariffs tariffs,
+                                    Function<Set<Long>, Map<Long, String>> veterinarianNames) {
+            FinancialReportDTO report = new FinancialReportDTO(startDate, endDate);
+            report.setTotalAppointments(appointments);
+            report.setTotalRevenue(revenue);
+            report.setAverageAppointmentValue(appointments > 0
+                    ? revenue.divide(BigDecimal.valueOf(appointments), 2, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO);
+
+            Map<String, Long> byType = new HashMap<>();
+            appointmentsByType.forEach((type, count) -> byType.merge(tariffs.nameOf(type), count, Long::sum));
+            report.setAppointmentsByType(byType);
+
+            Set<Long> veterinarianIds = new HashSet<>(revenueByVeterinarian.keySet());
+            veterinarianIds.remove(null);
+            Map<Long, String> names = veterinarianNames.apply(veterinarianIds);
+            Map<String, BigDecimal> byVeterinarian = new HashMap<>();
+            revenueByVeterinarian.forEach((vet, amount) ->
+                    byVeterinarian.merge(names.getOrDefault(vet, "Unknown"), amount, BigDecimal::add));
+            report.setRevenueByVeterinarian(byVeterinarian);
+
+            report.setDailyRevenue(revenueByDay);
+            return report;
+        }
+    }
+}
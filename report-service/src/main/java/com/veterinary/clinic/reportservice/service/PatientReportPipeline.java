@@ -0,0 +1,189 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.client.AppointmentClient;
+import com.veterinary.clinic.reportservice.client.ClientClient;
+import com.veterinary.clinic.reportservice.client.PatientClient;
+import com.veterinary.clinic.reportservice.dto.PatientReportDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reporte de pacientes a partir de los servicios, por bloques: se pagina
+ * patient-service por cursor y cada bloque resuelve sus propietarios y su
+ * resumen de citas con una llamada en bloque a cada servicio. Los bloques
+ * se resuelven en paralelo, con un máximo en vuelo por reporte, y las filas
+ * se entregan en orden a medida que terminan, así que los escritores de
+ * Excel y PDF empiezan antes de tener todos los pacientes.
+ */
+@Service
+public class PatientReportPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientReportPipeline.class);
+
+    @Autowired
+    private PatientClient patientClient;
+
+    @Autowired
+    private ClientClient clientClient;
+
+    @Autowired
+    private AppointmentClient appointmentClient;
+
+    @Autowired
+    @Qualifier("patientReportExecutor")
+    private ExecutorService patientReportExecutor;
+
+    // patient-service no sirve páginas de más de 100
+    @Value("${reports.patients.chunk-size:100}")
+    private int chunkSize = 100;
+
+    @Value("${reports.patients.parallelism:4}")
+    private int parallelism = 4;
+
+    // Cada recorrido vuelve a pedir los pacientes desde el principio
+    public Iterable<PatientReportDTO> rows() {
+        return ChunkIterator::new;
+    }
+
+    List<PatientReportDTO> resolveChunk(List<PatientClient.PatientSnapshot> patients) {
+        Set<Long> patientIds = new LinkedHashSet<>();
+        Set<Long> ownerIds = new LinkedHashSet<>();
+        for (PatientClient.PatientSnapshot patient : patients) {
+            patientIds.add(patient.getId());
+            if (patient.getClientId() != null) {
+                ownerIds.add(patient.getClientId());
+            }
+        }
+
+        // Si un servicio falla, el bloque sale sin ese dato en vez de abortar el reporte
+        Map<Long, ClientClient.ClientSnapshot> owners = new HashMap<>();
+        if (!ownerIds.isEmpty()) {
+            try {
+                clientClient.getClientsByIds(new ArrayList<>(ownerIds)).getData()
+                        .forEach(owner -> owners.put(owner.getId(), owner));
+            } catch (Exception e) {
+                logger.warn("Could not resolve owners of {} patients: {}", patients.size(), e.getMessage());
+            }
+        }
+        Map<Long, AppointmentClient.PatientAppointmentSummaryDTO> summaries = new HashMap<>();
+        try {
+            appointmentClient.summarizeByPatients(new ArrayList<>(patientIds)).getData()
+                    .forEach(summary -> summaries.put(summary.getPatientId(), summary));
+        } catch (Exception e) {
+            logger.warn("Could not summarize appointments of {} patients: {}", patients.size(), e.getMessage());
+        }
+
+        List<PatientReportDTO> rows = new ArrayList<>(patients.size());
+        for (PatientClient.PatientSnapshot patient : patients) {
+            rows.add(toReportRow(patient, owners.get(patient.getClientId()), summaries.get(patient.getId())));
+        }
+        return rows;
+    }
+
+    private static PatientReportDTO toReportRow(PatientClient.PatientSnapshot patient, ClientClient.ClientSnapshot owner,
+                                                AppointmentClient.PatientAppointmentSummaryDTO summary) {
+        PatientReportDTO dto = new PatientReportDTO();
+        dto.setPatientId(patient.getId());
+        dto.setPatientName(patient.getName());
+        dto.setSpecies(patient.getSpecies());
+        dto.setBreed(patient.getBreed());
+        dto.setAge(patient.getBirthDate() != null ? Period.between(patient.getBirthDate(), LocalDate.now()).getYears() : null);
+        dto.setWeight(patient.getWeight() != null ? patient.getWeight().doubleValue() : null);
+        dto.setRegistrationDate(patient.getCreatedAt());
+
+        if (owner != null) {
+            dto.setOwnerName(owner.getFullName());
+            dto.setOwnerDocument(owner.getDocumentNumber());
+            dto.setOwnerPhone(owner.getPhoneNumber());
+            dto.setOwnerEmail(owner.getEmail());
+        } else {
+            dto.setOwnerName("Unknown Owner");
+        }
+
+        dto.setTotalAppointments(summary != null ? summary.getTotalAppointments() : 0L);
+        if (summary != null && summary.getLastVisitDate() != null) {
+            dto.setLastVisit(summary.getLastVisitDate().atStartOfDay());
+        }
+        return dto;
+    }
+
+    /**
+     * Pide la siguiente página de pacientes solo cuando hay hueco en la
+     * ventana de bloques en vuelo, y devuelve las filas en el orden de las
+     * páginas.
+     */
+    private class ChunkIterator implements Iterator<PatientReportDTO> {
+
+        private final Deque<Future<List<PatientReportDTO>>> inFlight = new ArrayDeque<>();
+        private Iterator<PatientReportDTO> current = Collections.emptyIterator();
+        private String cursor;
+        private boolean lastPage;
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                fill();
+                if (inFlight.isEmpty()) {
+                    return false;
+                }
+                current = await(inFlight.poll()).iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public PatientReportDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private void fill() {
+            while (!lastPage && inFlight.size() < parallelism) {
+                PatientClient.PatientPage page = patientClient.scrollPatients(cursor, chunkSize, "id", "asc", true, false)
+                        .getData();
+                cursor = page.getNextCursor();
+                lastPage = !page.isHasNext() || cursor == null;
+                List<PatientClient.PatientSnapshot> patients = page.getPatients();
+                if (patients != null && !patients.isEmpty()) {
+                    inFlight.add(patientReportExecutor.submit(() -> resolveChunk(patients)));
+                }
+            }
+        }
+
+        private List<PatientReportDTO> await(Future<List<PatientReportDTO>> chunk) {
+            try {
+                return chunk.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                inFlight.forEach(pending -> pending.cancel(true));
+                throw new RuntimeException("Patient report generation was interrupted", e);
+            } catch (ExecutionException e) {
+                inFlight.forEach(pending -> pending.cancel(true));
+                throw new RuntimeException("Could not generate patient report: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+}
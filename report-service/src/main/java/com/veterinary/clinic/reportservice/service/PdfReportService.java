@@ -7,9 +7,12 @@ import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -18,17 +21,30 @@ import java.util.Map;
 @Service
 public class PdfReportService {
 
+    private static final Font TITLE_FONT = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
+    private static final Font TABLE_HEADER_FONT = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
+    private static final Font DATA_FONT = new Font(Font.FontFamily.HELVETICA, 8);
+
+    @Value("${reports.pdf.flush-rows:200}")
+    private int flushRows = 200;
+
     public byte[] generateAppointmentReportPdf(List<AppointmentReportDTO> appointments,
                                                String startDate, String endDate) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeAppointmentReportPdf(appointments, startDate, endDate, baos);
+        return baos.toByteArray();
+    }
+
+    public void writeAppointmentReportPdf(Iterable<AppointmentReportDTO> appointments,
+                                          String startDate, String endDate, OutputStream outputStream) {
+        Document document = new Document(PageSize.A4.rotate()); // Horizontal para más columnas
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Document document = new Document(PageSize.A4.rotate()); // Horizontal para más columnas
-            PdfWriter.getInstance(document, baos);
+            PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+            writer.setCloseStream(false);
             document.open();
 
             // Título
-            Font titleFont = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
-            Paragraph title = new Paragraph("REPORTE DE CITAS", titleFont);
+            Paragraph title = new Paragraph("REPORTE DE CITAS", TITLE_FONT);
             title.setAlignment(Element.ALIGN_CENTER);
             document.add(title);
 
@@ -41,124 +57,116 @@ public class PdfReportService {
 
             document.add(new Paragraph("\n"));
 
-            // Información general
-            document.add(new Paragraph("Total de citas: " + appointments.size()));
+            // Información general; el total se conoce al terminar la tabla
             document.add(new Paragraph("Fecha de generación: " +
                     DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm").format(java.time.LocalDateTime.now())));
 
             document.add(new Paragraph("\n"));
 
             // Tabla de citas
-            PdfPTable table = new PdfPTable(8);
-            table.setWidthPercentage(100);
-            table.setWidths(new float[]{1, 2, 1.5f, 2, 2, 2, 1.5f, 2});
-
-            // Headers
-            Font headerFont = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
-            addHeaderCell(table, "ID", headerFont);
-            addHeaderCell(table, "Paciente", headerFont);
-            addHeaderCell(table, "Especie", headerFont);
-            addHeaderCell(table, "Propietario", headerFont);
-            addHeaderCell(table, "Veterinario", headerFont);
-            addHeaderCell(table, "Fecha", headerFont);
-            addHeaderCell(table, "Estado", headerFont);
-            addHeaderCell(table, "Tipo", headerFont);
+            PdfPTable table = streamingTable(new float[]{1, 2, 1.5f, 2, 2, 2, 1.5f, 2},
+                    "ID", "Paciente", "Especie", "Propietario", "Veterinario", "Fecha", "Estado", "Tipo");
 
             // Datos
-            Font dataFont = new Font(Font.FontFamily.HELVETICA, 8);
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+            int rows = 0;
 
             for (AppointmentReportDTO appointment : appointments) {
-                table.addCell(new Phrase(appointment.getAppointmentId().toString(), dataFont));
-                table.addCell(new Phrase(appointment.getPatientName(), dataFont));
-                table.addCell(new Phrase(appointment.getPatientSpecies(), dataFont));
-                table.addCell(new Phrase(appointment.getOwnerName(), dataFont));
-                table.addCell(new Phrase(appointment.getVeterinarianName(), dataFont));
-                table.addCell(new Phrase(appointment.getAppointmentDate().format(formatter), dataFont));
-                table.addCell(new Phrase(appointment.getStatus(), dataFont));
-                table.addCell(new Phrase(appointment.getAppointmentType(), dataFont));
+                addDataCell(table, String.valueOf(appointment.getAppointmentId()));
+                addDataCell(table, appointment.getPatientName());
+                addDataCell(table, appointment.getPatientSpecies());
+                addDataCell(table, appointment.getOwnerName());
+                addDataCell(table, appointment.getVeterinarianName());
+                addDataCell(table, appointment.getAppointmentDate() != null ?
+                        appointment.getAppointmentDate().format(formatter) : "");
+                addDataCell(table, appointment.getStatus());
+                addDataCell(table, appointment.getAppointmentType());
+                flushIfNeeded(document, table, outputStream, ++rows);
             }
 
+            table.setComplete(true);
             document.add(table);
 
+            document.add(new Paragraph("\n"));
+            document.add(new Paragraph("Total de citas: " + rows));
+
             document.close();
-            return baos.toByteArray();
 
         } catch (Exception e) {
             throw new RuntimeException("Error generating appointment PDF report: " + e.getMessage(), e);
+        } finally {
+            closeQuietly(document);
         }
     }
 
     public byte[] generatePatientReportPdf(List<PatientReportDTO> patients) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writePatientReportPdf(patients, baos);
+        return baos.toByteArray();
+    }
+
+    public void writePatientReportPdf(Iterable<PatientReportDTO> patients, OutputStream outputStream) {
+        Document document = new Document(PageSize.A4.rotate());
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Document document = new Document(PageSize.A4.rotate());
-            PdfWriter.getInstance(document, baos);
+            PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+            writer.setCloseStream(false);
             document.open();
 
             // Título
-            Font titleFont = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
-            Paragraph title = new Paragraph("REPORTE DE PACIENTES", titleFont);
+            Paragraph title = new Paragraph("REPORTE DE PACIENTES", TITLE_FONT);
             title.setAlignment(Element.ALIGN_CENTER);
             document.add(title);
 
             document.add(new Paragraph("\n"));
 
-            // Información general
-            document.add(new Paragraph("Total de pacientes: " + patients.size()));
+            // Información general; el total se conoce al terminar la tabla
             document.add(new Paragraph("Fecha de generación: " +
                     DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm").format(java.time.LocalDateTime.now())));
 
             document.add(new Paragraph("\n"));
 
             // Tabla de pacientes
-            PdfPTable table = new PdfPTable(7);
-            table.setWidthPercentage(100);
-            table.setWidths(new float[]{1, 2, 1.5f, 1.5f, 1, 2, 1.5f});
-
-            // Headers
-            Font headerFont = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
-            addHeaderCell(table, "ID", headerFont);
-            addHeaderCell(table, "Paciente", headerFont);
-            addHeaderCell(table, "Especie", headerFont);
-            addHeaderCell(table, "Raza", headerFont);
-            addHeaderCell(table, "Edad", headerFont);
-            addHeaderCell(table, "Propietario", headerFont);
-            addHeaderCell(table, "Total Citas", headerFont);
+            PdfPTable table = streamingTable(new float[]{1, 2, 1.5f, 1.5f, 1, 2, 1.5f},
+                    "ID", "Paciente", "Especie", "Raza", "Edad", "Propietario", "Total Citas");
 
             // Datos
-            Font dataFont = new Font(Font.FontFamily.HELVETICA, 8);
+            int rows = 0;
 
             for (PatientReportDTO patient : patients) {
-                table.addCell(new Phrase(patient.getPatientId().toString(), dataFont));
-                table.addCell(new Phrase(patient.getPatientName(), dataFont));
-                table.addCell(new Phrase(patient.getSpecies(), dataFont));
-                table.addCell(new Phrase(patient.getBreed(), dataFont));
-                table.addCell(new Phrase(patient.getAge() != null ? patient.getAge().toString() : "N/A", dataFont));
-                table.addCell(new Phrase(patient.getOwnerName(), dataFont));
-                table.addCell(new Phrase(patient.getTotalAppointments() != null ? patient.getTotalAppointments().toString() : "0", dataFont));
+                addDataCell(table, String.valueOf(patient.getPatientId()));
+                addDataCell(table, patient.getPatientName());
+                addDataCell(table, patient.getSpecies());
+                addDataCell(table, patient.getBreed());
+                addDataCell(table, patient.getAge() != null ? patient.getAge().toString() : "N/A");
+                addDataCell(table, patient.getOwnerName());
+                addDataCell(table, patient.getTotalAppointments() != null ? patient.getTotalAppointments().toString() : "0");
+                flushIfNeeded(document, table, outputStream, ++rows);
             }
 
+            table.setComplete(true);
             document.add(table);
 
+            document.add(new Paragraph("\n"));
+            document.add(new Paragraph("Total de pacientes: " + rows));
+
             document.close();
-            return baos.toByteArray();
 
         } catch (Exception e) {
             throw new RuntimeException("Error generating patient PDF report: " + e.getMessage(), e);
+        } finally {
+            closeQuietly(document);
         }
     }
 
     public byte[] generateFinancialReportPdf(FinancialReportDTO report) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(PageSize.A4);
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Document document = new Document(PageSize.A4);
             PdfWriter.getInstance(document, baos);
             document.open();
 
             // Título
-            Font titleFont = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
-            Paragraph title = new Paragraph("REPORTE FINANCIERO", titleFont);
+            Paragraph title = new Paragraph("REPORTE FINANCIERO", TITLE_FONT);
             title.setAlignment(Element.ALIGN_CENTER);
             document.add(title);
 
@@ -229,6 +237,50 @@ public class PdfReportService {
 
         } catch (Exception e) {
             throw new RuntimeException("Error generating financial PDF report: " + e.getMessage(), e);
+        } finally {
+            closeQuietly(document);
+        }
+    }
+
+    /**
+     * Tabla incompleta con cabecera repetida: cada document.add() maqueta las
+     * filas pendientes, las escribe y las descarta, así que el modelo nunca
+     * guarda más de un bloque de filas.
+     */
+    private PdfPTable streamingTable(float[] widths, String... headers) throws DocumentException {
+        PdfPTable table = new PdfPTable(widths.length);
+        table.setWidthPercentage(100);
+        table.setWidths(widths);
+        table.setComplete(false);
+        for (String header : headers) {
+            addHeaderCell(table, header, TABLE_HEADER_FONT);
+        }
+        table.setHeaderRows(1);
+        return table;
+    }
+
+    // La fuente y el estilo de la celda por defecto se comparten; la Phrase y la copia de la
+    // celda que crea iText viven hasta que la fila se escribe al vaciar el bloque
+    private void addDataCell(PdfPTable table, String text) {
+        table.addCell(new Phrase(text, DATA_FONT));
+    }
+
+    private void flushIfNeeded(Document document, PdfPTable table, OutputStream outputStream, int rows)
+            throws DocumentException, IOException {
+        if (rows % flushRows == 0) {
+            document.add(table);
+            outputStream.flush();
+        }
+    }
+
+    // Si la generación falla a medias, cierra el documento y su writer sin tapar el error original
+    private static void closeQuietly(Document document) {
+        if (document.isOpen()) {
+            try {
+                document.close();
+            } catch (RuntimeException e) {
+                // El error que interesa es el que interrumpió la generación
+            }
         }
     }
 
@@ -0,0 +1,231 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.client.AppointmentClient;
+import com.veterinary.clinic.reportservice.client.ClientClient;
+import com.veterinary.clinic.reportservice.client.PatientClient;
+import com.veterinary.clinic.reportservice.client.PrescriptionClient;
+import com.veterinary.clinic.reportservice.client.UserClient;
+import com.veterinary.clinic.reportservice.dto.ChangeFeedDTO;
+import com.veterinary.clinic.reportservice.entity.ReadModelCheckpoint;
+import com.veterinary.clinic.reportservice.entity.ReportAppointment;
+import com.veterinary.clinic.reportservice.entity.ReportClient;
+import com.veterinary.clinic.reportservice.entity.ReportPatient;
+import com.veterinary.clinic.reportservice.entity.ReportPrescription;
+import com.veterinary.clinic.reportservice.entity.ReportUser;
+import com.veterinary.clinic.reportservice.repository.ReadModelCheckpointRepository;
+import com.veterinary.clinic.reportservice.repository.ReportAppointmentRepository;
+import com.veterinary.clinic.reportservice.repository.ReportClientRepository;
+import com.veterinary.clinic.reportservice.repository.ReportPatientRepository;
+import com.veterinary.clinic.reportservice.repository.ReportPrescriptionRepository;
+import com.veterinary.clinic.reportservice.repository.ReportUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Aplica una página de un feed de cambios a las tablas locales de reporting.
+ * Las filas y el checkpoint del feed se guardan en la misma transacción: o
+ * se aplica la página entera o no se aplica nada y se vuelve a pedir. En esa
+ * misma transacción se marcan los días de business_metrics afectados.
+ */
+@Component
+public class ReadModelProjector {
+
+    public static final String APPOINTMENTS = "appointments";
+    public static final String PATIENTS = "patients";
+    public static final String CLIENTS = "clients";
+    public static final String USERS = "users";
+    public static final String PRESCRIPTIONS = "prescriptions";
+
+    @Autowired
+    private ReportAppointmentRepository reportAppointmentRepository;
+
+    @Autowired
+    private ReportPatientRepository reportPatientRepository;
+
+    @Autowired
+    private ReportClientRepository reportClientRepository;
+
+    @Autowired
+    private ReportUserRepository reportUserRepository;
+
+    @Autowired
+    private ReportPrescriptionRepository reportPrescriptionRepository;
+
+    @Autowired
+    private ReadModelCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private BusinessMetricsRollup businessMetricsRollup;
+
+    @Transactional
+    public ReadModelCheckpoint applyAppointments(ChangeFeedDTO<AppointmentClient.AppointmentSnapshot> page) {
+        return apply(APPOINTMENTS, page, reportAppointmentRepository, ReportAppointment::getId,
+                ReportAppointment::getAppointmentDate, id -> {
+            ReportAppointment row = new ReportAppointment();
+            row.setId(id);
+            return row;
+        }, (row, change) -> {
+            AppointmentClient.AppointmentSnapshot data = change.getData();
+            row.setPatientId(data.getPatientId());
+            row.setVeterinarianId(data.getVeterinarianId());
+            row.setAppointmentTypeId(data.getAppointmentTypeId());
+            row.setAppointmentDate(data.getAppointmentDate());
+            row.setAppointmentTime(data.getAppointmentTime());
+            row.setStatus(data.getStatus());
+            row.setReason(data.getReason());
+            row.setNotes(data.getNotes());
+            row.setDurationMinutes(data.getDurationMinutes());
+            row.setSourceVersion(change.getVersion());
+        });
+    }
+
+    @Transactional
+    public ReadModelCheckpoint applyPatients(ChangeFeedDTO<PatientClient.PatientSnapshot> page) {
+        return apply(PATIENTS, page, reportPatientRepository, ReportPatient::getId,
+                ReportPatient::getRegistrationDate, id -> {
+            ReportPatient row = new ReportPatient();
+            row.setId(id);
+            return row;
+        }, (row, change) -> {
+            PatientClient.PatientSnapshot data = change.getData();
+            row.setName(data.getName());
+            row.setClientId(data.getClientId());
+            row.setSpecies(data.getSpecies());
+            row.setBreed(data.getBreed());
+            row.setBirthDate(data.getBirthDate());
+            row.setWeight(data.getWeight());
+            row.setRegistrationDate(data.getRegistrationDate());
+            row.setIsActive(data.getIsActive());
+            row.setCreatedAt(data.getCreatedAt());
+            row.setSourceVersion(change.getVersion());
+        });
+    }
+
+    @Transactional
+    public ReadModelCheckpoint applyClients(ChangeFeedDTO<ClientClient.ClientSnapshot> page) {
+        return apply(CLIENTS, page, reportClientRepository, ReportClient::getId,
+                ReportClient::getRegistrationDate, id -> {
+            ReportClient row = new ReportClient();
+            row.setId(id);
+            return row;
+        }, (row, change) -> {
+            ClientClient.ClientSnapshot data = change.getData();
+            row.setFirstName(data.getFirstName());
+            row.setLastName(data.getLastName());
+            row.setDocumentNumber(data.getDocumentNumber());
+            row.setEmail(data.getEmail());
+            row.setPhoneNumber(data.getPhoneNumber());
+            row.setRegistrationDate(data.getCreatedAt() != null ? data.getCreatedAt().toLocalDate() : null);
+            row.setSourceVersion(change.getVersion());
+        });
+    }
+
+    @Transactional
+    public ReadModelCheckpoint applyUsers(ChangeFeedDTO<UserClient.UserSnapshot> page) {
+        return apply(USERS, page, reportUserRepository, ReportUser::getId, null, id -> {
+            ReportUser row = new ReportUser();
+            row.setId(id);
+            return row;
+        }, (row, change) -> {
+            UserClient.UserSnapshot data = change.getData();
+            row.setFirstName(data.getFirstName());
+            row.setLastName(data.getLastName());
+            row.setRole(data.getRole());
+            row.setSourceVersion(change.getVersion());
+        });
+    }
+
+    @Transactional
+    public ReadModelCheckpoint applyPrescriptions(ChangeFeedDTO<PrescriptionClient.PrescriptionResponseDTO> page) {
+        return apply(PRESCRIPTIONS, page, reportPrescriptionRepository, ReportPrescription::getId, null, id -> {
+            ReportPrescription row = new ReportPrescription();
+            row.setId(id);
+            return row;
+        }, (row, change) -> {
+            PrescriptionClient.PrescriptionResponseDTO data = change.getData();
+            row.setPatientId(data.getPatientId());
+            row.setVeterinarianId(data.getVeterinarianId());
+            row.setPrescriptionDate(data.getPrescriptionDate());
+            row.setStatus(data.getStatus());
+            row.setSourceVersion(change.getVersion());
+        });
+    }
+
+    // Un error en el feed no toca las filas: solo queda anotado en el checkpoint
+    @Transactional
+    public void recordError(String feed, String message) {
+        ReadModelCheckpoint checkpoint = checkpoint(feed);
+        checkpoint.setLastError(message != null && message.length() > 1000 ? message.substring(0, 1000) : message);
+        checkpointRepository.save(checkpoint);
+    }
+
+    @Transactional(readOnly = true)
+    public ReadModelCheckpoint checkpoint(String feed) {
+        return checkpointRepository.findById(feed).orElseGet(() -> new ReadModelCheckpoint(feed));
+    }
+
+    private <T, E> ReadModelCheckpoint apply(String feed, ChangeFeedDTO<T> page, JpaRepository<E, Long> repository,
+                                             Function<E, Long> idOf, Function<E, LocalDate> metricDateOf,
+                                             Function<Long, E> create, BiConsumer<E, ChangeFeedDTO.Change<T>> copy) {
+        // Las filas que ya existen se cargan en una sola consulta
+        List<Long> ids = new ArrayList<>();
+        page.getChanges().forEach(change -> ids.add(change.getId()));
+        Map<Long, E> existing = new HashMap<>();
+        for (E row : repository.findAllById(ids)) {
+            existing.put(idOf.apply(row), row);
+        }
+
+        // Se aplican en orden de versión; un borrado posterior anula la escritura anterior
+        Map<Long, E> upserts = new LinkedHashMap<>();
+        List<E> deletes = new ArrayList<>();
+        // Cuentan el día anterior y el nuevo: una cita movida cambia los dos
+        Set<LocalDate> touchedDays = new HashSet<>();
+        for (ChangeFeedDTO.Change<T> change : page.getChanges()) {
+            if (change.isDeleted() || change.getData() == null) {
+                upserts.remove(change.getId());
+                E row = existing.remove(change.getId());
+                if (row != null) {
+                    deletes.add(row);
+                    touch(touchedDays, metricDateOf, row);
+                }
+                continue;
+            }
+            E row = existing.computeIfAbsent(change.getId(), create);
+            touch(touchedDays, metricDateOf, row);
+            copy.accept(row, change);
+            touch(touchedDays, metricDateOf, row);
+            upserts.put(change.getId(), row);
+        }
+        repository.deleteAll(deletes);
+        repository.saveAll(upserts.values());
+        businessMetricsRollup.markDirty(touchedDays);
+
+        ReadModelCheckpoint checkpoint = checkpoint(feed);
+        if (page.getNextVersion() != null) {
+            checkpoint.setLastVersion(page.getNextVersion());
+        }
+        checkpoint.setLastSyncedAt(LocalDateTime.now());
+        checkpoint.setLastError(null);
+        return checkpointRepository.save(checkpoint);
+    }
+
+    private static <E> void touch(Set<LocalDate> days, Function<E, LocalDate> metricDateOf, E row) {
+        if (metricDateOf != null && metricDateOf.apply(row) != null) {
+            days.add(metricDateOf.apply(row));
+        }
+    }
+}
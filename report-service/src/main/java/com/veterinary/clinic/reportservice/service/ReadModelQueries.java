@@ -0,0 +1,236 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.dto.AppointmentReportDTO;
+import com.veterinary.clinic.reportservice.dto.DashboardMetricsDTO;
+import com.veterinary.clinic.reportservice.dto.FinancialReportDTO;
+import com.veterinary.clinic.reportservice.dto.PatientReportDTO;
+import com.veterinary.clinic.reportservice.entity.ReportAppointment;
+import com.veterinary.clinic.reportservice.entity.ReportClient;
+import com.veterinary.clinic.reportservice.entity.ReportPatient;
+import com.veterinary.clinic.reportservice.entity.ReportUser;
+import com.veterinary.clinic.reportservice.repository.ReportAppointmentRepository;
+import com.veterinary.clinic.reportservice.repository.ReportClientRepository;
+import com.veterinary.clinic.reportservice.repository.ReportPatientRepository;
+import com.veterinary.clinic.reportservice.repository.ReportPrescriptionRepository;
+import com.veterinary.clinic.reportservice.repository.ReportUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Consultas de reportes y dashboard sobre el modelo de lectura local. Los
+ * nombres de pacientes, propietarios y veterinarios se resuelven con una
+ * consulta por tabla, no una llamada por fila. La tendencia sale de los
+ * resúmenes diarios de business_metrics y el reporte financiero, de las
+ * citas agrupadas por día, tipo y veterinario valoradas con la tarifa.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReadModelQueries {
+
+    static final int REPORT_CHUNK_SIZE = 1000;
+
+    private static final List<String> DASHBOARD_SECTIONS = List.of("totalPatients", "totalUsers",
+            "totalPrescriptions", "todayAppointments", "thisWeekAppointments", "thisMonthAppointments",
+            "newPatientsThisMonth", "activePatients", "appointmentsByStatus", "patientsBySpecies",
+            "appointmentsTrend", "prescriptionsByVeterinarian");
+
+    @Autowired
+    private ReportAppointmentRepository reportAppointmentRepository;
+
+    @Autowired
+    private FinancialReportEngine financialReportEngine;
+
+    @Autowired
+    private ReportPatientRepository reportPatientRepository;
+
+    @Autowired
+    private ReportClientRepository reportClientRepository;
+
+    @Autowired
+    private ReportUserRepository reportUserRepository;
+
+    @Autowired
+    private ReportPrescriptionRepository reportPrescriptionRepository;
+
+    @Autowired
+    private BusinessMetricsRollup businessMetricsRollup;
+
+    // Las citas se leen de una vez; los nombres se resuelven y las filas se crean por bloques al recorrerlas
+    public Iterable<AppointmentReportDTO> appointmentReport(LocalDate startDate, LocalDate endDate) {
+        return ChunkedRows.of(appointmentsBetween(startDate, endDate), REPORT_CHUNK_SIZE, this::appointmentRows);
+    }
+
+    private List<AppointmentReportDTO> appointmentRows(List<ReportAppointment> appointments) {
+        Map<Long, ReportPatient> patients = byId(reportPatientRepository.findAllById(
+                collect(appointments, ReportAppointment::getPatientId)), ReportPatient::getId);
+        Map<Long, ReportClient> owners = byId(reportClientRepository.findAllById(
+                collect(patients.values(), ReportPatient::getClientId)), ReportClient::getId);
+        Map<Long, ReportUser> veterinarians = byId(reportUserRepository.findAllById(
+                collect(appointments, ReportAppointment::getVeterinarianId)), ReportUser::getId);
+
+        List<AppointmentReportDTO> rows = new ArrayList<>(appointments.size());
+        for (ReportAppointment appointment : appointments) {
+            AppointmentReportDTO dto = new AppointmentReportDTO();
+            dto.setAppointmentId(appointment.getId());
+            dto.setAppointmentDate(appointment.getAppointmentDateTime());
+            dto.setStatus(appointment.getStatus());
+            dto.setAppointmentType(appointment.getReason());
+            dto.setObservations(appointment.getNotes());
+            ReportUser veterinarian = veterinarians.get(appointment.getVeterinarianId());
+            dto.setVeterinarianName(veterinarian != null ? veterinarian.getFullName() : null);
+
+            ReportPatient patient = patients.get(appointment.getPatientId());
+            if (patient != null) {
+                dto.setPatientName(patient.getName());
+                dto.setPatientSpecies(patient.getSpecies());
+                ReportClient owner = owners.get(patient.getClientId());
+                dto.setOwnerName(owner != null ? owner.getFullName() : "Unknown Owner");
+            } else {
+                dto.setPatientName("Unknown Patient");
+                dto.setPatientSpecies("Unknown");
+                dto.setOwnerName("Unknown Owner");
+            }
+            rows.add(dto);
+        }
+        return rows;
+    }
+
+    public List<PatientReportDTO> patientReport() {
+        List<ReportPatient> patients = reportPatientRepository.findAllByOrderByIdAsc();
+        Map<Long, ReportClient> owners = byId(reportClientRepository.findAllById(
+                collect(patients, ReportPatient::getClientId)), ReportClient::getId);
+        Map<Long, Object[]> appointmentSummary = new HashMap<>();
+        reportAppointmentRepository.summarizeByPatient().forEach(row -> appointmentSummary.put((Long) row[0], row));
+        Map<Long, Long> prescriptionCounts = new HashMap<>();
+        reportPrescriptionRepository.countGroupByPatient()
+                .forEach(row -> prescriptionCounts.put((Long) row[0], ((Number) row[1]).longValue()));
+
+        List<PatientReportDTO> rows = new ArrayList<>(patients.size());
+        for (ReportPatient patient : patients) {
+            PatientReportDTO dto = new PatientReportDTO();
+            dto.setPatientId(patient.getId());
+            dto.setPatientName(patient.getName());
+            dto.setSpecies(patient.getSpecies());
+            dto.setBreed(patient.getBreed());
+            dto.setAge(patient.getBirthDate() != null ? Period.between(patient.getBirthDate(), LocalDate.now()).getYears() : null);
+            dto.setWeight(patient.getWeight() != null ? patient.getWeight().doubleValue() : null);
+            dto.setRegistrationDate(patient.getCreatedAt());
+
+            ReportClient owner = owners.get(patient.getClientId());
+            if (owner != null) {
+                dto.setOwnerName(owner.getFullName());
+                dto.setOwnerDocument(owner.getDocumentNumber());
+                dto.setOwnerPhone(owner.getPhoneNumber());
+                dto.setOwnerEmail(owner.getEmail());
+            } else {
+                dto.setOwnerName("Unknown Owner");
+            }
+
+            Object[] summary = appointmentSummary.get(patient.getId());
+            dto.setTotalAppointments(summary != null ? ((Number) summary[1]).longValue() : 0L);
+            dto.setLastVisit(summary != null ? ((LocalDate) summary[2]).atStartOfDay() : null);
+            dto.setTotalPrescriptions(prescriptionCounts.getOrDefault(patient.getId(), 0L));
+            rows.add(dto);
+        }
+        return rows;
+    }
+
+    public FinancialReportDTO financialReport(LocalDate startDate, LocalDate endDate) {
+        return financialReportEngine.report(startDate, endDate,
+                (from, to) -> reportAppointmentRepository.aggregateCharges(from, to).stream()
+                        .map(row -> new FinancialReportEngine.Charge((LocalDate) row[0], (Long) row[1], (Long) row[2],
+                                ((Number) row[3]).longValue())),
+                ids -> {
+                    Map<Long, String> names = new HashMap<>();
+                    reportUserRepository.findAllById(ids).forEach(user -> names.put(user.getId(), user.getFullName()));
+                    return names;
+                });
+    }
+
+    public DashboardMetricsDTO dashboardMetrics() {
+        DashboardMetricsDTO metrics = new DashboardMetricsDTO();
+        LocalDate today = LocalDate.now();
+
+        long totalPatients = reportPatientRepository.count();
+        metrics.setTotalPatients(totalPatients);
+        metrics.setActivePatients(totalPatients);
+        metrics.setTotalUsers(reportUserRepository.count());
+        metrics.setTotalPrescriptions(reportPrescriptionRepository.count());
+        metrics.setTotalAppointments(reportAppointmentRepository.count());
+
+        metrics.setTodayAppointments(reportAppointmentRepository.countByAppointmentDateBetween(today, today));
+        metrics.setThisWeekAppointments(reportAppointmentRepository.countByAppointmentDateBetween(
+                today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY))));
+        metrics.setThisMonthAppointments(reportAppointmentRepository.countByAppointmentDateBetween(
+                today.withDayOfMonth(1), today.with(TemporalAdjusters.lastDayOfMonth())));
+        metrics.setNewPatientsThisMonth(reportPatientRepository.countByRegistrationDateGreaterThanEqual(today.withDayOfMonth(1)));
+
+        metrics.setAppointmentsByStatus(toCounts(reportAppointmentRepository.countGroupByStatus()));
+        metrics.setPatientsBySpecies(toCounts(reportPatientRepository.countGroupBySpecies()));
+
+        metrics.setAppointmentsTrend(businessMetricsRollup.appointmentsTrend(today.minus(30, ChronoUnit.DAYS), today));
+
+        List<Object[]> byVeterinarianId = reportPrescriptionRepository.countGroupByVeterinarian();
+        Map<Long, ReportUser> veterinarians = byId(reportUserRepository.findAllById(
+                collect(byVeterinarianId, row -> (Long) row[0])), ReportUser::getId);
+        Map<String, Long> byVeterinarian = new HashMap<>();
+        for (Object[] row : byVeterinarianId) {
+            ReportUser veterinarian = veterinarians.get((Long) row[0]);
+            byVeterinarian.merge(veterinarian != null ? veterinarian.getFullName() : "Unknown",
+                    ((Number) row[1]).longValue(), Long::sum);
+        }
+        metrics.setPrescriptionsByVeterinarian(byVeterinarian);
+
+        // Todo sale de tablas locales: no hay secciones parciales
+        Map<String, String> sectionStatus = new LinkedHashMap<>();
+        for (String section : DASHBOARD_SECTIONS) {
+            sectionStatus.put(section, DashboardFanOut.OK);
+        }
+        metrics.setSectionStatus(sectionStatus);
+        metrics.setPartial(false);
+        return metrics;
+    }
+
+    private List<ReportAppointment> appointmentsBetween(LocalDate startDate, LocalDate endDate) {
+        return reportAppointmentRepository.findByAppointmentDateBetweenOrderByAppointmentDateAscAppointmentTimeAsc(
+                startDate, endDate);
+    }
+
+    private static Map<String, Long> toCounts(List<Object[]> rows) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        rows.forEach(row -> counts.put(String.valueOf(row[0]), ((Number) row[1]).longValue()));
+        return counts;
+    }
+
+    private static <T> Set<Long> collect(Iterable<T> rows, Function<T, Long> key) {
+        Set<Long> ids = new HashSet<>();
+        for (T row : rows) {
+            Long id = key.apply(row);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static <T> Map<Long, T> byId(List<T> rows, Function<T, Long> id) {
+        return rows.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+}
@@ -0,0 +1,175 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.client.AppointmentClient;
+import com.veterinary.clinic.reportservice.client.ClientClient;
+import com.veterinary.clinic.reportservice.client.PatientClient;
+import com.veterinary.clinic.reportservice.client.PrescriptionClient;
+import com.veterinary.clinic.reportservice.client.UserClient;
+import com.veterinary.clinic.reportservice.dto.ChangeFeedDTO;
+import com.veterinary.clinic.reportservice.entity.ReadModelCheckpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Mantiene el modelo de lectura local consultando periódicamente el feed
+ * {@code /changes} de cada servicio de dominio desde su checkpoint. Cada
+ * página se aplica en su propia transacción. Los reportes solo usan las
+ * tablas locales cuando todos los feeds se han puesto al día recientemente
+ * y business_metrics ha recalculado al menos una vez todo lo cargado; si no,
+ * siguen llamando a los servicios. Tras cada consulta se recalculan los días
+ * de business_metrics afectados.
+ */
+@Service
+public class ReadModelSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadModelSyncService.class);
+
+    @Autowired
+    private ReadModelProjector projector;
+
+    @Autowired
+    private BusinessMetricsRollup businessMetricsRollup;
+
+    @Autowired
+    private AppointmentClient appointmentClient;
+
+    @Autowired
+    private PatientClient patientClient;
+
+    @Autowired
+    private ClientClient clientClient;
+
+    @Autowired
+    private UserClient userClient;
+
+    @Autowired
+    private PrescriptionClient prescriptionClient;
+
+    @Value("${reports.read-model.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${reports.read-model.page-size:500}")
+    private int pageSize = 500;
+
+    // Acota lo que una consulta puede tardar durante la carga inicial
+    @Value("${reports.read-model.max-pages-per-poll:20}")
+    private int maxPagesPerPoll = 20;
+
+    // Más tiempo sin ponerse al día y los reportes vuelven a llamar a los servicios
+    @Value("${reports.read-model.max-staleness-ms:300000}")
+    private long maxStalenessMillis = 300000;
+
+    // Momento en que cada feed terminó una consulta sin cambios pendientes
+    private final Map<String, Long> caughtUpAt = new ConcurrentHashMap<>();
+
+    // Se activa tras el primer recálculo sin días pendientes con todos los feeds al día
+    private volatile boolean metricsRolledUp;
+
+    @Scheduled(initialDelayString = "${reports.read-model.initial-delay-ms:10000}",
+            fixedDelayString = "${reports.read-model.poll-interval-ms:15000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        sync(ReadModelProjector.APPOINTMENTS,
+                since -> appointmentClient.getAppointmentChanges(since, pageSize).getData(),
+                projector::applyAppointments);
+        sync(ReadModelProjector.PATIENTS,
+                since -> patientClient.getPatientChanges(since, pageSize).getData(),
+                projector::applyPatients);
+        sync(ReadModelProjector.CLIENTS,
+                since -> clientClient.getClientChanges(since, pageSize).getData(),
+                projector::applyClients);
+        sync(ReadModelProjector.USERS,
+                since -> userClient.getUserChanges(since, pageSize).getData(),
+                projector::applyUsers);
+        sync(ReadModelProjector.PRESCRIPTIONS,
+                since -> prescriptionClient.getPrescriptionChanges(since, pageSize),
+                projector::applyPrescriptions);
+
+        boolean feedsCaughtUp = feedsCaughtUp();
+        try {
+            businessMetricsRollup.rollUpDirtyDays();
+            // Después, cada consulta deja como mucho los días de sus propios cambios por recalcular
+            if (feedsCaughtUp && !metricsRolledUp && businessMetricsRollup.pendingDays() == 0) {
+                metricsRolledUp = true;
+                logger.info("Read model ready: feeds caught up and business metrics rolled up");
+            }
+        } catch (Exception e) {
+            logger.warn("Could not roll up business metrics: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && metricsRolledUp && feedsCaughtUp();
+    }
+
+    private boolean feedsCaughtUp() {
+        long oldest = System.currentTimeMillis() - maxStalenessMillis;
+        for (String feed : feeds()) {
+            Long at = caughtUpAt.get(feed);
+            if (at == null || at < oldest) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("ready", isReady());
+        status.put("metricsRolledUp", metricsRolledUp);
+        Map<String, Object> feeds = new LinkedHashMap<>();
+        for (String feed : feeds()) {
+            ReadModelCheckpoint checkpoint = projector.checkpoint(feed);
+            Map<String, Object> feedStatus = new LinkedHashMap<>();
+            feedStatus.put("lastVersion", checkpoint.getLastVersion());
+            feedStatus.put("lastSyncedAt", checkpoint.getLastSyncedAt());
+            feedStatus.put("lastError", checkpoint.getLastError());
+            feedStatus.put("caughtUp", caughtUpAt.containsKey(feed));
+            feeds.put(feed, feedStatus);
+        }
+        status.put("feeds", feeds);
+        status.put("pendingMetricDays", businessMetricsRollup.pendingDays());
+        return status;
+    }
+
+    <T> void sync(String feed, Function<Long, ChangeFeedDTO<T>> fetch,
+                  Function<ChangeFeedDTO<T>, ReadModelCheckpoint> apply) {
+        try {
+            long since = projector.checkpoint(feed).getLastVersion();
+            for (int pages = 0; pages < maxPagesPerPoll; pages++) {
+                ChangeFeedDTO<T> page = fetch.apply(since);
+                since = apply.apply(page).getLastVersion();
+                if (!page.isHasMore()) {
+                    caughtUpAt.put(feed, System.currentTimeMillis());
+                    return;
+                }
+            }
+            logger.debug("Read model feed {} still behind after {} pages", feed, maxPagesPerPoll);
+        } catch (Exception e) {
+            logger.warn("Could not sync read model feed {}: {}", feed, e.getMessage());
+            try {
+                projector.recordError(feed, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            } catch (Exception ignored) {
+                // Sin base de datos tampoco se puede anotar el error
+            }
+        }
+    }
+
+    private static List<String> feeds() {
+        return List.of(ReadModelProjector.APPOINTMENTS, ReadModelProjector.PATIENTS, ReadModelProjector.CLIENTS,
+                ReadModelProjector.USERS, ReadModelProjector.PRESCRIPTIONS);
+    }
+}
@@ -0,0 +1,315 @@
+package com.veterinary.clinic.reportservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Caché en disco de ficheros de reporte, compartida entre usuarios. La clave
+ * es la versión del contenido más un hash del tipo de reporte, el rango de
+ * fechas y el formato; al arrancar se borran los de otras versiones. Los
+ * periodos cerrados (fin antes de hoy) no caducan; los que incluyen hoy
+ * caducan a los pocos segundos. El tamaño total está acotado y se expulsa
+ * por LRU.
+ */
+@Component
+public class ReportArtifactCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportArtifactCache.class);
+
+    // Se incrementa si cambia el contenido generado para invalidar lo guardado.
+    // 2: financiero con la tarifa de appointment_types y sin canceladas ni ausencias; total al final del PDF de citas
+    private static final int ARTIFACT_VERSION = 2;
+    private static final String VERSION_PREFIX = "v" + ARTIFACT_VERSION + "-";
+    private static final String OPEN_PREFIX = "open-";
+    private static final String ARTIFACT_SUFFIX = ".artifact";
+
+    @Value("${reports.cache.dir:${java.io.tmpdir}/veterinary-reports/cache}")
+    private String cacheDir;
+
+    @Value("${reports.cache.max-bytes:536870912}")
+    private long maxBytes = 536870912;
+
+    @Value("${reports.cache.open-period-ttl-ms:60000}")
+    private long openPeriodTtlMillis = 60000;
+
+    @Value("${reports.cache.generation-wait-ms:300000}")
+    private long generationWaitMillis = 300000;
+
+    // Orden de acceso para la expulsión LRU
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final Map<String, CountDownLatch> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @FunctionalInterface
+    public interface ArtifactWriter {
+        void write(OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * Recupera los ficheros de periodos cerrados que sobrevivieron a un
+     * reinicio; los temporales, los de periodos abiertos y los de otra
+     * versión del contenido se descartan.
+     */
+    @PostConstruct
+    public void load() throws IOException {
+        Path directory = Paths.get(cacheDir);
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.collect(Collectors.toList());
+        }
+        Map<Path, Long> modified = new HashMap<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (!name.endsWith(ARTIFACT_SUFFIX) || !name.startsWith(VERSION_PREFIX)) {
+                Files.deleteIfExists(file);
+            } else {
+                modified.put(file, Files.getLastModifiedTime(file).toMillis());
+            }
+        }
+        synchronized (this) {
+            modified.keySet().stream().sorted(Comparator.comparing(modified::get)).forEach(file -> {
+                String name = file.getFileName().toString();
+                String key = name.substring(0, name.length() - ARTIFACT_SUFFIX.length());
+                try {
+                    add(key, new Entry(file, Files.size(file), Long.MAX_VALUE));
+                } catch (IOException e) {
+                    logger.warn("Skipping unreadable cached report {}", file);
+                }
+            });
+            evict();
+        }
+    }
+
+    public static String fingerprint(String reportType, LocalDate startDate, LocalDate endDate, String format) {
+        String request = reportType.trim().toUpperCase() + "|" + startDate + "|" + endDate
+                + "|" + format.trim().toUpperCase();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(VERSION_PREFIX);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Escribe el reporte en {@code outputStream}: desde la caché si está, o
+     * generándolo una vez y guardando una copia a la vez que se envía. Si
+     * otro hilo ya genera la misma clave, espera a que termine.
+     *
+     * @return true si se sirvió desde la caché
+     */
+    public boolean writeTo(String reportType, LocalDate startDate, LocalDate endDate, String format,
+                           OutputStream outputStream, ArtifactWriter generator) throws IOException {
+        String key = fingerprint(reportType, startDate, endDate, format);
+        boolean closedPeriod = endDate != null && endDate.isBefore(LocalDate.now());
+
+        while (true) {
+            InputStream cached = open(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                try (InputStream input = cached) {
+                    input.transferTo(outputStream);
+                }
+                return true;
+            }
+            CountDownLatch generating = new CountDownLatch(1);
+            CountDownLatch existing = inFlight.putIfAbsent(key, generating);
+            if (existing == null) {
+                try {
+                    misses.incrementAndGet();
+                    generate(key, closedPeriod, outputStream, generator);
+                    return false;
+                } finally {
+                    inFlight.remove(key);
+                    generating.countDown();
+                }
+            }
+            try {
+                if (!existing.await(generationWaitMillis, TimeUnit.MILLISECONDS)) {
+                    // Generación demasiado lenta: se genera aparte sin guardar nada
+                    misses.incrementAndGet();
+                    generator.write(outputStream);
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for report generation", e);
+            }
+        }
+    }
+
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("hits", hits.get());
+        statistics.put("misses", misses.get());
+        statistics.put("evictions", evictions.get());
+        synchronized (this) {
+            statistics.put("entries", (long) entries.size());
+            statistics.put("bytes", totalBytes);
+        }
+        statistics.put("maxBytes", maxBytes);
+        return statistics;
+    }
+
+    private void generate(String key, boolean closedPeriod, OutputStream outputStream, ArtifactWriter generator)
+            throws IOException {
+        Path partial = Paths.get(cacheDir).resolve(key + "-" + UUID.randomUUID() + ".part");
+        boolean complete = false;
+        try {
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                generator.write(new TeeOutputStream(outputStream, file));
+            }
+            complete = true;
+        } finally {
+            if (complete) {
+                store(key, partial, closedPeriod);
+            } else {
+                Files.deleteIfExists(partial);
+            }
+        }
+    }
+
+    private void store(String key, Path partial, boolean closedPeriod) throws IOException {
+        if (!closedPeriod && openPeriodTtlMillis <= 0) {
+            Files.deleteIfExists(partial);
+            return;
+        }
+        if (Files.size(partial) > maxBytes) {
+            Files.deleteIfExists(partial);
+            return;
+        }
+        Path target = partial.resolveSibling((closedPeriod ? "" : OPEN_PREFIX) + key + ARTIFACT_SUFFIX);
+        long expiresAt = closedPeriod ? Long.MAX_VALUE : System.currentTimeMillis() + openPeriodTtlMillis;
+        synchronized (this) {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            add(key, new Entry(target, Files.size(target), expiresAt));
+            evict();
+        }
+    }
+
+    private synchronized InputStream open(String key) throws IOException {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() < System.currentTimeMillis() || !Files.exists(entry.path())) {
+            remove(key);
+            return null;
+        }
+        // El fichero abierto sigue legible aunque se expulse mientras se envía
+        return Files.newInputStream(entry.path());
+    }
+
+    private void add(String key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            totalBytes -= previous.size();
+            if (!previous.path().equals(entry.path())) {
+                deleteQuietly(previous.path());
+            }
+        }
+        totalBytes += entry.size();
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.size();
+            deleteQuietly(entry.path());
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Entry entry = eldest.next().getValue();
+            eldest.remove();
+            totalBytes -= entry.size();
+            deleteQuietly(entry.path());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete cached report {}", path);
+        }
+    }
+
+    private record Entry(Path path, long size, long expiresAt) {}
+
+    private static final class TeeOutputStream extends OutputStream {
+        private final OutputStream first;
+        private final OutputStream second;
+
+        private TeeOutputStream(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            first.write(b);
+            second.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            first.write(b, off, len);
+            second.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+            second.flush();
+        }
+
+        // No cierra los destinos: el llamador decide cuándo hacerlo
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
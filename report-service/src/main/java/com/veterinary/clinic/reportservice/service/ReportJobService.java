@@ -0,0 +1,374 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.dto.AppointmentReportDTO;
+import com.veterinary.clinic.reportservice.dto.PatientReportDTO;
+import com.veterinary.clinic.reportservice.dto.ReportJobDTO;
+import com.veterinary.clinic.reportservice.dto.ReportJobRequest;
+import com.veterinary.clinic.reportservice.entity.ReportHistory;
+import com.veterinary.clinic.reportservice.repository.ReportHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Trabajos de reportes asíncronos: la petición se registra como PENDING en
+ * report_history, se genera en el pool de trabajos y el fichero queda en
+ * disco con su ruta, tamaño real y duración. Cada tipo de reporte tiene un
+ * máximo de trabajos simultáneos; el resto espera en una cola por tipo. Los
+ * ficheros se borran pasado el periodo de retención y el trabajo queda como
+ * EXPIRED.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    static final String APPOINTMENT_REPORT = "APPOINTMENT_REPORT";
+    static final String PATIENT_REPORT = "PATIENT_REPORT";
+    static final String FINANCIAL_REPORT = "FINANCIAL_REPORT";
+
+    @Autowired
+    private ReportHistoryRepository reportHistoryRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ExcelGeneratorService excelGeneratorService;
+
+    @Autowired
+    private PdfReportService pdfReportService;
+
+    @Autowired
+    private ReportArtifactCache reportArtifactCache;
+
+    @Autowired
+    @Qualifier("reportJobExecutor")
+    private ExecutorService reportJobExecutor;
+
+    @Value("${reports.jobs.storage-dir:${java.io.tmpdir}/veterinary-reports}")
+    private String storageDir;
+
+    // Formato TIPO=limite separado por comas, p. ej. APPOINTMENT_REPORT=2,PATIENT_REPORT=1
+    @Value("${reports.jobs.type-limits:}")
+    private String typeLimits = "";
+
+    @Value("${reports.jobs.default-type-limit:2}")
+    private int defaultTypeLimit = 2;
+
+    @Value("${reports.jobs.max-pending-per-type:50}")
+    private int maxPendingPerType = 50;
+
+    // Tiempo que se conserva el fichero de un trabajo completado para descargarlo
+    @Value("${reports.jobs.retention-ms:86400000}")
+    private long retentionMillis = 86400000;
+
+    private final Map<String, TypeLane> lanes = new ConcurrentHashMap<>();
+
+    public ReportJobDTO submitJob(ReportJobRequest request, Long userId) {
+        String reportType = request.getReportType() != null ? request.getReportType().trim().toUpperCase() : "";
+        String format = request.getFormat() != null ? request.getFormat().trim().toUpperCase() : "";
+        validate(reportType, format, request.getStartDate(), request.getEndDate());
+
+        ReportHistory job = new ReportHistory(reportType, userId, format);
+        job.setStartDate(request.getStartDate());
+        job.setEndDate(request.getEndDate());
+        job.setStatus(ReportHistory.ReportStatus.PENDING);
+        job.setFileName(generateFileName(reportType, format));
+        job = reportHistoryRepository.save(job);
+
+        // El trabajo llama a los servicios con el token de quien lo pidió
+        if (!lane(reportType).submit(new QueuedJob(job.getId(), SecurityContextHolder.getContext()))) {
+            markFailed(job.getId(), "Report job queue is full");
+            throw new RuntimeException("Too many pending " + reportType + " jobs, try again later");
+        }
+        return ReportJobDTO.from(job);
+    }
+
+    public ReportJobDTO getJob(Long jobId, Long userId) {
+        return ReportJobDTO.from(findJob(jobId, userId));
+    }
+
+    public ReportHistory findJob(Long jobId, Long userId) {
+        ReportHistory job = reportHistoryRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Report job not found with id: " + jobId));
+        if (!job.getGeneratedByUserId().equals(userId)) {
+            throw new RuntimeException("Report job not found with id: " + jobId);
+        }
+        return job;
+    }
+
+    // Los trabajos que quedaron a medias en un reinicio no se van a completar
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        List<ReportHistory> interrupted = reportHistoryRepository.findByStatusIn(
+                EnumSet.of(ReportHistory.ReportStatus.PENDING, ReportHistory.ReportStatus.PROCESSING));
+        for (ReportHistory job : interrupted) {
+            deleteQuietly(partialPath(job));
+            job.setStatus(ReportHistory.ReportStatus.FAILED);
+            job.setErrorMessage("Interrupted by service restart");
+            reportHistoryRepository.save(job);
+        }
+        if (!interrupted.isEmpty()) {
+            logger.warn("Marked {} interrupted report jobs as failed", interrupted.size());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${reports.jobs.cleanup-interval-ms:600000}",
+            fixedDelayString = "${reports.jobs.cleanup-interval-ms:600000}")
+    public void expireArtifacts() {
+        List<ReportHistory> expired = reportHistoryRepository.findByStatusAndFilePathIsNotNullAndGeneratedAtBefore(
+                ReportHistory.ReportStatus.COMPLETED, LocalDateTime.now().minus(Duration.ofMillis(retentionMillis)));
+        for (ReportHistory job : expired) {
+            if (!deleteQuietly(Paths.get(job.getFilePath()))) {
+                // Se reintenta en la siguiente pasada
+                continue;
+            }
+            job.setFilePath(null);
+            job.setStatus(ReportHistory.ReportStatus.EXPIRED);
+            reportHistoryRepository.save(job);
+        }
+        if (!expired.isEmpty()) {
+            logger.info("Deleted artifacts of {} expired report jobs", expired.size());
+        }
+    }
+
+    void runJob(Long jobId) {
+        ReportHistory job = reportHistoryRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        job.setStatus(ReportHistory.ReportStatus.PROCESSING);
+        job = reportHistoryRepository.save(job);
+
+        long start = System.nanoTime();
+        Path target = artifactPath(job);
+        Path partial = partialPath(job);
+        try {
+            Files.createDirectories(target.getParent());
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                render(job, outputStream);
+            }
+            // El fichero solo aparece con su nombre final cuando está completo
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            job.setFilePath(target.toAbsolutePath().toString());
+            job.setFileSize(Files.size(target));
+            job.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+            job.setStatus(ReportHistory.ReportStatus.COMPLETED);
+            reportHistoryRepository.save(job);
+        } catch (Exception e) {
+            logger.error("Report job {} ({}) failed", job.getId(), job.getReportType(), e);
+            deleteQuietly(partial);
+            job.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+            job.setStatus(ReportHistory.ReportStatus.FAILED);
+            job.setErrorMessage(truncate(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
+            reportHistoryRepository.save(job);
+        }
+    }
+
+    private void render(ReportHistory job, OutputStream outputStream) throws IOException {
+        boolean excel = "EXCEL".equals(job.getFileFormat());
+        switch (job.getReportType()) {
+            case APPOINTMENT_REPORT:
+                reportArtifactCache.writeTo(APPOINTMENT_REPORT, job.getStartDate(), job.getEndDate(),
+                        job.getFileFormat(), outputStream, out -> {
+                            Iterable<AppointmentReportDTO> appointments =
+                                    reportService.streamAppointmentReport(job.getStartDate(), job.getEndDate());
+                            if (excel) {
+                                excelGeneratorService.writeAppointmentReportExcel(appointments, out);
+                            } else {
+                                pdfReportService.writeAppointmentReportPdf(appointments,
+                                        displayDate(job.getStartDate()), displayDate(job.getEndDate()), out);
+                            }
+                        });
+                break;
+            case PATIENT_REPORT:
+                Iterable<PatientReportDTO> patients = reportService.streamPatientReport();
+                if (excel) {
+                    excelGeneratorService.writePatientReportExcel(patients, outputStream);
+                } else {
+                    pdfReportService.writePatientReportPdf(patients, outputStream);
+                }
+                break;
+            case FINANCIAL_REPORT:
+                reportArtifactCache.writeTo(FINANCIAL_REPORT, job.getStartDate(), job.getEndDate(),
+                        job.getFileFormat(), outputStream, out -> out.write(pdfReportService.generateFinancialReportPdf(
+                                reportService.loadFinancialReport(job.getStartDate(), job.getEndDate()))));
+                break;
+            default:
+                throw new IllegalStateException("Unsupported report type: " + job.getReportType());
+        }
+    }
+
+    private void validate(String reportType, String format, LocalDate startDate, LocalDate endDate) {
+        if (!format.equals("EXCEL") && !format.equals("PDF")) {
+            throw new RuntimeException("Report format must be EXCEL or PDF");
+        }
+        switch (reportType) {
+            case PATIENT_REPORT:
+                return;
+            case FINANCIAL_REPORT:
+                if (!format.equals("PDF")) {
+                    throw new RuntimeException("Financial report is only available as PDF");
+                }
+                break;
+            case APPOINTMENT_REPORT:
+                break;
+            default:
+                throw new RuntimeException("Report type must be APPOINTMENT_REPORT, PATIENT_REPORT or FINANCIAL_REPORT");
+        }
+        if (startDate == null || endDate == null) {
+            throw new RuntimeException("startDate and endDate are required for " + reportType);
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("endDate must not be before startDate");
+        }
+    }
+
+    private void markFailed(Long jobId, String message) {
+        reportHistoryRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(ReportHistory.ReportStatus.FAILED);
+            job.setErrorMessage(message);
+            reportHistoryRepository.save(job);
+        });
+    }
+
+    private TypeLane lane(String reportType) {
+        return lanes.computeIfAbsent(reportType, type -> new TypeLane(parseTypeLimits().getOrDefault(type, defaultTypeLimit)));
+    }
+
+    private Map<String, Integer> parseTypeLimits() {
+        Map<String, Integer> limits = new HashMap<>();
+        if (typeLimits == null || typeLimits.isBlank()) {
+            return limits;
+        }
+        for (String entry : typeLimits.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length == 2) {
+                limits.put(parts[0].trim().toUpperCase(), Math.max(1, Integer.parseInt(parts[1].trim())));
+            }
+        }
+        return limits;
+    }
+
+    private Path artifactPath(ReportHistory job) {
+        return Paths.get(storageDir).resolve(job.getId() + "_" + job.getFileName());
+    }
+
+    private Path partialPath(ReportHistory job) {
+        Path target = artifactPath(job);
+        return target.resolveSibling(target.getFileName() + ".part");
+    }
+
+    private static boolean deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not delete report artifact {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private static String displayDate(LocalDate date) {
+        return date != null ? date.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : null;
+    }
+
+    private static String generateFileName(String reportType, String format) {
+        String timestamp = LocalDateTime.now().toString().replace(":", "-");
+        return reportType.toLowerCase() + "_" + timestamp + ("EXCEL".equals(format) ? ".xlsx" : ".pdf");
+    }
+
+    /**
+     * Cola por tipo de reporte: como mucho {@code limit} trabajos del tipo en
+     * el pool a la vez. Al terminar uno se lanza el siguiente pendiente.
+     */
+    private class TypeLane {
+        private final int limit;
+        private final Deque<QueuedJob> pending = new ArrayDeque<>();
+        private int running;
+
+        private TypeLane(int limit) {
+            this.limit = limit;
+        }
+
+        synchronized boolean submit(QueuedJob job) {
+            if (running < limit) {
+                running++;
+                if (!dispatch(job)) {
+                    running--;
+                    return false;
+                }
+                return true;
+            }
+            if (pending.size() >= maxPendingPerType) {
+                return false;
+            }
+            pending.add(job);
+            return true;
+        }
+
+        private synchronized void finished() {
+            QueuedJob next;
+            while ((next = pending.poll()) != null) {
+                if (dispatch(next)) {
+                    return;
+                }
+                markFailed(next.jobId(), "Report job queue is full");
+            }
+            running--;
+        }
+
+        private boolean dispatch(QueuedJob job) {
+            try {
+                reportJobExecutor.execute(new DelegatingSecurityContextRunnable(() -> {
+                    try {
+                        runJob(job.jobId());
+                    } finally {
+                        finished();
+                    }
+                }, job.securityContext()));
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+    }
+
+    private record QueuedJob(Long jobId, SecurityContext securityContext) {}
+}
@@ -5,14 +5,20 @@ import com.veterinary.clinic.reportservice.entity.ReportHistory;
 import com.veterinary.clinic.reportservice.repository.ReportHistoryRepository;
 import com.veterinary.clinic.reportservice.client.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,50 +43,84 @@ public class ReportService {
     @Autowired
     private ClientClient clientClient;
 
-    @Transactional(readOnly = true)
-    public DashboardMetricsDTO getDashboardMetrics() {
-        DashboardMetricsDTO metrics = new DashboardMetricsDTO();
+    @Autowired
+    private ReadModelSyncService readModelSyncService;
 
-        try {
-            // Métricas básicas
-            metrics.setTotalPatients(patientClient.getTotalPatientsCount());
-            metrics.setTotalUsers(userClient.getTotalUsersCount());
-            metrics.setTotalPrescriptions(prescriptionClient.getTotalPrescriptionsCount());
-
-            // Métricas de citas
-            metrics.setTodayAppointments(appointmentClient.getTodayAppointmentsCount());
-            metrics.setThisWeekAppointments(appointmentClient.getWeekAppointmentsCount());
-            metrics.setThisMonthAppointments(appointmentClient.getMonthAppointmentsCount());
-
-            // Pacientes activos y nuevos
-            metrics.setNewPatientsThisMonth(patientClient.getNewPatientsThisMonthCount());
-            metrics.setActivePatients(patientClient.getTotalPatientsCount()); // Simplificado
-
-            // Estadísticas por categorías
-            metrics.setAppointmentsByStatus(getAppointmentsByStatus());
-            metrics.setPatientsBySpecies(getPatientsBySpecies());
-            metrics.setAppointmentsTrend(getAppointmentsTrend());
-            metrics.setPrescriptionsByVeterinarian(getPrescriptionsByVeterinarian());
+    @Autowired
+    private ReadModelQueries readModelQueries;
 
-        } catch (Exception e) {
-            // En caso de error, devolver métricas vacías
-            System.err.println("Error getting dashboard metrics: " + e.getMessage());
+    @Autowired
+    private BusinessMetricsRollup businessMetricsRollup;
+
+    @Autowired
+    private PatientReportPipeline patientReportPipeline;
+
+    @Autowired
+    private FinancialReportEngine financialReportEngine;
+
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    private ExecutorService dashboardExecutor;
+
+    @Value("${reports.dashboard.call-timeout-ms:2000}")
+    private long dashboardCallTimeoutMillis = 2000;
+
+    @Value("${reports.dashboard.deadline-ms:3000}")
+    private long dashboardDeadlineMillis = 3000;
+
+    @Transactional(readOnly = true)
+    public DashboardMetricsDTO getDashboardMetrics() {
+        // Con el modelo de lectura al día, el dashboard sale de tablas locales
+        if (readModelSyncService.isReady()) {
+            return readModelQueries.dashboardMetrics();
         }
 
+        DashboardMetricsDTO metrics = new DashboardMetricsDTO();
+
+        // Todas las llamadas salen a la vez; la latencia es la de la más lenta, acotada por el plazo
+        DashboardFanOut fanOut = new DashboardFanOut(dashboardExecutor, dashboardCallTimeoutMillis, dashboardDeadlineMillis);
+
+        // Métricas básicas
+        Future<Long> totalPatients = fanOut.submit(patientClient::getTotalPatientsCount);
+        Future<Long> totalUsers = fanOut.submit(userClient::getTotalUsersCount);
+        Future<Long> totalPrescriptions = fanOut.submit(prescriptionClient::getTotalPrescriptionsCount);
+
+        // Métricas de citas
+        Future<Long> todayAppointments = fanOut.submit(appointmentClient::getTodayAppointmentsCount);
+        Future<Long> weekAppointments = fanOut.submit(appointmentClient::getWeekAppointmentsCount);
+        Future<Long> monthAppointments = fanOut.submit(appointmentClient::getMonthAppointmentsCount);
+
+        // Pacientes nuevos
+        Future<Long> newPatients = fanOut.submit(patientClient::getNewPatientsThisMonthCount);
+
+        // Estadísticas por categorías
+        Future<Map<String, Long>> appointmentsByStatus = fanOut.submit(this::getAppointmentsByStatus);
+        Future<Map<String, Long>> patientsBySpecies = fanOut.submit(this::getPatientsBySpecies);
+        Future<Map<LocalDate, Long>> appointmentsTrend = fanOut.submit(this::getAppointmentsTrend);
+        Future<Map<String, Long>> prescriptionsByVeterinarian = fanOut.submit(this::getPrescriptionsByVeterinarian);
+
+        fanOut.collect("totalPatients", totalPatients, metrics::setTotalPatients);
+        fanOut.collect("totalUsers", totalUsers, metrics::setTotalUsers);
+        fanOut.collect("totalPrescriptions", totalPrescriptions, metrics::setTotalPrescriptions);
+        fanOut.collect("todayAppointments", todayAppointments, metrics::setTodayAppointments);
+        fanOut.collect("thisWeekAppointments", weekAppointments, metrics::setThisWeekAppointments);
+        fanOut.collect("thisMonthAppointments", monthAppointments, metrics::setThisMonthAppointments);
+        fanOut.collect("newPatientsThisMonth", newPatients, metrics::setNewPatientsThisMonth);
+        // Simplificado: mismo valor que el total, sin repetir la llamada
+        fanOut.collect("activePatients", totalPatients, metrics::setActivePatients);
+        fanOut.collect("appointmentsByStatus", appointmentsByStatus, metrics::setAppointmentsByStatus);
+        fanOut.collect("patientsBySpecies", patientsBySpecies, metrics::setPatientsBySpecies);
+        fanOut.collect("appointmentsTrend", appointmentsTrend, metrics::setAppointmentsTrend);
+        fanOut.collect("prescriptionsByVeterinarian", prescriptionsByVeterinarian, metrics::setPrescriptionsByVeterinarian);
+
+        metrics.setSectionStatus(fanOut.status());
+        metrics.setPartial(fanOut.isPartial());
         return metrics;
     }
 
     @Transactional(readOnly = true)
     public List<AppointmentReportDTO> getAppointmentReport(LocalDate startDate, LocalDate endDate, Long userId) {
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-
-        List<AppointmentClient.AppointmentResponseDTO> appointments =
-                appointmentClient.getAppointmentsByDateRange(startDateTime, endDateTime);
-
-        List<AppointmentReportDTO> reportData = appointments.stream()
-                .map(this::convertToAppointmentReportDTO)
-                .collect(Collectors.toList());
+        List<AppointmentReportDTO> reportData = loadAppointmentReport(startDate, endDate);
 
         // Guardar historial del reporte
         saveReportHistory("APPOINTMENT_REPORT", userId, startDate, endDate, "EXCEL", reportData.size());
@@ -90,11 +130,7 @@ public class ReportService {
 
     @Transactional(readOnly = true)
     public List<PatientReportDTO> getPatientReport(Long userId) {
-        List<PatientClient.PatientResponseDTO> patients = patientClient.getAllPatients();
-
-        List<PatientReportDTO> reportData = patients.stream()
-                .map(this::convertToPatientReportDTO)
-                .collect(Collectors.toList());
+        List<PatientReportDTO> reportData = loadPatientReport();
 
         // Guardar historial del reporte
         saveReportHistory("PATIENT_REPORT", userId, null, null, "EXCEL", reportData.size());
@@ -104,18 +140,133 @@ public class ReportService {
 
     @Transactional(readOnly = true)
     public FinancialReportDTO getFinancialReport(LocalDate startDate, LocalDate endDate, Long userId) {
+        FinancialReportDTO report = loadFinancialReport(startDate, endDate);
+
+        // Guardar historial del reporte
+        saveReportHistory("FINANCIAL_REPORT", userId, startDate, endDate, "PDF",
+                report.getTotalAppointments().intValue());
+
+        return report;
+    }
+
+    // Reporte servido desde la caché de ficheros: se registra sin volver a pedir los datos
+    public void recordCachedReport(String reportType, Long userId, LocalDate startDate, LocalDate endDate, String format) {
+        ReportHistory history = new ReportHistory(reportType, userId, format);
+        history.setStartDate(startDate);
+        history.setEndDate(endDate);
+        history.setFileName(generateFileName(reportType, format));
+        history.setParameters("{\"cached\": true}");
+
+        reportHistoryRepository.save(history);
+    }
+
+    // Carga completa sin historial; no retiene conexión durante las llamadas Feign
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<AppointmentReportDTO> loadAppointmentReport(LocalDate startDate, LocalDate endDate) {
+        List<AppointmentReportDTO> rows = new ArrayList<>();
+        streamAppointmentReport(startDate, endDate).forEach(rows::add);
+        return rows;
+    }
+
+    // Filas por bloques de pacientes, para escribir Excel y PDF sin crear antes todos los DTOs
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Iterable<AppointmentReportDTO> streamAppointmentReport(LocalDate startDate, LocalDate endDate) {
+        if (readModelSyncService.isReady()) {
+            return readModelQueries.appointmentReport(startDate, endDate);
+        }
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
 
         List<AppointmentClient.AppointmentResponseDTO> appointments =
                 appointmentClient.getAppointmentsByDateRange(startDateTime, endDateTime);
 
-        FinancialReportDTO report = generateFinancialReport(appointments, startDate, endDate);
+        return ChunkedRows.of(appointments, PatientClient.MAX_BATCH_IDS, this::convertToAppointmentReportDTOs);
+    }
 
-        // Guardar historial del reporte
-        saveReportHistory("FINANCIAL_REPORT", userId, startDate, endDate, "PDF", appointments.size());
+    // Escribe el reporte de citas en streaming y guarda el historial con las filas escritas
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeAppointmentReport(LocalDate startDate, LocalDate endDate, Long userId, String format,
+                                       RowsWriter<AppointmentReportDTO> writer) throws IOException {
+        int[] written = {0};
+        writer.write(counting(streamAppointmentReport(startDate, endDate), written));
+        saveReportHistory("APPOINTMENT_REPORT", userId, startDate, endDate, format, written[0]);
+    }
 
-        return report;
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<PatientReportDTO> loadPatientReport() {
+        List<PatientReportDTO> rows = new ArrayList<>();
+        streamPatientReport().forEach(rows::add);
+        return rows;
+    }
+
+    // Filas a medida que se generan, para escribir Excel y PDF sin esperar a tener todos los pacientes
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Iterable<PatientReportDTO> streamPatientReport() {
+        if (readModelSyncService.isReady()) {
+            return readModelQueries.patientReport();
+        }
+        return patientReportPipeline.rows();
+    }
+
+    // Escribe el reporte de pacientes en streaming y guarda el historial con las filas escritas
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writePatientReport(Long userId, String format, RowsWriter<PatientReportDTO> writer) throws IOException {
+        int[] written = {0};
+        writer.write(counting(streamPatientReport(), written));
+        saveReportHistory("PATIENT_REPORT", userId, null, null, format, written[0]);
+    }
+
+    // Cuenta en written[0] las filas que el escritor llega a leer
+    private static <T> Iterable<T> counting(Iterable<T> rows, int[] written) {
+        return () -> {
+            Iterator<T> iterator = rows.iterator();
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    written[0]++;
+                    return iterator.next();
+                }
+            };
+        };
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public FinancialReportDTO loadFinancialReport(LocalDate startDate, LocalDate endDate) {
+        if (readModelSyncService.isReady()) {
+            return readModelQueries.financialReport(startDate, endDate);
+        }
+        // Sin modelo de lectura, appointment-service agrupa las citas de cada tramo
+        return financialReportEngine.report(startDate, endDate,
+                (from, to) -> appointmentClient.getAppointmentCharges(from, to).getData().stream()
+                        .map(charge -> new FinancialReportEngine.Charge(charge.getAppointmentDate(),
+                                charge.getAppointmentTypeId(), charge.getVeterinarianId(), charge.getCount())),
+                this::veterinarianNames);
+    }
+
+    // Un nombre por veterinario con ingresos, no por cita
+    private Map<Long, String> veterinarianNames(Set<Long> veterinarianIds) {
+        Map<Long, String> names = new HashMap<>();
+        veterinarianIds.forEach(id -> names.put(id, veterinarianName(String.valueOf(id))));
+        return names;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<LocalDate, Long> getAppointmentsTrend(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new RuntimeException("startDate must not be after endDate");
+        }
+        if (readModelSyncService.isReady()) {
+            return businessMetricsRollup.appointmentsTrend(startDate, endDate);
+        }
+        Map<LocalDate, Long> trend = new TreeMap<>();
+        appointmentClient.getAppointmentAggregates("day", startDate, endDate).getData()
+                .forEach(bucket -> trend.put(LocalDate.parse(bucket.getKey()), bucket.getCount()));
+        return trend;
     }
 
     @Transactional(readOnly = true)
@@ -133,189 +284,119 @@ public class ReportService {
                 ));
     }
 
-    private AppointmentReportDTO convertToAppointmentReportDTO(AppointmentClient.AppointmentResponseDTO appointment) {
-        AppointmentReportDTO dto = new AppointmentReportDTO();
-        dto.setAppointmentId(appointment.getId());
-        dto.setAppointmentDate(appointment.getAppointmentDate());
-        dto.setStatus(appointment.getStatus());
-        dto.setAppointmentType(appointment.getAppointmentType());
-        dto.setObservations(appointment.getObservations());
-        dto.setVeterinarianName(appointment.getVeterinarianName());
+    // Pacientes y propietarios se resuelven en bloque, una vez por rango y no por cita
+    private List<AppointmentReportDTO> convertToAppointmentReportDTOs(List<AppointmentClient.AppointmentResponseDTO> appointments) {
+        Set<Long> patientIds = new LinkedHashSet<>();
+        appointments.forEach(appointment -> patientIds.add(appointment.getPatientId()));
+        Map<Long, PatientClient.PatientSnapshot> patients = patientsByIds(patientIds);
 
-        // Obtener datos del paciente
-        try {
-            PatientClient.PatientResponseDTO patient = patientClient.getPatientById(appointment.getPatientId());
-            dto.setPatientName(patient.getName());
-            dto.setPatientSpecies(patient.getSpecies());
-
-            // Obtener datos del propietario
-            if (patient.getOwnerId() != null) {
-                ClientClient.ClientResponseDTO owner = clientClient.getClientById(patient.getOwnerId());
-                dto.setOwnerName(owner.getFullName());
+        Set<Long> ownerIds = new LinkedHashSet<>();
+        patients.values().forEach(patient -> {
+            if (patient.getClientId() != null) {
+                ownerIds.add(patient.getClientId());
             }
-        } catch (Exception e) {
-            dto.setPatientName("Unknown Patient");
-            dto.setPatientSpecies("Unknown");
-            dto.setOwnerName("Unknown Owner");
-        }
-
-        return dto;
-    }
-
-    private PatientReportDTO convertToPatientReportDTO(PatientClient.PatientResponseDTO patient) {
-        PatientReportDTO dto = new PatientReportDTO();
-        dto.setPatientId(patient.getId());
-        dto.setPatientName(patient.getName());
-        dto.setSpecies(patient.getSpecies());
-        dto.setBreed(patient.getBreed());
-        dto.setAge(patient.getAge());
-        dto.setWeight(patient.getWeight());
-        dto.setRegistrationDate(patient.getCreatedAt());
-
-        // Obtener datos del propietario
-        try {
-            if (patient.getOwnerId() != null) {
-                ClientClient.ClientResponseDTO owner = clientClient.getClientById(patient.getOwnerId());
-                dto.setOwnerName(owner.getFullName());
-                dto.setOwnerDocument(owner.getDocument());
-                dto.setOwnerPhone(owner.getPhone());
-                dto.setOwnerEmail(owner.getEmail());
+        });
+        Map<Long, ClientClient.ClientSnapshot> owners = new HashMap<>();
+        if (!ownerIds.isEmpty()) {
+            try {
+                clientClient.getClientsByIds(new ArrayList<>(ownerIds)).getData()
+                        .forEach(owner -> owners.put(owner.getId(), owner));
+            } catch (Exception e) {
+                // Sin propietarios, las filas salen como "Unknown Owner"
             }
+        }
 
-            // Obtener estadísticas del paciente
-            List<AppointmentClient.AppointmentResponseDTO> appointments =
-                    appointmentClient.getAppointmentsByPatient(patient.getId());
-            dto.setTotalAppointments((long) appointments.size());
-
-            if (!appointments.isEmpty()) {
-                dto.setLastVisit(appointments.get(0).getAppointmentDate());
+        List<AppointmentReportDTO> rows = new ArrayList<>(appointments.size());
+        for (AppointmentClient.AppointmentResponseDTO appointment : appointments) {
+            AppointmentReportDTO dto = new AppointmentReportDTO();
+            dto.setAppointmentId(appointment.getId());
+            dto.setAppointmentDate(appointment.getAppointmentDate());
+            dto.setStatus(appointment.getStatus());
+            dto.setAppointmentType(appointment.getAppointmentType());
+            dto.setObservations(appointment.getObservations());
+            dto.setVeterinarianName(appointment.getVeterinarianName());
+
+            PatientClient.PatientSnapshot patient = patients.get(appointment.getPatientId());
+            if (patient != null) {
+                dto.setPatientName(patient.getName());
+                dto.setPatientSpecies(patient.getSpecies());
+                ClientClient.ClientSnapshot owner = patient.getClientId() != null ? owners.get(patient.getClientId()) : null;
+                dto.setOwnerName(owner != null ? owner.getFullName() : "Unknown Owner");
+            } else {
+                dto.setPatientName("Unknown Patient");
+                dto.setPatientSpecies("Unknown");
+                dto.setOwnerName("Unknown Owner");
             }
-
-        } catch (Exception e) {
-            dto.setOwnerName("Unknown Owner");
-            dto.setTotalAppointments(0L);
+            rows.add(dto);
         }
-
-        return dto;
+        return rows;
     }
 
-    private FinancialReportDTO generateFinancialReport(List<AppointmentClient.AppointmentResponseDTO> appointments,
-                                                       LocalDate startDate, LocalDate endDate) {
-        FinancialReportDTO report = new FinancialReportDTO(startDate, endDate);
-
-        report.setTotalAppointments((long) appointments.size());
-
-        // Valores simulados para el reporte financiero
-        BigDecimal basePrice = new BigDecimal("50.00");
-        BigDecimal totalRevenue = basePrice.multiply(new BigDecimal(appointments.size()));
-        report.setTotalRevenue(totalRevenue);
-
-        if (appointments.size() > 0) {
-            report.setAverageAppointmentValue(totalRevenue.divide(new BigDecimal(appointments.size())));
-        } else {
-            report.setAverageAppointmentValue(BigDecimal.ZERO);
+    private Map<Long, PatientClient.PatientSnapshot> patientsByIds(Set<Long> patientIds) {
+        Map<Long, PatientClient.PatientSnapshot> patients = new HashMap<>();
+        List<Long> ids = new ArrayList<>(patientIds);
+        for (int from = 0; from < ids.size(); from += PatientClient.MAX_BATCH_IDS) {
+            List<Long> batch = ids.subList(from, Math.min(from + PatientClient.MAX_BATCH_IDS, ids.size()));
+            try {
+                patientClient.getPatientsByIds(batch).getData()
+                        .forEach(patient -> patients.put(patient.getId(), patient));
+            } catch (Exception e) {
+                // Los pacientes del bloque quedan como "Unknown Patient"
+            }
         }
-
-        // Agrupar por tipo de cita
-        Map<String, Long> appointmentsByType = appointments.stream()
-                .collect(Collectors.groupingBy(
-                        appointment -> appointment.getAppointmentType() != null ?
-                                appointment.getAppointmentType() : "General",
-                        Collectors.counting()
-                ));
-        report.setAppointmentsByType(appointmentsByType);
-
-        // Ingresos por veterinario (simulado)
-        Map<String, BigDecimal> revenueByVet = appointments.stream()
-                .collect(Collectors.groupingBy(
-                        appointment -> appointment.getVeterinarianName() != null ?
-                                appointment.getVeterinarianName() : "Unknown",
-                        Collectors.collectingAndThen(
-                                Collectors.counting(),
-                                count -> basePrice.multiply(new BigDecimal(count))
-                        )
-                ));
-        report.setRevenueByVeterinarian(revenueByVet);
-
-        // Ingresos diarios
-        Map<LocalDate, BigDecimal> dailyRevenue = appointments.stream()
-                .collect(Collectors.groupingBy(
-                        appointment -> appointment.getAppointmentDate().toLocalDate(),
-                        Collectors.collectingAndThen(
-                                Collectors.counting(),
-                                count -> basePrice.multiply(new BigDecimal(count))
-                        )
-                ));
-        report.setDailyRevenue(dailyRevenue);
-
-        return report;
+        return patients;
     }
 
     private Map<String, Long> getAppointmentsByStatus() {
-        try {
-            List<AppointmentClient.AppointmentResponseDTO> appointments = appointmentClient.getAllAppointments();
-            return appointments.stream()
-                    .collect(Collectors.groupingBy(
-                            appointment -> appointment.getStatus() != null ? appointment.getStatus() : "Unknown",
-                            Collectors.counting()
-                    ));
-        } catch (Exception e) {
-            return new HashMap<>();
-        }
+        return toMap(appointmentClient.getAppointmentAggregates("status", null, null).getData());
     }
 
     private Map<String, Long> getPatientsBySpecies() {
-        try {
-            List<PatientClient.SpeciesStatisticsDTO> stats = patientClient.getPatientsBySpeciesStatistics();
-            return stats.stream()
-                    .collect(Collectors.toMap(
-                            PatientClient.SpeciesStatisticsDTO::getSpecies,
-                            PatientClient.SpeciesStatisticsDTO::getCount
-                    ));
-        } catch (Exception e) {
-            return new HashMap<>();
-        }
+        List<PatientClient.SpeciesStatisticsDTO> stats = patientClient.getPatientsBySpeciesStatistics();
+        return stats.stream()
+                .collect(Collectors.toMap(
+                        PatientClient.SpeciesStatisticsDTO::getSpecies,
+                        PatientClient.SpeciesStatisticsDTO::getCount
+                ));
     }
 
     private Map<LocalDate, Long> getAppointmentsTrend() {
-        try {
-            LocalDateTime endDate = LocalDateTime.now();
-            LocalDateTime startDate = endDate.minus(30, ChronoUnit.DAYS);
-
-            List<AppointmentClient.AppointmentResponseDTO> appointments =
-                    appointmentClient.getAppointmentsByDateRange(startDate, endDate);
+        LocalDate endDate = LocalDate.now();
+        return getAppointmentsTrend(endDate.minus(30, ChronoUnit.DAYS), endDate);
+    }
 
-            return appointments.stream()
-                    .collect(Collectors.groupingBy(
-                            appointment -> appointment.getAppointmentDate().toLocalDate(),
-                            Collectors.counting()
-                    ));
-        } catch (Exception e) {
-            return new HashMap<>();
+    private Map<String, Long> getPrescriptionsByVeterinarian() {
+        Map<String, Long> byVeterinarian = new HashMap<>();
+        for (PrescriptionClient.AggregateBucketDTO bucket : prescriptionClient.getPrescriptionAggregates("veterinarian", null, null)) {
+            byVeterinarian.merge(veterinarianName(bucket.getKey()), bucket.getCount(), Long::sum);
         }
+        return byVeterinarian;
     }
 
-    private Map<String, Long> getPrescriptionsByVeterinarian() {
+    // Un nombre por grupo, no por receta
+    private String veterinarianName(String veterinarianId) {
         try {
-            List<PrescriptionClient.PrescriptionResponseDTO> prescriptions = prescriptionClient.getAllPrescriptions();
-            return prescriptions.stream()
-                    .collect(Collectors.groupingBy(
-                            prescription -> prescription.getVeterinarianName() != null ?
-                                    prescription.getVeterinarianName() : "Unknown",
-                            Collectors.counting()
-                    ));
+            UserClient.UserResponseDTO veterinarian = userClient.getUserById(Long.valueOf(veterinarianId));
+            return veterinarian.getFullName();
         } catch (Exception e) {
-            return new HashMap<>();
+            return "Unknown";
         }
     }
 
+    private Map<String, Long> toMap(List<AppointmentClient.AggregateBucketDTO> buckets) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        buckets.forEach(bucket -> counts.put(bucket.getKey(), bucket.getCount()));
+        return counts;
+    }
+
     private void saveReportHistory(String reportType, Long userId, LocalDate startDate,
                                    LocalDate endDate, String format, int recordCount) {
         ReportHistory history = new ReportHistory(reportType, userId, format);
         history.setStartDate(startDate);
         history.setEndDate(endDate);
         history.setFileName(generateFileName(reportType, format));
-        history.setFileSize((long) (recordCount * 100)); // Estimación simple
+        // Las respuestas síncronas no dejan fichero: se guarda el número de registros, no un tamaño estimado
+        history.setParameters("{\"recordCount\": " + recordCount + "}");
 
         reportHistoryRepository.save(history);
     }
@@ -324,4 +405,8 @@ public class ReportService {
         String timestamp = LocalDateTime.now().toString().replace(":", "-");
         return reportType.toLowerCase() + "_" + timestamp + "." + format.toLowerCase();
     }
-}
\ No newline at end of file
+
+    public interface RowsWriter<T> {
+        void write(Iterable<T> rows) throws IOException;
+    }
+}
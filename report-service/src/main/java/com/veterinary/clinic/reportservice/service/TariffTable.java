@@ -0,0 +1,101 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.client.AppointmentClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tarifas de appointment_types en memoria. Se piden a appointment-service
+ * como mucho una vez por periodo de validez; si la recarga falla se sigue
+ * con la copia anterior, y sin ninguna copia se aplica el precio por
+ * defecto a todas las citas.
+ */
+@Component
+public class TariffTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TariffTable.class);
+
+    // Sin tarifas cargadas no se reintenta en cada reporte
+    static final long RETRY_MILLIS = 30000;
+
+    @Autowired
+    private AppointmentClient appointmentClient;
+
+    // Citas sin tipo, de un tipo desconocido o de un tipo sin base_price
+    @Value("${reports.financial.default-price:50.00}")
+    private BigDecimal defaultPrice = new BigDecimal("50.00");
+
+    @Value("${reports.financial.tariff-ttl-ms:600000}")
+    private long ttlMillis = 600000;
+
+    private volatile Tariffs tariffs;
+    private volatile long refreshAt;
+
+    public Tariffs current() {
+        Tariffs loaded = tariffs;
+        if (loaded == null || System.currentTimeMillis() >= refreshAt) {
+            loaded = refresh();
+        }
+        return loaded;
+    }
+
+    private synchronized Tariffs refresh() {
+        long now = System.currentTimeMillis();
+        if (tariffs != null && now < refreshAt) {
+            return tariffs;
+        }
+        try {
+            List<AppointmentClient.AppointmentTypeDTO> types = appointmentClient.getAppointmentTypes().getData();
+            Map<Long, AppointmentClient.AppointmentTypeDTO> byId = new HashMap<>();
+            if (types != null) {
+                types.forEach(type -> byId.put(type.getId(), type));
+            }
+            tariffs = new Tariffs(byId, defaultPrice);
+            refreshAt = now + ttlMillis;
+        } catch (Exception e) {
+            logger.warn("Could not load appointment tariffs: {}", e.getMessage());
+            if (tariffs == null) {
+                tariffs = new Tariffs(Collections.emptyMap(), defaultPrice);
+            }
+            refreshAt = now + Math.min(RETRY_MILLIS, ttlMillis);
+        }
+        return tariffs;
+    }
+
+    /**
+     * Copia inmutable de las tarifas: un reporte usa la misma de principio a
+     * fin aunque la tabla se recargue mientras se calcula.
+     */
+    public static final class Tariffs {
+
+        private final Map<Long, AppointmentClient.AppointmentTypeDTO> types;
+        private final BigDecimal defaultPrice;
+
+        public Tariffs(Map<Long, AppointmentClient.AppointmentTypeDTO> types, BigDecimal defaultPrice) {
+            this.types = Map.copyOf(types);
+            this.defaultPrice = defaultPrice;
+        }
+
+        public BigDecimal priceOf(Long appointmentTypeId) {
+            AppointmentClient.AppointmentTypeDTO type = appointmentTypeId != null ? types.get(appointmentTypeId) : null;
+            return type != null && type.getBasePrice() != null ? type.getBasePrice() : defaultPrice;
+        }
+
+        public String nameOf(Long appointmentTypeId) {
+            if (appointmentTypeId == null) {
+                return "General";
+            }
+            AppointmentClient.AppointmentTypeDTO type = types.get(appointmentTypeId);
+            return type != null && type.getName() != null ? type.getName() : "Tipo " + appointmentTypeId;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.veterinary.clinic.reportservice.config;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadModelFeignConfigTests {
+
+    private static final String SECRET = "report-service-test-secret-with-at-least-256-bits!!";
+
+    private final RequestInterceptor interceptor = interceptor();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testChangeFeedWithoutCallerGetsServiceRoleOnly() {
+        RequestTemplate template = request("/patients/changes");
+
+        interceptor.apply(template);
+
+        String token = bearer(template);
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build().parseClaimsJws(token).getBody();
+        assertEquals(List.of("REPORT_SYNC"), claims.get("roles"));
+    }
+
+    @Test
+    void testOtherCallsWithoutCallerAreNotSigned() {
+        RequestTemplate template = request("/patients/batch");
+
+        interceptor.apply(template);
+
+        assertFalse(template.headers().containsKey("Authorization"));
+    }
+
+    @Test
+    void testCallerTokenIsForwarded() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "recepcion", "caller-token", List.of(new SimpleGrantedAuthority("ROLE_RECEPCIONISTA"))));
+
+        RequestTemplate batch = request("/clients/batch");
+        RequestTemplate changes = request("/clients/changes");
+        interceptor.apply(batch);
+        interceptor.apply(changes);
+
+        assertEquals("caller-token", bearer(batch));
+        assertEquals("caller-token", bearer(changes));
+    }
+
+    private static RequestInterceptor interceptor() {
+        ReadModelFeignConfig config = new ReadModelFeignConfig();
+        ReflectionTestUtils.setField(config, "serviceJwtSecret", SECRET);
+        return config.serviceTokenInterceptor();
+    }
+
+    private static RequestTemplate request(String path) {
+        RequestTemplate template = new RequestTemplate();
+        template.uri(path);
+        return template;
+    }
+
+    private static String bearer(RequestTemplate template) {
+        String header = template.headers().get("Authorization").iterator().next();
+        assertTrue(header.startsWith("Bearer "));
+        return header.substring(7);
+    }
+}
@@ -0,0 +1,84 @@
+package com.veterinary.clinic.reportservice.repository;
+
+import com.veterinary.clinic.reportservice.entity.ReportAppointment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Las citas canceladas y las no presentadas no se cobran: no cuentan ni en
+ * el reporte financiero ni en los ingresos de business_metrics.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ReportAppointmentRepositoryTests {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    @Configuration
+    @EntityScan(basePackageClasses = ReportAppointment.class)
+    @EnableJpaRepositories(basePackageClasses = ReportAppointmentRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = ReportAppointmentRepository.class))
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReportAppointmentRepository reportAppointmentRepository;
+
+    @BeforeEach
+    void setUp() {
+        persist(1L, "COMPLETED");
+        persist(2L, "SCHEDULED");
+        persist(3L, "CANCELLED");
+        persist(4L, "NO_SHOW");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testCancelledAndNoShowAppointmentsAreNotCharged() {
+        List<Object[]> charges = reportAppointmentRepository.aggregateCharges(DAY, DAY);
+
+        assertEquals(1, charges.size());
+        assertEquals(DAY, charges.get(0)[0]);
+        assertEquals(1L, charges.get(0)[1]);
+        assertEquals(2L, ((Number) charges.get(0)[3]).longValue());
+    }
+
+    @Test
+    void testCancelledAndNoShowAppointmentsAddNoRevenue() {
+        List<Object[]> counts = reportAppointmentRepository.countGroupByDayAndType(List.of(DAY));
+
+        assertEquals(1, counts.size());
+        assertEquals(2L, ((Number) counts.get(0)[2]).longValue());
+    }
+
+    private void persist(long id, String status) {
+        ReportAppointment appointment = new ReportAppointment();
+        appointment.setId(id);
+        appointment.setPatientId(10L + id);
+        appointment.setVeterinarianId(7L);
+        appointment.setAppointmentTypeId(1L);
+        appointment.setAppointmentDate(DAY);
+        appointment.setAppointmentTime(LocalTime.of(9, 0).plusHours(id));
+        appointment.setStatus(status);
+        appointment.setSourceVersion(id);
+        entityManager.persist(appointment);
+    }
+}
@@ -0,0 +1,205 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.client.AppointmentClient;
+import com.veterinary.clinic.reportservice.entity.BusinessMetric;
+import com.veterinary.clinic.reportservice.entity.MetricsDirtyDay;
+import com.veterinary.clinic.reportservice.repository.BusinessMetricRepository;
+import com.veterinary.clinic.reportservice.repository.MetricsDirtyDayRepository;
+import com.veterinary.clinic.reportservice.repository.ReportAppointmentRepository;
+import com.veterinary.clinic.reportservice.repository.ReportClientRepository;
+import com.veterinary.clinic.reportservice.repository.ReportPatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BusinessMetricsRollupTests {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2024, 3, 4);
+    private static final LocalDate DAY_2 = LocalDate.of(2024, 3, 5);
+    private static final LocalDate DAY_3 = LocalDate.of(2024, 3, 6);
+
+    @Mock
+    private BusinessMetricRepository businessMetricRepository;
+
+    @Mock
+    private MetricsDirtyDayRepository metricsDirtyDayRepository;
+
+    @Mock
+    private ReportAppointmentRepository reportAppointmentRepository;
+
+    @Mock
+    private ReportPatientRepository reportPatientRepository;
+
+    @Mock
+    private ReportClientRepository reportClientRepository;
+
+    @Mock
+    private TariffTable tariffTable;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private BusinessMetricsRollup rollup;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(rollup, "metricsRollupExecutor", executor);
+        ReflectionTestUtils.setField(rollup, "chunkDays", 2);
+        when(reportAppointmentRepository.summarizeByDay(anyCollection())).thenReturn(List.of());
+        when(reportAppointmentRepository.countGroupByDayAndType(anyCollection())).thenReturn(List.of());
+        when(tariffTable.current()).thenReturn(new TariffTable.Tariffs(Map.of(1L, type(1L, "80.00")), new BigDecimal("50.00")));
+        when(reportPatientRepository.countGroupByRegistrationDate(anyCollection())).thenReturn(List.of());
+        when(reportClientRepository.countGroupByRegistrationDate(anyCollection())).thenReturn(List.of());
+        when(businessMetricRepository.findByMetricDateIn(anyCollection())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testOnlyDirtyDaysAreRecomputedInChunks() {
+        when(metricsDirtyDayRepository.findAllByOrderByMetricDateAsc())
+                .thenReturn(List.of(mark(DAY_1, 1L), mark(DAY_2, 3L), mark(DAY_3, 1L)));
+        when(reportAppointmentRepository.summarizeByDay(List.of(DAY_1, DAY_2))).thenReturn(List.<Object[]>of(
+                new Object[]{DAY_1, 4L, 2L, 1L},
+                new Object[]{DAY_2, 2L, 2L, 0L}));
+        // Día 1: una cita del tipo 1 a 80.00 y tres sin tipo a 50.00
+        when(reportAppointmentRepository.countGroupByDayAndType(List.of(DAY_1, DAY_2))).thenReturn(List.<Object[]>of(
+                new Object[]{DAY_1, 1L, 1L},
+                new Object[]{DAY_1, null, 3L},
+                new Object[]{DAY_2, null, 2L}));
+        when(reportPatientRepository.countGroupByRegistrationDate(List.of(DAY_1, DAY_2)))
+                .thenReturn(List.<Object[]>of(new Object[]{DAY_2, 3L}));
+        when(reportClientRepository.countGroupByRegistrationDate(List.of(DAY_1, DAY_2)))
+                .thenReturn(List.<Object[]>of(new Object[]{DAY_1, 1L}));
+
+        assertEquals(3, rollup.rollUpDirtyDays());
+
+        // Dos tramos: [día 1, día 2] y [día 3]
+        verify(reportAppointmentRepository).summarizeByDay(List.of(DAY_1, DAY_2));
+        verify(reportAppointmentRepository).summarizeByDay(List.of(DAY_3));
+
+        ArgumentCaptor<Iterable<BusinessMetric>> saved = ArgumentCaptor.forClass(Iterable.class);
+        verify(businessMetricRepository, times(2)).saveAll(saved.capture());
+        List<BusinessMetric> metrics = new ArrayList<>();
+        saved.getAllValues().forEach(batch -> batch.forEach(metrics::add));
+        // El día 3 no tuvo actividad y no tenía fila: no se crea
+        assertEquals(2, metrics.size());
+        BusinessMetric first = metrics.stream().filter(m -> m.getMetricDate().equals(DAY_1)).findFirst().orElseThrow();
+        assertEquals(4, first.getTotalAppointments());
+        assertEquals(2, first.getCompletedAppointments());
+        assertEquals(1, first.getCancelledAppointments());
+        assertEquals(1, first.getNewClients());
+        assertEquals(0, first.getNewPatients());
+        assertEquals(new BigDecimal("230.00"), first.getAppointmentRevenue());
+        assertEquals(new BigDecimal("230.00"), first.getTotalRevenue());
+
+        // Solo se borra la marca si no ha cambiado desde que se leyó
+        verify(metricsDirtyDayRepository).deleteIfUnchanged(DAY_1, 1L);
+        verify(metricsDirtyDayRepository).deleteIfUnchanged(DAY_2, 3L);
+        verify(metricsDirtyDayRepository).deleteIfUnchanged(DAY_3, 1L);
+    }
+
+    @Test
+    void testExistingRowIsZeroedWhenItsActivityMovesAway() {
+        BusinessMetric existing = new BusinessMetric(DAY_1);
+        existing.setTotalAppointments(3);
+        existing.setAppointmentRevenue(new BigDecimal("150.00"));
+        existing.setMedicationRevenue(new BigDecimal("40.00"));
+        when(metricsDirtyDayRepository.findAllByOrderByMetricDateAsc()).thenReturn(List.of(mark(DAY_1, 1L)));
+        when(businessMetricRepository.findByMetricDateIn(List.of(DAY_1))).thenReturn(List.of(existing));
+
+        rollup.rollUpDirtyDays();
+
+        assertEquals(0, existing.getTotalAppointments());
+        assertEquals(new BigDecimal("0.00"), existing.getAppointmentRevenue());
+        assertEquals(new BigDecimal("40.00"), existing.getTotalRevenue());
+        verify(businessMetricRepository).saveAll(List.of(existing));
+    }
+
+    @Test
+    void testFailedChunkKeepsItsDaysPending() {
+        when(metricsDirtyDayRepository.findAllByOrderByMetricDateAsc())
+                .thenReturn(List.of(mark(DAY_1, 1L), mark(DAY_2, 1L), mark(DAY_3, 1L)));
+        when(reportAppointmentRepository.summarizeByDay(List.of(DAY_3)))
+                .thenThrow(new IllegalStateException("lock wait timeout"));
+
+        assertEquals(2, rollup.rollUpDirtyDays());
+
+        verify(metricsDirtyDayRepository).deleteIfUnchanged(DAY_1, 1L);
+        verify(metricsDirtyDayRepository, never()).deleteIfUnchanged(eq(DAY_3), anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMarkDirtyIncrementsExistingMarks() {
+        when(metricsDirtyDayRepository.findAllById(anyIterable())).thenReturn(List.of(mark(DAY_1, 2L)));
+
+        rollup.markDirty(List.of(DAY_1, DAY_2));
+
+        ArgumentCaptor<Collection<MetricsDirtyDay>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(metricsDirtyDayRepository).saveAll(saved.capture());
+        Map<LocalDate, Long> marks = new HashMap<>();
+        saved.getValue().forEach(mark -> marks.put(mark.getMetricDate(), mark.getMarkCount()));
+        assertEquals(Map.of(DAY_1, 3L, DAY_2, 1L), marks);
+    }
+
+    @Test
+    void testTrendSkipsDaysWithoutAppointments() {
+        BusinessMetric busy = new BusinessMetric(DAY_1);
+        busy.setTotalAppointments(5);
+        BusinessMetric quiet = new BusinessMetric(DAY_2);
+        when(businessMetricRepository.findByMetricDateBetweenOrderByMetricDateAsc(DAY_1, DAY_3))
+                .thenReturn(List.of(busy, quiet));
+
+        assertEquals(Map.of(DAY_1, 5L), rollup.appointmentsTrend(DAY_1, DAY_3));
+    }
+
+    @Test
+    void testRebuildRejectsInvalidRanges() {
+        assertThrows(RuntimeException.class, () -> rollup.rebuild(DAY_2, DAY_1));
+        assertThrows(RuntimeException.class, () -> rollup.rebuild(DAY_1, DAY_1.plusDays(BusinessMetricsRollup.MAX_REBUILD_DAYS)));
+        verifyNoInteractions(metricsDirtyDayRepository);
+    }
+
+    private static AppointmentClient.AppointmentTypeDTO type(Long id, String basePrice) {
+        AppointmentClient.AppointmentTypeDTO type = new AppointmentClient.AppointmentTypeDTO();
+        type.setId(id);
+        type.setBasePrice(new BigDecimal(basePrice));
+        return type;
+    }
+
+    private static MetricsDirtyDay mark(LocalDate day, Long markCount) {
+        MetricsDirtyDay mark = new MetricsDirtyDay(day);
+        mark.setMarkCount(markCount);
+        return mark;
+    }
+}
@@ -0,0 +1,32 @@
+package com.veterinary.clinic.reportservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedRowsTests {
+
+    @Test
+    void testChunksAreConvertedOnlyWhenReached() {
+        List<List<Integer>> converted = new ArrayList<>();
+        Iterable<String> rows = ChunkedRows.of(List.of(1, 2, 3, 4, 5), 2, chunk -> {
+            converted.add(chunk);
+            return chunk.stream().map(String::valueOf).collect(Collectors.toList());
+        });
+
+        Iterator<String> iterator = rows.iterator();
+        assertEquals("1", iterator.next());
+        assertEquals("2", iterator.next());
+        assertEquals(List.of(List.of(1, 2)), converted);
+
+        List<String> rest = new ArrayList<>();
+        iterator.forEachRemaining(rest::add);
+        assertEquals(List.of("3", "4", "5"), rest);
+        assertEquals(3, converted.size());
+    }
+}
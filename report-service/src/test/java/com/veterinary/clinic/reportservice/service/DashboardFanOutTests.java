@@ -0,0 +1,184 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.client.AppointmentClient;
+import com.veterinary.clinic.reportservice.client.PatientClient;
+import com.veterinary.clinic.reportservice.client.PrescriptionClient;
+import com.veterinary.clinic.reportservice.client.UserClient;
+import com.veterinary.clinic.reportservice.config.DashboardExecutorConfig;
+import com.veterinary.clinic.reportservice.dto.DashboardMetricsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Servicios remotos simulados con latencia fija para medir el dashboard:
+ * la latencia total debe ser la de la llamada más lenta, no la suma.
+ */
+class DashboardFanOutTests {
+
+    private static final long CALL_LATENCY_MS = 100;
+
+    @Mock
+    private PatientClient patientClient;
+
+    @Mock
+    private UserClient userClient;
+
+    @Mock
+    private PrescriptionClient prescriptionClient;
+
+    @Mock
+    private AppointmentClient appointmentClient;
+
+    // Sin modelo de lectura al día: el dashboard llama a los servicios
+    @Mock
+    private ReadModelSyncService readModelSyncService;
+
+    @InjectMocks
+    private ReportService reportService;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = new DashboardExecutorConfig().dashboardExecutor(16, 256);
+        ReflectionTestUtils.setField(reportService, "dashboardExecutor", executor);
+        ReflectionTestUtils.setField(reportService, "dashboardCallTimeoutMillis", 500L);
+        ReflectionTestUtils.setField(reportService, "dashboardDeadlineMillis", 800L);
+
+        when(patientClient.getTotalPatientsCount()).thenAnswer(delayed(120L));
+        when(patientClient.getNewPatientsThisMonthCount()).thenAnswer(delayed(7L));
+        when(patientClient.getPatientsBySpeciesStatistics()).thenAnswer(delayed(List.of()));
+        when(userClient.getTotalUsersCount()).thenAnswer(delayed(12L));
+        when(prescriptionClient.getTotalPrescriptionsCount()).thenAnswer(delayed(300L));
+        when(prescriptionClient.getPrescriptionAggregates("veterinarian", null, null))
+                .thenAnswer(delayed(List.of(prescriptionBucket("7", 4L), prescriptionBucket("8", 2L))));
+        when(userClient.getUserById(7L)).thenReturn(veterinarian("Ana", "Pérez"));
+        when(userClient.getUserById(8L)).thenThrow(new IllegalStateException("user not found"));
+        when(appointmentClient.getTodayAppointmentsCount()).thenAnswer(delayed(5L));
+        when(appointmentClient.getWeekAppointmentsCount()).thenAnswer(delayed(30L));
+        when(appointmentClient.getMonthAppointmentsCount()).thenAnswer(delayed(110L));
+        when(appointmentClient.getAppointmentAggregates(eq("status"), any(), any()))
+                .thenAnswer(delayed(appointmentAggregates(appointmentBucket("SCHEDULED", 9L), appointmentBucket("COMPLETED", 3L))));
+        when(appointmentClient.getAppointmentAggregates(eq("day"), any(), any()))
+                .thenAnswer(delayed(appointmentAggregates(appointmentBucket(LocalDate.now().toString(), 5L))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testCallsRunConcurrently() {
+        long start = System.nanoTime();
+        DashboardMetricsDTO metrics = reportService.getDashboardMetrics();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("dashboard, 11 calls x %d ms: %d ms (sequential: ~%d ms)%n",
+                CALL_LATENCY_MS, elapsedMillis, 11 * CALL_LATENCY_MS);
+        assertFalse(metrics.isPartial());
+        assertEquals(120L, metrics.getTotalPatients());
+        assertEquals(120L, metrics.getActivePatients());
+        assertEquals(110L, metrics.getThisMonthAppointments());
+        assertEquals(12, metrics.getSectionStatus().size());
+        assertEquals(Map.of("SCHEDULED", 9L, "COMPLETED", 3L), metrics.getAppointmentsByStatus());
+        assertEquals(Map.of(LocalDate.now(), 5L), metrics.getAppointmentsTrend());
+        assertEquals(Map.of("Ana Pérez", 4L, "Unknown", 2L), metrics.getPrescriptionsByVeterinarian());
+        assertTrue(elapsedMillis < 5 * CALL_LATENCY_MS, "dashboard took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void testSlowAndFailingServicesYieldPartialMetrics() {
+        when(userClient.getTotalUsersCount()).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return 12L;
+        });
+        when(prescriptionClient.getPrescriptionAggregates("veterinarian", null, null))
+                .thenThrow(new IllegalStateException("prescription-service down"));
+
+        long start = System.nanoTime();
+        DashboardMetricsDTO metrics = reportService.getDashboardMetrics();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("dashboard with one 5000 ms service and one failing service: %d ms%n", elapsedMillis);
+        assertTrue(metrics.isPartial());
+        assertEquals(DashboardFanOut.TIMEOUT, metrics.getSectionStatus().get("totalUsers"));
+        assertEquals(DashboardFanOut.ERROR, metrics.getSectionStatus().get("prescriptionsByVeterinarian"));
+        assertEquals(DashboardFanOut.OK, metrics.getSectionStatus().get("totalPatients"));
+        assertNull(metrics.getTotalUsers());
+        assertEquals(300L, metrics.getTotalPrescriptions());
+        assertTrue(elapsedMillis < 800 + CALL_LATENCY_MS, "dashboard took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void testGlobalDeadlineBoundsTheWholeDashboard() {
+        ReflectionTestUtils.setField(reportService, "dashboardCallTimeoutMillis", 10_000L);
+        ReflectionTestUtils.setField(reportService, "dashboardDeadlineMillis", 300L);
+        Answer<Object> slow = invocation -> {
+            Thread.sleep(2_000);
+            return 1L;
+        };
+        when(appointmentClient.getTodayAppointmentsCount()).thenAnswer(slow);
+        when(appointmentClient.getWeekAppointmentsCount()).thenAnswer(slow);
+
+        long start = System.nanoTime();
+        DashboardMetricsDTO metrics = reportService.getDashboardMetrics();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(DashboardFanOut.TIMEOUT, metrics.getSectionStatus().get("todayAppointments"));
+        assertEquals(DashboardFanOut.TIMEOUT, metrics.getSectionStatus().get("thisWeekAppointments"));
+        assertEquals(DashboardFanOut.OK, metrics.getSectionStatus().get("thisMonthAppointments"));
+        assertTrue(elapsedMillis < 300 + CALL_LATENCY_MS, "dashboard took " + elapsedMillis + " ms");
+    }
+
+    private static AppointmentClient.AggregateResponse appointmentAggregates(AppointmentClient.AggregateBucketDTO... buckets) {
+        AppointmentClient.AggregateResponse response = new AppointmentClient.AggregateResponse();
+        response.setData(List.of(buckets));
+        return response;
+    }
+
+    private static AppointmentClient.AggregateBucketDTO appointmentBucket(String key, Long count) {
+        AppointmentClient.AggregateBucketDTO bucket = new AppointmentClient.AggregateBucketDTO();
+        bucket.setKey(key);
+        bucket.setCount(count);
+        return bucket;
+    }
+
+    private static PrescriptionClient.AggregateBucketDTO prescriptionBucket(String key, Long count) {
+        PrescriptionClient.AggregateBucketDTO bucket = new PrescriptionClient.AggregateBucketDTO();
+        bucket.setKey(key);
+        bucket.setCount(count);
+        return bucket;
+    }
+
+    private static UserClient.UserResponseDTO veterinarian(String firstName, String lastName) {
+        UserClient.UserResponseDTO user = new UserClient.UserResponseDTO();
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        return user;
+    }
+
+    private static Answer<Object> delayed(Object value) {
+        return invocation -> {
+            Thread.sleep(CALL_LATENCY_MS);
+            return value;
+        };
+    }
+}
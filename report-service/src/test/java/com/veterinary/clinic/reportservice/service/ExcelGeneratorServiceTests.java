@@ -0,0 +1,120 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.dto.AppointmentReportDTO;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExcelGeneratorServiceTests {
+
+    private final ExcelGeneratorService excelGeneratorService = new ExcelGeneratorService();
+
+    @Test
+    void testAppointmentWorkbookContentAndEstimatedWidths() throws Exception {
+        List<AppointmentReportDTO> appointments = List.of(
+                appointment(1L, "Firulais", "Control anual con vacunación antirrábica"),
+                appointment(2L, "Michi", null));
+
+        byte[] bytes = excelGeneratorService.generateAppointmentReportExcel(appointments);
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
+            Sheet sheet = workbook.getSheet("Reporte de Citas");
+            assertEquals(2, sheet.getLastRowNum());
+            assertEquals("ID Cita", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals(1.0, sheet.getRow(1).getCell(0).getNumericCellValue());
+            assertEquals("Firulais", sheet.getRow(1).getCell(1).getStringCellValue());
+            assertEquals("05/03/2024 10:30", sheet.getRow(1).getCell(5).getStringCellValue());
+            assertEquals("", sheet.getRow(2).getCell(8).getStringCellValue());
+            // Ancho estimado: texto más largo de la muestra + 2 caracteres
+            assertEquals(("Control anual con vacunación antirrábica".length() + 2) * 256, sheet.getColumnWidth(8));
+            assertEquals(("ID Cita".length() + 2) * 256, sheet.getColumnWidth(0));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "reports.benchmark", matches = "true")
+    void benchmarkMillionRowAppointmentExport() throws Exception {
+        int rows = 1_000_000;
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+
+        // Muestreo del heap mientras se escribe el libro
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        CountingOutputStream output = new CountingOutputStream();
+        long start = System.nanoTime();
+        excelGeneratorService.writeAppointmentReportExcel(generated(rows), output);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        running.set(false);
+        sampler.join();
+
+        System.out.printf("excel export, %d rows: %d ms, %.1f MB written, peak heap +%.1f MB%n",
+                rows, millis, output.count / 1048576.0, (peak.get() - baseline) / 1048576.0);
+        assertTrue(output.count > 0);
+    }
+
+    // Filas generadas al vuelo para que el heap medido sea solo el del libro
+    private static Iterable<AppointmentReportDTO> generated(int rows) {
+        return () -> new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < rows;
+            }
+
+            @Override
+            public AppointmentReportDTO next() {
+                next++;
+                return appointment((long) next, "Paciente " + next, "Observación de la cita " + next);
+            }
+        };
+    }
+
+    private static AppointmentReportDTO appointment(Long id, String patientName, String observations) {
+        return new AppointmentReportDTO(id, patientName, "Perro", "Juan Pérez", "Dra. Ana López",
+                LocalDateTime.of(2024, 3, 5, 10, 30), "COMPLETED", "CONSULTA", observations);
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
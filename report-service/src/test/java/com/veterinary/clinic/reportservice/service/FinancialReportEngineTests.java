@@ -0,0 +1,134 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.client.AppointmentClient;
+import com.veterinary.clinic.reportservice.dto.FinancialReportDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FinancialReportEngineTests {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2023, 1, 10);
+    private static final LocalDate DAY_2 = LocalDate.of(2023, 1, 11);
+    private static final LocalDate LATER = LocalDate.of(2024, 6, 1);
+
+    @Mock
+    private TariffTable tariffTable;
+
+    @InjectMocks
+    private FinancialReportEngine engine;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newFixedThreadPool(4);
+        ReflectionTestUtils.setField(engine, "metricsRollupExecutor", executor);
+        ReflectionTestUtils.setField(engine, "chunkDays", 30);
+        when(tariffTable.current()).thenReturn(new TariffTable.Tariffs(Map.of(
+                1L, type(1L, "Consulta General", "45.00"),
+                2L, type(2L, "Vacunación", "25.00"),
+                3L, type(3L, "Sin precio", null)), new BigDecimal("50.00")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testEachAppointmentIsPricedWithItsTariff() {
+        List<FinancialReportEngine.Charge> charges = List.of(
+                new FinancialReportEngine.Charge(DAY_1, 1L, 7L, 2),
+                new FinancialReportEngine.Charge(DAY_1, 2L, 8L, 1),
+                new FinancialReportEngine.Charge(DAY_2, null, 7L, 1),
+                new FinancialReportEngine.Charge(DAY_2, 3L, 8L, 1));
+
+        FinancialReportDTO report = engine.report(DAY_1, DAY_2, (from, to) -> charges.stream(),
+                ids -> Map.of(7L, "Dr. Ruiz"));
+
+        assertEquals(5L, report.getTotalAppointments());
+        // 2 x 45 + 25 + 50 (sin tipo) + 50 (tipo sin precio)
+        assertEquals(new BigDecimal("215.00"), report.getTotalRevenue());
+        assertEquals(new BigDecimal("43.00"), report.getAverageAppointmentValue());
+        assertEquals(Map.of("Consulta General", 2L, "Vacunación", 1L, "General", 1L, "Sin precio", 1L),
+                report.getAppointmentsByType());
+        assertEquals(Map.of("Dr. Ruiz", new BigDecimal("140.00"), "Unknown", new BigDecimal("75.00")),
+                report.getRevenueByVeterinarian());
+        assertEquals(Map.of(DAY_1, new BigDecimal("115.00"), DAY_2, new BigDecimal("100.00")), report.getDailyRevenue());
+    }
+
+    @Test
+    void testLongRangesAreSplitIntoChunksAndCombinedExactly() {
+        List<LocalDate[]> requested = Collections.synchronizedList(new ArrayList<>());
+        FinancialReportEngine.ChargeSource source = (from, to) -> {
+            requested.add(new LocalDate[]{from, to});
+            // Una cita del tipo 2 el primer día de cada tramo
+            return Stream.of(new FinancialReportEngine.Charge(from, 2L, 7L, 1));
+        };
+
+        FinancialReportDTO report = engine.report(DAY_1, LATER, source, ids -> Map.of());
+
+        int chunks = requested.size();
+        assertTrue(chunks > 1);
+        // Los tramos cubren el rango sin huecos ni solapes
+        requested.sort((a, b) -> a[0].compareTo(b[0]));
+        assertEquals(DAY_1, requested.get(0)[0]);
+        assertEquals(LATER, requested.get(chunks - 1)[1]);
+        for (int i = 1; i < chunks; i++) {
+            assertEquals(requested.get(i - 1)[1].plusDays(1), requested.get(i)[0]);
+        }
+        assertEquals((long) chunks, report.getTotalAppointments());
+        assertEquals(new BigDecimal("25.00").multiply(BigDecimal.valueOf(chunks)), report.getTotalRevenue());
+        assertEquals(chunks, report.getDailyRevenue().size());
+    }
+
+    @Test
+    void testFailedChunkFailsTheReport() {
+        FinancialReportEngine.ChargeSource source = (from, to) -> {
+            if (from.getYear() == 2024) {
+                throw new IllegalStateException("appointment-service down");
+            }
+            return Stream.empty();
+        };
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> engine.report(DAY_1, LATER, source, ids -> Map.of()));
+        assertTrue(error.getMessage().contains("appointment-service down"));
+    }
+
+    @Test
+    void testEmptyRangeHasZeroAverage() {
+        FinancialReportDTO report = engine.report(DAY_1, DAY_1, (from, to) -> Stream.empty(), ids -> Map.of());
+
+        assertEquals(0L, report.getTotalAppointments());
+        assertEquals(BigDecimal.ZERO, report.getAverageAppointmentValue());
+        assertThrows(RuntimeException.class, () -> engine.report(DAY_2, DAY_1, (from, to) -> Stream.empty(), ids -> Map.of()));
+    }
+
+    private static AppointmentClient.AppointmentTypeDTO type(Long id, String name, String basePrice) {
+        AppointmentClient.AppointmentTypeDTO type = new AppointmentClient.AppointmentTypeDTO();
+        type.setId(id);
+        type.setName(name);
+        type.setBasePrice(basePrice != null ? new BigDecimal(basePrice) : null);
+        return type;
+    }
+}
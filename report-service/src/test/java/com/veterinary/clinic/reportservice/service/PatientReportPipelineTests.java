@@ -0,0 +1,161 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.client.AppointmentClient;
+import com.veterinary.clinic.reportservice.client.ClientClient;
+import com.veterinary.clinic.reportservice.client.PatientClient;
+import com.veterinary.clinic.reportservice.dto.PatientReportDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PatientReportPipelineTests {
+
+    @Mock
+    private PatientClient patientClient;
+
+    @Mock
+    private ClientClient clientClient;
+
+    @Mock
+    private AppointmentClient appointmentClient;
+
+    @InjectMocks
+    private PatientReportPipeline pipeline;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newFixedThreadPool(4);
+        ReflectionTestUtils.setField(pipeline, "patientReportExecutor", executor);
+        ReflectionTestUtils.setField(pipeline, "chunkSize", 2);
+        ReflectionTestUtils.setField(pipeline, "parallelism", 2);
+
+        // Dos páginas de dos pacientes y una de uno; los pacientes pares son del cliente 10 y los impares del 11
+        when(patientClient.scrollPatients(isNull(), eq(2), eq("id"), eq("asc"), eq(true), eq(false)))
+                .thenReturn(page(true, "c1", 1L, 2L));
+        when(patientClient.scrollPatients(eq("c1"), eq(2), eq("id"), eq("asc"), eq(true), eq(false)))
+                .thenReturn(page(true, "c2", 3L, 4L));
+        when(patientClient.scrollPatients(eq("c2"), eq(2), eq("id"), eq("asc"), eq(true), eq(false)))
+                .thenReturn(page(false, null, 5L));
+        when(clientClient.getClientsByIds(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            ClientClient.ClientBatchResponse response = new ClientClient.ClientBatchResponse();
+            List<ClientClient.ClientSnapshot> owners = new ArrayList<>();
+            ids.forEach(id -> owners.add(owner(id)));
+            response.setData(owners);
+            return response;
+        });
+        when(appointmentClient.summarizeByPatients(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            AppointmentClient.PatientSummaryResponse response = new AppointmentClient.PatientSummaryResponse();
+            List<AppointmentClient.PatientAppointmentSummaryDTO> summaries = new ArrayList<>();
+            ids.forEach(id -> summaries.add(summary(id)));
+            response.setData(summaries);
+            return response;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testRowsComeOutInPageOrderWithOneBulkCallPerChunk() {
+        List<PatientReportDTO> rows = new ArrayList<>();
+        pipeline.rows().forEach(rows::add);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), rows.stream().map(PatientReportDTO::getPatientId).toList());
+        assertEquals("Owner 11", rows.get(0).getOwnerName());
+        assertEquals("Owner 10", rows.get(1).getOwnerName());
+        assertEquals(3L, rows.get(2).getTotalAppointments());
+        assertEquals(LocalDate.of(2024, 1, 4).atStartOfDay(), rows.get(3).getLastVisit());
+
+        verify(clientClient, times(2)).getClientsByIds(List.of(11L, 10L));
+        verify(clientClient).getClientsByIds(List.of(11L));
+        verify(appointmentClient).summarizeByPatients(List.of(5L));
+        verify(appointmentClient, times(3)).summarizeByPatients(anyList());
+        verify(patientClient, never()).getAllPatients();
+    }
+
+    @Test
+    void testPagesAreFetchedOnlyWhenThereIsRoomInFlight() {
+        Iterator<PatientReportDTO> rows = pipeline.rows().iterator();
+
+        assertTrue(rows.hasNext());
+        // Con dos bloques en vuelo, la tercera página aún no se ha pedido
+        verify(patientClient, never()).scrollPatients(eq("c2"), anyInt(), any(), any(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void testFailedOwnerLookupDegradesInsteadOfFailing() {
+        when(clientClient.getClientsByIds(anyList())).thenThrow(new IllegalStateException("client-service down"));
+
+        List<PatientReportDTO> rows = new ArrayList<>();
+        pipeline.rows().forEach(rows::add);
+
+        assertEquals(5, rows.size());
+        rows.forEach(row -> assertEquals("Unknown Owner", row.getOwnerName()));
+        assertEquals(5L, rows.get(4).getTotalAppointments());
+    }
+
+    @Test
+    void testFailedPageAbortsTheReport() {
+        when(patientClient.scrollPatients(eq("c2"), anyInt(), any(), any(), anyBoolean(), anyBoolean()))
+                .thenThrow(new IllegalStateException("patient-service down"));
+
+        Iterator<PatientReportDTO> rows = pipeline.rows().iterator();
+        assertThrows(RuntimeException.class, () -> rows.forEachRemaining(row -> { }));
+    }
+
+    private static PatientClient.PatientScrollResponse page(boolean hasNext, String nextCursor, Long... ids) {
+        List<PatientClient.PatientSnapshot> patients = new ArrayList<>();
+        for (Long id : ids) {
+            PatientClient.PatientSnapshot patient = new PatientClient.PatientSnapshot();
+            patient.setId(id);
+            patient.setName("Patient " + id);
+            patient.setClientId(id % 2 == 0 ? 10L : 11L);
+            patients.add(patient);
+        }
+        PatientClient.PatientPage page = new PatientClient.PatientPage();
+        page.setPatients(patients);
+        page.setHasNext(hasNext);
+        page.setNextCursor(nextCursor);
+        PatientClient.PatientScrollResponse response = new PatientClient.PatientScrollResponse();
+        response.setData(page);
+        return response;
+    }
+
+    private static ClientClient.ClientSnapshot owner(Long id) {
+        ClientClient.ClientSnapshot owner = new ClientClient.ClientSnapshot();
+        owner.setId(id);
+        owner.setFirstName("Owner");
+        owner.setLastName(String.valueOf(id));
+        return owner;
+    }
+
+    private static AppointmentClient.PatientAppointmentSummaryDTO summary(Long patientId) {
+        AppointmentClient.PatientAppointmentSummaryDTO summary = new AppointmentClient.PatientAppointmentSummaryDTO();
+        summary.setPatientId(patientId);
+        summary.setTotalAppointments(patientId);
+        summary.setLastVisitDate(LocalDate.of(2024, 1, patientId.intValue()));
+        return summary;
+    }
+}
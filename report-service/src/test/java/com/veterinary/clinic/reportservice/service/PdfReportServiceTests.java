@@ -0,0 +1,112 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import com.veterinary.clinic.reportservice.dto.AppointmentReportDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfReportServiceTests {
+
+    private final PdfReportService pdfReportService = new PdfReportService();
+
+    @Test
+    void testChunkedTableKeepsEveryRowAndRepeatsHeader() throws Exception {
+        List<AppointmentReportDTO> appointments = appointments(1000);
+
+        byte[] bytes = pdfReportService.generateAppointmentReportPdf(appointments, "01/03/2024", "31/03/2024");
+
+        PdfReader reader = new PdfReader(bytes);
+        try {
+            assertTrue(reader.getNumberOfPages() > 1);
+            String firstPage = PdfTextExtractor.getTextFromPage(reader, 1);
+            String lastPage = PdfTextExtractor.getTextFromPage(reader, reader.getNumberOfPages());
+            assertTrue(firstPage.contains("REPORTE DE CITAS"));
+            assertTrue(firstPage.contains("Paciente 1 "));
+            // La cabecera se repite en cada página y la última fila no se pierde al vaciar bloques
+            assertTrue(lastPage.contains("Propietario"));
+            assertTrue(lastPage.contains("Paciente 1000"));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "reports.benchmark", matches = "true")
+    void benchmarkHundredThousandRowAppointmentPdf() {
+        List<AppointmentReportDTO> appointments = appointments(100_000);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        long start = System.nanoTime();
+        FirstByteOutputStream output = new FirstByteOutputStream(start);
+        pdfReportService.writeAppointmentReportPdf(appointments, "01/01/2024", "31/12/2024", output);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        running.set(false);
+
+        System.out.printf("pdf export, %d rows: %d ms total, first byte after %d ms, %.1f MB written, peak heap +%.1f MB%n",
+                appointments.size(), millis, output.firstByteMillis, output.count / 1048576.0,
+                (peak.get() - baseline) / 1048576.0);
+        assertTrue(output.firstByteMillis < millis / 2, "first byte only after " + output.firstByteMillis + " ms");
+    }
+
+    private static List<AppointmentReportDTO> appointments(int count) {
+        List<AppointmentReportDTO> appointments = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            appointments.add(new AppointmentReportDTO((long) i, "Paciente " + i, "Perro", "Juan Pérez",
+                    "Dra. Ana López", LocalDateTime.of(2024, 3, 5, 10, 30), "COMPLETED", "CONSULTA", null));
+        }
+        return appointments;
+    }
+
+    private static class FirstByteOutputStream extends OutputStream {
+        private final long startNanos;
+        private long firstByteMillis = -1;
+        private long count;
+
+        private FirstByteOutputStream(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            // La cabecera %PDF sale al abrir el documento; contamos desde el primer bloque de tabla
+            if (firstByteMillis < 0 && count > 4096) {
+                firstByteMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            }
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.client.AppointmentClient;
+import com.veterinary.clinic.reportservice.client.ClientClient;
+import com.veterinary.clinic.reportservice.client.PatientClient;
+import com.veterinary.clinic.reportservice.client.PrescriptionClient;
+import com.veterinary.clinic.reportservice.client.UserClient;
+import com.veterinary.clinic.reportservice.dto.ChangeFeedDTO;
+import com.veterinary.clinic.reportservice.dto.ChangeFeedResponse;
+import com.veterinary.clinic.reportservice.entity.ReadModelCheckpoint;
+import com.veterinary.clinic.reportservice.entity.ReportAppointment;
+import com.veterinary.clinic.reportservice.entity.ReportPrescription;
+import com.veterinary.clinic.reportservice.repository.ReadModelCheckpointRepository;
+import com.veterinary.clinic.reportservice.repository.ReportAppointmentRepository;
+import com.veterinary.clinic.reportservice.repository.ReportClientRepository;
+import com.veterinary.clinic.reportservice.repository.ReportPatientRepository;
+import com.veterinary.clinic.reportservice.repository.ReportPrescriptionRepository;
+import com.veterinary.clinic.reportservice.repository.ReportUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReadModelSyncServiceTests {
+
+    // Tablas locales simuladas en memoria
+    private final Map<Long, ReportAppointment> appointments = new ConcurrentHashMap<>();
+    private final Map<Long, ReportPrescription> prescriptions = new ConcurrentHashMap<>();
+    private final Map<String, ReadModelCheckpoint> checkpoints = new ConcurrentHashMap<>();
+
+    private AppointmentClient appointmentClient;
+    private PrescriptionClient prescriptionClient;
+    private BusinessMetricsRollup businessMetricsRollup;
+    private ReadModelSyncService syncService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReportAppointmentRepository appointmentRepository = mock(ReportAppointmentRepository.class);
+        when(appointmentRepository.findAllById(anyIterable())).thenAnswer(invocation -> find(appointments, invocation.getArgument(0)));
+        when(appointmentRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            ((Iterable<ReportAppointment>) invocation.getArgument(0)).forEach(row -> appointments.put(row.getId(), row));
+            return List.of();
+        });
+
+        ReportPrescriptionRepository prescriptionRepository = mock(ReportPrescriptionRepository.class);
+        when(prescriptionRepository.findAllById(anyIterable())).thenAnswer(invocation -> find(prescriptions, invocation.getArgument(0)));
+        when(prescriptionRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            ((Iterable<ReportPrescription>) invocation.getArgument(0)).forEach(row -> prescriptions.put(row.getId(), row));
+            return List.of();
+        });
+        doAnswer(invocation -> {
+            ((Iterable<ReportPrescription>) invocation.getArgument(0)).forEach(row -> prescriptions.remove(row.getId()));
+            return null;
+        }).when(prescriptionRepository).deleteAll(anyIterable());
+
+        ReadModelCheckpointRepository checkpointRepository = mock(ReadModelCheckpointRepository.class);
+        when(checkpointRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(checkpoints.get(invocation.<String>getArgument(0))));
+        when(checkpointRepository.save(any(ReadModelCheckpoint.class))).thenAnswer(invocation -> {
+            ReadModelCheckpoint checkpoint = invocation.getArgument(0);
+            checkpoints.put(checkpoint.getFeed(), checkpoint);
+            return checkpoint;
+        });
+
+        ReadModelProjector projector = new ReadModelProjector();
+        ReflectionTestUtils.setField(projector, "reportAppointmentRepository", appointmentRepository);
+        ReflectionTestUtils.setField(projector, "reportPrescriptionRepository", prescriptionRepository);
+        ReflectionTestUtils.setField(projector, "reportPatientRepository", mock(ReportPatientRepository.class));
+        ReflectionTestUtils.setField(projector, "reportClientRepository", mock(ReportClientRepository.class));
+        ReflectionTestUtils.setField(projector, "reportUserRepository", mock(ReportUserRepository.class));
+        ReflectionTestUtils.setField(projector, "checkpointRepository", checkpointRepository);
+        businessMetricsRollup = mock(BusinessMetricsRollup.class);
+        ReflectionTestUtils.setField(projector, "businessMetricsRollup", businessMetricsRollup);
+
+        appointmentClient = mock(AppointmentClient.class);
+        prescriptionClient = mock(PrescriptionClient.class);
+        PatientClient patientClient = mock(PatientClient.class);
+        ClientClient clientClient = mock(ClientClient.class);
+        UserClient userClient = mock(UserClient.class);
+        when(appointmentClient.getAppointmentChanges(anyLong(), anyInt())).thenReturn(wrap(page(false, 0L)));
+        when(patientClient.getPatientChanges(anyLong(), anyInt())).thenReturn(wrap(page(false, 0L)));
+        when(clientClient.getClientChanges(anyLong(), anyInt())).thenReturn(wrap(page(false, 0L)));
+        when(userClient.getUserChanges(anyLong(), anyInt())).thenReturn(wrap(page(false, 0L)));
+        when(prescriptionClient.getPrescriptionChanges(anyLong(), anyInt())).thenReturn(page(false, 0L));
+
+        syncService = new ReadModelSyncService();
+        ReflectionTestUtils.setField(syncService, "projector", projector);
+        ReflectionTestUtils.setField(syncService, "businessMetricsRollup", businessMetricsRollup);
+        ReflectionTestUtils.setField(syncService, "appointmentClient", appointmentClient);
+        ReflectionTestUtils.setField(syncService, "patientClient", patientClient);
+        ReflectionTestUtils.setField(syncService, "clientClient", clientClient);
+        ReflectionTestUtils.setField(syncService, "userClient", userClient);
+        ReflectionTestUtils.setField(syncService, "prescriptionClient", prescriptionClient);
+    }
+
+    @Test
+    void testPagesAreAppliedFromCheckpointUntilCaughtUp() {
+        when(appointmentClient.getAppointmentChanges(0L, 500)).thenReturn(wrap(page(true, 11L,
+                change(10L, appointment(1L, "SCHEDULED")), change(11L, appointment(2L, "SCHEDULED")))));
+        when(appointmentClient.getAppointmentChanges(11L, 500)).thenReturn(wrap(page(false, 12L,
+                change(12L, appointment(1L, "COMPLETED")))));
+
+        assertFalse(syncService.isReady());
+        syncService.poll();
+
+        assertTrue(syncService.isReady());
+        assertEquals(2, appointments.size());
+        assertEquals("COMPLETED", appointments.get(1L).getStatus());
+        assertEquals(12L, appointments.get(1L).getSourceVersion());
+        assertEquals(LocalDate.of(2024, 3, 5).atTime(10, 30), appointments.get(1L).getAppointmentDateTime());
+        assertEquals(12L, checkpoints.get(ReadModelProjector.APPOINTMENTS).getLastVersion());
+        verify(businessMetricsRollup, atLeastOnce()).markDirty(Set.of(LocalDate.of(2024, 3, 5)));
+        verify(businessMetricsRollup).rollUpDirtyDays();
+
+        // La siguiente consulta sigue desde el checkpoint guardado
+        syncService.poll();
+        verify(appointmentClient).getAppointmentChanges(12L, 500);
+    }
+
+    @Test
+    void testMovedAppointmentMarksOldAndNewDayForRollup() {
+        AppointmentClient.AppointmentSnapshot moved = appointment(1L, "SCHEDULED");
+        moved.setAppointmentDate(LocalDate.of(2024, 3, 8));
+        when(appointmentClient.getAppointmentChanges(0L, 500)).thenReturn(wrap(page(false, 10L,
+                change(10L, appointment(1L, "SCHEDULED")))));
+        when(appointmentClient.getAppointmentChanges(10L, 500)).thenReturn(wrap(page(false, 11L,
+                change(11L, moved))));
+
+        syncService.poll();
+        syncService.poll();
+
+        verify(businessMetricsRollup).markDirty(Set.of(LocalDate.of(2024, 3, 5), LocalDate.of(2024, 3, 8)));
+    }
+
+    @Test
+    void testDeletedPrescriptionIsRemovedLocally() {
+        ChangeFeedDTO<PrescriptionClient.PrescriptionResponseDTO> created = page(false, 21L,
+                change(20L, prescription(5L)), change(21L, prescription(6L)));
+        ChangeFeedDTO<PrescriptionClient.PrescriptionResponseDTO> deleted = page(false, 30L);
+        deleted.getChanges().add(new ChangeFeedDTO.Change<>(30L, 5L, true, null));
+        when(prescriptionClient.getPrescriptionChanges(0L, 500)).thenReturn(created);
+        when(prescriptionClient.getPrescriptionChanges(21L, 500)).thenReturn(deleted);
+
+        syncService.poll();
+        syncService.poll();
+
+        assertEquals(List.of(6L), new ArrayList<>(prescriptions.keySet()));
+        assertEquals(30L, checkpoints.get(ReadModelProjector.PRESCRIPTIONS).getLastVersion());
+    }
+
+    @Test
+    void testFailingFeedKeepsCheckpointAndFallsBack() {
+        syncService.poll();
+        assertTrue(syncService.isReady());
+
+        when(appointmentClient.getAppointmentChanges(anyLong(), anyInt()))
+                .thenThrow(new IllegalStateException("appointment-service down"));
+        ReflectionTestUtils.setField(syncService, "maxStalenessMillis", 0L);
+        syncService.poll();
+
+        ReadModelCheckpoint checkpoint = checkpoints.get(ReadModelProjector.APPOINTMENTS);
+        assertEquals("appointment-service down", checkpoint.getLastError());
+        assertEquals(0L, checkpoint.getLastVersion());
+        assertFalse(syncService.isReady());
+    }
+
+    @Test
+    void testNotReadyUntilBackfilledDaysAreRolledUp() {
+        when(businessMetricsRollup.pendingDays()).thenReturn(3L);
+
+        syncService.poll();
+        assertFalse(syncService.isReady());
+
+        // Una vez recalculado todo, los días que marquen consultas posteriores no lo desactivan
+        when(businessMetricsRollup.pendingDays()).thenReturn(0L, 1L);
+        syncService.poll();
+        assertTrue(syncService.isReady());
+        syncService.poll();
+        assertTrue(syncService.isReady());
+    }
+
+    @Test
+    void testFeedStillBehindIsNotReady() {
+        ReflectionTestUtils.setField(syncService, "maxPagesPerPoll", 2);
+        when(appointmentClient.getAppointmentChanges(anyLong(), anyInt())).thenAnswer(invocation -> {
+            long since = invocation.getArgument(0);
+            return wrap(page(true, since + 1, change(since + 1, appointment(since + 1, "SCHEDULED"))));
+        });
+
+        syncService.poll();
+
+        assertEquals(2, appointments.size());
+        assertEquals(2L, checkpoints.get(ReadModelProjector.APPOINTMENTS).getLastVersion());
+        assertFalse(syncService.isReady());
+    }
+
+    private static <T> List<T> find(Map<Long, T> table, Iterable<Long> ids) {
+        List<T> found = new ArrayList<>();
+        ids.forEach(id -> {
+            if (table.containsKey(id)) {
+                found.add(table.get(id));
+            }
+        });
+        return found;
+    }
+
+    @SafeVarargs
+    private static <T> ChangeFeedDTO<T> page(boolean hasMore, Long nextVersion, ChangeFeedDTO.Change<T>... changes) {
+        ChangeFeedDTO<T> page = new ChangeFeedDTO<>();
+        page.setChanges(new ArrayList<>(List.of(changes)));
+        page.setNextVersion(nextVersion);
+        page.setHasMore(hasMore);
+        return page;
+    }
+
+    private static <T> ChangeFeedResponse<T> wrap(ChangeFeedDTO<T> page) {
+        ChangeFeedResponse<T> response = new ChangeFeedResponse<>();
+        response.setMessage("Changes retrieved successfully");
+        response.setData(page);
+        return response;
+    }
+
+    private static <T> ChangeFeedDTO.Change<T> change(Long version, T data) {
+        Long id = data instanceof AppointmentClient.AppointmentSnapshot
+                ? ((AppointmentClient.AppointmentSnapshot) data).getId()
+                : ((PrescriptionClient.PrescriptionResponseDTO) data).getId();
+        return new ChangeFeedDTO.Change<>(version, id, false, data);
+    }
+
+    private static AppointmentClient.AppointmentSnapshot appointment(Long id, String status) {
+        AppointmentClient.AppointmentSnapshot appointment = new AppointmentClient.AppointmentSnapshot();
+        appointment.setId(id);
+        appointment.setPatientId(100L + id);
+        appointment.setVeterinarianId(7L);
+        appointment.setAppointmentDate(LocalDate.of(2024, 3, 5));
+        appointment.setAppointmentTime(LocalTime.of(10, 30));
+        appointment.setStatus(status);
+        return appointment;
+    }
+
+    private static PrescriptionClient.PrescriptionResponseDTO prescription(Long id) {
+        PrescriptionClient.PrescriptionResponseDTO prescription = new PrescriptionClient.PrescriptionResponseDTO();
+        prescription.setId(id);
+        prescription.setPatientId(100L);
+        prescription.setVeterinarianId(7L);
+        prescription.setPrescriptionDate(LocalDateTime.of(2024, 3, 5, 11, 0));
+        prescription.setStatus("ACTIVE");
+        return prescription;
+    }
+}
@@ -0,0 +1,182 @@
+package com.veterinary.clinic.reportservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportArtifactCacheTests {
+
+    private static final LocalDate MARCH_START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate MARCH_END = LocalDate.of(2024, 3, 31);
+
+    @TempDir
+    Path cacheDir;
+
+    private ReportArtifactCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cache = newCache();
+    }
+
+    @Test
+    void testClosedPeriodIsGeneratedOnceAndServedFromCache() throws IOException {
+        AtomicInteger generated = new AtomicInteger();
+
+        String first = fetch("APPOINTMENT_REPORT", MARCH_START, MARCH_END, "EXCEL", generated, "march");
+        String second = fetch("appointment_report", MARCH_START, MARCH_END, "excel", generated, "other");
+
+        assertEquals("march", first);
+        assertEquals("march", second);
+        assertEquals(1, generated.get());
+        assertEquals(1L, cache.getStatistics().get("hits"));
+        assertEquals(1L, cache.getStatistics().get("misses"));
+
+        // Otro formato u otro rango es otra clave
+        fetch("APPOINTMENT_REPORT", MARCH_START, MARCH_END, "PDF", generated, "pdf");
+        fetch("APPOINTMENT_REPORT", MARCH_START, MARCH_END.minusDays(1), "EXCEL", generated, "shorter");
+        assertEquals(3, generated.get());
+    }
+
+    @Test
+    void testOpenPeriodExpires() throws Exception {
+        ReflectionTestUtils.setField(cache, "openPeriodTtlMillis", 50L);
+        AtomicInteger generated = new AtomicInteger();
+        LocalDate today = LocalDate.now();
+
+        fetch("APPOINTMENT_REPORT", today.minusDays(7), today, "PDF", generated, "v1");
+        assertEquals("v1", fetch("APPOINTMENT_REPORT", today.minusDays(7), today, "PDF", generated, "v2"));
+        Thread.sleep(100);
+        assertEquals("v3", fetch("APPOINTMENT_REPORT", today.minusDays(7), today, "PDF", generated, "v3"));
+        assertEquals(2, generated.get());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvictedWhenOverBudget() throws IOException {
+        ReflectionTestUtils.setField(cache, "maxBytes", 250L);
+        AtomicInteger generated = new AtomicInteger();
+        String hundredBytes = "x".repeat(100);
+
+        fetch("FINANCIAL_REPORT", MARCH_START, MARCH_END, "PDF", generated, hundredBytes);
+        fetch("FINANCIAL_REPORT", MARCH_START.minusMonths(1), MARCH_START.minusDays(1), "PDF", generated, hundredBytes);
+        // Marzo se vuelve a usar, febrero queda como el menos reciente
+        fetch("FINANCIAL_REPORT", MARCH_START, MARCH_END, "PDF", generated, hundredBytes);
+        fetch("FINANCIAL_REPORT", MARCH_START.plusMonths(1), MARCH_END.plusDays(30), "PDF", generated, hundredBytes);
+
+        assertEquals(1L, cache.getStatistics().get("evictions"));
+        assertEquals(200L, cache.getStatistics().get("bytes"));
+        fetch("FINANCIAL_REPORT", MARCH_START, MARCH_END, "PDF", generated, hundredBytes);
+        assertEquals(3, generated.get());
+        fetch("FINANCIAL_REPORT", MARCH_START.minusMonths(1), MARCH_START.minusDays(1), "PDF", generated, hundredBytes);
+        assertEquals(4, generated.get());
+    }
+
+    @Test
+    void testFailedGenerationIsNotCached() throws IOException {
+        assertThrows(IOException.class, () -> cache.writeTo("APPOINTMENT_REPORT", MARCH_START, MARCH_END, "PDF",
+                new ByteArrayOutputStream(), out -> {
+                    out.write("partial".getBytes(StandardCharsets.UTF_8));
+                    throw new IOException("appointment-service down");
+                }));
+
+        assertEquals(0L, cache.getStatistics().get("entries"));
+        try (var files = Files.list(cacheDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testConcurrentRequestsForSameReportGenerateOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger generated = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                results.add(executor.submit(() -> {
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    cache.writeTo("APPOINTMENT_REPORT", MARCH_START, MARCH_END, "EXCEL", output, out -> {
+                        generated.incrementAndGet();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                        out.write("march".getBytes(StandardCharsets.UTF_8));
+                    });
+                    return output.toString(StandardCharsets.UTF_8);
+                }));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("march", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, generated.get());
+        assertEquals(9L, cache.getStatistics().get("hits"));
+    }
+
+    @Test
+    void testClosedPeriodsSurviveRestart() throws IOException {
+        AtomicInteger generated = new AtomicInteger();
+        fetch("APPOINTMENT_REPORT", MARCH_START, MARCH_END, "EXCEL", generated, "march");
+        fetch("APPOINTMENT_REPORT", LocalDate.now().minusDays(1), LocalDate.now(), "EXCEL", generated, "today");
+
+        cache = newCache();
+
+        assertEquals(1L, cache.getStatistics().get("entries"));
+        assertEquals("march", fetch("APPOINTMENT_REPORT", MARCH_START, MARCH_END, "EXCEL", generated, "other"));
+        assertEquals(2, generated.get());
+    }
+
+    @Test
+    void testArtifactsFromAnotherVersionAreDroppedOnRestart() throws IOException {
+        AtomicInteger generated = new AtomicInteger();
+        fetch("FINANCIAL_REPORT", MARCH_START, MARCH_END, "PDF", generated, "current");
+        Path stale = Files.write(cacheDir.resolve("v1-" + "0".repeat(64) + ".artifact"),
+                "old".getBytes(StandardCharsets.UTF_8));
+
+        cache = newCache();
+
+        assertFalse(Files.exists(stale));
+        assertEquals(1L, cache.getStatistics().get("entries"));
+        assertTrue(ReportArtifactCache.fingerprint("FINANCIAL_REPORT", MARCH_START, MARCH_END, "PDF").startsWith("v2-"));
+    }
+
+    private ReportArtifactCache newCache() throws IOException {
+        ReportArtifactCache created = new ReportArtifactCache();
+        ReflectionTestUtils.setField(created, "cacheDir", cacheDir.toString());
+        created.load();
+        return created;
+    }
+
+    private String fetch(String reportType, LocalDate start, LocalDate end, String format,
+                         AtomicInteger generated, String content) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        cache.writeTo(reportType, start, end, format, output, out -> {
+            generated.incrementAndGet();
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        });
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
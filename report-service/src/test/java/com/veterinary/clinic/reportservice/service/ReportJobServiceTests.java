@@ -0,0 +1,210 @@
+package com.veterinary.clinic.reportservice.service;
+
+import com.veterinary.clinic.reportservice.dto.AppointmentReportDTO;
+import com.veterinary.clinic.reportservice.dto.ReportJobDTO;
+import com.veterinary.clinic.reportservice.dto.ReportJobRequest;
+import com.veterinary.clinic.reportservice.entity.ReportHistory;
+import com.veterinary.clinic.reportservice.repository.ReportHistoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReportJobServiceTests {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 31);
+
+    @TempDir
+    Path storage;
+
+    @TempDir
+    Path cacheDir;
+
+    private final Map<Long, ReportHistory> rows = new ConcurrentHashMap<>();
+    private ReportService reportService;
+    private ExecutorService executor;
+    private ReportJobService reportJobService;
+
+    private ReportHistoryRepository repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = mock(ReportHistoryRepository.class);
+        AtomicLong ids = new AtomicLong();
+        when(repository.save(any(ReportHistory.class))).thenAnswer(invocation -> {
+            ReportHistory history = invocation.getArgument(0);
+            if (history.getId() == null) {
+                history.setId(ids.incrementAndGet());
+            }
+            rows.put(history.getId(), history);
+            return history;
+        });
+        when(repository.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<Long>getArgument(0))));
+
+        reportService = mock(ReportService.class);
+        when(reportService.streamAppointmentReport(START, END)).thenReturn(List.of(
+                new AppointmentReportDTO(1L, "Firulais", "Perro", "Juan Pérez", "Dra. Ana López",
+                        LocalDateTime.of(2024, 3, 5, 10, 30), "COMPLETED", "CONSULTA", null)));
+
+        executor = Executors.newFixedThreadPool(4);
+        ReportArtifactCache cache = new ReportArtifactCache();
+        ReflectionTestUtils.setField(cache, "cacheDir", cacheDir.toString());
+        cache.load();
+
+        reportJobService = new ReportJobService();
+        ReflectionTestUtils.setField(reportJobService, "reportArtifactCache", cache);
+        ReflectionTestUtils.setField(reportJobService, "reportHistoryRepository", repository);
+        ReflectionTestUtils.setField(reportJobService, "reportService", reportService);
+        ReflectionTestUtils.setField(reportJobService, "excelGeneratorService", new ExcelGeneratorService());
+        ReflectionTestUtils.setField(reportJobService, "pdfReportService", new PdfReportService());
+        ReflectionTestUtils.setField(reportJobService, "reportJobExecutor", executor);
+        ReflectionTestUtils.setField(reportJobService, "storageDir", storage.toString());
+        ReflectionTestUtils.setField(reportJobService, "typeLimits", "PATIENT_REPORT=1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testJobWritesArtifactAndRecordsRealMetadata() throws Exception {
+        ReportJobDTO submitted = reportJobService.submitJob(
+                new ReportJobRequest("appointment_report", "excel", START, END), 1L);
+        assertEquals("PENDING", submitted.getStatus());
+
+        ReportHistory job = awaitFinished(submitted.getJobId());
+
+        assertEquals(ReportHistory.ReportStatus.COMPLETED, job.getStatus());
+        Path artifact = Path.of(job.getFilePath());
+        assertTrue(Files.exists(artifact));
+        assertEquals(Files.size(artifact), job.getFileSize());
+        assertNotNull(job.getDurationMillis());
+        assertTrue(job.getFileName().endsWith(".xlsx"));
+        // Sin temporales .part a la vista
+        try (var files = Files.list(storage)) {
+            assertEquals(List.of(artifact), files.toList());
+        }
+    }
+
+    @Test
+    void testFailedJobKeepsErrorAndNoArtifact() throws Exception {
+        when(reportService.loadFinancialReport(START, END)).thenThrow(new IllegalStateException("appointment-service down"));
+
+        ReportJobDTO submitted = reportJobService.submitJob(
+                new ReportJobRequest("FINANCIAL_REPORT", "PDF", START, END), 1L);
+        ReportHistory job = awaitFinished(submitted.getJobId());
+
+        assertEquals(ReportHistory.ReportStatus.FAILED, job.getStatus());
+        assertEquals("appointment-service down", job.getErrorMessage());
+        assertNull(job.getFilePath());
+        try (var files = Files.list(storage)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testConcurrencyIsCappedPerReportType() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(reportService.streamPatientReport()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        Long first = reportJobService.submitJob(new ReportJobRequest("PATIENT_REPORT", "EXCEL", null, null), 1L).getJobId();
+        Long second = reportJobService.submitJob(new ReportJobRequest("PATIENT_REPORT", "PDF", null, null), 1L).getJobId();
+        Long other = reportJobService.submitJob(new ReportJobRequest("APPOINTMENT_REPORT", "PDF", START, END), 1L).getJobId();
+
+        // Otro tipo de reporte no espera a los de pacientes
+        assertEquals(ReportHistory.ReportStatus.COMPLETED, awaitFinished(other).getStatus());
+        assertEquals(ReportHistory.ReportStatus.PROCESSING, rows.get(first).getStatus());
+        assertEquals(ReportHistory.ReportStatus.PENDING, rows.get(second).getStatus());
+
+        release.countDown();
+        assertEquals(ReportHistory.ReportStatus.COMPLETED, awaitFinished(first).getStatus());
+        assertEquals(ReportHistory.ReportStatus.COMPLETED, awaitFinished(second).getStatus());
+        verify(reportService, times(2)).streamPatientReport();
+    }
+
+    @Test
+    void testInvalidRequestsAreRejectedBeforeQueueing() {
+        assertThrows(RuntimeException.class, () -> reportJobService.submitJob(
+                new ReportJobRequest("FINANCIAL_REPORT", "EXCEL", START, END), 1L));
+        assertThrows(RuntimeException.class, () -> reportJobService.submitJob(
+                new ReportJobRequest("APPOINTMENT_REPORT", "PDF", END, START), 1L));
+        assertThrows(RuntimeException.class, () -> reportJobService.submitJob(
+                new ReportJobRequest("UNKNOWN", "PDF", START, END), 1L));
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    void testExpiredArtifactsAreDeleted() throws Exception {
+        ReportHistory job = awaitFinished(reportJobService.submitJob(
+                new ReportJobRequest("APPOINTMENT_REPORT", "PDF", START, END), 1L).getJobId());
+        Path artifact = Path.of(job.getFilePath());
+        when(repository.findByStatusAndFilePathIsNotNullAndGeneratedAtBefore(
+                eq(ReportHistory.ReportStatus.COMPLETED), any(LocalDateTime.class))).thenReturn(List.of(job));
+
+        // Corte en la fecha actual menos la retención, 24 h por defecto
+        reportJobService.expireArtifacts();
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).findByStatusAndFilePathIsNotNullAndGeneratedAtBefore(any(), before.capture());
+        assertTrue(before.getValue().isBefore(LocalDateTime.now().minusHours(23)));
+
+        assertEquals(ReportHistory.ReportStatus.EXPIRED, job.getStatus());
+        assertNull(job.getFilePath());
+        assertFalse(Files.exists(artifact));
+    }
+
+    @Test
+    void testInterruptedJobsLoseTheirPartialFile() throws Exception {
+        ReportHistory job = new ReportHistory("PATIENT_REPORT", 1L, "PDF");
+        job.setId(99L);
+        job.setFileName("patient_report.pdf");
+        job.setStatus(ReportHistory.ReportStatus.PROCESSING);
+        Path partial = Files.createFile(storage.resolve("99_patient_report.pdf.part"));
+        when(repository.findByStatusIn(any())).thenReturn(List.of(job));
+
+        reportJobService.failInterruptedJobs();
+
+        assertEquals(ReportHistory.ReportStatus.FAILED, job.getStatus());
+        assertFalse(Files.exists(partial));
+    }
+
+    private ReportHistory awaitFinished(Long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ReportHistory job = rows.get(jobId);
+            if (job.getStatus() == ReportHistory.ReportStatus.COMPLETED
+                    || job.getStatus() == ReportHistory.ReportStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        fail("Report job " + jobId + " did not finish");
+        return null;
+    }
+}
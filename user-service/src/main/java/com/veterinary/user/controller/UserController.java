@@ -2,6 +2,7 @@ package com.veterinary.user.controller;
 
 import com.veterinary.user.dto.*;
 import com.veterinary.user.entity.UserProfile;
+import com.veterinary.user.service.UserChangeFeed;
 import com.veterinary.user.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,6 +23,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserChangeFeed userChangeFeed;
+
     @PostMapping
     @Operation(summary = "Create a new user")
     @PreAuthorize("hasRole('ADMIN')")
@@ -30,6 +34,18 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/changes")
+    @Operation(summary = "Users created or modified after a change version")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('REPORT_SYNC')")
+    public ResponseEntity<UserResponse> getChanges(
+            @Parameter(description = "Last change version already processed")
+            @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes")
+            @RequestParam(defaultValue = "500") int limit) {
+        UserResponse response = userChangeFeed.getChanges(since, limit);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get user by ID")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -98,6 +114,24 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Get users with cursor (keyset) pagination")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO')")
+    public ResponseEntity<UserResponse> getUsersByCursor(
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Sort field")
+            @RequestParam(defaultValue = "firstName") String sortBy,
+            @Parameter(description = "Sort direction")
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Skip the total element count")
+            @RequestParam(defaultValue = "false") boolean skipCount) {
+        UserResponse response = userService.getUsersByCursor(cursor, size, sortBy, sortDir, skipCount);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/role/{role}")
     @Operation(summary = "Get users by role")
     @PreAuthorize("hasRole('ADMIN') or hasRole('VETERINARIO') or hasRole('RECEPCIONISTA')")
@@ -1,5 +1,6 @@
 package com.veterinary.user.entity;
 
+import com.veterinary.clinic.common.changes.ChangeVersion;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -60,6 +61,10 @@ public class UserProfile {
     @Column(name = "last_login")
     private LocalDateTime lastLogin;
 
+    // Versión para el feed de cambios que consume report-service
+    @Column(name = "row_version")
+    private Long rowVersion;
+
     public enum Role {
         ADMIN, VETERINARIO, RECEPCIONISTA
     }
@@ -68,11 +73,13 @@ public class UserProfile {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        rowVersion = ChangeVersion.next();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        rowVersion = ChangeVersion.next();
     }
 
     // Constructors
@@ -191,6 +198,14 @@ public class UserProfile {
         this.lastLogin = lastLogin;
     }
 
+    public Long getRowVersion() {
+        return rowVersion;
+    }
+
+    public void setRowVersion(Long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
+
     public String getFullName() {
         return firstName + " " + lastName;
     }
@@ -1,7 +1,8 @@
 package com.veterinary.user.repository;
 
+import com.veterinary.clinic.common.changes.VersionedRepository;
 import com.veterinary.user.entity.UserProfile;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,7 +11,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserProfileRepository extends JpaRepository<UserProfile, Long> {
+public interface UserProfileRepository extends VersionedRepository<UserProfile, Long>, JpaSpecificationExecutor<UserProfile> {
 
     Optional<UserProfile> findByUsername(String username);
 
@@ -38,4 +39,4 @@ public interface UserProfileRepository extends JpaRepository<UserProfile, Long>
 
     @Query("SELECT COUNT(u) FROM UserProfile u WHERE u.role = :role AND u.isActive = true")
     Long countActiveUsersByRole(@Param("role") UserProfile.Role role);
-}
\ No newline at end of file
+}
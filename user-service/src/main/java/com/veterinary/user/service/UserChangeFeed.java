@@ -0,0 +1,66 @@
+package com.veterinary.user.service;
+
+import com.veterinary.clinic.common.changes.ChangeFeed;
+import com.veterinary.clinic.common.changes.ChangeVersion;
+import com.veterinary.user.dto.UserDTO;
+import com.veterinary.user.dto.UserResponse;
+import com.veterinary.user.entity.UserProfile;
+import com.veterinary.user.exception.UserException;
+import com.veterinary.user.repository.UserProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feed de cambios de usuarios por versión de fila. report-service lo consulta
+ * periódicamente con la última versión que procesó y recibe los usuarios
+ * creados o modificados después, en orden de versión.
+ */
+@Service
+public class UserChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeFeed.class);
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    // Margen para no servir versiones de transacciones que aún no han hecho commit
+    @Value("${changes.lag-ms:5000}")
+    private long lagMillis = 5000;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillRowVersions() {
+        int updated = userProfileRepository.backfillRowVersions();
+        if (updated > 0) {
+            logger.info("Assigned change versions to {} existing users", updated);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public UserResponse getChanges(long since, int limit) {
+        ChangeFeed.checkRequest(since, limit, UserException::new);
+        List<UserProfile> rows = userProfileRepository.findChanges(since,
+                ChangeVersion.safeUpperBound(lagMillis), PageRequest.of(0, limit + 1));
+        return new UserResponse("Changes retrieved successfully", ChangeFeed.page(toChanges(rows), since, limit,
+                version -> toChanges(userProfileRepository.findAtVersion(version))));
+    }
+
+    private static List<Map<String, Object>> toChanges(List<UserProfile> rows) {
+        List<Map<String, Object>> changes = new ArrayList<>(rows.size());
+        for (UserProfile row : rows) {
+            changes.add(ChangeFeed.change(row.getRowVersion(), row.getId(), false, new UserDTO(row)));
+        }
+        return changes;
+    }
+}
@@ -5,12 +5,16 @@ import com.veterinary.user.dto.*;
 import com.veterinary.user.entity.UserProfile;
 import com.veterinary.user.exception.UserException;
 import com.veterinary.user.repository.UserProfileRepository;
+import com.veterinary.clinic.common.paging.KeysetCursor;
 import feign.FeignException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,12 +22,16 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class UserService {
 
+    private static final KeysetCursor USER_CURSOR = new KeysetCursor(UserProfile.class, Set.of(
+            "id", "username", "email", "firstName", "lastName", "role", "createdAt", "updatedAt"));
+
     @Autowired
     private UserProfileRepository userProfileRepository;
 
@@ -191,6 +199,41 @@ public class UserService {
         return new UserResponse("Users retrieved successfully", response);
     }
 
+    // Paginación por cursor: cada página cuesta lo mismo, sin OFFSET ni COUNT(*)
+    @Transactional(readOnly = true)
+    public UserResponse getUsersByCursor(String cursor, int size, String sortBy, String sortDir, boolean skipCount) {
+        if (size < 1 || size > 100) {
+            throw new UserException("Page size must be between 1 and 100");
+        }
+        Sort sort;
+        KeysetScrollPosition position;
+        try {
+            sort = USER_CURSOR.sort(sortBy, sortDir);
+            position = USER_CURSOR.decode(cursor, sortBy, sortDir);
+        } catch (IllegalArgumentException e) {
+            throw new UserException(e.getMessage());
+        }
+
+        Window<UserProfile> window = userProfileRepository.findBy(Specification.where(null),
+                query -> query.sortBy(sort).limit(size).scroll(position));
+
+        List<UserDTO> users = window.getContent().stream()
+                .map(UserDTO::new)
+                .collect(Collectors.toList());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("users", users);
+        response.put("pageSize", size);
+        response.put("hasNext", window.hasNext());
+        response.put("nextCursor", window.hasNext()
+                ? USER_CURSOR.encode(window.positionAt(window.size() - 1), sortBy, sortDir) : null);
+        if (!skipCount) {
+            response.put("totalElements", userProfileRepository.count());
+        }
+
+        return new UserResponse("Users retrieved successfully", response);
+    }
+
     public UserResponse getUsersByRole(UserProfile.Role role) {
         List<UserProfile> users = userProfileRepository.findByRoleAndIsActive(role, true);
 